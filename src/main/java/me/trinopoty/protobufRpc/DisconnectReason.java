@@ -3,5 +3,6 @@ package me.trinopoty.protobufRpc;
 public enum DisconnectReason {
     CLIENT_CLOSE,
     SERVER_CLOSE,
-    NETWORK_ERROR
+    NETWORK_ERROR,
+    SLOW_CONSUMER
 }
\ No newline at end of file
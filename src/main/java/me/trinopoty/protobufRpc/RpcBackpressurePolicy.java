@@ -0,0 +1,35 @@
+package me.trinopoty.protobufRpc;
+
+/**
+ * What happens to a message written by the application while the outbound buffer of the connection is above the
+ * high water mark. Streams are never discarded; under any policy their elements are held back until the connection is
+ * writable again.
+ */
+public enum RpcBackpressurePolicy {
+
+    /**
+     * Wait until the connection is writable again. Writes from the event loop of the connection never wait.
+     * Responses of the server never wait either; the server stops reading requests from the connection until it is
+     * writable again instead.
+     */
+    BLOCK,
+
+    /**
+     * Fail the write immediately with {@link me.trinopoty.protobufRpc.exception.RpcChannelUnavailableException}.
+     * Responses of the server are discarded, as by {@link #DROP}.
+     */
+    FAIL,
+
+    /**
+     * Discard the message. Calls expecting a response fail immediately with
+     * {@link me.trinopoty.protobufRpc.exception.RpcChannelUnavailableException}; one-way calls and OOB messages are
+     * discarded silently. Responses of the server are discarded and the client times out waiting for them.
+     */
+    DROP,
+
+    /**
+     * Write the message, and stop reading requests from the connection until it is writable again. Only supported by
+     * the server.
+     */
+    SUSPEND_READ
+}
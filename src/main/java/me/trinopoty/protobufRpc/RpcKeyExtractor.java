@@ -0,0 +1,18 @@
+package me.trinopoty.protobufRpc;
+
+import com.google.protobuf.AbstractMessage;
+
+/**
+ * Extracts a key from a protobuf message.
+ * Keys are compared using {@link Object#equals(Object)}.
+ */
+public interface RpcKeyExtractor {
+
+    /**
+     * Extract the key of a message.
+     *
+     * @param message The message to extract the key from.
+     * @return The key of the message, or null if the message does not have a key.
+     */
+    Object extractKey(AbstractMessage message);
+}
@@ -0,0 +1,32 @@
+package me.trinopoty.protobufRpc;
+
+/**
+ * Receives the messages of a stream.
+ *
+ * Client streaming and bidirectional streaming methods take the observer of the response messages and return the
+ * observer of the request messages. On the client the application calls the returned observer to send requests, on
+ * the server the implementation returns the observer receiving them and sends responses through the one passed in.
+ *
+ * @param <T> The type of the messages.
+ */
+public interface RpcStreamObserver<T> {
+
+    /**
+     * Receive the next message of the stream.
+     *
+     * @param message The message.
+     */
+    void onNext(T message);
+
+    /**
+     * Terminate the stream with an error. No further messages are received.
+     *
+     * @param cause The reason for the failure.
+     */
+    void onError(Throwable cause);
+
+    /**
+     * Terminate the stream successfully. No further messages are received.
+     */
+    void onCompleted();
+}
@@ -0,0 +1,38 @@
+package me.trinopoty.protobufRpc;
+
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+
+/**
+ * The built-in control service for subscribing to topics published by the server.
+ *
+ * The service is registered with every client and server, and uses the reserved service identifier
+ * {@link #SERVICE_IDENTIFIER}. While subscribed, the OOB messages published to a topic are delivered to the OOB handlers
+ * of the client channel. Subscriptions end when the channel is closed.
+ */
+@RpcIdentifier(RpcTopicService.SERVICE_IDENTIFIER)
+public interface RpcTopicService {
+
+    /**
+     * The service identifier reserved for this service.
+     */
+    int SERVICE_IDENTIFIER = -1;
+
+    /**
+     * Subscribes the calling channel to a topic.
+     *
+     * @param subscription The topic to subscribe to.
+     * @return The subscription.
+     */
+    @RpcIdentifier(1)
+    WirePacketFormat.TopicSubscription subscribe(WirePacketFormat.TopicSubscription subscription);
+
+    /**
+     * Unsubscribes the calling channel from a topic.
+     *
+     * @param subscription The topic to unsubscribe from.
+     * @return The subscription.
+     */
+    @RpcIdentifier(2)
+    WirePacketFormat.TopicSubscription unsubscribe(WirePacketFormat.TopicSubscription subscription);
+}
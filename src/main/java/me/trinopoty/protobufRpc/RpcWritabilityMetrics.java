@@ -0,0 +1,56 @@
+package me.trinopoty.protobufRpc;
+
+/**
+ * Writability statistics of a connection.
+ */
+public interface RpcWritabilityMetrics {
+
+    /**
+     * Gets a value indicating whether the outbound buffer of the connection is below the high water mark.
+     *
+     * @return true if the connection is writable.
+     */
+    boolean isWritable();
+
+    /**
+     * Gets the number of bytes which can be written before the connection becomes unwritable.
+     *
+     * @return The number of bytes, or 0 if the connection is unwritable.
+     */
+    long getBytesBeforeUnwritable();
+
+    /**
+     * Gets the number of bytes which have to be flushed before the connection becomes writable.
+     *
+     * @return The number of bytes, or 0 if the connection is writable.
+     */
+    long getBytesBeforeWritable();
+
+    /**
+     * Gets the number of times the connection became unwritable.
+     *
+     * @return The number of transitions to unwritable.
+     */
+    long getUnwritableCount();
+
+    /**
+     * Gets the total time the connection has been unwritable, including the current period.
+     *
+     * @return The time in milliseconds.
+     */
+    long getUnwritableTimeMillis();
+
+    /**
+     * Gets the number of writes which waited for the connection to become writable.
+     *
+     * @return The number of blocked writes.
+     */
+    long getBlockedWriteCount();
+
+    /**
+     * Gets the number of writes which were failed or discarded because the connection was unwritable.
+     *
+     * @return The number of rejected writes.
+     */
+    long getRejectedWriteCount();
+}
@@ -0,0 +1,20 @@
+package me.trinopoty.protobufRpc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method whose response only depends on its request, so that the client may reuse it for identical requests.
+ * Responses are cached by the client until the given time has passed.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface RpcCacheable {
+
+    /**
+     * The time in milliseconds a response stays valid.
+     */
+    long ttlMillis();
+}
@@ -0,0 +1,16 @@
+package me.trinopoty.protobufRpc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method whose concurrent identical requests may share a single execution.
+ * On the client, identical calls made through the same channel while one is in flight share its request.
+ * On the server, requests arriving while an identical request is executing receive its response instead of executing again.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface RpcCoalesce {
+}
@@ -0,0 +1,15 @@
+package me.trinopoty.protobufRpc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method as safe to execute more than once for the same request.
+ * Only idempotent methods are hedged by the client.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface RpcIdempotent {
+}
@@ -0,0 +1,16 @@
+package me.trinopoty.protobufRpc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method returning void as a one-way call.
+ * The client sends the request as a notification and returns as soon as it is written, without waiting for the server.
+ * The server executes the call and sends no response, so failures on the server are not reported to the client.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface RpcOneWay {
+}
@@ -0,0 +1,24 @@
+package me.trinopoty.protobufRpc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the priority of the calls of a method. Servers executing calls on a request executor run queued calls of higher
+ * priority first. Calls of methods without this annotation have {@link #NORMAL} priority.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface RpcPriority {
+
+    int LOW = -1;
+    int NORMAL = 0;
+    int HIGH = 1;
+
+    /**
+     * The priority of the calls, larger values being more urgent. Servers clamp it to the range from {@link #LOW} to {@link #HIGH}.
+     */
+    int value();
+}
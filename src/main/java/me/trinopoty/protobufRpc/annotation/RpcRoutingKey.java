@@ -0,0 +1,17 @@
+package me.trinopoty.protobufRpc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Names the field of the request message used as the routing key of a method.
+ * Calls with the same key are sent to the same endpoint by key aware load balancing policies.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface RpcRoutingKey {
+
+    String value();
+}
@@ -0,0 +1,176 @@
+package me.trinopoty.protobufRpc.client;
+
+import com.google.protobuf.AbstractMessage;
+import com.google.protobuf.ByteString;
+import me.trinopoty.protobufRpc.RpcKeyExtractor;
+import me.trinopoty.protobufRpc.util.MurmurHash3;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes calls carrying the same key to the same endpoint using a consistent hash ring with virtual nodes,
+ * so per-key caches on the servers stay warm and only a small share of keys moves when endpoints come and go.
+ *
+ * The key of a call is extracted by the {@link RpcKeyExtractor} registered for the method, or else by the
+ * {@link me.trinopoty.protobufRpc.annotation.RpcRoutingKey} annotation of the method. Calls without a key
+ * are passed to the fallback policy.
+ *
+ * Loads are bounded: an endpoint is skipped if its outstanding request count exceeds the average by more
+ * than the load factor, and the key moves on to the next endpoint on the ring.
+ *
+ * The ring is only rebuilt when an endpoint is added. Endpoints missing from the list passed to a selection, such as
+ * ejected endpoints or those a retry excludes, are skipped while walking the ring, which selects the same endpoint as
+ * a ring built from that list alone.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class ConsistentHashLoadBalancingPolicy implements RpcLoadBalancingPolicy {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int DEFAULT_VIRTUAL_NODE_COUNT = 100;
+    private static final double DEFAULT_LOAD_FACTOR = 1.25;
+
+    private static final class HashRing {
+
+        private final Set<RpcEndpoint> mEndpoints;
+        private final NavigableMap<Long, RpcEndpoint> mRing = new TreeMap<>();
+
+        HashRing(List<RpcEndpoint> endpoints, int virtualNodeCount) {
+            mEndpoints = new HashSet<>(endpoints);
+            for(RpcEndpoint endpoint : endpoints) {
+                String endpointName = endpoint.getRemoteAddress().toString();
+                for(int i = 0; i < virtualNodeCount; i++) {
+                    mRing.put(MurmurHash3.hash64((endpointName + "#" + i).getBytes(UTF_8)), endpoint);
+                }
+            }
+        }
+    }
+
+    private final int mVirtualNodeCount;
+    private final double mLoadFactor;
+    private final RpcLoadBalancingPolicy mFallbackPolicy;
+
+    private final Map<Method, RpcKeyExtractor> mKeyExtractorMap = new ConcurrentHashMap<>();
+
+    private volatile HashRing mHashRing = null;
+
+    public ConsistentHashLoadBalancingPolicy() {
+        this(DEFAULT_VIRTUAL_NODE_COUNT, DEFAULT_LOAD_FACTOR, new RoundRobinLoadBalancingPolicy());
+    }
+
+    /**
+     * @param virtualNodeCount The number of points each endpoint occupies on the ring.
+     * @param loadFactor The maximum allowed ratio of an endpoint's outstanding requests to the average. Must be greater than 1.
+     * @param fallbackPolicy The policy used for calls without a routing key.
+     */
+    public ConsistentHashLoadBalancingPolicy(int virtualNodeCount, double loadFactor, RpcLoadBalancingPolicy fallbackPolicy) {
+        if(virtualNodeCount <= 0) {
+            throw new IllegalArgumentException("Virtual node count must be positive.");
+        }
+        if(loadFactor <= 1) {
+            throw new IllegalArgumentException("Load factor must be greater than 1.");
+        }
+
+        mVirtualNodeCount = virtualNodeCount;
+        mLoadFactor = loadFactor;
+        mFallbackPolicy = fallbackPolicy;
+    }
+
+    /**
+     * Register the key extractor of a method. Takes precedence over the {@link me.trinopoty.protobufRpc.annotation.RpcRoutingKey} annotation.
+     *
+     * @param method The method of the service interface.
+     * @param keyExtractor The extractor used to get the routing key from the request message.
+     * @return {@link ConsistentHashLoadBalancingPolicy} instance for chaining.
+     */
+    public ConsistentHashLoadBalancingPolicy registerKeyExtractor(Method method, RpcKeyExtractor keyExtractor) {
+        mKeyExtractorMap.put(method, keyExtractor);
+        return this;
+    }
+
+    @Override
+    public RpcEndpoint select(List<RpcEndpoint> endpoints, RpcServiceCollector.RpcMethodInfo methodInfo, AbstractMessage requestMessage) {
+        Object routingKey = null;
+        if(requestMessage != null) {
+            RpcKeyExtractor keyExtractor = mKeyExtractorMap.get(methodInfo.getMethod());
+            if(keyExtractor == null) {
+                keyExtractor = methodInfo.getRoutingKeyExtractor();
+            }
+            if(keyExtractor != null) {
+                routingKey = keyExtractor.extractKey(requestMessage);
+            }
+        }
+
+        if(routingKey == null) {
+            return mFallbackPolicy.select(endpoints, methodInfo, requestMessage);
+        }
+
+        HashRing hashRing = mHashRing;
+        if((hashRing == null) || !hashRing.mEndpoints.containsAll(endpoints)) {
+            hashRing = new HashRing(endpoints, mVirtualNodeCount);
+            mHashRing = hashRing;
+        }
+
+        // Endpoints of the ring which are not selectable are skipped
+        Collection<RpcEndpoint> selectableEndpoints = (hashRing.mEndpoints.size() == endpoints.size())? null : new HashSet<>(endpoints);
+        return selectBounded(hashRing, getKeyHash(routingKey), endpoints, selectableEndpoints);
+    }
+
+    private RpcEndpoint selectBounded(HashRing hashRing, long keyHash, List<RpcEndpoint> endpoints, Collection<RpcEndpoint> selectableEndpoints) {
+        long totalOutstanding = 0;
+        for(RpcEndpoint endpoint : endpoints) {
+            totalOutstanding += endpoint.getOutstandingRequestCount();
+        }
+        final long capacity = (long) Math.ceil((mLoadFactor * (totalOutstanding + 1)) / endpoints.size());
+
+        RpcEndpoint firstChoice = null;
+        for(Map.Entry<Long, RpcEndpoint> ringEntry : hashRing.mRing.tailMap(keyHash, true).entrySet()) {
+            RpcEndpoint endpoint = ringEntry.getValue();
+            if((selectableEndpoints != null) && !selectableEndpoints.contains(endpoint)) {
+                continue;
+            }
+            if(firstChoice == null) {
+                firstChoice = endpoint;
+            }
+            if(endpoint.getOutstandingRequestCount() < capacity) {
+                return endpoint;
+            }
+        }
+        for(Map.Entry<Long, RpcEndpoint> ringEntry : hashRing.mRing.headMap(keyHash, false).entrySet()) {
+            RpcEndpoint endpoint = ringEntry.getValue();
+            if((selectableEndpoints != null) && !selectableEndpoints.contains(endpoint)) {
+                continue;
+            }
+            if(firstChoice == null) {
+                firstChoice = endpoint;
+            }
+            if(endpoint.getOutstandingRequestCount() < capacity) {
+                return endpoint;
+            }
+        }
+
+        return firstChoice;
+    }
+
+    private static long getKeyHash(Object routingKey) {
+        byte[] keyBytes;
+        if(routingKey instanceof ByteString) {
+            keyBytes = ((ByteString) routingKey).toByteArray();
+        } else if(routingKey instanceof byte[]) {
+            keyBytes = (byte[]) routingKey;
+        } else {
+            keyBytes = routingKey.toString().getBytes(UTF_8);
+        }
+        return MurmurHash3.hash64(keyBytes);
+    }
+}
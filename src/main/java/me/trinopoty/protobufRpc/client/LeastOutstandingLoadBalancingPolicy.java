@@ -0,0 +1,33 @@
+package me.trinopoty.protobufRpc.client;
+
+import com.google.protobuf.AbstractMessage;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sends calls to the endpoint with the least number of outstanding requests.
+ * Ties are broken by scanning from a random offset so load is not skewed towards the first endpoint.
+ */
+public final class LeastOutstandingLoadBalancingPolicy implements RpcLoadBalancingPolicy {
+
+    @Override
+    public RpcEndpoint select(List<RpcEndpoint> endpoints, RpcServiceCollector.RpcMethodInfo methodInfo, AbstractMessage requestMessage) {
+        final int endpointCount = endpoints.size();
+        final int offset = ThreadLocalRandom.current().nextInt(endpointCount);
+
+        RpcEndpoint result = null;
+        int resultOutstanding = Integer.MAX_VALUE;
+        for(int i = 0; i < endpointCount; i++) {
+            RpcEndpoint endpoint = endpoints.get((offset + i) % endpointCount);
+            int outstanding = endpoint.getOutstandingRequestCount();
+            if(outstanding < resultOutstanding) {
+                result = endpoint;
+                resultOutstanding = outstanding;
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,39 @@
+package me.trinopoty.protobufRpc.client;
+
+import com.google.protobuf.AbstractMessage;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks two endpoints at random and sends the call to the one with the lower cost.
+ * The cost of an endpoint is its average observed latency multiplied by its outstanding request count,
+ * so a slow endpoint and a busy endpoint are both avoided.
+ */
+public final class PowerOfTwoChoicesLoadBalancingPolicy implements RpcLoadBalancingPolicy {
+
+    @Override
+    public RpcEndpoint select(List<RpcEndpoint> endpoints, RpcServiceCollector.RpcMethodInfo methodInfo, AbstractMessage requestMessage) {
+        final int endpointCount = endpoints.size();
+        if(endpointCount == 1) {
+            return endpoints.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int firstIndex = random.nextInt(endpointCount);
+        int secondIndex = random.nextInt(endpointCount - 1);
+        if(secondIndex >= firstIndex) {
+            secondIndex += 1;
+        }
+
+        RpcEndpoint first = endpoints.get(firstIndex);
+        RpcEndpoint second = endpoints.get(secondIndex);
+        return (getCost(first) <= getCost(second))? first : second;
+    }
+
+    private static double getCost(RpcEndpoint endpoint) {
+        // Endpoints without latency samples are treated as fast so they get traffic and build up samples.
+        return (endpoint.getLatencyEwmaNanos() + 1) * (endpoint.getOutstandingRequestCount() + 1);
+    }
+}
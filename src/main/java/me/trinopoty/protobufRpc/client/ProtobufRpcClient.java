@@ -1,18 +1,41 @@
 package me.trinopoty.protobufRpc.client;
 
+import com.google.protobuf.AbstractMessage;
+import com.google.protobuf.ByteString;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.ssl.SslContext;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import me.trinopoty.protobufRpc.RpcBackpressurePolicy;
+import me.trinopoty.protobufRpc.RpcTopicService;
+import me.trinopoty.protobufRpc.codec.RpcMessageSizeEstimator;
 import me.trinopoty.protobufRpc.exception.DuplicateRpcMethodIdentifierException;
 import me.trinopoty.protobufRpc.exception.DuplicateRpcServiceIdentifierException;
 import me.trinopoty.protobufRpc.exception.IllegalMethodSignatureException;
 import me.trinopoty.protobufRpc.exception.MissingRpcIdentifierException;
+import me.trinopoty.protobufRpc.exception.RpcCircuitOpenException;
+import me.trinopoty.protobufRpc.util.RpcConcurrencyLimitConfig;
+import me.trinopoty.protobufRpc.util.RpcConcurrencyLimiter;
+import me.trinopoty.protobufRpc.util.RpcInboundMemoryBudget;
+import me.trinopoty.protobufRpc.util.RpcResponseCache;
 import me.trinopoty.protobufRpc.util.RpcServiceCollector;
 
+import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -36,6 +59,17 @@ public final class ProtobufRpcClient {
         private Long mDefaultReceiveTimeoutMillis = null;
         private SslContext mSslContext = null;
         private boolean mKeepAlive = false;
+        private RpcRetryPolicy mDefaultRetryPolicy = null;
+        private final Map<Method, RpcRetryPolicy> mRetryPolicyMap = new HashMap<>();
+        private double mRetryBudgetRatio = 0.1;
+        private int mRetryBudgetBurst = 10;
+        private RpcCircuitBreakerConfig mCircuitBreakerConfig = null;
+        private long mResponseCacheMaxBytes = 32 * 1024 * 1024;
+        private int mStreamWindowSize = 64;
+        private WriteBufferWaterMark mWriteBufferWaterMark = null;
+        private RpcBackpressurePolicy mBackpressurePolicy = null;
+        private long mInboundMemoryBudgetBytes = 0;
+        private RpcConcurrencyLimitConfig mConcurrencyLimitConfig = null;
 
         private String mLoggingName = null;
         private boolean mEnableRpcLogging = false;
@@ -44,6 +78,11 @@ public final class ProtobufRpcClient {
         private final RpcServiceCollector mRpcServiceCollector = new RpcServiceCollector();
 
         public Builder() {
+            try {
+                mRpcServiceCollector.parseServiceInterface(RpcTopicService.class, false);
+            } catch (DuplicateRpcServiceIdentifierException | MissingRpcIdentifierException | DuplicateRpcMethodIdentifierException | IllegalMethodSignatureException ex) {
+                throw new IllegalStateException("Unable to register topic service.", ex);
+            }
         }
 
         /**
@@ -79,6 +118,149 @@ public final class ProtobufRpcClient {
             return this;
         }
 
+        /**
+         * Sets the retry policy of all methods without a method specific retry policy.
+         * Calls are not retried by default.
+         *
+         * @param defaultRetryPolicy The retry policy, or null to disable retries.
+         * @return {@link ProtobufRpcClient.Builder} instance for chaining.
+         */
+        public Builder setDefaultRetryPolicy(RpcRetryPolicy defaultRetryPolicy) {
+            mDefaultRetryPolicy = defaultRetryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the retry policy of a single method of a service interface.
+         *
+         * @param method The method of the service interface.
+         * @param retryPolicy The retry policy, or null to disable retries of the method.
+         * @return {@link ProtobufRpcClient.Builder} instance for chaining.
+         */
+        public Builder setRetryPolicy(Method method, RpcRetryPolicy retryPolicy) {
+            mRetryPolicyMap.put(method, retryPolicy);
+            return this;
+        }
+
+        /**
+         * Sets the retry budget shared by all channels of the client. Every call adds the given ratio of a token to the
+         * budget and every retry takes a whole token, so retries cannot exceed that share of the calls when servers degrade.
+         *
+         * @param retryBudgetRatio The ratio of retries to calls. Defaults to 0.1.
+         * @param retryBudgetBurst The maximum number of saved up retries. Defaults to 10.
+         * @return {@link ProtobufRpcClient.Builder} instance for chaining.
+         */
+        public Builder setRetryBudget(double retryBudgetRatio, int retryBudgetBurst) {
+            if((retryBudgetRatio < 0) || (retryBudgetBurst < 1)) {
+                throw new IllegalArgumentException("Invalid retry budget.");
+            }
+            mRetryBudgetRatio = retryBudgetRatio;
+            mRetryBudgetBurst = retryBudgetBurst;
+            return this;
+        }
+
+        /**
+         * Enables a circuit breaker for every remote address. Calls and connection attempts to an address whose
+         * circuit is open fail immediately with {@link me.trinopoty.protobufRpc.exception.RpcCircuitOpenException}.
+         * Circuit breakers are disabled by default.
+         *
+         * @param circuitBreakerConfig The circuit breaker configuration, or null to disable circuit breakers.
+         * @return {@link ProtobufRpcClient.Builder} instance for chaining.
+         */
+        public Builder setCircuitBreakerConfig(RpcCircuitBreakerConfig circuitBreakerConfig) {
+            mCircuitBreakerConfig = circuitBreakerConfig;
+            return this;
+        }
+
+        /**
+         * Enables an adaptive limit of the calls in flight to every remote address, which follows the latency of the
+         * calls. Calls over the limit fail immediately with {@link me.trinopoty.protobufRpc.exception.RpcConcurrencyLimitException}.
+         * Adaptive limits are disabled by default.
+         *
+         * @param concurrencyLimitConfig The adaptive limit configuration, or null to disable adaptive limits.
+         * @return {@link ProtobufRpcClient.Builder} instance for chaining.
+         */
+        public Builder setConcurrencyLimitConfig(RpcConcurrencyLimitConfig concurrencyLimitConfig) {
+            mConcurrencyLimitConfig = concurrencyLimitConfig;
+            return this;
+        }
+
+        /**
+         * Sets the size limit of the cache of responses of methods annotated with {@link me.trinopoty.protobufRpc.annotation.RpcCacheable}.
+         *
+         * @param responseCacheMaxBytes The maximum size of the cache in bytes, or 0 to disable caching. Defaults to 32 MiB.
+         * @return {@link ProtobufRpcClient.Builder} instance for chaining.
+         */
+        public Builder setResponseCacheMaxBytes(long responseCacheMaxBytes) {
+            if(responseCacheMaxBytes < 0) {
+                throw new IllegalArgumentException("Invalid response cache size.");
+            }
+            mResponseCacheMaxBytes = responseCacheMaxBytes;
+            return this;
+        }
+
+        /**
+         * Sets the number of elements of a server stream which may be in flight or buffered on the client before
+         * the application has consumed them. The server stops producing elements once the window is used up.
+         *
+         * @param streamWindowSize The stream window size in elements. Defaults to 64.
+         * @return {@link ProtobufRpcClient.Builder} instance for chaining.
+         */
+        public Builder setStreamWindowSize(int streamWindowSize) {
+            if(streamWindowSize < 1) {
+                throw new IllegalArgumentException("Invalid stream window size.");
+            }
+            mStreamWindowSize = streamWindowSize;
+            return this;
+        }
+
+        /**
+         * Sets the write buffer water marks of connections. A connection becomes unwritable when its outbound buffer
+         * exceeds the high water mark, and writable again when it drops below the low water mark.
+         *
+         * @param lowWaterMark The low water mark in bytes. Defaults to 32 KiB.
+         * @param highWaterMark The high water mark in bytes. Defaults to 64 KiB.
+         * @return {@link ProtobufRpcClient.Builder} instance for chaining.
+         */
+        public Builder setWriteBufferWaterMark(int lowWaterMark, int highWaterMark) {
+            mWriteBufferWaterMark = new WriteBufferWaterMark(lowWaterMark, highWaterMark);
+            return this;
+        }
+
+        /**
+         * Sets what happens to requests sent on an unwritable connection. Blocked callers wait at most the default
+         * receive timeout.
+         *
+         * @param backpressurePolicy The backpressure policy, or null to never hold back writes. Defaults to null.
+         * @return {@link ProtobufRpcClient.Builder} instance for chaining.
+         * @throws IllegalArgumentException If the policy is {@link RpcBackpressurePolicy#SUSPEND_READ}, which would stop
+         *                                  the client from reading the responses the server is waiting to write.
+         */
+        public Builder setBackpressurePolicy(RpcBackpressurePolicy backpressurePolicy) {
+            if(backpressurePolicy == RpcBackpressurePolicy.SUSPEND_READ) {
+                throw new IllegalArgumentException("Suspending reads is not supported by the client.");
+            }
+            mBackpressurePolicy = backpressurePolicy;
+            return this;
+        }
+
+        /**
+         * Sets the number of bytes all connections of the client together may hold in received frames which have not
+         * been processed yet. When the budget is exhausted the client stops reading from the connections which received
+         * the most data, and resumes once half of the budget is free again.
+         *
+         * @param inboundMemoryBudget The budget in bytes, or 0 to disable it. Defaults to 0.
+         * @return {@link ProtobufRpcClient.Builder} instance for chaining.
+         */
+        public Builder setInboundMemoryBudget(long inboundMemoryBudget) {
+            if(inboundMemoryBudget < 0) {
+                throw new IllegalArgumentException("Inbound memory budget cannot be negative.");
+            }
+
+            mInboundMemoryBudgetBytes = inboundMemoryBudget;
+            return this;
+        }
+
         /**
          * Enable or disable RPC logging. If logging is enabled, a logging name must be provided.
          *
@@ -173,13 +355,29 @@ public final class ProtobufRpcClient {
                 throw new IllegalArgumentException("Logging name must be provided if traffic logging is enabled.");
             }
 
-            ProtobufRpcClient protobufRpcClient = new ProtobufRpcClient(mRpcServiceCollector, mDefaultReceiveTimeoutMillis);
+            ProtobufRpcClient protobufRpcClient = new ProtobufRpcClient(
+                    mRpcServiceCollector,
+                    mDefaultReceiveTimeoutMillis,
+                    mDefaultRetryPolicy,
+                    new HashMap<>(mRetryPolicyMap),
+                    new TokenBucket(mRetryBudgetRatio, mRetryBudgetBurst),
+                    mCircuitBreakerConfig,
+                    mConcurrencyLimitConfig,
+                    (mResponseCacheMaxBytes > 0)? new RpcResponseCache<AbstractMessage>(mResponseCacheMaxBytes) : null,
+                    mStreamWindowSize,
+                    mBackpressurePolicy,
+                    (mInboundMemoryBudgetBytes > 0)? new RpcInboundMemoryBudget(mInboundMemoryBudgetBytes) : null);
 
             Bootstrap bootstrap = new Bootstrap();
             bootstrap.group(acquireClientEventLoopGroup());
             bootstrap.channel(NioSocketChannel.class);
+            bootstrap.option(ChannelOption.MESSAGE_SIZE_ESTIMATOR, RpcMessageSizeEstimator.INSTANCE);
+            if(mWriteBufferWaterMark != null) {
+                bootstrap.option(ChannelOption.WRITE_BUFFER_WATER_MARK, mWriteBufferWaterMark);
+            }
             bootstrap.handler(new RpcClientChannelInitializer(
                     mMaxReceivePacketLength,
+                    protobufRpcClient.getInboundMemoryBudget(),
                     null,
                     mKeepAlive,
                     mLoggingName,
@@ -192,8 +390,13 @@ public final class ProtobufRpcClient {
                 Bootstrap sslBootstrap = new Bootstrap();
                 sslBootstrap.group(acquireClientEventLoopGroup());
                 sslBootstrap.channel(NioSocketChannel.class);
+                sslBootstrap.option(ChannelOption.MESSAGE_SIZE_ESTIMATOR, RpcMessageSizeEstimator.INSTANCE);
+                if(mWriteBufferWaterMark != null) {
+                    sslBootstrap.option(ChannelOption.WRITE_BUFFER_WATER_MARK, mWriteBufferWaterMark);
+                }
                 sslBootstrap.handler(new RpcClientChannelInitializer(
                         mMaxReceivePacketLength,
+                        protobufRpcClient.getInboundMemoryBudget(),
                         mSslContext,
                         mKeepAlive,
                         mLoggingName,
@@ -209,13 +412,44 @@ public final class ProtobufRpcClient {
 
     private final RpcServiceCollector mRpcServiceCollector;
     private final Long mDefaultReceiveTimeoutMillis;
+    private final RpcRetryPolicy mDefaultRetryPolicy;
+    private final Map<Method, RpcRetryPolicy> mRetryPolicyMap;
+    private final TokenBucket mRetryBudget;
+    private final RpcCircuitBreakerConfig mCircuitBreakerConfig;
+    private final ConcurrentMap<InetSocketAddress, RpcCircuitBreaker> mCircuitBreakerMap = new ConcurrentHashMap<>();
+    private final RpcConcurrencyLimitConfig mConcurrencyLimitConfig;
+    private final ConcurrentMap<InetSocketAddress, RpcConcurrencyLimiter> mConcurrencyLimiterMap = new ConcurrentHashMap<>();
+    private final RpcResponseCache<AbstractMessage> mResponseCache;
+    private final int mStreamWindowSize;
+    private final RpcBackpressurePolicy mBackpressurePolicy;
+    private final RpcInboundMemoryBudget mInboundMemoryBudget;
 
     private Bootstrap mBootstrap;
     private Bootstrap mSslBootstrap;
 
-    private ProtobufRpcClient(RpcServiceCollector rpcServiceCollector, Long defaultReceiveTimeoutMillis) {
+    private ProtobufRpcClient(
+            RpcServiceCollector rpcServiceCollector,
+            Long defaultReceiveTimeoutMillis,
+            RpcRetryPolicy defaultRetryPolicy,
+            Map<Method, RpcRetryPolicy> retryPolicyMap,
+            TokenBucket retryBudget,
+            RpcCircuitBreakerConfig circuitBreakerConfig,
+            RpcConcurrencyLimitConfig concurrencyLimitConfig,
+            RpcResponseCache<AbstractMessage> responseCache,
+            int streamWindowSize,
+            RpcBackpressurePolicy backpressurePolicy,
+            RpcInboundMemoryBudget inboundMemoryBudget) {
         mRpcServiceCollector = rpcServiceCollector;
         mDefaultReceiveTimeoutMillis = defaultReceiveTimeoutMillis;
+        mDefaultRetryPolicy = defaultRetryPolicy;
+        mRetryPolicyMap = retryPolicyMap;
+        mRetryBudget = retryBudget;
+        mCircuitBreakerConfig = circuitBreakerConfig;
+        mConcurrencyLimitConfig = concurrencyLimitConfig;
+        mResponseCache = responseCache;
+        mStreamWindowSize = streamWindowSize;
+        mBackpressurePolicy = backpressurePolicy;
+        mInboundMemoryBudget = inboundMemoryBudget;
     }
 
     @SuppressWarnings("Duplicates")
@@ -290,13 +524,31 @@ public final class ProtobufRpcClient {
      * @return Use the returned instance to communicate with the server.
      */
     public ProtobufRpcClientChannel getClientChannel(InetSocketAddress remoteAddress, boolean ssl) {
-        ChannelFuture channelFuture = (!ssl)? mBootstrap.connect(remoteAddress) : mSslBootstrap.connect(remoteAddress);
-        channelFuture.syncUninterruptibly();
-        if(channelFuture.isSuccess()) {
-            return new RpcClientChannelImpl(this, channelFuture.channel(), mDefaultReceiveTimeoutMillis);
-        } else {
-            return null;
-        }
+        return createClientChannel(remoteAddress, ssl);
+    }
+
+    /**
+     * Start connecting to a remote server without blocking the calling thread.
+     *
+     * @param remoteAddress The address (host, port) of ther server to connect to.
+     *
+     * @return Future of the {@link ProtobufRpcClientChannel} instance, completed when the connection is established or has failed.
+     */
+    public Future<ProtobufRpcClientChannel> connect(InetSocketAddress remoteAddress) {
+        return connect(remoteAddress, false);
+    }
+
+    /**
+     * Start connecting to a remote server without blocking the calling thread.
+     *
+     * @param remoteAddress The address (host, port) of ther server to connect to.
+     * @param ssl Whether to encrypt the connection to the server.
+     *
+     * @return Future of the {@link ProtobufRpcClientChannel} instance, completed when the connection is established or has failed.
+     */
+    @SuppressWarnings("unchecked")
+    public Future<ProtobufRpcClientChannel> connect(InetSocketAddress remoteAddress, boolean ssl) {
+        return (Future<ProtobufRpcClientChannel>) (Future) createClientChannelAsync(remoteAddress, ssl);
     }
 
     /**
@@ -355,6 +607,60 @@ public final class ProtobufRpcClient {
         return new ProtobufRpcClientChannelPool(poolConfig, this, remoteAddress, ssl);
     }
 
+    /**
+     * Return a {@link ProtobufRpcReconnectingChannel} instance which connects to a remote server in the background
+     * and reconnects whenever the connection is lost.
+     *
+     * @param reconnectPolicy The reconnect configuration of the channel.
+     * @param remoteAddress The address (host, port) of ther server to connect to.
+     *
+     * @return Use the returned instance to communicate with the server.
+     */
+    public ProtobufRpcReconnectingChannel getReconnectingChannel(RpcReconnectPolicy reconnectPolicy, InetSocketAddress remoteAddress) {
+        return getReconnectingChannel(reconnectPolicy, remoteAddress, false);
+    }
+
+    /**
+     * Return a {@link ProtobufRpcReconnectingChannel} instance which connects to a remote server in the background
+     * and reconnects whenever the connection is lost.
+     *
+     * @param reconnectPolicy The reconnect configuration of the channel.
+     * @param remoteAddress The address (host, port) of ther server to connect to.
+     * @param ssl Whether to encrypt the connection to the server.
+     *
+     * @return Use the returned instance to communicate with the server.
+     */
+    public ProtobufRpcReconnectingChannel getReconnectingChannel(RpcReconnectPolicy reconnectPolicy, InetSocketAddress remoteAddress, boolean ssl) {
+        return new ProtobufRpcReconnectingChannel(reconnectPolicy, this, remoteAddress, ssl);
+    }
+
+    /**
+     * Connect to a set of remote servers and return a {@link ProtobufRpcLoadBalancedChannel} instance
+     * which distributes calls among them.
+     *
+     * @param config The configuration parameters of the load balanced channel.
+     * @param remoteAddressList The addresses (host, port) of the servers to connect to.
+     *
+     * @return Use the returned instance to communicate with the servers.
+     */
+    public ProtobufRpcLoadBalancedChannel getLoadBalancedChannel(RpcLoadBalancedChannelConfig config, List<InetSocketAddress> remoteAddressList) {
+        return getLoadBalancedChannel(config, remoteAddressList, false);
+    }
+
+    /**
+     * Connect to a set of remote servers and return a {@link ProtobufRpcLoadBalancedChannel} instance
+     * which distributes calls among them.
+     *
+     * @param config The configuration parameters of the load balanced channel.
+     * @param remoteAddressList The addresses (host, port) of the servers to connect to.
+     * @param ssl Whether to encrypt the connections to the servers.
+     *
+     * @return Use the returned instance to communicate with the servers.
+     */
+    public ProtobufRpcLoadBalancedChannel getLoadBalancedChannel(RpcLoadBalancedChannelConfig config, List<InetSocketAddress> remoteAddressList, boolean ssl) {
+        return new ProtobufRpcLoadBalancedChannel(config, this, remoteAddressList, ssl);
+    }
+
     /**
      * Close this instance and all server connections.
      */
@@ -362,6 +668,193 @@ public final class ProtobufRpcClient {
         returnClientEventLoopGroup();
     }
 
+    /**
+     * Gets the circuit breaker of a remote address.
+     *
+     * @param remoteAddress The address (host, port) of the server.
+     * @return The circuit breaker, or null if circuit breakers are disabled.
+     */
+    public RpcCircuitBreaker getCircuitBreaker(InetSocketAddress remoteAddress) {
+        if(mCircuitBreakerConfig == null) {
+            return null;
+        }
+
+        RpcCircuitBreaker circuitBreaker = mCircuitBreakerMap.get(remoteAddress);
+        if(circuitBreaker == null) {
+            RpcCircuitBreaker newCircuitBreaker = new RpcCircuitBreaker(remoteAddress, mCircuitBreakerConfig);
+            circuitBreaker = mCircuitBreakerMap.putIfAbsent(remoteAddress, newCircuitBreaker);
+            if(circuitBreaker == null) {
+                circuitBreaker = newCircuitBreaker;
+            }
+        }
+        return circuitBreaker;
+    }
+
+    /**
+     * Gets the adaptive concurrency limiter of a remote address, whose current limit can be read with
+     * {@link RpcConcurrencyLimiter#getLimit()}.
+     *
+     * @param remoteAddress The address (host, port) of the server.
+     * @return The concurrency limiter, or null if adaptive limits are disabled.
+     */
+    public RpcConcurrencyLimiter getConcurrencyLimiter(InetSocketAddress remoteAddress) {
+        if(mConcurrencyLimitConfig == null) {
+            return null;
+        }
+
+        RpcConcurrencyLimiter concurrencyLimiter = mConcurrencyLimiterMap.get(remoteAddress);
+        if(concurrencyLimiter == null) {
+            RpcConcurrencyLimiter newConcurrencyLimiter = new RpcConcurrencyLimiter(mConcurrencyLimitConfig);
+            concurrencyLimiter = mConcurrencyLimiterMap.putIfAbsent(remoteAddress, newConcurrencyLimiter);
+            if(concurrencyLimiter == null) {
+                concurrencyLimiter = newConcurrencyLimiter;
+            }
+        }
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Gets the inbound memory budget shared by all connections of the client.
+     *
+     * @return The inbound memory budget, or null if it is disabled.
+     */
+    public RpcInboundMemoryBudget getInboundMemoryBudget() {
+        return mInboundMemoryBudget;
+    }
+
+    /**
+     * Gets the cache of responses of methods annotated with {@link me.trinopoty.protobufRpc.annotation.RpcCacheable}.
+     *
+     * @return The response cache, or null if caching is disabled.
+     */
+    public RpcResponseCache<AbstractMessage> getResponseCache() {
+        return mResponseCache;
+    }
+
+    RpcClientChannelImpl createClientChannel(InetSocketAddress remoteAddress, boolean ssl) {
+        Future<RpcClientChannelImpl> clientChannelFuture = createClientChannelAsync(remoteAddress, ssl);
+        clientChannelFuture.syncUninterruptibly();
+        return clientChannelFuture.getNow();
+    }
+
+    Future<RpcClientChannelImpl> createClientChannelAsync(final InetSocketAddress remoteAddress, boolean ssl) {
+        final Bootstrap bootstrap = (!ssl)? mBootstrap : mSslBootstrap;
+        final Promise<RpcClientChannelImpl> clientChannelPromise = bootstrap.config().group().next().newPromise();
+
+        final RpcCircuitBreaker circuitBreaker = getCircuitBreaker(remoteAddress);
+        final long permission = (circuitBreaker != null)? circuitBreaker.tryAcquirePermission() : RpcCircuitBreaker.NO_PERMISSION;
+        if((circuitBreaker != null) && (permission == RpcCircuitBreaker.NO_PERMISSION)) {
+            return clientChannelPromise.setFailure(new RpcCircuitOpenException("Circuit breaker is open for " + remoteAddress));
+        }
+
+        final long startTime = System.nanoTime();
+        bootstrap.connect(remoteAddress).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture channelFuture) {
+                if(channelFuture.isSuccess()) {
+                    if(circuitBreaker != null) {
+                        circuitBreaker.onSuccess(permission, System.nanoTime() - startTime);
+                    }
+                    clientChannelPromise.setSuccess(new RpcClientChannelImpl(ProtobufRpcClient.this, channelFuture.channel(), mDefaultReceiveTimeoutMillis, circuitBreaker, getConcurrencyLimiter(remoteAddress)));
+                } else {
+                    if(circuitBreaker != null) {
+                        circuitBreaker.onFailure(permission, System.nanoTime() - startTime);
+                    }
+                    clientChannelPromise.setFailure(channelFuture.cause());
+                }
+            }
+        });
+        return clientChannelPromise;
+    }
+
+    /**
+     * Performs a call, answering it from the response cache if the method is cacheable,
+     * or sharing the result of an identical call in flight on the same channel if the method is coalesced.
+     */
+    Object invoke(
+            RpcCallCoalescer callCoalescer,
+            RpcServiceCollector.RpcServiceInfo serviceInfo,
+            final RpcServiceCollector.RpcMethodInfo methodInfo,
+            AbstractMessage requestMessage,
+            final RpcCallAttempt callAttempt) throws Exception {
+        final boolean cacheable = (mResponseCache != null) && (methodInfo.getCacheTtlMillis() > 0);
+        if(!cacheable && !methodInfo.isCoalesced()) {
+            return invokeWithRetry(methodInfo, callAttempt);
+        }
+
+        final RpcResponseCache.Key callKey = new RpcResponseCache.Key(
+                serviceInfo.getServiceIdentifier(),
+                methodInfo.getMethodIdentifier(),
+                (requestMessage != null)? requestMessage.toByteString() : ByteString.EMPTY);
+        if(cacheable) {
+            AbstractMessage responseMessage = mResponseCache.get(callKey);
+            if(responseMessage != null) {
+                return responseMessage;
+            }
+        }
+
+        if(!methodInfo.isCoalesced()) {
+            return invokeAndCache(callKey, methodInfo, callAttempt, cacheable);
+        }
+        return callCoalescer.invoke(callKey, new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return invokeAndCache(callKey, methodInfo, callAttempt, cacheable);
+            }
+        });
+    }
+
+    private Object invokeAndCache(RpcResponseCache.Key callKey, RpcServiceCollector.RpcMethodInfo methodInfo, RpcCallAttempt callAttempt, boolean cacheable) throws Exception {
+        Object response = invokeWithRetry(methodInfo, callAttempt);
+        if(cacheable) {
+            AbstractMessage responseMessage = (AbstractMessage) response;
+            mResponseCache.put(callKey, responseMessage, responseMessage.getSerializedSize(), methodInfo.getCacheTtlMillis());
+        }
+        return response;
+    }
+
+    /**
+     * Performs a call, retrying failed attempts according to the retry policy of the method and the retry budget.
+     */
+    private Object invokeWithRetry(RpcServiceCollector.RpcMethodInfo methodInfo, RpcCallAttempt callAttempt) throws Exception {
+        RpcRetryPolicy retryPolicy = mRetryPolicyMap.containsKey(methodInfo.getMethod())? mRetryPolicyMap.get(methodInfo.getMethod()) : mDefaultRetryPolicy;
+        if(retryPolicy == null) {
+            return callAttempt.invoke(1);
+        }
+
+        mRetryBudget.deposit();
+        int attemptNumber = 1;
+        while(true) {
+            try {
+                return callAttempt.invoke(attemptNumber);
+            } catch (RuntimeException ex) {
+                if((attemptNumber >= retryPolicy.getMaxAttempts()) || !retryPolicy.isRetryable(ex) || !callAttempt.canRetry() || !mRetryBudget.tryAcquire()) {
+                    throw ex;
+                }
+
+                try {
+                    Thread.sleep(retryPolicy.getBackoffMillis(attemptNumber));
+                } catch (InterruptedException ignore) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+                attemptNumber++;
+            }
+        }
+    }
+
+    EventExecutor nextEventExecutor() {
+        return mBootstrap.config().group().next();
+    }
+
+    int getStreamWindowSize() {
+        return mStreamWindowSize;
+    }
+
+    RpcBackpressurePolicy getBackpressurePolicy() {
+        return mBackpressurePolicy;
+    }
+
     RpcServiceCollector getRpcServiceCollector() {
         return mRpcServiceCollector;
     }
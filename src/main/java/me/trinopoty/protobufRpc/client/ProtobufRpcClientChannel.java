@@ -1,5 +1,7 @@
 package me.trinopoty.protobufRpc.client;
 
+import me.trinopoty.protobufRpc.RpcWritabilityMetrics;
+
 import java.net.InetSocketAddress;
 
 public interface ProtobufRpcClientChannel extends AutoCloseable {
@@ -49,4 +51,11 @@ public interface ProtobufRpcClientChannel extends AutoCloseable {
      * @return The remote address of this connection.
      */
     InetSocketAddress getRemoteAddress();
+
+    /**
+     * Gets the writability statistics of the connection.
+     *
+     * @return The writability metrics, or null if there is no single current connection.
+     */
+    RpcWritabilityMetrics getWritabilityMetrics();
 }
\ No newline at end of file
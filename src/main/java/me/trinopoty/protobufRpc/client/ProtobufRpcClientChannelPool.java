@@ -1,46 +1,132 @@
 package me.trinopoty.protobufRpc.client;
 
+import com.google.protobuf.AbstractMessage;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.Promise;
 import me.trinopoty.protobufRpc.ProtobufRpcLog;
-import org.apache.commons.pool2.BasePooledObjectFactory;
-import org.apache.commons.pool2.PooledObject;
-import org.apache.commons.pool2.impl.DefaultPooledObject;
-import org.apache.commons.pool2.impl.GenericObjectPool;
+import me.trinopoty.protobufRpc.RpcWritabilityMetrics;
+import me.trinopoty.protobufRpc.exception.RpcChannelUnavailableException;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A pool of connections to a single server.
+ *
+ * Idle channels are kept on a lock-free stack, so borrowing and returning a channel never blocks on a lock. When the pool
+ * is exhausted, borrowers wait for a returned channel without holding a thread with {@link #getResourceAsync()}.
+ * Idle channels are removed as soon as their connection closes, and replaced in the background if minIdle is set.
+ */
 @SuppressWarnings({"WeakerAccess", "unused"})
 public final class ProtobufRpcClientChannelPool implements Closeable {
 
-    private static final int BORROW_RETRY_COUNT = 5;
+    private static final long REFILL_BACKOFF_BASE_MILLIS = 100;
+    private static final long REFILL_BACKOFF_MAX_MILLIS = 10 * 1000;
+
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_BORROWED = 1;
+    private static final int STATE_RETURNING = 2;
+    private static final int STATE_CLOSED = 3;
+
+    private static final class IdleNode {
+
+        private final RpcClientChannelProxyImpl mClientChannelProxy;
+        private IdleNode mNext;
+
+        IdleNode(RpcClientChannelProxyImpl clientChannelProxy) {
+            mClientChannelProxy = clientChannelProxy;
+        }
+    }
 
     private static final class RpcClientChannelProxyImpl implements ProtobufRpcClientChannel {
 
+        private final class PooledInvocationHandler implements InvocationHandler {
+
+            private final RpcServiceCollector.RpcServiceInfo mRpcServiceInfo;
+
+            PooledInvocationHandler(RpcServiceCollector.RpcServiceInfo serviceInfo) {
+                mRpcServiceInfo = serviceInfo;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                final RpcServiceCollector.RpcMethodInfo methodInfo = mRpcServiceInfo.getMethodMap().get(method);
+                assert methodInfo != null;
+
+                final Object requestArgument = (methodInfo.getRequestMessageParser() != null)? args[0] : null;
+                final AbstractMessage requestMessage = (!methodInfo.isClientStreaming())? (AbstractMessage) requestArgument : null;
+                return mProtobufRpcClient.invoke(mClientChannelPool.mCallCoalescer, mRpcServiceInfo, methodInfo, requestMessage, new RpcCallAttempt() {
+                    @Override
+                    public Object invoke(int attemptNumber) throws Exception {
+                        return getRpcClientChannel(attemptNumber > 1).invokeRpc(mRpcServiceInfo, methodInfo, requestArgument);
+                    }
+                });
+            }
+        }
+
         private final ProtobufRpcClientChannelPool mClientChannelPool;
-        private final ProtobufRpcClientChannel mRpcClientChannel;
+        private final ProtobufRpcClient mProtobufRpcClient;
+        private final InetSocketAddress mRemoteAddress;
+        private final boolean mSsl;
+
+        private final Map<Class, Object> mProxyMap = new HashMap<>();
+        private final Map<Class, Object> mOobHandlerMap = new HashMap<>();
+        private ProtobufRpcClientChannelDisconnectListener mChannelDisconnectListener = null;
 
-        RpcClientChannelProxyImpl(ProtobufRpcClientChannelPool clientChannelPool, ProtobufRpcClientChannel rpcClientChannel) {
+        private volatile RpcClientChannelImpl mRpcClientChannel;
+        private final AtomicInteger mState = new AtomicInteger(STATE_BORROWED);
+
+        RpcClientChannelProxyImpl(ProtobufRpcClientChannelPool clientChannelPool, ProtobufRpcClient protobufRpcClient, InetSocketAddress remoteAddress, boolean ssl, RpcClientChannelImpl rpcClientChannel) {
             mClientChannelPool = clientChannelPool;
+            mProtobufRpcClient = protobufRpcClient;
+            mRemoteAddress = remoteAddress;
+            mSsl = ssl;
             mRpcClientChannel = rpcClientChannel;
         }
 
+        @SuppressWarnings("unchecked")
         @Override
-        public <T> T getService(Class<T> classOfService) {
-            return mRpcClientChannel.getService(classOfService);
+        public synchronized <T> T getService(Class<T> classOfService) {
+            if(!mProxyMap.containsKey(classOfService)) {
+                RpcServiceCollector.RpcServiceInfo serviceInfo = mProtobufRpcClient.getRpcServiceCollector().getServiceInfo(classOfService);
+                if(serviceInfo != null) {
+                    mProxyMap.put(classOfService, Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { classOfService }, new PooledInvocationHandler(serviceInfo)));
+                }
+            }
+
+            return (T) mProxyMap.get(classOfService);
         }
 
         @Override
-        public <T> void addOobHandler(Class<T> classOfOob, T objectOfOob) {
+        public synchronized <T> void addOobHandler(Class<T> classOfOob, T objectOfOob) {
             mRpcClientChannel.addOobHandler(classOfOob, objectOfOob);
+            mOobHandlerMap.put(classOfOob, objectOfOob);
         }
 
         @Override
-        public void setChannelDisconnectListener(ProtobufRpcClientChannelDisconnectListener channelDisconnectListener) {
+        public synchronized void setChannelDisconnectListener(ProtobufRpcClientChannelDisconnectListener channelDisconnectListener) {
             mRpcClientChannel.setChannelDisconnectListener(channelDisconnectListener);
+            mChannelDisconnectListener = channelDisconnectListener;
         }
 
         @Override
@@ -58,43 +144,51 @@ public final class ProtobufRpcClientChannelPool implements Closeable {
             return mRpcClientChannel.getRemoteAddress();
         }
 
+        @Override
+        public RpcWritabilityMetrics getWritabilityMetrics() {
+            return mRpcClientChannel.getWritabilityMetrics();
+        }
+
         void realClose() {
             mRpcClientChannel.close();
         }
-    }
 
-    private final class ClientChannelFactory extends BasePooledObjectFactory<ProtobufRpcClientChannel> {
-
-        private final ProtobufRpcClient mProtobufRpcClient;
-        private final InetSocketAddress mRemoteAddress;
-        private final boolean mSsl;
-
-        ClientChannelFactory(ProtobufRpcClient protobufRpcClient, InetSocketAddress remoteAddress, boolean ssl) {
-            mProtobufRpcClient = protobufRpcClient;
-            mRemoteAddress = remoteAddress;
-            mSsl = ssl;
+        boolean compareAndSetState(int expectedState, int newState) {
+            return mState.compareAndSet(expectedState, newState);
         }
 
-        @Override
-        public ProtobufRpcClientChannel create() {
-            return new RpcClientChannelProxyImpl(
-                    ProtobufRpcClientChannelPool.this,
-                    mProtobufRpcClient.getClientChannel(mRemoteAddress, mSsl));
+        void setState(int state) {
+            mState.set(state);
         }
 
-        @Override
-        public PooledObject<ProtobufRpcClientChannel> wrap(ProtobufRpcClientChannel protobufRpcClientChannel) {
-            return new DefaultPooledObject<>(protobufRpcClientChannel);
-        }
+        /**
+         * Gets the underlying channel. For retries, a channel which is no longer active is replaced
+         * by a fresh connection to the same server.
+         */
+        private synchronized RpcClientChannelImpl getRpcClientChannel(boolean reconnectIfInactive) {
+            if(reconnectIfInactive && !mRpcClientChannel.isActive()) {
+                RpcClientChannelImpl rpcClientChannel;
+                try {
+                    rpcClientChannel = mProtobufRpcClient.createClientChannel(mRemoteAddress, mSsl);
+                } catch (Throwable ex) {
+                    throw new RpcChannelUnavailableException("Unable to reconnect.", ex);
+                }
+                if(rpcClientChannel == null) {
+                    throw new RpcChannelUnavailableException("Unable to reconnect.");
+                }
 
-        @Override
-        public void destroyObject(PooledObject<ProtobufRpcClientChannel> p) {
-            ((RpcClientChannelProxyImpl) p.getObject()).realClose();
-        }
+                for(Map.Entry<Class, Object> oobHandlerEntry : mOobHandlerMap.entrySet()) {
+                    //noinspection unchecked
+                    rpcClientChannel.addOobHandler(oobHandlerEntry.getKey(), oobHandlerEntry.getValue());
+                }
+                rpcClientChannel.setChannelDisconnectListener(mChannelDisconnectListener);
 
-        @Override
-        public boolean validateObject(PooledObject<ProtobufRpcClientChannel> p) {
-            return p.getObject().isActive();
+                mRpcClientChannel.setChannelDisconnectListener(null);
+                mRpcClientChannel.close();
+                mRpcClientChannel = rpcClientChannel;
+                mClientChannelPool.trackChannel(this, rpcClientChannel);
+            }
+            return mRpcClientChannel;
         }
     }
 
@@ -103,10 +197,47 @@ public final class ProtobufRpcClientChannelPool implements Closeable {
     private final boolean mLogCallingMethod;
     private final AtomicLong mBorrowedObjectCount;
 
-    private GenericObjectPool<ProtobufRpcClientChannel> mClientChannelPool;
+    private final ProtobufRpcClient mProtobufRpcClient;
+    private final InetSocketAddress mRemoteAddress;
+    private final boolean mSsl;
+    private final EventExecutor mEventExecutor;
+    private final RpcCallCoalescer mCallCoalescer;
+
+    private final int mMaxTotal;
+    private final int mMaxIdle;
+    private final int mMinIdle;
+    private final long mMaxWaitMillis;
+    private final boolean mBlockWhenExhausted;
+
+    private final AtomicReference<IdleNode> mIdleHead = new AtomicReference<>(null);
+    private final AtomicInteger mIdleCount = new AtomicInteger(0);
+    private final AtomicInteger mActiveCount = new AtomicInteger(0);
+    private final AtomicInteger mTotalCount = new AtomicInteger(0);
+    private final AtomicInteger mRefillConnectCount = new AtomicInteger(0);
+    private final AtomicInteger mRefillFailureCount = new AtomicInteger(0);
+    private final Queue<Promise<ProtobufRpcClientChannel>> mWaiterQueue = new ConcurrentLinkedQueue<>();
+
+    private final Runnable mRefillTask = new Runnable() {
+        @Override
+        public void run() {
+            refill();
+        }
+    };
+
+    private volatile boolean mClosed = false;
 
     ProtobufRpcClientChannelPool(RpcClientChannelPoolConfig poolConfig, ProtobufRpcClient protobufRpcClient, InetSocketAddress remoteAddress, boolean ssl) {
-        mClientChannelPool = new GenericObjectPool<>(new ClientChannelFactory(protobufRpcClient, remoteAddress, ssl), poolConfig);
+        mProtobufRpcClient = protobufRpcClient;
+        mRemoteAddress = remoteAddress;
+        mSsl = ssl;
+        mEventExecutor = protobufRpcClient.nextEventExecutor();
+        mCallCoalescer = new RpcCallCoalescer(mEventExecutor);
+
+        mMaxTotal = poolConfig.getMaxTotal();
+        mMaxIdle = poolConfig.getMaxIdle();
+        mMinIdle = poolConfig.getMinIdle();
+        mMaxWaitMillis = poolConfig.getMaxWaitMillis();
+        mBlockWhenExhausted = poolConfig.getBlockWhenExhausted();
 
         if(poolConfig.isLoggingEnabled()) {
             mLogger = LogManager.getLogger(ProtobufRpcLog.CLIENT_POOL);
@@ -123,11 +254,41 @@ public final class ProtobufRpcClientChannelPool implements Closeable {
         if(mLogger != null) {
             mLogger.debug("[ProtobufRpc Pool, " + mLogTag + ", Init] { remoteAddress : \"" + remoteAddress.getHostName() + ":" + remoteAddress.getPort() + "\" }");
         }
+
+        refill();
     }
 
     @Override
     public void close() {
-        mClientChannelPool.close();
+        mClosed = true;
+
+        RpcClientChannelProxyImpl clientChannelProxy;
+        while((clientChannelProxy = pollIdle()) != null) {
+            destroy(clientChannelProxy);
+        }
+
+        Promise<ProtobufRpcClientChannel> waiterPromise;
+        while((waiterPromise = mWaiterQueue.poll()) != null) {
+            waiterPromise.tryFailure(new IOException("Pool closed."));
+        }
+    }
+
+    /**
+     * Gets the number of channels waiting in the pool to be borrowed.
+     *
+     * @return The number of idle channels.
+     */
+    public int getIdleChannelCount() {
+        return mIdleCount.get();
+    }
+
+    /**
+     * Gets the number of channels currently borrowed from the pool.
+     *
+     * @return The number of borrowed channels.
+     */
+    public int getActiveChannelCount() {
+        return mActiveCount.get();
     }
 
     /**
@@ -136,40 +297,35 @@ public final class ProtobufRpcClientChannelPool implements Closeable {
      * @return An instance of {@link ProtobufRpcClientChannel} for communicating with server.
      */
     public ProtobufRpcClientChannel getResource() throws IOException {
-        ProtobufRpcClientChannel result = null;
-
-        try {
-            int thisRetryCount = 0;
-            do {
-                result = mClientChannelPool.borrowObject();
-                if(!result.isActive()) {
-                    mClientChannelPool.invalidateObject(result);
-                    result = null;
-                    thisRetryCount += 1;
-                }
-            } while ((result == null) && (thisRetryCount < BORROW_RETRY_COUNT));
-        } catch (Exception ignore) {
+        Future<ProtobufRpcClientChannel> borrowFuture = borrow();
+        borrowFuture.awaitUninterruptibly();
+        if(!borrowFuture.isSuccess()) {
+            throw new IOException("Unable to borrow channel resource.", borrowFuture.cause());
         }
 
-        if(result == null) {
-            throw new IOException("Unable to borrow channel resource.");
-        }
+        logBorrow();
+        return borrowFuture.getNow();
+    }
 
+    /**
+     * Retrieves an instance of {@link ProtobufRpcClientChannel} object from the pool without blocking.
+     * If the pool is exhausted, the returned future completes when a channel is returned to the pool or the maximum wait time has passed.
+     *
+     * @return Future of an instance of {@link ProtobufRpcClientChannel} for communicating with server.
+     */
+    public Future<ProtobufRpcClientChannel> getResourceAsync() {
+        Future<ProtobufRpcClientChannel> borrowFuture = borrow();
         if(mLogger != null) {
-            String additionalData = null;
-            if(mLogCallingMethod) {
-                @SuppressWarnings("ThrowableNotThrown") StackTraceElement[] stackTraceElementList = (new Throwable()).getStackTrace();
-                StackTraceElement callingMethod = (stackTraceElementList.length > 1)? stackTraceElementList[1] : null;
-                if(callingMethod != null) {
-                    additionalData = "calledFrom: { class: " + callingMethod.getClassName() +
-                            ", method: " + callingMethod.getMethodName() +
-                            ", file: " + callingMethod.getFileName() +
-                            ", line: " + callingMethod.getLineNumber() + " }";
+            borrowFuture.addListener(new GenericFutureListener<Future<ProtobufRpcClientChannel>>() {
+                @Override
+                public void operationComplete(Future<ProtobufRpcClientChannel> future) {
+                    if(future.isSuccess()) {
+                        logBorrow();
+                    }
                 }
-            }
-            mLogger.debug("[ProtobufRpc Pool, " + mLogTag + ", Borrow] { borrowCount: " + mBorrowedObjectCount.incrementAndGet() + ((additionalData != null)? ", " + additionalData : "") + " }");
+            });
         }
-        return result;
+        return borrowFuture;
     }
 
     /**
@@ -178,17 +334,279 @@ public final class ProtobufRpcClientChannelPool implements Closeable {
      * @param clientChannel The instance to return.
      */
     public void returnResource(ProtobufRpcClientChannel clientChannel) {
+        RpcClientChannelProxyImpl clientChannelProxy = (RpcClientChannelProxyImpl) clientChannel;
+        if(!clientChannelProxy.compareAndSetState(STATE_BORROWED, STATE_RETURNING)) {
+            return;
+        }
+
         if(mLogger != null) {
             mLogger.debug("[ProtobufRpc Pool, " + mLogTag + ", Return] { borrowCount: " + mBorrowedObjectCount.decrementAndGet() + " }");
         }
 
-        if(clientChannel.isActive()) {
-            mClientChannelPool.returnObject(clientChannel);
-        } else {
-            try {
-                mClientChannelPool.invalidateObject(clientChannel);
-            } catch (Exception ignore) {
+        mActiveCount.decrementAndGet();
+        offerIdle(clientChannelProxy);
+    }
+
+    void trackChannel(final RpcClientChannelProxyImpl clientChannelProxy, final RpcClientChannelImpl rpcClientChannel) {
+        rpcClientChannel.closeFuture().addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture channelFuture) {
+                if(clientChannelProxy.mRpcClientChannel == rpcClientChannel) {
+                    pooledChannelClosed(clientChannelProxy);
+                }
             }
+        });
+    }
+
+    private Future<ProtobufRpcClientChannel> borrow() {
+        if(mClosed) {
+            return mEventExecutor.newFailedFuture(new IOException("Pool closed."));
+        }
+
+        RpcClientChannelProxyImpl clientChannelProxy = pollIdle();
+        if(clientChannelProxy != null) {
+            mActiveCount.incrementAndGet();
+            if(mIdleCount.get() < mMinIdle) {
+                scheduleRefill(0);
+            }
+            return mEventExecutor.newSucceededFuture((ProtobufRpcClientChannel) clientChannelProxy);
+        }
+
+        Promise<ProtobufRpcClientChannel> borrowPromise = mEventExecutor.newPromise();
+        if(tryReserveCapacity()) {
+            createChannel(borrowPromise);
+            return borrowPromise;
+        }
+
+        if(!mBlockWhenExhausted) {
+            return borrowPromise.setFailure(new IOException("Pool exhausted."));
+        }
+
+        mWaiterQueue.offer(borrowPromise);
+        if(mMaxWaitMillis >= 0) {
+            final Promise<ProtobufRpcClientChannel> timeoutPromise = borrowPromise;
+            mEventExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if(mWaiterQueue.remove(timeoutPromise)) {
+                        timeoutPromise.tryFailure(new IOException("Timeout waiting for idle channel."));
+                    }
+                }
+            }, mMaxWaitMillis, TimeUnit.MILLISECONDS);
+        }
+
+        // A channel may have been returned before the promise was queued
+        dispatchWaiters();
+        return borrowPromise;
+    }
+
+    /**
+     * Hands a channel which is no longer borrowed to a waiting borrower, or puts it on the idle stack.
+     */
+    private void offerIdle(RpcClientChannelProxyImpl clientChannelProxy) {
+        if(mClosed || !clientChannelProxy.isActive()) {
+            destroy(clientChannelProxy);
+            dispatchWaiters();
+            return;
+        }
+
+        Promise<ProtobufRpcClientChannel> waiterPromise;
+        while((waiterPromise = mWaiterQueue.poll()) != null) {
+            if(handOver(clientChannelProxy, waiterPromise)) {
+                return;
+            }
+        }
+
+        if((mMaxIdle >= 0) && (mIdleCount.get() >= mMaxIdle)) {
+            destroy(clientChannelProxy);
+            return;
+        }
+
+        pushIdle(clientChannelProxy);
+        dispatchWaiters();
+    }
+
+    /**
+     * Serves waiting borrowers from the idle stack, or by opening new channels while there is capacity left.
+     */
+    private void dispatchWaiters() {
+        Promise<ProtobufRpcClientChannel> waiterPromise;
+        while((waiterPromise = mWaiterQueue.peek()) != null) {
+            RpcClientChannelProxyImpl clientChannelProxy = pollIdle();
+            if(clientChannelProxy != null) {
+                if(!mWaiterQueue.remove(waiterPromise) || !handOver(clientChannelProxy, waiterPromise)) {
+                    pushIdle(clientChannelProxy);
+                }
+            } else if(tryReserveCapacity()) {
+                if(mWaiterQueue.remove(waiterPromise)) {
+                    createChannel(waiterPromise);
+                } else {
+                    mTotalCount.decrementAndGet();
+                }
+            } else {
+                break;
+            }
+        }
+    }
+
+    private boolean handOver(RpcClientChannelProxyImpl clientChannelProxy, Promise<ProtobufRpcClientChannel> waiterPromise) {
+        clientChannelProxy.setState(STATE_BORROWED);
+        if(waiterPromise.trySuccess(clientChannelProxy)) {
+            mActiveCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private RpcClientChannelProxyImpl pollIdle() {
+        while(true) {
+            IdleNode head = mIdleHead.get();
+            if(head == null) {
+                return null;
+            }
+            if(!mIdleHead.compareAndSet(head, head.mNext)) {
+                continue;
+            }
+
+            // Nodes of channels closed while idle are skipped
+            RpcClientChannelProxyImpl clientChannelProxy = head.mClientChannelProxy;
+            if(clientChannelProxy.compareAndSetState(STATE_IDLE, STATE_BORROWED)) {
+                mIdleCount.decrementAndGet();
+                if(clientChannelProxy.isActive()) {
+                    return clientChannelProxy;
+                }
+                destroy(clientChannelProxy);
+            }
+        }
+    }
+
+    private void pushIdle(RpcClientChannelProxyImpl clientChannelProxy) {
+        IdleNode node = new IdleNode(clientChannelProxy);
+        clientChannelProxy.setState(STATE_IDLE);
+        mIdleCount.incrementAndGet();
+        do {
+            node.mNext = mIdleHead.get();
+        } while(!mIdleHead.compareAndSet(node.mNext, node));
+    }
+
+    private boolean tryReserveCapacity() {
+        while(true) {
+            int totalCount = mTotalCount.get();
+            if((mMaxTotal >= 0) && (totalCount >= mMaxTotal)) {
+                return false;
+            }
+            if(mTotalCount.compareAndSet(totalCount, totalCount + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Opens a channel using capacity already reserved. The channel is given to the borrower, or to the pool if there is none.
+     */
+    private void createChannel(final Promise<ProtobufRpcClientChannel> borrowPromise) {
+        mProtobufRpcClient.createClientChannelAsync(mRemoteAddress, mSsl).addListener(new GenericFutureListener<Future<RpcClientChannelImpl>>() {
+            @Override
+            public void operationComplete(Future<RpcClientChannelImpl> connectFuture) {
+                if(borrowPromise == null) {
+                    mRefillConnectCount.decrementAndGet();
+                }
+
+                if(connectFuture.isSuccess()) {
+                    RpcClientChannelProxyImpl clientChannelProxy = new RpcClientChannelProxyImpl(
+                            ProtobufRpcClientChannelPool.this,
+                            mProtobufRpcClient,
+                            mRemoteAddress,
+                            mSsl,
+                            connectFuture.getNow());
+                    trackChannel(clientChannelProxy, connectFuture.getNow());
+
+                    if(borrowPromise == null) {
+                        mRefillFailureCount.set(0);
+                        offerIdle(clientChannelProxy);
+                    } else if(!handOver(clientChannelProxy, borrowPromise)) {
+                        offerIdle(clientChannelProxy);
+                    }
+                } else {
+                    mTotalCount.decrementAndGet();
+                    if(borrowPromise == null) {
+                        scheduleRefill(RpcRetryPolicy.getJitteredBackoffMillis(REFILL_BACKOFF_BASE_MILLIS, REFILL_BACKOFF_MAX_MILLIS, 2, mRefillFailureCount.incrementAndGet()));
+                    } else {
+                        borrowPromise.tryFailure(connectFuture.cause());
+                    }
+                    dispatchWaiters();
+                }
+            }
+        });
+    }
+
+    private void destroy(RpcClientChannelProxyImpl clientChannelProxy) {
+        clientChannelProxy.setState(STATE_CLOSED);
+        mTotalCount.decrementAndGet();
+        clientChannelProxy.realClose();
+        scheduleRefill(0);
+    }
+
+    /**
+     * Removes an idle channel from the pool as soon as its connection is lost, and replaces it in the background.
+     * Borrowed channels are left to {@link #returnResource(ProtobufRpcClientChannel)}.
+     */
+    private void pooledChannelClosed(RpcClientChannelProxyImpl clientChannelProxy) {
+        if(clientChannelProxy.compareAndSetState(STATE_IDLE, STATE_CLOSED)) {
+            mIdleCount.decrementAndGet();
+            mTotalCount.decrementAndGet();
+            clientChannelProxy.realClose();
+            scheduleRefill(0);
+            dispatchWaiters();
+        }
+    }
+
+    private void scheduleRefill(long delayMillis) {
+        if((mMinIdle <= 0) || mClosed) {
+            return;
+        }
+
+        try {
+            if(delayMillis > 0) {
+                mEventExecutor.schedule(mRefillTask, delayMillis, TimeUnit.MILLISECONDS);
+            } else {
+                mEventExecutor.execute(mRefillTask);
+            }
+        } catch (RejectedExecutionException ignore) {
+            // Client was closed concurrently.
+        }
+    }
+
+    /**
+     * Opens connections in parallel until the pool holds at least minIdle idle channels,
+     * so borrowers never connect on their own while the pool is warm.
+     */
+    private void refill() {
+        if((mMinIdle <= 0) || mClosed) {
+            return;
+        }
+
+        int connectCount = mMinIdle - mIdleCount.get() - mRefillConnectCount.get();
+        for(int i = 0; (i < connectCount) && tryReserveCapacity(); i++) {
+            mRefillConnectCount.incrementAndGet();
+            createChannel(null);
+        }
+    }
+
+    private void logBorrow() {
+        if(mLogger != null) {
+            String additionalData = null;
+            if(mLogCallingMethod) {
+                @SuppressWarnings("ThrowableNotThrown") StackTraceElement[] stackTraceElementList = (new Throwable()).getStackTrace();
+                StackTraceElement callingMethod = (stackTraceElementList.length > 2)? stackTraceElementList[2] : null;
+                if(callingMethod != null) {
+                    additionalData = "calledFrom: { class: " + callingMethod.getClassName() +
+                            ", method: " + callingMethod.getMethodName() +
+                            ", file: " + callingMethod.getFileName() +
+                            ", line: " + callingMethod.getLineNumber() + " }";
+                }
+            }
+            mLogger.debug("[ProtobufRpc Pool, " + mLogTag + ", Borrow] { borrowCount: " + mBorrowedObjectCount.incrementAndGet() + ((additionalData != null)? ", " + additionalData : "") + " }");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,553 @@
+package me.trinopoty.protobufRpc.client;
+
+import com.google.protobuf.AbstractMessage;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import me.trinopoty.protobufRpc.DisconnectReason;
+import me.trinopoty.protobufRpc.RpcWritabilityMetrics;
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+import me.trinopoty.protobufRpc.exception.RpcCallException;
+import me.trinopoty.protobufRpc.exception.RpcCallTimeoutException;
+import me.trinopoty.protobufRpc.exception.RpcChannelClosedException;
+import me.trinopoty.protobufRpc.exception.RpcChannelUnavailableException;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ProtobufRpcClientChannel} which spreads calls over a set of servers.
+ * Endpoints whose connection is lost or which fail repeatedly are ejected and probed for recovery in the background.
+ * Calls to idempotent methods can be hedged to another endpoint if a {@link RpcHedgingPolicy} is configured.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class ProtobufRpcLoadBalancedChannel implements ProtobufRpcClientChannel {
+
+    private final class LoadBalancedInvocationHandler implements InvocationHandler {
+
+        private final RpcServiceCollector.RpcServiceInfo mRpcServiceInfo;
+
+        LoadBalancedInvocationHandler(RpcServiceCollector.RpcServiceInfo serviceInfo) {
+            mRpcServiceInfo = serviceInfo;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final RpcServiceCollector.RpcMethodInfo methodInfo = mRpcServiceInfo.getMethodMap().get(method);
+            assert methodInfo != null;
+
+            final Object requestArgument = (methodInfo.getRequestMessageParser() != null)? args[0] : null;
+            final AbstractMessage requestMessage = (!methodInfo.isClientStreaming())? (AbstractMessage) requestArgument : null;
+            final List<RpcEndpoint> failedEndpoints = new ArrayList<>(1);
+
+            return mProtobufRpcClient.invoke(mCallCoalescer, mRpcServiceInfo, methodInfo, requestMessage, new RpcCallAttempt() {
+                @Override
+                public Object invoke(int attemptNumber) throws Exception {
+                    List<RpcEndpoint> healthyEndpoints = mHealthyEndpoints;
+                    if(!failedEndpoints.isEmpty() && (healthyEndpoints.size() > failedEndpoints.size())) {
+                        healthyEndpoints = new ArrayList<>(healthyEndpoints);
+                        healthyEndpoints.removeAll(failedEndpoints);
+                    }
+                    if(healthyEndpoints.isEmpty()) {
+                        throw new RpcChannelUnavailableException("No healthy endpoint available.");
+                    }
+
+                    RpcEndpoint endpoint = mLoadBalancingPolicy.select(healthyEndpoints, methodInfo, requestMessage);
+                    try {
+                        if(methodInfo.isOneWay() || methodInfo.isServerStreaming() || methodInfo.isClientStreaming()) {
+                            return sendOnEndpoint(endpoint, mRpcServiceInfo, methodInfo, requestArgument);
+                        } else if((mHedgingPolicy != null) && methodInfo.isIdempotent()) {
+                            return invokeHedged(endpoint, mRpcServiceInfo, methodInfo, requestMessage);
+                        } else {
+                            return invokeOnEndpoint(endpoint, mRpcServiceInfo, methodInfo, requestMessage);
+                        }
+                    } catch (RpcCallException ex) {
+                        failedEndpoints.add(endpoint);
+                        throw ex;
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * A single request sent to an endpoint. Keeps the endpoint statistics up to date when the request completes.
+     */
+    private final class EndpointCall implements GenericFutureListener<Future<WirePacketFormat.WirePacket>> {
+
+        private final RpcEndpoint mEndpoint;
+        private final RpcClientChannelImpl mRpcClientChannel;
+        private final WirePacketFormat.WirePacket mRequestWirePacket;
+        private final RpcLatencyTracker mLatencyTracker;
+
+        private long mStartTime;
+        private Future<WirePacketFormat.WirePacket> mResponseFuture;
+
+        EndpointCall(RpcEndpoint endpoint, RpcClientChannelImpl rpcClientChannel, WirePacketFormat.WirePacket requestWirePacket, RpcLatencyTracker latencyTracker) {
+            mEndpoint = endpoint;
+            mRpcClientChannel = rpcClientChannel;
+            mRequestWirePacket = requestWirePacket;
+            mLatencyTracker = latencyTracker;
+        }
+
+        void send() {
+            mEndpoint.callStarted();
+            mStartTime = System.nanoTime();
+            mResponseFuture = mRpcClientChannel.sendRpcRequest(mRequestWirePacket);
+            mResponseFuture.addListener(this);
+        }
+
+        /**
+         * Only failures of calls which reached the endpoint count toward its ejection: a response timeout, a lost
+         * connection, or an overload response. Calls rejected locally by the concurrency limiter, the circuit breaker or
+         * the write backpressure say nothing new about the endpoint and are ignored.
+         */
+        @Override
+        public void operationComplete(Future<WirePacketFormat.WirePacket> future) {
+            mEndpoint.callFinished();
+            if(future.isSuccess() && !RpcClientChannelImpl.isOverloadedError(future.getNow())) {
+                long latencyNanos = System.nanoTime() - mStartTime;
+                mEndpoint.callSucceeded(latencyNanos);
+                if(mLatencyTracker != null) {
+                    mLatencyTracker.record(latencyNanos);
+                }
+            } else if(future.isSuccess() || (future.cause() instanceof RpcCallTimeoutException) || (future.cause() instanceof RpcChannelClosedException)) {
+                if(mEndpoint.callFailed() >= mEjectionFailureThreshold) {
+                    ejectEndpoint(mEndpoint, mRpcClientChannel);
+                }
+            }
+        }
+    }
+
+    private final class EndpointDisconnectListener implements ProtobufRpcClientChannelDisconnectListener {
+
+        private final RpcEndpoint mEndpoint;
+
+        EndpointDisconnectListener(RpcEndpoint endpoint) {
+            mEndpoint = endpoint;
+        }
+
+        @Override
+        public void channelDisconnected(ProtobufRpcClientChannel channel, DisconnectReason reason) {
+            if(reason != DisconnectReason.CLIENT_CLOSE) {
+                ejectEndpoint(mEndpoint, channel);
+            }
+        }
+    }
+
+    private final ProtobufRpcClient mProtobufRpcClient;
+    private final boolean mSsl;
+    private final RpcLoadBalancingPolicy mLoadBalancingPolicy;
+    private final int mEjectionFailureThreshold;
+    private final long mEjectionBaseMillis;
+    private final long mMaxEjectionMillis;
+    private final RpcHedgingPolicy mHedgingPolicy;
+    private final TokenBucket mHedgingBudget;
+    private final RpcLoadBalancingPolicy mHedgingLoadBalancingPolicy = new PowerOfTwoChoicesLoadBalancingPolicy();
+    private final ConcurrentMap<Method, RpcLatencyTracker> mLatencyTrackerMap = new ConcurrentHashMap<>();
+    private final RpcCallCoalescer mCallCoalescer;
+
+    private final List<RpcEndpoint> mEndpoints;
+    private volatile List<RpcEndpoint> mHealthyEndpoints = Collections.emptyList();
+
+    private final ScheduledExecutorService mProbeExecutor;
+
+    private final Map<Class, Object> mProxyMap = new ConcurrentHashMap<>();
+    private final Map<Class, Object> mOobHandlerMap = new ConcurrentHashMap<>();
+
+    private volatile boolean mClosed = false;
+    private ProtobufRpcClientChannelDisconnectListener mChannelDisconnectListener = null;
+
+    ProtobufRpcLoadBalancedChannel(RpcLoadBalancedChannelConfig config, ProtobufRpcClient protobufRpcClient, List<InetSocketAddress> remoteAddressList, boolean ssl) {
+        if(remoteAddressList.isEmpty()) {
+            throw new IllegalArgumentException("At least one remote address must be provided.");
+        }
+
+        mProtobufRpcClient = protobufRpcClient;
+        mSsl = ssl;
+        mCallCoalescer = new RpcCallCoalescer(protobufRpcClient.nextEventExecutor());
+        mLoadBalancingPolicy = config.getLoadBalancingPolicy();
+        mEjectionFailureThreshold = config.getEjectionFailureThreshold();
+        mEjectionBaseMillis = config.getEjectionBaseMillis();
+        mMaxEjectionMillis = config.getMaxEjectionMillis();
+        mHedgingPolicy = config.getHedgingPolicy();
+        mHedgingBudget = (mHedgingPolicy != null)? new TokenBucket(mHedgingPolicy.getBudgetRatio(), mHedgingPolicy.getBudgetBurst()) : null;
+
+        List<RpcEndpoint> endpoints = new ArrayList<>(remoteAddressList.size());
+        for(InetSocketAddress remoteAddress : remoteAddressList) {
+            endpoints.add(new RpcEndpoint(remoteAddress));
+        }
+        mEndpoints = Collections.unmodifiableList(endpoints);
+
+        mProbeExecutor = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("protobuf-rpc-lb-probe", true));
+
+        List<Future<RpcClientChannelImpl>> connectFutures = new ArrayList<>(mEndpoints.size());
+        for(RpcEndpoint endpoint : mEndpoints) {
+            connectFutures.add(mProtobufRpcClient.createClientChannelAsync(endpoint.getRemoteAddress(), mSsl));
+        }
+        for(int i = 0; i < mEndpoints.size(); i++) {
+            Future<RpcClientChannelImpl> connectFuture = connectFutures.get(i).awaitUninterruptibly();
+            if(!connectFuture.isSuccess() || !attachEndpointChannel(mEndpoints.get(i), connectFuture.getNow())) {
+                scheduleProbe(mEndpoints.get(i));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getService(Class<T> classOfService) {
+        if(!mProxyMap.containsKey(classOfService)) {
+            RpcServiceCollector.RpcServiceInfo serviceInfo = mProtobufRpcClient.getRpcServiceCollector().getServiceInfo(classOfService);
+            if(serviceInfo != null) {
+                mProxyMap.put(classOfService, Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { classOfService }, new LoadBalancedInvocationHandler(serviceInfo)));
+            }
+        }
+
+        return (T) mProxyMap.get(classOfService);
+    }
+
+    @Override
+    public <T> void addOobHandler(Class<T> classOfOob, T objectOfOob) {
+        RpcServiceCollector.RpcServiceInfo serviceInfo = mProtobufRpcClient.getRpcServiceCollector().getServiceInfo(classOfOob);
+        if((serviceInfo == null) || !serviceInfo.isOob()) {
+            throw new IllegalArgumentException(String.format("Class<%s> not registered for OOB handling.", classOfOob.getName()));
+        }
+
+        mOobHandlerMap.put(classOfOob, objectOfOob);
+        for(RpcEndpoint endpoint : mEndpoints) {
+            RpcClientChannelImpl rpcClientChannel = endpoint.getRpcClientChannel();
+            if(rpcClientChannel != null) {
+                rpcClientChannel.addOobHandler(classOfOob, objectOfOob);
+            }
+        }
+    }
+
+    @Override
+    public boolean isActive() {
+        return !mClosed && !mHealthyEndpoints.isEmpty();
+    }
+
+    @Override
+    public void setChannelDisconnectListener(ProtobufRpcClientChannelDisconnectListener channelDisconnectListener) {
+        mChannelDisconnectListener = channelDisconnectListener;
+    }
+
+    @Override
+    public void close() {
+        if(mClosed) {
+            return;
+        }
+        mClosed = true;
+
+        mProbeExecutor.shutdownNow();
+        synchronized (this) {
+            for(RpcEndpoint endpoint : mEndpoints) {
+                endpoint.setEjected(true);
+                RpcClientChannelImpl rpcClientChannel = endpoint.getRpcClientChannel();
+                endpoint.setRpcClientChannel(null);
+                if(rpcClientChannel != null) {
+                    rpcClientChannel.close();
+                }
+            }
+            mHealthyEndpoints = Collections.emptyList();
+        }
+
+        mProxyMap.clear();
+        mOobHandlerMap.clear();
+
+        if(mChannelDisconnectListener != null) {
+            mChannelDisconnectListener.channelDisconnected(this, DisconnectReason.CLIENT_CLOSE);
+        }
+    }
+
+    /**
+     * Gets the remote address of the first healthy endpoint.
+     *
+     * @return The remote address of a healthy endpoint, or null if there is none.
+     */
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        List<RpcEndpoint> healthyEndpoints = mHealthyEndpoints;
+        return (!healthyEndpoints.isEmpty())? healthyEndpoints.get(0).getRemoteAddress() : null;
+    }
+
+    /**
+     * Always returns null, as calls are spread over the connections of all endpoints.
+     */
+    @Override
+    public RpcWritabilityMetrics getWritabilityMetrics() {
+        return null;
+    }
+
+    /**
+     * Gets all endpoints of this channel, healthy or not.
+     *
+     * @return Unmodifiable list of endpoints.
+     */
+    public List<RpcEndpoint> getEndpoints() {
+        return mEndpoints;
+    }
+
+    /**
+     * Sends a one-way request or opens a stream on the endpoint.
+     * None of them has a single response to measure, so the endpoint statistics are not updated.
+     */
+    private Object sendOnEndpoint(
+            RpcEndpoint endpoint,
+            RpcServiceCollector.RpcServiceInfo serviceInfo,
+            RpcServiceCollector.RpcMethodInfo methodInfo,
+            Object requestArgument) throws IOException {
+        RpcClientChannelImpl rpcClientChannel = endpoint.getRpcClientChannel();
+        if((rpcClientChannel == null) || !rpcClientChannel.isActive()) {
+            ejectEndpoint(endpoint, rpcClientChannel);
+            throw new RpcChannelUnavailableException("Channel is not active.");
+        }
+        return rpcClientChannel.invokeRpc(serviceInfo, methodInfo, requestArgument);
+    }
+
+    private Object invokeOnEndpoint(
+            RpcEndpoint endpoint,
+            RpcServiceCollector.RpcServiceInfo serviceInfo,
+            RpcServiceCollector.RpcMethodInfo methodInfo,
+            AbstractMessage requestMessage) throws Exception {
+        EndpointCall endpointCall = startCall(endpoint, serviceInfo, methodInfo, requestMessage, null, null);
+        RpcClientChannelImpl rpcClientChannel = endpointCall.mRpcClientChannel;
+        WirePacketFormat.WirePacket responseWirePacket = rpcClientChannel.waitForResponse(
+                endpointCall.mRequestWirePacket.getMessageIdentifier(),
+                endpointCall.mResponseFuture,
+                endpointCall.mRequestWirePacket.getTimeoutMillis());
+        return rpcClientChannel.parseRpcResponse(methodInfo, endpointCall.mRequestWirePacket, responseWirePacket);
+    }
+
+    /**
+     * Sends the request to the selected endpoint, and a copy of it to another endpoint if no response arrives within
+     * the hedging delay and the hedging budget allows it. The first successful response is used and the other request is cancelled.
+     */
+    private Object invokeHedged(
+            RpcEndpoint endpoint,
+            RpcServiceCollector.RpcServiceInfo serviceInfo,
+            RpcServiceCollector.RpcMethodInfo methodInfo,
+            AbstractMessage requestMessage) throws Exception {
+        RpcLatencyTracker latencyTracker = getLatencyTracker(methodInfo.getMethod());
+        BlockingQueue<EndpointCall> completedCallQueue = new LinkedBlockingQueue<>();
+
+        EndpointCall primaryCall = startCall(endpoint, serviceInfo, methodInfo, requestMessage, latencyTracker, completedCallQueue);
+        EndpointCall hedgedCall = null;
+        mHedgingBudget.deposit();
+
+        final long deadline = primaryCall.mStartTime + TimeUnit.MILLISECONDS.toNanos(primaryCall.mRequestWirePacket.getTimeoutMillis());
+        try {
+            EndpointCall completedCall = completedCallQueue.poll(getHedgingDelayNanos(latencyTracker), TimeUnit.NANOSECONDS);
+            if(completedCall == null) {
+                hedgedCall = startHedgedCall(endpoint, serviceInfo, methodInfo, requestMessage, latencyTracker, completedCallQueue);
+            }
+
+            int pendingCallCount = (hedgedCall != null)? 2 : 1;
+            while(true) {
+                if(completedCall == null) {
+                    long remainingNanos = deadline - System.nanoTime();
+                    completedCall = (remainingNanos > 0)? completedCallQueue.poll(remainingNanos, TimeUnit.NANOSECONDS) : null;
+                    if(completedCall == null) {
+                        abandonCalls(new RpcCallTimeoutException("Response timeout."), primaryCall, hedgedCall);
+                        throw new RpcCallTimeoutException("Response timeout.");
+                    }
+                }
+
+                pendingCallCount--;
+                if(completedCall.mResponseFuture.isSuccess() || (pendingCallCount == 0)) {
+                    break;
+                }
+                completedCall = null;
+            }
+
+            abandonCalls(null, primaryCall, hedgedCall);
+            WirePacketFormat.WirePacket responseWirePacket = RpcClientChannelImpl.getResponseNow(completedCall.mResponseFuture);
+            return completedCall.mRpcClientChannel.parseRpcResponse(methodInfo, completedCall.mRequestWirePacket, responseWirePacket);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            abandonCalls(null, primaryCall, hedgedCall);
+            throw new RpcCallException("Interrupted while waiting for response.", ex);
+        }
+    }
+
+    private EndpointCall startHedgedCall(
+            RpcEndpoint primaryEndpoint,
+            RpcServiceCollector.RpcServiceInfo serviceInfo,
+            RpcServiceCollector.RpcMethodInfo methodInfo,
+            AbstractMessage requestMessage,
+            RpcLatencyTracker latencyTracker,
+            final BlockingQueue<EndpointCall> completedCallQueue) {
+        List<RpcEndpoint> hedgeEndpoints = new ArrayList<>(mHealthyEndpoints);
+        hedgeEndpoints.remove(primaryEndpoint);
+        if(hedgeEndpoints.isEmpty() || !mHedgingBudget.tryAcquire()) {
+            return null;
+        }
+
+        RpcEndpoint hedgeEndpoint = mHedgingLoadBalancingPolicy.select(hedgeEndpoints, methodInfo, requestMessage);
+        try {
+            return startCall(hedgeEndpoint, serviceInfo, methodInfo, requestMessage, latencyTracker, completedCallQueue);
+        } catch (RpcCallException ignore) {
+            return null;
+        }
+    }
+
+    private EndpointCall startCall(
+            RpcEndpoint endpoint,
+            RpcServiceCollector.RpcServiceInfo serviceInfo,
+            RpcServiceCollector.RpcMethodInfo methodInfo,
+            AbstractMessage requestMessage,
+            RpcLatencyTracker latencyTracker,
+            final BlockingQueue<EndpointCall> completedCallQueue) {
+        RpcClientChannelImpl rpcClientChannel = endpoint.getRpcClientChannel();
+        if((rpcClientChannel == null) || !rpcClientChannel.isActive()) {
+            ejectEndpoint(endpoint, rpcClientChannel);
+            throw new RpcChannelUnavailableException("Channel is not active.");
+        }
+
+        final EndpointCall endpointCall = new EndpointCall(endpoint, rpcClientChannel, rpcClientChannel.createRequestPacket(serviceInfo, methodInfo, requestMessage), latencyTracker);
+        endpointCall.send();
+        if(completedCallQueue != null) {
+            endpointCall.mResponseFuture.addListener(new GenericFutureListener<Future<WirePacketFormat.WirePacket>>() {
+                @Override
+                public void operationComplete(Future<WirePacketFormat.WirePacket> future) {
+                    completedCallQueue.offer(endpointCall);
+                }
+            });
+        }
+        return endpointCall;
+    }
+
+    private static void abandonCalls(Throwable cause, EndpointCall... endpointCalls) {
+        for(EndpointCall endpointCall : endpointCalls) {
+            if(endpointCall != null) {
+                endpointCall.mRpcClientChannel.cancelRequest(endpointCall.mRequestWirePacket.getMessageIdentifier(), cause);
+            }
+        }
+    }
+
+    private long getHedgingDelayNanos(RpcLatencyTracker latencyTracker) {
+        long delayNanos = latencyTracker.getPercentileNanos();
+        if(delayNanos < 0) {
+            delayNanos = TimeUnit.MILLISECONDS.toNanos(mHedgingPolicy.getInitialDelayMillis());
+        }
+        return Math.max(delayNanos, TimeUnit.MILLISECONDS.toNanos(mHedgingPolicy.getMinDelayMillis()));
+    }
+
+    private RpcLatencyTracker getLatencyTracker(Method method) {
+        RpcLatencyTracker latencyTracker = mLatencyTrackerMap.get(method);
+        if(latencyTracker == null) {
+            RpcLatencyTracker newLatencyTracker = new RpcLatencyTracker(mHedgingPolicy.getDelayPercentile());
+            latencyTracker = mLatencyTrackerMap.putIfAbsent(method, newLatencyTracker);
+            if(latencyTracker == null) {
+                latencyTracker = newLatencyTracker;
+            }
+        }
+        return latencyTracker;
+    }
+
+    private boolean attachEndpointChannel(RpcEndpoint endpoint, RpcClientChannelImpl rpcClientChannel) {
+        if(rpcClientChannel == null) {
+            return false;
+        }
+
+        for(Map.Entry<Class, Object> oobHandlerEntry : mOobHandlerMap.entrySet()) {
+            //noinspection unchecked
+            rpcClientChannel.addOobHandler(oobHandlerEntry.getKey(), oobHandlerEntry.getValue());
+        }
+        rpcClientChannel.setChannelDisconnectListener(new EndpointDisconnectListener(endpoint));
+
+        synchronized (this) {
+            if(mClosed) {
+                rpcClientChannel.close();
+                return true;
+            }
+
+            endpoint.setRpcClientChannel(rpcClientChannel);
+            endpoint.resetFailureCount();
+            endpoint.resetEjectionCount();
+            endpoint.setEjected(false);
+            updateHealthyEndpoints();
+        }
+
+        if(!rpcClientChannel.isActive()) {
+            ejectEndpoint(endpoint, rpcClientChannel);
+        }
+        return true;
+    }
+
+    private void ejectEndpoint(RpcEndpoint endpoint, ProtobufRpcClientChannel failedChannel) {
+        synchronized (this) {
+            if(mClosed || endpoint.getRpcClientChannel() != failedChannel) {
+                return;
+            }
+
+            endpoint.setEjected(true);
+            endpoint.setRpcClientChannel(null);
+            updateHealthyEndpoints();
+        }
+
+        if(failedChannel != null) {
+            failedChannel.close();
+        }
+        scheduleProbe(endpoint);
+    }
+
+    private void scheduleProbe(final RpcEndpoint endpoint) {
+        if(mClosed) {
+            return;
+        }
+
+        final int ejectionCount;
+        synchronized (this) {
+            ejectionCount = endpoint.incrementEjectionCount();
+        }
+        final long delayMillis = Math.min(mEjectionBaseMillis << Math.min(ejectionCount - 1, 20), mMaxEjectionMillis);
+        try {
+            mProbeExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if(mClosed) {
+                        return;
+                    }
+
+                    mProtobufRpcClient.createClientChannelAsync(endpoint.getRemoteAddress(), mSsl).addListener(new GenericFutureListener<Future<RpcClientChannelImpl>>() {
+                        @Override
+                        public void operationComplete(Future<RpcClientChannelImpl> connectFuture) {
+                            if(!connectFuture.isSuccess() || !attachEndpointChannel(endpoint, connectFuture.getNow())) {
+                                scheduleProbe(endpoint);
+                            }
+                        }
+                    });
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignore) {
+            // Channel was closed concurrently.
+        }
+    }
+
+    private void updateHealthyEndpoints() {
+        List<RpcEndpoint> healthyEndpoints = new ArrayList<>(mEndpoints.size());
+        for(RpcEndpoint endpoint : mEndpoints) {
+            if(endpoint.isHealthy()) {
+                healthyEndpoints.add(endpoint);
+            }
+        }
+        mHealthyEndpoints = Collections.unmodifiableList(healthyEndpoints);
+    }
+}
@@ -0,0 +1,301 @@
+package me.trinopoty.protobufRpc.client;
+
+import com.google.protobuf.AbstractMessage;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.Promise;
+import me.trinopoty.protobufRpc.DisconnectReason;
+import me.trinopoty.protobufRpc.RpcWritabilityMetrics;
+import me.trinopoty.protobufRpc.exception.RpcCallException;
+import me.trinopoty.protobufRpc.exception.RpcChannelClosedException;
+import me.trinopoty.protobufRpc.exception.RpcChannelUnavailableException;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link ProtobufRpcClientChannel} which re-establishes its connection whenever it is lost.
+ * Service proxies and OOB handlers stay valid across reconnects, so pushes resume on the new connection without
+ * the application registering them again. Calls made while reconnecting are handled as configured in the {@link RpcReconnectPolicy}.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class ProtobufRpcReconnectingChannel implements ProtobufRpcClientChannel {
+
+    private final class ReconnectingInvocationHandler implements InvocationHandler {
+
+        private final RpcServiceCollector.RpcServiceInfo mRpcServiceInfo;
+
+        ReconnectingInvocationHandler(RpcServiceCollector.RpcServiceInfo serviceInfo) {
+            mRpcServiceInfo = serviceInfo;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final RpcServiceCollector.RpcMethodInfo methodInfo = mRpcServiceInfo.getMethodMap().get(method);
+            assert methodInfo != null;
+
+            final Object requestArgument = (methodInfo.getRequestMessageParser() != null)? args[0] : null;
+            final AbstractMessage requestMessage = (!methodInfo.isClientStreaming())? (AbstractMessage) requestArgument : null;
+            return mProtobufRpcClient.invoke(mCallCoalescer, mRpcServiceInfo, methodInfo, requestMessage, new RpcCallAttempt() {
+                @Override
+                public Object invoke(int attemptNumber) throws Exception {
+                    return getConnectedChannel().invokeRpc(mRpcServiceInfo, methodInfo, requestArgument);
+                }
+            });
+        }
+    }
+
+    private final ProtobufRpcClientChannelDisconnectListener mConnectionLostListener = new ProtobufRpcClientChannelDisconnectListener() {
+        @Override
+        public void channelDisconnected(ProtobufRpcClientChannel channel, DisconnectReason reason) {
+            ProtobufRpcClientChannelDisconnectListener channelDisconnectListener = mChannelDisconnectListener;
+            if(channelDisconnectListener != null) {
+                channelDisconnectListener.channelDisconnected(ProtobufRpcReconnectingChannel.this, reason);
+            }
+
+            Promise<RpcClientChannelImpl> connectPromise = mConnectPromise.get();
+            if(!mClosed && connectPromise.isSuccess() && (connectPromise.getNow() == channel)) {
+                startReconnect(connectPromise);
+            }
+        }
+    };
+
+    private final ProtobufRpcClient mProtobufRpcClient;
+    private final RpcReconnectPolicy mReconnectPolicy;
+    private final InetSocketAddress mRemoteAddress;
+    private final boolean mSsl;
+    private final EventExecutor mEventExecutor;
+    private final RpcCallCoalescer mCallCoalescer;
+
+    private final Map<Class, Object> mProxyMap = new HashMap<>();
+    private final Map<Class, Object> mOobHandlerMap = new HashMap<>();
+    private volatile ProtobufRpcClientChannelDisconnectListener mChannelDisconnectListener = null;
+
+    /**
+     * Future of the current connection. Replaced by a new promise whenever a reconnect starts.
+     */
+    private final AtomicReference<Promise<RpcClientChannelImpl>> mConnectPromise;
+    private volatile boolean mClosed = false;
+
+    ProtobufRpcReconnectingChannel(RpcReconnectPolicy reconnectPolicy, ProtobufRpcClient protobufRpcClient, InetSocketAddress remoteAddress, boolean ssl) {
+        mProtobufRpcClient = protobufRpcClient;
+        mReconnectPolicy = reconnectPolicy;
+        mRemoteAddress = remoteAddress;
+        mSsl = ssl;
+        mEventExecutor = protobufRpcClient.nextEventExecutor();
+        mCallCoalescer = new RpcCallCoalescer(mEventExecutor);
+
+        Promise<RpcClientChannelImpl> connectPromise = mEventExecutor.newPromise();
+        mConnectPromise = new AtomicReference<>(connectPromise);
+        connect(connectPromise, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public synchronized <T> T getService(Class<T> classOfService) {
+        if(!mProxyMap.containsKey(classOfService)) {
+            RpcServiceCollector.RpcServiceInfo serviceInfo = mProtobufRpcClient.getRpcServiceCollector().getServiceInfo(classOfService);
+            if(serviceInfo != null) {
+                mProxyMap.put(classOfService, Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { classOfService }, new ReconnectingInvocationHandler(serviceInfo)));
+            }
+        }
+
+        return (T) mProxyMap.get(classOfService);
+    }
+
+    @Override
+    public synchronized <T> void addOobHandler(Class<T> classOfOob, T objectOfOob) {
+        if(!mOobHandlerMap.containsKey(classOfOob)) {
+            RpcServiceCollector.RpcServiceInfo serviceInfo = mProtobufRpcClient.getRpcServiceCollector().getServiceInfo(classOfOob);
+            if((serviceInfo == null) || !serviceInfo.isOob()) {
+                throw new IllegalArgumentException(String.format("Class<%s> not registered for OOB handling.", classOfOob.getName()));
+            }
+        }
+
+        mOobHandlerMap.put(classOfOob, objectOfOob);
+
+        Promise<RpcClientChannelImpl> connectPromise = mConnectPromise.get();
+        if(connectPromise.isSuccess()) {
+            connectPromise.getNow().addOobHandler(classOfOob, objectOfOob);
+        }
+    }
+
+    /**
+     * Retrieves boolean value indicating if the channel is currently connected.
+     * A channel which is reconnecting is not active.
+     *
+     * @return boolean value indicating whether the connection is active.
+     */
+    @Override
+    public boolean isActive() {
+        Promise<RpcClientChannelImpl> connectPromise = mConnectPromise.get();
+        return !mClosed && connectPromise.isSuccess() && connectPromise.getNow().isActive();
+    }
+
+    /**
+     * Adds a listener for channel disconnect events. The listener is called every time the connection is lost,
+     * before reconnecting starts.
+     *
+     * @param channelDisconnectListener The channel disconnect listener.
+     */
+    @Override
+    public void setChannelDisconnectListener(ProtobufRpcClientChannelDisconnectListener channelDisconnectListener) {
+        mChannelDisconnectListener = channelDisconnectListener;
+    }
+
+    @Override
+    public void close() {
+        Promise<RpcClientChannelImpl> connectPromise;
+        synchronized (this) {
+            if(mClosed) {
+                return;
+            }
+            mClosed = true;
+            connectPromise = mConnectPromise.get();
+
+            mProxyMap.clear();
+            mOobHandlerMap.clear();
+        }
+
+        // Connections completing after this point are closed by attachChannel
+        if(connectPromise.isSuccess()) {
+            connectPromise.getNow().close();
+        } else {
+            connectPromise.tryFailure(new RpcChannelClosedException("Channel closed."));
+        }
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return mRemoteAddress;
+    }
+
+    /**
+     * Gets the writability statistics of the current connection.
+     *
+     * @return The writability metrics, or null while reconnecting.
+     */
+    @Override
+    public RpcWritabilityMetrics getWritabilityMetrics() {
+        Promise<RpcClientChannelImpl> connectPromise = mConnectPromise.get();
+        return connectPromise.isSuccess()? connectPromise.getNow().getWritabilityMetrics() : null;
+    }
+
+    /**
+     * Gets the current connection, starting a reconnect if it has been lost.
+     * Depending on the reconnect policy, waits for the connection to be re-established or fails immediately.
+     */
+    private RpcClientChannelImpl getConnectedChannel() {
+        if(mClosed) {
+            throw new RpcChannelClosedException("Channel closed.");
+        }
+
+        Promise<RpcClientChannelImpl> connectFuture = mConnectPromise.get();
+        if(connectFuture.isDone()) {
+            if(connectFuture.isSuccess() && connectFuture.getNow().isActive()) {
+                return connectFuture.getNow();
+            }
+            connectFuture = startReconnect(connectFuture);
+        }
+
+        if(!connectFuture.isDone()) {
+            if(mReconnectPolicy.getMode() == RpcReconnectPolicy.Mode.FAIL_FAST) {
+                throw new RpcChannelUnavailableException("Channel is reconnecting.");
+            }
+
+            try {
+                if(!connectFuture.await(mReconnectPolicy.getQueueTimeoutMillis())) {
+                    throw new RpcChannelUnavailableException("Timeout waiting for reconnect.");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RpcCallException("Interrupted while waiting for reconnect.", ex);
+            }
+        }
+
+        if(!connectFuture.isSuccess()) {
+            if(connectFuture.cause() instanceof RpcChannelClosedException) {
+                throw (RpcChannelClosedException) connectFuture.cause();
+            }
+            throw new RpcChannelUnavailableException("Unable to reconnect.", connectFuture.cause());
+        }
+        return connectFuture.getNow();
+    }
+
+    /**
+     * Replaces a lost or failed connection with a new connection attempt, unless another thread already did.
+     *
+     * @return Future of the connection replacing the lost one.
+     */
+    private Promise<RpcClientChannelImpl> startReconnect(Promise<RpcClientChannelImpl> lostConnectPromise) {
+        Promise<RpcClientChannelImpl> connectPromise = mEventExecutor.newPromise();
+        if(mConnectPromise.compareAndSet(lostConnectPromise, connectPromise)) {
+            connect(connectPromise, 0);
+            return connectPromise;
+        }
+        return mConnectPromise.get();
+    }
+
+    private void connect(final Promise<RpcClientChannelImpl> connectPromise, final int failedAttemptCount) {
+        mProtobufRpcClient.createClientChannelAsync(mRemoteAddress, mSsl).addListener(new GenericFutureListener<Future<RpcClientChannelImpl>>() {
+            @Override
+            public void operationComplete(Future<RpcClientChannelImpl> connectFuture) {
+                if(connectFuture.isSuccess()) {
+                    attachChannel(connectPromise, connectFuture.getNow());
+                } else if(mClosed) {
+                    connectPromise.tryFailure(new RpcChannelClosedException("Channel closed."));
+                } else if((mReconnectPolicy.getMaxAttempts() >= 0) && ((failedAttemptCount + 1) >= mReconnectPolicy.getMaxAttempts())) {
+                    connectPromise.tryFailure(connectFuture.cause());
+                } else {
+                    scheduleConnect(connectPromise, failedAttemptCount + 1);
+                }
+            }
+        });
+    }
+
+    private void scheduleConnect(final Promise<RpcClientChannelImpl> connectPromise, final int failedAttemptCount) {
+        try {
+            mEventExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    connect(connectPromise, failedAttemptCount);
+                }
+            }, mReconnectPolicy.getBackoffMillis(failedAttemptCount), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // Client was closed concurrently.
+            connectPromise.tryFailure(new RpcChannelClosedException("Client closed.", ex));
+        }
+    }
+
+    /**
+     * Restores the OOB handlers on a new connection and makes it the current one.
+     * Holds the lock so that handlers added concurrently are not missed.
+     */
+    private synchronized void attachChannel(Promise<RpcClientChannelImpl> connectPromise, RpcClientChannelImpl rpcClientChannel) {
+        if(mClosed) {
+            rpcClientChannel.close();
+            connectPromise.tryFailure(new RpcChannelClosedException("Channel closed."));
+            return;
+        }
+
+        for(Map.Entry<Class, Object> oobHandlerEntry : mOobHandlerMap.entrySet()) {
+            //noinspection unchecked
+            rpcClientChannel.addOobHandler(oobHandlerEntry.getKey(), oobHandlerEntry.getValue());
+        }
+        rpcClientChannel.setChannelDisconnectListener(mConnectionLostListener);
+
+        if(!connectPromise.trySuccess(rpcClientChannel)) {
+            rpcClientChannel.setChannelDisconnectListener(null);
+            rpcClientChannel.close();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package me.trinopoty.protobufRpc.client;
+
+import com.google.protobuf.AbstractMessage;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends calls to each healthy endpoint in turn.
+ */
+public final class RoundRobinLoadBalancingPolicy implements RpcLoadBalancingPolicy {
+
+    private final AtomicInteger mNextIndex = new AtomicInteger(0);
+
+    @Override
+    public RpcEndpoint select(List<RpcEndpoint> endpoints, RpcServiceCollector.RpcMethodInfo methodInfo, AbstractMessage requestMessage) {
+        int index = (mNextIndex.getAndIncrement() & Integer.MAX_VALUE) % endpoints.size();
+        return endpoints.get(index);
+    }
+}
@@ -0,0 +1,23 @@
+package me.trinopoty.protobufRpc.client;
+
+/**
+ * A single attempt of a call, repeated by {@link ProtobufRpcClient} according to the retry policy of the method.
+ */
+abstract class RpcCallAttempt {
+
+    /**
+     * @param attemptNumber The number of the attempt, starting at 1.
+     * @return The response message, or null if the method does not return one.
+     */
+    abstract Object invoke(int attemptNumber) throws Exception;
+
+    /**
+     * Checks whether another attempt can succeed at all. Attempts bound to a single channel cannot once it is closed,
+     * so the failure is returned at once instead of being retried until the attempts are exhausted.
+     *
+     * @return false if a failed call must not be retried.
+     */
+    boolean canRetry() {
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package me.trinopoty.protobufRpc.client;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Promise;
+import me.trinopoty.protobufRpc.exception.RpcCallException;
+import me.trinopoty.protobufRpc.util.RpcResponseCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collapses identical concurrent calls made through one channel into a single request.
+ * The first caller sends the request, later callers wait for its result while it is in flight.
+ */
+final class RpcCallCoalescer {
+
+    private final EventExecutor mEventExecutor;
+    private final ConcurrentMap<RpcResponseCache.Key, Promise<Object>> mInFlightCallMap = new ConcurrentHashMap<>();
+
+    RpcCallCoalescer(EventExecutor eventExecutor) {
+        mEventExecutor = eventExecutor;
+    }
+
+    Object invoke(RpcResponseCache.Key callKey, Callable<Object> call) throws Exception {
+        Promise<Object> callPromise = mEventExecutor.newPromise();
+        Promise<Object> inFlightCallPromise = mInFlightCallMap.putIfAbsent(callKey, callPromise);
+        if(inFlightCallPromise != null) {
+            return waitForResult(inFlightCallPromise);
+        }
+
+        try {
+            Object result = call.call();
+            callPromise.setSuccess(result);
+            return result;
+        } catch (Throwable ex) {
+            callPromise.setFailure(ex);
+            throw ex;
+        } finally {
+            mInFlightCallMap.remove(callKey, callPromise);
+        }
+    }
+
+    private static Object waitForResult(Promise<Object> callPromise) throws Exception {
+        try {
+            callPromise.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RpcCallException("Interrupted while waiting for response.", ex);
+        }
+
+        if(callPromise.isSuccess()) {
+            return callPromise.getNow();
+        } else if(callPromise.cause() instanceof Exception) {
+            throw (Exception) callPromise.cause();
+        } else {
+            throw (Error) callPromise.cause();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package me.trinopoty.protobufRpc.client;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the outcome of calls and connection attempts to a single server address.
+ *
+ * The circuit opens when the failure rate or the slow call rate of the recent calls reaches its threshold, and all calls
+ * are rejected without contacting the server. After the open duration a limited number of probe calls are let through;
+ * the circuit closes if all of them succeed and opens again otherwise.
+ *
+ * Every permission carries the generation of the state it was granted in, which changes on every state transition.
+ * Outcomes of calls permitted in an earlier generation are ignored, so a call admitted while the circuit was closed
+ * cannot pass for a probe once it is half open.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RpcCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Returned by {@link #tryAcquirePermission()} when a call must be rejected.
+     */
+    static final long NO_PERMISSION = -1;
+
+    private static final byte OUTCOME_FAILURE = 1;
+    private static final byte OUTCOME_SLOW = 2;
+
+    private final InetSocketAddress mRemoteAddress;
+    private final int mMinimumCallCount;
+    private final int mFailureRateThreshold;
+    private final int mSlowCallRateThreshold;
+    private final long mSlowCallDurationNanos;
+    private final long mOpenDurationNanos;
+    private final int mHalfOpenProbeCount;
+
+    private final byte[] mOutcomes;
+    private int mOutcomeIndex = 0;
+    private int mOutcomeCount = 0;
+    private int mFailureCount = 0;
+    private int mSlowCount = 0;
+
+    private volatile State mState = State.CLOSED;
+    private volatile long mGeneration = 0;
+    private volatile long mOpenedAt = 0;
+    private int mProbesIssued = 0;
+    private int mProbesSucceeded = 0;
+
+    RpcCircuitBreaker(InetSocketAddress remoteAddress, RpcCircuitBreakerConfig config) {
+        mRemoteAddress = remoteAddress;
+        mMinimumCallCount = Math.max(1, Math.min(config.getMinimumCallCount(), config.getSlidingWindowSize()));
+        mFailureRateThreshold = config.getFailureRateThreshold();
+        mSlowCallRateThreshold = config.getSlowCallRateThreshold();
+        mSlowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDurationMillis());
+        mOpenDurationNanos = TimeUnit.MILLISECONDS.toNanos(config.getOpenDurationMillis());
+        mHalfOpenProbeCount = config.getHalfOpenProbeCount();
+        mOutcomes = new byte[config.getSlidingWindowSize()];
+    }
+
+    public InetSocketAddress getRemoteAddress() {
+        return mRemoteAddress;
+    }
+
+    public State getState() {
+        return mState;
+    }
+
+    /**
+     * Checks whether a call may be made. Every permitted call must be followed by exactly one call
+     * to {@link #onSuccess(long, long)}, {@link #onFailure(long, long)} or {@link #onIgnored(long)} with the returned permission.
+     *
+     * @return The permission of the call, or {@link #NO_PERMISSION} if the call must be rejected.
+     */
+    long tryAcquirePermission() {
+        // The generation is read first, so a transition in between leaves a stale permission instead of a wrong one
+        long generation = mGeneration;
+        State state = mState;
+        if(state == State.CLOSED) {
+            return generation;
+        }
+        if((state == State.OPEN) && ((System.nanoTime() - mOpenedAt) < mOpenDurationNanos)) {
+            return NO_PERMISSION;
+        }
+
+        synchronized (this) {
+            if(mState == State.OPEN) {
+                if((System.nanoTime() - mOpenedAt) < mOpenDurationNanos) {
+                    return NO_PERMISSION;
+                }
+                mState = State.HALF_OPEN;
+                mGeneration++;
+                mProbesIssued = 0;
+                mProbesSucceeded = 0;
+            }
+            if(mState == State.HALF_OPEN) {
+                if(mProbesIssued >= mHalfOpenProbeCount) {
+                    return NO_PERMISSION;
+                }
+                mProbesIssued++;
+            }
+            return mGeneration;
+        }
+    }
+
+    synchronized void onSuccess(long permission, long durationNanos) {
+        if(permission != mGeneration) {
+            return;
+        }
+
+        boolean slow = durationNanos >= mSlowCallDurationNanos;
+        if(mState == State.HALF_OPEN) {
+            if(slow) {
+                open();
+            } else if(++mProbesSucceeded >= mHalfOpenProbeCount) {
+                close();
+            }
+        } else if(mState == State.CLOSED) {
+            recordOutcome(slow? OUTCOME_SLOW : 0);
+        }
+    }
+
+    synchronized void onFailure(long permission, long durationNanos) {
+        if(permission != mGeneration) {
+            return;
+        }
+
+        if(mState == State.HALF_OPEN) {
+            open();
+        } else if(mState == State.CLOSED) {
+            recordOutcome((byte) (OUTCOME_FAILURE | ((durationNanos >= mSlowCallDurationNanos)? OUTCOME_SLOW : 0)));
+        }
+    }
+
+    /**
+     * Releases the permission of a call whose outcome says nothing about the server, such as a cancelled call.
+     */
+    synchronized void onIgnored(long permission) {
+        if((permission == mGeneration) && (mState == State.HALF_OPEN) && (mProbesIssued > mProbesSucceeded)) {
+            mProbesIssued--;
+        }
+    }
+
+    private void recordOutcome(byte outcome) {
+        if(mOutcomeCount == mOutcomes.length) {
+            byte oldOutcome = mOutcomes[mOutcomeIndex];
+            mFailureCount -= ((oldOutcome & OUTCOME_FAILURE) != 0)? 1 : 0;
+            mSlowCount -= ((oldOutcome & OUTCOME_SLOW) != 0)? 1 : 0;
+        } else {
+            mOutcomeCount++;
+        }
+        mOutcomes[mOutcomeIndex] = outcome;
+        mOutcomeIndex = (mOutcomeIndex + 1) % mOutcomes.length;
+        mFailureCount += ((outcome & OUTCOME_FAILURE) != 0)? 1 : 0;
+        mSlowCount += ((outcome & OUTCOME_SLOW) != 0)? 1 : 0;
+
+        if(mOutcomeCount >= mMinimumCallCount) {
+            if(((mFailureCount * 100) >= (mFailureRateThreshold * mOutcomeCount)) || ((mSlowCount * 100) >= (mSlowCallRateThreshold * mOutcomeCount))) {
+                open();
+            }
+        }
+    }
+
+    private void open() {
+        mOpenedAt = System.nanoTime();
+        mState = State.OPEN;
+        mGeneration++;
+    }
+
+    private void close() {
+        mOutcomeIndex = 0;
+        mOutcomeCount = 0;
+        mFailureCount = 0;
+        mSlowCount = 0;
+        mState = State.CLOSED;
+        mGeneration++;
+    }
+}
@@ -0,0 +1,116 @@
+package me.trinopoty.protobufRpc.client;
+
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RpcCircuitBreakerConfig {
+
+    private int mSlidingWindowSize = 20;
+    private int mMinimumCallCount = 10;
+    private int mFailureRateThreshold = 50;
+    private int mSlowCallRateThreshold = 100;
+    private long mSlowCallDurationMillis = 1000;
+    private long mOpenDurationMillis = 5000;
+    private int mHalfOpenProbeCount = 3;
+
+    public int getSlidingWindowSize() {
+        return mSlidingWindowSize;
+    }
+
+    /**
+     * Sets the number of most recent calls from which the failure and slow call rates are computed.
+     *
+     * @param slidingWindowSize The number of calls.
+     */
+    public void setSlidingWindowSize(int slidingWindowSize) {
+        if(slidingWindowSize < 1) {
+            throw new IllegalArgumentException("Sliding window size must be at least 1.");
+        }
+        mSlidingWindowSize = slidingWindowSize;
+    }
+
+    public int getMinimumCallCount() {
+        return mMinimumCallCount;
+    }
+
+    /**
+     * Sets the number of calls which must be recorded before the circuit can open.
+     *
+     * @param minimumCallCount The number of calls.
+     */
+    public void setMinimumCallCount(int minimumCallCount) {
+        mMinimumCallCount = minimumCallCount;
+    }
+
+    public int getFailureRateThreshold() {
+        return mFailureRateThreshold;
+    }
+
+    /**
+     * Sets the percentage of failed calls at which the circuit opens.
+     *
+     * @param failureRateThreshold The percentage in the range [1, 100].
+     */
+    public void setFailureRateThreshold(int failureRateThreshold) {
+        if((failureRateThreshold < 1) || (failureRateThreshold > 100)) {
+            throw new IllegalArgumentException("Failure rate threshold must be in the range [1, 100].");
+        }
+        mFailureRateThreshold = failureRateThreshold;
+    }
+
+    public int getSlowCallRateThreshold() {
+        return mSlowCallRateThreshold;
+    }
+
+    /**
+     * Sets the percentage of slow calls at which the circuit opens.
+     *
+     * @param slowCallRateThreshold The percentage in the range [1, 100].
+     */
+    public void setSlowCallRateThreshold(int slowCallRateThreshold) {
+        if((slowCallRateThreshold < 1) || (slowCallRateThreshold > 100)) {
+            throw new IllegalArgumentException("Slow call rate threshold must be in the range [1, 100].");
+        }
+        mSlowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public long getSlowCallDurationMillis() {
+        return mSlowCallDurationMillis;
+    }
+
+    /**
+     * Sets the duration after which a call or connection attempt is considered slow.
+     *
+     * @param slowCallDurationMillis The duration in milliseconds.
+     */
+    public void setSlowCallDurationMillis(long slowCallDurationMillis) {
+        mSlowCallDurationMillis = slowCallDurationMillis;
+    }
+
+    public long getOpenDurationMillis() {
+        return mOpenDurationMillis;
+    }
+
+    /**
+     * Sets the time an open circuit rejects calls before probe calls are allowed through.
+     *
+     * @param openDurationMillis The duration in milliseconds.
+     */
+    public void setOpenDurationMillis(long openDurationMillis) {
+        mOpenDurationMillis = openDurationMillis;
+    }
+
+    public int getHalfOpenProbeCount() {
+        return mHalfOpenProbeCount;
+    }
+
+    /**
+     * Sets the number of probe calls allowed through a half-open circuit. The circuit closes if all of them succeed.
+     *
+     * @param halfOpenProbeCount The number of probe calls.
+     */
+    public void setHalfOpenProbeCount(int halfOpenProbeCount) {
+        if(halfOpenProbeCount < 1) {
+            throw new IllegalArgumentException("Half-open probe count must be at least 1.");
+        }
+        mHalfOpenProbeCount = halfOpenProbeCount;
+    }
+}
@@ -0,0 +1,179 @@
+package me.trinopoty.protobufRpc.client;
+
+import com.google.protobuf.AbstractMessage;
+import me.trinopoty.protobufRpc.RpcStreamObserver;
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+import me.trinopoty.protobufRpc.exception.RpcCallException;
+import me.trinopoty.protobufRpc.exception.RpcCallTimeoutException;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The request observer returned by client streaming and bidirectional streaming methods on the client.
+ *
+ * Request messages are sent while the server has granted credits; otherwise {@link #onNext(Object)} waits until it
+ * grants more, so a slow server throttles the sender. Responses are passed to the response observer on the event loop
+ * of the channel, and the server is granted new credits once the observer has processed them.
+ */
+final class RpcClientCallStream<T> implements RpcStreamObserver<T> {
+
+    private final RpcClientChannelImpl mRpcClientChannel;
+    private final RpcServiceCollector.RpcMethodInfo mMethodInfo;
+    private final WirePacketFormat.WirePacket mRequestWirePacket;
+    private final RpcStreamObserver<Object> mResponseObserver;
+    private final int mReceiveWindowSize;
+
+    private int mSendCredits = 0;
+    private boolean mHalfClosed = false;
+    private volatile boolean mFinished = false;
+    private int mReceivedCount = 0;
+
+    RpcClientCallStream(RpcClientChannelImpl rpcClientChannel, RpcServiceCollector.RpcMethodInfo methodInfo, WirePacketFormat.WirePacket requestWirePacket, RpcStreamObserver<Object> responseObserver) {
+        mRpcClientChannel = rpcClientChannel;
+        mMethodInfo = methodInfo;
+        mRequestWirePacket = requestWirePacket;
+        mResponseObserver = responseObserver;
+        mReceiveWindowSize = requestWirePacket.getStreamCredits();
+    }
+
+    /**
+     * Sends a request message, waiting for the server to grant a credit if necessary.
+     * Messages sent from the event loop of the channel, such as from the response observer, never wait.
+     *
+     * @throws RpcCallTimeoutException If no credit was granted within the receive timeout.
+     * @throws RpcCallException If the call has already terminated.
+     */
+    @Override
+    public void onNext(T message) {
+        if(message == null) {
+            throw new IllegalArgumentException("Stream message cannot be null.");
+        }
+
+        synchronized (this) {
+            if(mHalfClosed) {
+                throw new IllegalStateException("Request stream already completed.");
+            }
+
+            if(!mRpcClientChannel.inEventLoop()) {
+                long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(mRpcClientChannel.getDefaultReceiveTimeoutMillis());
+                long deadline = System.nanoTime() + timeoutNanos;
+                while((mSendCredits <= 0) && !mFinished) {
+                    if(timeoutNanos <= 0) {
+                        throw new RpcCallTimeoutException("Timeout waiting for stream credits.");
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, timeoutNanos);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new RpcCallException("Interrupted while waiting for stream credits.", ex);
+                    }
+                    timeoutNanos = deadline - System.nanoTime();
+                }
+            }
+
+            if(mFinished) {
+                throw new RpcCallException("Call already terminated.");
+            }
+            mSendCredits--;
+        }
+
+        mRpcClientChannel.sendStreamPacket(mRequestWirePacket, WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_MESSAGE, ((AbstractMessage) message).toByteString());
+    }
+
+    /**
+     * Cancels the call. The response observer is not called afterwards.
+     */
+    @Override
+    public void onError(Throwable cause) {
+        synchronized (this) {
+            if(mFinished) {
+                return;
+            }
+            mFinished = true;
+            notifyAll();
+        }
+
+        mRpcClientChannel.cancelCallStream(mRequestWirePacket);
+    }
+
+    /**
+     * Completes the request stream. Responses are received until the server completes the response stream.
+     */
+    @Override
+    public void onCompleted() {
+        synchronized (this) {
+            if(mHalfClosed || mFinished) {
+                return;
+            }
+            mHalfClosed = true;
+        }
+
+        mRpcClientChannel.sendStreamPacket(mRequestWirePacket, WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_END, null);
+    }
+
+    synchronized void receivedCredits(int credits) {
+        if(credits > 0) {
+            mSendCredits += credits;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Passes a response, error or end of stream packet to the response observer. Called on the event loop of the channel.
+     */
+    void receivedPacket(WirePacketFormat.WirePacket wirePacket) {
+        if(wirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE) {
+            if(mFinished) {
+                return;
+            }
+
+            Object responseMessage;
+            try {
+                responseMessage = mRpcClientChannel.parseRpcResponse(mMethodInfo, mRequestWirePacket, wirePacket);
+            } catch (IOException | RuntimeException ex) {
+                onError(ex);
+                mResponseObserver.onError(ex);
+                return;
+            }
+
+            try {
+                mResponseObserver.onNext(responseMessage);
+            } catch (RuntimeException ex) {
+                onError(ex);
+                throw ex;
+            }
+            if(++mReceivedCount >= Math.max(1, mReceiveWindowSize / 2)) {
+                mRpcClientChannel.sendStreamCredit(mRequestWirePacket, mReceivedCount);
+                mReceivedCount = 0;
+            }
+        } else if(finish()) {
+            if(wirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_END) {
+                mResponseObserver.onCompleted();
+            } else {
+                try {
+                    mRpcClientChannel.parseRpcResponse(mMethodInfo, mRequestWirePacket, wirePacket);
+                    mResponseObserver.onError(new RpcCallException("Invalid response received: " + wirePacket.toString()));
+                } catch (IOException | RuntimeException ex) {
+                    mResponseObserver.onError(ex);
+                }
+            }
+        }
+    }
+
+    void fail(RpcCallException cause) {
+        if(finish()) {
+            mResponseObserver.onError(cause);
+        }
+    }
+
+    private synchronized boolean finish() {
+        if(mFinished) {
+            return false;
+        }
+        mFinished = true;
+        notifyAll();
+        return true;
+    }
+}
@@ -36,6 +36,14 @@ final class RpcClientChannelHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        if(mRpcClientChannel != null) {
+            mRpcClientChannel.getWriteBackpressure().writabilityChanged();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         if(mRpcClientChannel != null) {
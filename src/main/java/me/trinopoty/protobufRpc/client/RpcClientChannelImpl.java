@@ -1,14 +1,31 @@
 package me.trinopoty.protobufRpc.client;
 
 import com.google.protobuf.AbstractMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.ByteString;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.concurrent.PromiseNotifier;
 import me.trinopoty.protobufRpc.DisconnectReason;
+import me.trinopoty.protobufRpc.RpcStreamObserver;
+import me.trinopoty.protobufRpc.RpcWritabilityMetrics;
 import me.trinopoty.protobufRpc.codec.WirePacketFormat;
 import me.trinopoty.protobufRpc.exception.RpcCallException;
+import me.trinopoty.protobufRpc.exception.RpcCallTimeoutException;
+import me.trinopoty.protobufRpc.exception.RpcCircuitOpenException;
+import me.trinopoty.protobufRpc.exception.RpcConcurrencyLimitException;
+import me.trinopoty.protobufRpc.exception.RpcServerOverloadedException;
+import me.trinopoty.protobufRpc.exception.RpcChannelClosedException;
+import me.trinopoty.protobufRpc.exception.RpcChannelUnavailableException;
 import me.trinopoty.protobufRpc.exception.RpcCallServerException;
+import me.trinopoty.protobufRpc.server.RpcCallContext;
+import me.trinopoty.protobufRpc.util.RpcConcurrencyLimiter;
 import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+import me.trinopoty.protobufRpc.util.RpcWriteBackpressure;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationHandler;
@@ -35,70 +52,22 @@ final class RpcClientChannelImpl implements ProtobufRpcClientChannel, ChannelFut
 
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-            if(!RpcClientChannelImpl.this.isActive()) {
-                throw new RpcCallException("Channel is not active.");
-            }
-
-            RpcServiceCollector.RpcMethodInfo methodInfo = mRpcServiceInfo.getMethodMap().get(method);
+            final RpcServiceCollector.RpcMethodInfo methodInfo = mRpcServiceInfo.getMethodMap().get(method);
             assert methodInfo != null;
 
-            final long messageIdentifier = mMessageIdentifierGenerator.incrementAndGet();
-
-            WirePacketFormat.ServiceIdentifier serviceIdentifier = WirePacketFormat.ServiceIdentifier.newBuilder()
-                    .setServiceIdentifier(mRpcServiceInfo.getServiceIdentifier())
-                    .setMethodIdentifier(methodInfo.getMethodIdentifier())
-                    .build();
-            WirePacketFormat.WirePacket.Builder requestWirePacketBuilder = WirePacketFormat.WirePacket.newBuilder();
-            requestWirePacketBuilder.setMessageIdentifier(messageIdentifier);
-            requestWirePacketBuilder.setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_REQUEST);
-            requestWirePacketBuilder.setServiceIdentifier(serviceIdentifier);
-
-            AbstractMessage requestMessage = null;
-            if(methodInfo.getRequestMessageParser() != null) {
-                requestMessage = (AbstractMessage) args[0];
-                requestWirePacketBuilder.setPayload(requestMessage.toByteString());
-            }
-
-            if(mRpcClientChannelHandler.mEnableRpcLogging) {
-                mRpcClientChannelHandler.mLogger.info(String.format("[ClientChannel:%s] {%d, %d, %d} Sending RPC request: { %s }",
-                        mRpcClientChannelHandler.mLoggingName,
-                        messageIdentifier,
-                        serviceIdentifier.getServiceIdentifier(),
-                        serviceIdentifier.getMethodIdentifier(),
-                        (requestMessage != null)? requestMessage.toString() : "null"));
-            }
-
-            WirePacketFormat.WirePacket responseWirePacketPacket = callRpcAndWaitForResponse(requestWirePacketBuilder.build());
-            if(responseWirePacketPacket != null) {
-                if (responseWirePacketPacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE) {
-                    AbstractMessage responseMessage = null;
-                    if(methodInfo.getResponseMessageParser() != null) {
-                        try {
-                            responseMessage = (AbstractMessage) methodInfo.getResponseMessageParser().invoke(null, (Object) responseWirePacketPacket.getPayload().toByteArray());
-                        } catch (IllegalAccessException | InvocationTargetException ex) {
-                            throw new RpcCallException("Unable to parse response message.", ex);
-                        }
-                    }
-
-                    if(mRpcClientChannelHandler.mEnableRpcLogging) {
-                        mRpcClientChannelHandler.mLogger.info(String.format("[ClientChannel:%s] {%d, %d, %d} Received RPC response: { %s }",
-                                mRpcClientChannelHandler.mLoggingName,
-                                messageIdentifier,
-                                serviceIdentifier.getServiceIdentifier(),
-                                serviceIdentifier.getMethodIdentifier(),
-                                (responseMessage != null)? responseMessage.toString() : "null"));
-                    }
+            final Object requestArgument = (methodInfo.getRequestMessageParser() != null)? args[0] : null;
+            final AbstractMessage requestMessage = (!methodInfo.isClientStreaming())? (AbstractMessage) requestArgument : null;
+            return mProtobufRpcClient.invoke(mCallCoalescer, mRpcServiceInfo, methodInfo, requestMessage, new RpcCallAttempt() {
+                @Override
+                public Object invoke(int attemptNumber) throws Exception {
+                    return invokeRpc(mRpcServiceInfo, methodInfo, requestArgument);
+                }
 
-                    return responseMessage;
-                } else if (responseWirePacketPacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_ERROR) {
-                    WirePacketFormat.ErrorMessage errorMessage = WirePacketFormat.ErrorMessage.parseFrom(responseWirePacketPacket.getPayload());
-                    throw new RpcCallServerException(errorMessage.getMessage());
-                } else {
-                    throw new RpcCallException("Invalid response received: " + responseWirePacketPacket.toString());
+                @Override
+                boolean canRetry() {
+                    return isActive();
                 }
-            } else {
-                throw new RpcCallException("Response timeout.");
-            }
+            });
         }
     }
 
@@ -106,11 +75,16 @@ final class RpcClientChannelImpl implements ProtobufRpcClientChannel, ChannelFut
     private final Channel mChannel;
     private final long mDefaultReceiveTimeoutMillis;
     private final RpcClientChannelHandler mRpcClientChannelHandler;
+    private final RpcCircuitBreaker mCircuitBreaker;
+    private final RpcConcurrencyLimiter mConcurrencyLimiter;
+    private final RpcCallCoalescer mCallCoalescer;
+    private final RpcWriteBackpressure mWriteBackpressure;
 
     private final AtomicLong mMessageIdentifierGenerator = new AtomicLong();
     private final Map<Class, Object> mProxyMap = new HashMap<>();
-    private final Map<Long, Thread> mWaitingRequestThreads = new ConcurrentHashMap<>();
-    private final Map<Long, WirePacketFormat.WirePacket> mRequestResponseMap = new ConcurrentHashMap<>();
+    private final Map<Long, Promise<WirePacketFormat.WirePacket>> mPendingRequestMap = new ConcurrentHashMap<>();
+    private final Map<Long, RpcResponseStream<?>> mResponseStreamMap = new ConcurrentHashMap<>();
+    private final Map<Long, RpcClientCallStream<?>> mCallStreamMap = new ConcurrentHashMap<>();
 
     private final Map<Class, Object> mOobHandlerMap = new HashMap<>();
 
@@ -120,10 +94,16 @@ final class RpcClientChannelImpl implements ProtobufRpcClientChannel, ChannelFut
     RpcClientChannelImpl(
             ProtobufRpcClient protobufRpcClient,
             Channel channel,
-            Long defaultReceiveTimeoutMillis) {
+            Long defaultReceiveTimeoutMillis,
+            RpcCircuitBreaker circuitBreaker,
+            RpcConcurrencyLimiter concurrencyLimiter) {
         mProtobufRpcClient = protobufRpcClient;
         mChannel = channel;
         mDefaultReceiveTimeoutMillis = (defaultReceiveTimeoutMillis != null)? defaultReceiveTimeoutMillis : DEFAULT_READ_TIMEOUT;
+        mCircuitBreaker = circuitBreaker;
+        mConcurrencyLimiter = concurrencyLimiter;
+        mCallCoalescer = new RpcCallCoalescer(channel.eventLoop());
+        mWriteBackpressure = new RpcWriteBackpressure(channel, protobufRpcClient.getBackpressurePolicy(), mDefaultReceiveTimeoutMillis);
 
         mRpcClientChannelHandler = (RpcClientChannelHandler) mChannel.pipeline().get("handler");
         mRpcClientChannelHandler.setRpcClientChannel(this);
@@ -177,8 +157,15 @@ final class RpcClientChannelImpl implements ProtobufRpcClientChannel, ChannelFut
         return (InetSocketAddress) mChannel.remoteAddress();
     }
 
+    @Override
+    public RpcWritabilityMetrics getWritabilityMetrics() {
+        return mWriteBackpressure;
+    }
+
     @Override
     public void operationComplete(ChannelFuture channelFuture) {
+        mWriteBackpressure.channelClosed();
+        failPendingRequests();
         sendChannelDisconnectEvent(mChannelDisconnectReason);
         mChannelDisconnectReason = DisconnectReason.SERVER_CLOSE;
     }
@@ -186,6 +173,10 @@ final class RpcClientChannelImpl implements ProtobufRpcClientChannel, ChannelFut
     void receivedRpcPacket(WirePacketFormat.WirePacket wirePacket) {
         if((wirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE) || (wirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_ERROR)) {
             handleRpcResponse(wirePacket);
+        } else if(wirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_END) {
+            handleStreamPacket(wirePacket);
+        } else if(wirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_CREDIT) {
+            handleStreamCredit(wirePacket);
         } else if(wirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_OOB) {
             handleOob(wirePacket);
         }
@@ -212,32 +203,489 @@ final class RpcClientChannelImpl implements ProtobufRpcClientChannel, ChannelFut
         mOobHandlerMap.clear();
     }
 
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
-    private WirePacketFormat.WirePacket callRpcAndWaitForResponse(WirePacketFormat.WirePacket wirePacket) {
-        final Thread currentThread = Thread.currentThread();
-        synchronized (currentThread) {
-            mWaitingRequestThreads.put(wirePacket.getMessageIdentifier(), currentThread);
-            mChannel.writeAndFlush(wirePacket);
+    /**
+     * Perform a single RPC call on this channel and wait for the response.
+     * One-way calls return as soon as the request has been handed to the channel, server streaming calls
+     * return the {@link RpcResponseStream} receiving the responses, and client streaming calls return the
+     * observer sending the requests.
+     *
+     * @param serviceInfo The service the call belongs to.
+     * @param methodInfo The method being called.
+     * @param requestArgument The request message or response observer, or null if the method does not accept one.
+     * @return The response message, or null if the method does not return one.
+     */
+    Object invokeRpc(RpcServiceCollector.RpcServiceInfo serviceInfo, RpcServiceCollector.RpcMethodInfo methodInfo, Object requestArgument) throws IOException {
+        if(!isActive()) {
+            throw new RpcChannelUnavailableException("Channel is not active.");
+        }
 
-            try {
-                currentThread.wait(mDefaultReceiveTimeoutMillis);
-            } catch (InterruptedException ex) {
-                ex.printStackTrace();
-            } finally {
-                mWaitingRequestThreads.remove(wirePacket.getMessageIdentifier());
+        if(methodInfo.isClientStreaming()) {
+            //noinspection unchecked
+            return openCallStream(methodInfo, createRequestPacket(serviceInfo, methodInfo, null), (RpcStreamObserver<Object>) requestArgument);
+        }
+
+        AbstractMessage requestMessage = (AbstractMessage) requestArgument;
+        WirePacketFormat.WirePacket requestWirePacket = createRequestPacket(serviceInfo, methodInfo, requestMessage);
+        if(methodInfo.isOneWay()) {
+            sendRpcNotification(requestWirePacket);
+            return null;
+        } else if(methodInfo.isServerStreaming()) {
+            return openResponseStream(methodInfo, requestWirePacket);
+        }
+
+        Future<WirePacketFormat.WirePacket> responseFuture = sendRpcRequest(requestWirePacket);
+        WirePacketFormat.WirePacket responseWirePacket = waitForResponse(requestWirePacket.getMessageIdentifier(), responseFuture, requestWirePacket.getTimeoutMillis());
+        return parseRpcResponse(methodInfo, requestWirePacket, responseWirePacket);
+    }
+
+    ChannelFuture closeFuture() {
+        return mChannel.closeFuture();
+    }
+
+    boolean inEventLoop() {
+        return mChannel.eventLoop().inEventLoop();
+    }
+
+    RpcWriteBackpressure getWriteBackpressure() {
+        return mWriteBackpressure;
+    }
+
+    long getDefaultReceiveTimeoutMillis() {
+        return mDefaultReceiveTimeoutMillis;
+    }
+
+    /**
+     * Gets the time to wait for the response of a call, which is shortened to the remaining time of the call being
+     * executed by the current thread if it is a server thread.
+     */
+    long getCallTimeoutMillis() {
+        RpcCallContext callContext = RpcCallContext.current();
+        if(callContext != null) {
+            return Math.min(mDefaultReceiveTimeoutMillis, callContext.getRemainingMillis());
+        }
+        return mDefaultReceiveTimeoutMillis;
+    }
+
+    WirePacketFormat.WirePacket createRequestPacket(RpcServiceCollector.RpcServiceInfo serviceInfo, RpcServiceCollector.RpcMethodInfo methodInfo, AbstractMessage requestMessage) {
+        final long messageIdentifier = mMessageIdentifierGenerator.incrementAndGet();
+
+        WirePacketFormat.ServiceIdentifier serviceIdentifier = WirePacketFormat.ServiceIdentifier.newBuilder()
+                .setServiceIdentifier(serviceInfo.getServiceIdentifier())
+                .setMethodIdentifier(methodInfo.getMethodIdentifier())
+                .build();
+        WirePacketFormat.WirePacket.Builder requestWirePacketBuilder = WirePacketFormat.WirePacket.newBuilder();
+        requestWirePacketBuilder.setMessageIdentifier(messageIdentifier);
+        requestWirePacketBuilder.setMessageType(methodInfo.isOneWay()? WirePacketFormat.MessageType.MESSAGE_TYPE_NOTIFY : WirePacketFormat.MessageType.MESSAGE_TYPE_REQUEST);
+        requestWirePacketBuilder.setServiceIdentifier(serviceIdentifier);
+        int priority = RpcPriorityScope.getCallPriority(methodInfo.getPriority());
+        if(priority != 0) {
+            requestWirePacketBuilder.setPriority(priority);
+        }
+        if(methodInfo.isServerStreaming() || methodInfo.isClientStreaming()) {
+            requestWirePacketBuilder.setStreamCredits(mProtobufRpcClient.getStreamWindowSize());
+        } else if(!methodInfo.isOneWay()) {
+            long timeoutMillis = getCallTimeoutMillis();
+            if(timeoutMillis <= 0) {
+                throw new RpcCallTimeoutException("Deadline of the calling request has passed.");
             }
+            requestWirePacketBuilder.setTimeoutMillis(timeoutMillis);
         }
 
-        return mRequestResponseMap.remove(wirePacket.getMessageIdentifier());
+        if(requestMessage != null) {
+            requestWirePacketBuilder.setPayload(requestMessage.toByteString());
+        }
+
+        if(mRpcClientChannelHandler.mEnableRpcLogging) {
+            mRpcClientChannelHandler.mLogger.info(String.format("[ClientChannel:%s] {%d, %d, %d} Sending RPC request: { %s }",
+                    mRpcClientChannelHandler.mLoggingName,
+                    messageIdentifier,
+                    serviceIdentifier.getServiceIdentifier(),
+                    serviceIdentifier.getMethodIdentifier(),
+                    (requestMessage != null)? requestMessage.toString() : "null"));
+        }
+
+        return requestWirePacketBuilder.build();
+    }
+
+    /**
+     * Send a request without waiting for the response.
+     * The returned future completes with the response packet, or fails if the request could not be sent
+     * or the channel was closed before a response arrived.
+     *
+     * The future only completes once the concurrency limiter and the circuit breaker have accounted for the call,
+     * so a caller which resumes on the response never finds its own call still counted as in flight.
+     *
+     * @param wirePacket The request packet.
+     * @return Future of the response packet.
+     */
+    Future<WirePacketFormat.WirePacket> sendRpcRequest(WirePacketFormat.WirePacket wirePacket) {
+        Promise<WirePacketFormat.WirePacket> responsePromise = mChannel.eventLoop().newPromise();
+        Promise<WirePacketFormat.WirePacket> resultPromise = mChannel.eventLoop().newPromise();
+        sendRpcRequest(wirePacket, responsePromise);
+        responsePromise.addListener(new PromiseNotifier<WirePacketFormat.WirePacket, Future<WirePacketFormat.WirePacket>>(resultPromise));
+        return resultPromise;
+    }
+
+    private void sendRpcRequest(WirePacketFormat.WirePacket wirePacket, Promise<WirePacketFormat.WirePacket> responsePromise) {
+        final long messageIdentifier = wirePacket.getMessageIdentifier();
+
+        if(mConcurrencyLimiter != null) {
+            if(!mConcurrencyLimiter.tryAcquire()) {
+                responsePromise.setFailure(new RpcConcurrencyLimitException("Concurrency limit reached for " + mChannel.remoteAddress()));
+                return;
+            }
+
+            final long startTime = System.nanoTime();
+            responsePromise.addListener(new GenericFutureListener<Future<WirePacketFormat.WirePacket>>() {
+                @Override
+                public void operationComplete(Future<WirePacketFormat.WirePacket> future) {
+                    if(future.isSuccess()) {
+                        if(isOverloadedError(future.getNow())) {
+                            mConcurrencyLimiter.onDropped();
+                        } else {
+                            mConcurrencyLimiter.onSuccess(System.nanoTime() - startTime);
+                        }
+                    } else if(future.cause() instanceof RpcCallTimeoutException) {
+                        mConcurrencyLimiter.onDropped();
+                    } else {
+                        mConcurrencyLimiter.onIgnored();
+                    }
+                }
+            });
+        }
+
+        if(mCircuitBreaker != null) {
+            final long permission = mCircuitBreaker.tryAcquirePermission();
+            if(permission == RpcCircuitBreaker.NO_PERMISSION) {
+                responsePromise.setFailure(new RpcCircuitOpenException("Circuit breaker is open for " + mCircuitBreaker.getRemoteAddress()));
+                return;
+            }
+
+            final long startTime = System.nanoTime();
+            responsePromise.addListener(new GenericFutureListener<Future<WirePacketFormat.WirePacket>>() {
+                @Override
+                public void operationComplete(Future<WirePacketFormat.WirePacket> future) {
+                    if(future.isSuccess()) {
+                        mCircuitBreaker.onSuccess(permission, System.nanoTime() - startTime);
+                    } else if(future.isCancelled()) {
+                        mCircuitBreaker.onIgnored(permission);
+                    } else {
+                        mCircuitBreaker.onFailure(permission, System.nanoTime() - startTime);
+                    }
+                }
+            });
+        }
+
+        mPendingRequestMap.put(messageIdentifier, responsePromise);
+        if(!mChannel.isActive()) {
+            abandonRequest(messageIdentifier, new RpcChannelUnavailableException("Channel is not active."));
+            return;
+        }
+        try {
+            if(!mWriteBackpressure.acquireWrite()) {
+                abandonRequest(messageIdentifier, new RpcChannelUnavailableException("Channel is not writable."));
+                return;
+            }
+        } catch (RpcCallException ex) {
+            abandonRequest(messageIdentifier, ex);
+            return;
+        }
+
+        mChannel.writeAndFlush(wirePacket).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture channelFuture) {
+                if(!channelFuture.isSuccess()) {
+                    abandonRequest(messageIdentifier, new RpcChannelUnavailableException("Unable to send request.", channelFuture.cause()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Send a one-way request. No response is expected, so nothing is added to the pending request map and
+     * the circuit breaker does not see the call.
+     * A failed write is only logged as the caller has already returned.
+     *
+     * @param wirePacket The notification packet.
+     */
+    void sendRpcNotification(final WirePacketFormat.WirePacket wirePacket) {
+        if(!mWriteBackpressure.acquireWrite()) {
+            return;
+        }
+
+        mChannel.writeAndFlush(wirePacket).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture channelFuture) {
+                if(!channelFuture.isSuccess() && mRpcClientChannelHandler.mEnableRpcLogging) {
+                    mRpcClientChannelHandler.mLogger.info(String.format("[ClientChannel:%s] {%d, %d, %d} Unable to send one-way request",
+                            mRpcClientChannelHandler.mLoggingName,
+                            wirePacket.getMessageIdentifier(),
+                            wirePacket.getServiceIdentifier().getServiceIdentifier(),
+                            wirePacket.getServiceIdentifier().getMethodIdentifier()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Send the request of a server streaming call. Responses are delivered to the returned stream as they arrive.
+     */
+    private RpcResponseStream<Object> openResponseStream(RpcServiceCollector.RpcMethodInfo methodInfo, WirePacketFormat.WirePacket wirePacket) {
+        final long messageIdentifier = wirePacket.getMessageIdentifier();
+        final RpcResponseStream<Object> responseStream = new RpcResponseStream<>(this, methodInfo, wirePacket, wirePacket.getStreamCredits());
+        if(!mWriteBackpressure.acquireWrite()) {
+            throw new RpcChannelUnavailableException("Channel is not writable.");
+        }
+
+        mResponseStreamMap.put(messageIdentifier, responseStream);
+        if(!mChannel.isActive()) {
+            mResponseStreamMap.remove(messageIdentifier);
+            throw new RpcChannelUnavailableException("Channel is not active.");
+        }
+
+        mChannel.writeAndFlush(wirePacket).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture channelFuture) {
+                if(!channelFuture.isSuccess() && (mResponseStreamMap.remove(messageIdentifier) != null)) {
+                    responseStream.fail(new RpcChannelUnavailableException("Unable to send request.", channelFuture.cause()));
+                }
+            }
+        });
+        return responseStream;
+    }
+
+    /**
+     * Send the request opening a client streaming call. Request messages may be sent once the server has granted credits.
+     */
+    private RpcStreamObserver<Object> openCallStream(RpcServiceCollector.RpcMethodInfo methodInfo, WirePacketFormat.WirePacket wirePacket, RpcStreamObserver<Object> responseObserver) {
+        if(responseObserver == null) {
+            throw new IllegalArgumentException("Response observer must not be null.");
+        }
+
+        final long messageIdentifier = wirePacket.getMessageIdentifier();
+        final RpcClientCallStream<Object> callStream = new RpcClientCallStream<>(this, methodInfo, wirePacket, responseObserver);
+        if(!mWriteBackpressure.acquireWrite()) {
+            throw new RpcChannelUnavailableException("Channel is not writable.");
+        }
+
+        mCallStreamMap.put(messageIdentifier, callStream);
+        if(!mChannel.isActive()) {
+            mCallStreamMap.remove(messageIdentifier);
+            throw new RpcChannelUnavailableException("Channel is not active.");
+        }
+
+        mChannel.writeAndFlush(wirePacket).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture channelFuture) {
+                if(!channelFuture.isSuccess() && (mCallStreamMap.remove(messageIdentifier) != null)) {
+                    callStream.fail(new RpcChannelUnavailableException("Unable to send request.", channelFuture.cause()));
+                }
+            }
+        });
+        return callStream;
+    }
+
+    /**
+     * Send a request message or the end of the request stream of a client streaming call.
+     */
+    void sendStreamPacket(WirePacketFormat.WirePacket requestWirePacket, WirePacketFormat.MessageType messageType, ByteString payload) {
+        WirePacketFormat.WirePacket.Builder builder = WirePacketFormat.WirePacket.newBuilder();
+        builder.setMessageIdentifier(requestWirePacket.getMessageIdentifier());
+        builder.setMessageType(messageType);
+        if(payload != null) {
+            builder.setPayload(payload);
+        }
+        mChannel.writeAndFlush(builder.build());
+    }
+
+    /**
+     * Stop a client streaming call and tell the server to stop processing it.
+     */
+    void cancelCallStream(WirePacketFormat.WirePacket requestWirePacket) {
+        if(mCallStreamMap.remove(requestWirePacket.getMessageIdentifier()) != null) {
+            sendStreamPacket(requestWirePacket, WirePacketFormat.MessageType.MESSAGE_TYPE_CANCEL, null);
+        }
+    }
+
+    /**
+     * Allow the server to send more elements of a stream.
+     */
+    void sendStreamCredit(WirePacketFormat.WirePacket requestWirePacket, int credits) {
+        if(mResponseStreamMap.containsKey(requestWirePacket.getMessageIdentifier()) || mCallStreamMap.containsKey(requestWirePacket.getMessageIdentifier())) {
+            WirePacketFormat.WirePacket.Builder builder = WirePacketFormat.WirePacket.newBuilder();
+            builder.setMessageIdentifier(requestWirePacket.getMessageIdentifier());
+            builder.setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_CREDIT);
+            builder.setStreamCredits(credits);
+            mChannel.writeAndFlush(builder.build());
+        }
+    }
+
+    /**
+     * Stop receiving a stream and tell the server to stop producing it.
+     */
+    void cancelResponseStream(WirePacketFormat.WirePacket requestWirePacket) {
+        if(mResponseStreamMap.remove(requestWirePacket.getMessageIdentifier()) != null) {
+            sendStreamPacket(requestWirePacket, WirePacketFormat.MessageType.MESSAGE_TYPE_CANCEL, null);
+        }
+    }
+
+    static boolean isOverloadedError(WirePacketFormat.WirePacket responseWirePacket) {
+        if(responseWirePacket.getMessageType() != WirePacketFormat.MessageType.MESSAGE_TYPE_ERROR) {
+            return false;
+        }
+
+        try {
+            return WirePacketFormat.ErrorMessage.parseFrom(responseWirePacket.getPayload()).getCode() == WirePacketFormat.ErrorCode.ERROR_CODE_OVERLOADED;
+        } catch (InvalidProtocolBufferException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Stop waiting for the response of a request.
+     * Pending future of the request is cancelled if cause is null, or failed with the cause otherwise.
+     *
+     * @param messageIdentifier The message identifier of the request.
+     * @param cause The reason for abandoning the request, or null if it was cancelled.
+     * @return true if the request was still waiting for its response.
+     */
+    boolean abandonRequest(long messageIdentifier, Throwable cause) {
+        Promise<WirePacketFormat.WirePacket> responsePromise = mPendingRequestMap.remove(messageIdentifier);
+        if(responsePromise == null) {
+            return false;
+        }
+
+        if(cause != null) {
+            responsePromise.tryFailure(cause);
+        } else {
+            responsePromise.cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * Stop waiting for the response of a sent request and tell the server to stop processing it.
+     *
+     * @param messageIdentifier The message identifier of the request.
+     * @param cause The reason for cancelling the request, or null if the response is no longer needed.
+     */
+    void cancelRequest(long messageIdentifier, Throwable cause) {
+        if(abandonRequest(messageIdentifier, cause) && mChannel.isActive()) {
+            WirePacketFormat.WirePacket.Builder builder = WirePacketFormat.WirePacket.newBuilder();
+            builder.setMessageIdentifier(messageIdentifier);
+            builder.setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_CANCEL);
+            mChannel.writeAndFlush(builder.build());
+        }
+    }
+
+    WirePacketFormat.WirePacket waitForResponse(long messageIdentifier, Future<WirePacketFormat.WirePacket> responseFuture, long timeoutMillis) {
+        try {
+            if(!responseFuture.await(timeoutMillis)) {
+                cancelRequest(messageIdentifier, new RpcCallTimeoutException("Response timeout."));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cancelRequest(messageIdentifier, new RpcCallException("Interrupted while waiting for response.", ex));
+        }
+        // The request is complete by now, only the accounting of the call may still be running
+        responseFuture.awaitUninterruptibly();
+
+        return getResponseNow(responseFuture);
+    }
+
+    static WirePacketFormat.WirePacket getResponseNow(Future<WirePacketFormat.WirePacket> responseFuture) {
+        if(responseFuture.isSuccess()) {
+            return responseFuture.getNow();
+        } else if(responseFuture.isCancelled()) {
+            throw new RpcCallException("Request cancelled.");
+        } else if(responseFuture.cause() instanceof RpcCallException) {
+            throw (RpcCallException) responseFuture.cause();
+        } else {
+            throw new RpcCallException("Request failed.", responseFuture.cause());
+        }
+    }
+
+    Object parseRpcResponse(RpcServiceCollector.RpcMethodInfo methodInfo, WirePacketFormat.WirePacket requestWirePacket, WirePacketFormat.WirePacket responseWirePacket) throws IOException {
+        final WirePacketFormat.ServiceIdentifier serviceIdentifier = requestWirePacket.getServiceIdentifier();
+
+        if (responseWirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE) {
+            AbstractMessage responseMessage = null;
+            if(methodInfo.getResponseMessageParser() != null) {
+                try {
+                    responseMessage = (AbstractMessage) methodInfo.getResponseMessageParser().invoke(null, (Object) responseWirePacket.getPayload().toByteArray());
+                } catch (IllegalAccessException | InvocationTargetException ex) {
+                    throw new RpcCallException("Unable to parse response message.", ex);
+                }
+            }
+
+            if(mRpcClientChannelHandler.mEnableRpcLogging) {
+                mRpcClientChannelHandler.mLogger.info(String.format("[ClientChannel:%s] {%d, %d, %d} Received RPC response: { %s }",
+                        mRpcClientChannelHandler.mLoggingName,
+                        requestWirePacket.getMessageIdentifier(),
+                        serviceIdentifier.getServiceIdentifier(),
+                        serviceIdentifier.getMethodIdentifier(),
+                        (responseMessage != null)? responseMessage.toString() : "null"));
+            }
+
+            return responseMessage;
+        } else if (responseWirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_ERROR) {
+            WirePacketFormat.ErrorMessage errorMessage = WirePacketFormat.ErrorMessage.parseFrom(responseWirePacket.getPayload());
+            if(errorMessage.getCode() == WirePacketFormat.ErrorCode.ERROR_CODE_OVERLOADED) {
+                throw new RpcServerOverloadedException(errorMessage.getMessage());
+            }
+            throw new RpcCallServerException(errorMessage.getMessage());
+        } else {
+            throw new RpcCallException("Invalid response received: " + responseWirePacket.toString());
+        }
     }
 
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
     private void handleRpcResponse(WirePacketFormat.WirePacket wirePacket) {
-        Thread thread = mWaitingRequestThreads.get(wirePacket.getMessageIdentifier());
-        if(thread != null) {
-            mRequestResponseMap.put(wirePacket.getMessageIdentifier(), wirePacket);
-            synchronized (thread) {
-                thread.notify();
+        Promise<WirePacketFormat.WirePacket> responsePromise = mPendingRequestMap.remove(wirePacket.getMessageIdentifier());
+        if(responsePromise != null) {
+            responsePromise.trySuccess(wirePacket);
+        } else {
+            handleStreamPacket(wirePacket);
+        }
+    }
+
+    private void handleStreamPacket(WirePacketFormat.WirePacket wirePacket) {
+        RpcResponseStream<?> responseStream = (wirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE)?
+                mResponseStreamMap.get(wirePacket.getMessageIdentifier()) :
+                mResponseStreamMap.remove(wirePacket.getMessageIdentifier());
+        if(responseStream != null) {
+            responseStream.receivedPacket(wirePacket);
+            return;
+        }
+
+        RpcClientCallStream<?> callStream = (wirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE)?
+                mCallStreamMap.get(wirePacket.getMessageIdentifier()) :
+                mCallStreamMap.remove(wirePacket.getMessageIdentifier());
+        if(callStream != null) {
+            callStream.receivedPacket(wirePacket);
+        }
+    }
+
+    private void handleStreamCredit(WirePacketFormat.WirePacket wirePacket) {
+        RpcClientCallStream<?> callStream = mCallStreamMap.get(wirePacket.getMessageIdentifier());
+        if(callStream != null) {
+            callStream.receivedCredits(wirePacket.getStreamCredits());
+        }
+    }
+
+    private void failPendingRequests() {
+        for(Long messageIdentifier : mPendingRequestMap.keySet()) {
+            abandonRequest(messageIdentifier, new RpcChannelClosedException("Channel closed."));
+        }
+        for(Long messageIdentifier : mResponseStreamMap.keySet()) {
+            RpcResponseStream<?> responseStream = mResponseStreamMap.remove(messageIdentifier);
+            if(responseStream != null) {
+                responseStream.fail(new RpcChannelClosedException("Channel closed."));
+            }
+        }
+        for(Long messageIdentifier : mCallStreamMap.keySet()) {
+            RpcClientCallStream<?> callStream = mCallStreamMap.remove(messageIdentifier);
+            if(callStream != null) {
+                callStream.fail(new RpcChannelClosedException("Channel closed."));
             }
         }
     }
@@ -6,6 +6,7 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.timeout.IdleStateHandler;
 import me.trinopoty.protobufRpc.codec.RpcMessageCodec;
+import me.trinopoty.protobufRpc.util.RpcInboundMemoryBudget;
 
 import java.util.concurrent.TimeUnit;
 
@@ -14,6 +15,7 @@ final class RpcClientChannelInitializer extends ChannelInitializer<SocketChannel
     private static final int MAX_PACKET_LENGTH = 8 * 1024;
 
     private final int mMaxReceivePacketLength;
+    private final RpcInboundMemoryBudget mInboundMemoryBudget;
     private final SslContext mSslContext;
     private final boolean mKeepAlive;
 
@@ -23,12 +25,14 @@ final class RpcClientChannelInitializer extends ChannelInitializer<SocketChannel
 
     RpcClientChannelInitializer(
             Integer maxReceivePacketLength,
+            RpcInboundMemoryBudget inboundMemoryBudget,
             SslContext sslContext,
             boolean keepAlive,
             String loggingName,
             boolean enableRpcLogging,
             boolean enableTrafficLogging) {
         mMaxReceivePacketLength = (maxReceivePacketLength != null)? maxReceivePacketLength : MAX_PACKET_LENGTH;
+        mInboundMemoryBudget = inboundMemoryBudget;
         mSslContext = sslContext;
         mKeepAlive = keepAlive;
 
@@ -48,6 +52,7 @@ final class RpcClientChannelInitializer extends ChannelInitializer<SocketChannel
         pipeline.addLast("protobuf-codec", new RpcMessageCodec(
                 mMaxReceivePacketLength,
                 true,
+                mInboundMemoryBudget,
                 mLoggingName,
                 mEnableTrafficLogging,
                 mEnableTrafficLogging
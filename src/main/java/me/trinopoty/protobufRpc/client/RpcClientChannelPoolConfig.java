@@ -1,14 +1,83 @@
 package me.trinopoty.protobufRpc.client;
 
-import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
-
 @SuppressWarnings({"WeakerAccess", "unused"})
-public final class RpcClientChannelPoolConfig extends GenericObjectPoolConfig {
+public final class RpcClientChannelPoolConfig {
+
+    private int mMaxTotal = 8;
+    private int mMaxIdle = 8;
+    private int mMinIdle = 0;
+    private long mMaxWaitMillis = -1;
+    private boolean mBlockWhenExhausted = true;
 
     private boolean mLoggingEnabled = false;
     private String mLogTag = null;
     private boolean mLogCallingMethod = false;
 
+    public int getMaxTotal() {
+        return mMaxTotal;
+    }
+
+    /**
+     * Sets the maximum number of channels, idle or borrowed, the pool may hold at the same time.
+     *
+     * @param maxTotal The maximum number of channels, or a negative value for no limit.
+     */
+    public void setMaxTotal(int maxTotal) {
+        mMaxTotal = maxTotal;
+    }
+
+    public int getMaxIdle() {
+        return mMaxIdle;
+    }
+
+    /**
+     * Sets the maximum number of idle channels. Channels returned to a pool with this many idle channels are closed.
+     *
+     * @param maxIdle The maximum number of idle channels, or a negative value for no limit.
+     */
+    public void setMaxIdle(int maxIdle) {
+        mMaxIdle = maxIdle;
+    }
+
+    public int getMinIdle() {
+        return mMinIdle;
+    }
+
+    /**
+     * Sets the number of idle channels the pool keeps connected in the background.
+     *
+     * @param minIdle The minimum number of idle channels.
+     */
+    public void setMinIdle(int minIdle) {
+        mMinIdle = minIdle;
+    }
+
+    public long getMaxWaitMillis() {
+        return mMaxWaitMillis;
+    }
+
+    /**
+     * Sets the time a borrow waits for a channel when the pool is exhausted.
+     *
+     * @param maxWaitMillis The maximum wait in milliseconds, or a negative value to wait indefinitely.
+     */
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        mMaxWaitMillis = maxWaitMillis;
+    }
+
+    public boolean getBlockWhenExhausted() {
+        return mBlockWhenExhausted;
+    }
+
+    /**
+     * Sets whether a borrow waits for a channel to be returned when the pool is exhausted, or fails immediately.
+     *
+     * @param blockWhenExhausted Value indicating whether borrows wait when the pool is exhausted.
+     */
+    public void setBlockWhenExhausted(boolean blockWhenExhausted) {
+        mBlockWhenExhausted = blockWhenExhausted;
+    }
+
     public boolean isLoggingEnabled() {
         return mLoggingEnabled;
     }
@@ -32,4 +101,4 @@ public final class RpcClientChannelPoolConfig extends GenericObjectPoolConfig {
     public void setLogCallingMethod(boolean logCallingMethod) {
         mLogCallingMethod = logCallingMethod;
     }
-}
\ No newline at end of file
+}
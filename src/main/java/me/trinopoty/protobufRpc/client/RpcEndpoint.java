@@ -0,0 +1,119 @@
+package me.trinopoty.protobufRpc.client;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single remote server of a {@link ProtobufRpcLoadBalancedChannel} along with the
+ * statistics load balancing policies use to pick between servers.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RpcEndpoint {
+
+    private static final double LATENCY_EWMA_ALPHA = 0.3;
+
+    private final InetSocketAddress mRemoteAddress;
+
+    private final AtomicInteger mOutstandingRequestCount = new AtomicInteger(0);
+    private final AtomicLong mLatencyEwmaBits = new AtomicLong(Double.doubleToRawLongBits(0));
+    private final AtomicInteger mConsecutiveFailureCount = new AtomicInteger(0);
+
+    private volatile RpcClientChannelImpl mRpcClientChannel = null;
+    private volatile boolean mEjected = true;
+    private int mEjectionCount = 0;
+
+    RpcEndpoint(InetSocketAddress remoteAddress) {
+        mRemoteAddress = remoteAddress;
+    }
+
+    /**
+     * Gets the remote address of this endpoint.
+     *
+     * @return The remote address of this endpoint.
+     */
+    public InetSocketAddress getRemoteAddress() {
+        return mRemoteAddress;
+    }
+
+    /**
+     * Gets the number of requests sent to this endpoint which are waiting for a response.
+     *
+     * @return The number of outstanding requests.
+     */
+    public int getOutstandingRequestCount() {
+        return mOutstandingRequestCount.get();
+    }
+
+    /**
+     * Gets the exponentially weighted moving average of the observed call latency.
+     *
+     * @return The average latency in nanoseconds, 0 if no call has completed yet.
+     */
+    public double getLatencyEwmaNanos() {
+        return Double.longBitsToDouble(mLatencyEwmaBits.get());
+    }
+
+    /**
+     * Retrieves boolean value indicating whether this endpoint is currently accepting calls.
+     *
+     * @return false if the endpoint has been ejected because of failures.
+     */
+    public boolean isHealthy() {
+        return !mEjected;
+    }
+
+    @Override
+    public String toString() {
+        return mRemoteAddress.toString();
+    }
+
+    RpcClientChannelImpl getRpcClientChannel() {
+        return mRpcClientChannel;
+    }
+
+    void setRpcClientChannel(RpcClientChannelImpl rpcClientChannel) {
+        mRpcClientChannel = rpcClientChannel;
+    }
+
+    void setEjected(boolean ejected) {
+        mEjected = ejected;
+    }
+
+    int incrementEjectionCount() {
+        return ++mEjectionCount;
+    }
+
+    void resetEjectionCount() {
+        mEjectionCount = 0;
+    }
+
+    void callStarted() {
+        mOutstandingRequestCount.incrementAndGet();
+    }
+
+    void callFinished() {
+        mOutstandingRequestCount.decrementAndGet();
+    }
+
+    void callSucceeded(long latencyNanos) {
+        mConsecutiveFailureCount.set(0);
+
+        long oldBits;
+        long newBits;
+        do {
+            oldBits = mLatencyEwmaBits.get();
+            double oldValue = Double.longBitsToDouble(oldBits);
+            double newValue = (oldValue == 0)? latencyNanos : (oldValue + (LATENCY_EWMA_ALPHA * (latencyNanos - oldValue)));
+            newBits = Double.doubleToRawLongBits(newValue);
+        } while (!mLatencyEwmaBits.compareAndSet(oldBits, newBits));
+    }
+
+    int callFailed() {
+        return mConsecutiveFailureCount.incrementAndGet();
+    }
+
+    void resetFailureCount() {
+        mConsecutiveFailureCount.set(0);
+    }
+}
@@ -0,0 +1,92 @@
+package me.trinopoty.protobufRpc.client;
+
+/**
+ * Configuration of request hedging for methods annotated with {@link me.trinopoty.protobufRpc.annotation.RpcIdempotent}.
+ *
+ * If a call has not completed within the hedging delay, a copy of the request is sent to another endpoint and the
+ * first response received is used. The delay is derived from the observed latency of the method. Hedged requests are
+ * limited by a token budget so that hedging cannot multiply the load on the servers.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RpcHedgingPolicy {
+
+    private double mDelayPercentile = 95;
+    private long mMinDelayMillis = 1;
+    private long mInitialDelayMillis = 100;
+    private double mBudgetRatio = 0.1;
+    private int mBudgetBurst = 10;
+
+    public double getDelayPercentile() {
+        return mDelayPercentile;
+    }
+
+    /**
+     * Sets the latency percentile of a method after which a hedged request is sent.
+     *
+     * @param delayPercentile The percentile in the range (0, 100].
+     */
+    public void setDelayPercentile(double delayPercentile) {
+        if((delayPercentile <= 0) || (delayPercentile > 100)) {
+            throw new IllegalArgumentException("Delay percentile must be in the range (0, 100].");
+        }
+        mDelayPercentile = delayPercentile;
+    }
+
+    public long getMinDelayMillis() {
+        return mMinDelayMillis;
+    }
+
+    /**
+     * Sets the lower limit of the hedging delay.
+     *
+     * @param minDelayMillis The minimum delay in milliseconds.
+     */
+    public void setMinDelayMillis(long minDelayMillis) {
+        mMinDelayMillis = minDelayMillis;
+    }
+
+    public long getInitialDelayMillis() {
+        return mInitialDelayMillis;
+    }
+
+    /**
+     * Sets the hedging delay used until enough latency samples of a method have been collected.
+     *
+     * @param initialDelayMillis The initial delay in milliseconds.
+     */
+    public void setInitialDelayMillis(long initialDelayMillis) {
+        mInitialDelayMillis = initialDelayMillis;
+    }
+
+    public double getBudgetRatio() {
+        return mBudgetRatio;
+    }
+
+    /**
+     * Sets the number of hedged requests allowed per call. The default of 0.1 allows at most one hedged request for every ten calls.
+     *
+     * @param budgetRatio The ratio of hedged requests to calls.
+     */
+    public void setBudgetRatio(double budgetRatio) {
+        if(budgetRatio < 0) {
+            throw new IllegalArgumentException("Budget ratio must not be negative.");
+        }
+        mBudgetRatio = budgetRatio;
+    }
+
+    public int getBudgetBurst() {
+        return mBudgetBurst;
+    }
+
+    /**
+     * Sets the number of hedged requests which can be sent in a burst when the budget has been saved up.
+     *
+     * @param budgetBurst The maximum number of saved up hedged requests.
+     */
+    public void setBudgetBurst(int budgetBurst) {
+        if(budgetBurst < 1) {
+            throw new IllegalArgumentException("Budget burst must be at least 1.");
+        }
+        mBudgetBurst = budgetBurst;
+    }
+}
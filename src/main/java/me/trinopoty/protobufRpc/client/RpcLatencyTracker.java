@@ -0,0 +1,59 @@
+package me.trinopoty.protobufRpc.client;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent latency samples of a method and estimates a percentile from them.
+ * The percentile is recomputed after every few samples instead of on every read.
+ */
+final class RpcLatencyTracker {
+
+    private static final int SAMPLE_COUNT = 256;
+    private static final int MIN_SAMPLE_COUNT = 16;
+    private static final int RECOMPUTE_INTERVAL = 16;
+
+    private final double mPercentile;
+
+    private final long[] mSamples = new long[SAMPLE_COUNT];
+    private int mSampleIndex = 0;
+    private int mSampleSize = 0;
+    private int mSamplesSinceRecompute = 0;
+
+    private volatile long mPercentileNanos = -1;
+
+    RpcLatencyTracker(double percentile) {
+        mPercentile = percentile;
+    }
+
+    void record(long latencyNanos) {
+        long[] sortedSamples = null;
+        synchronized (this) {
+            mSamples[mSampleIndex] = latencyNanos;
+            mSampleIndex = (mSampleIndex + 1) % SAMPLE_COUNT;
+            if(mSampleSize < SAMPLE_COUNT) {
+                mSampleSize++;
+            }
+
+            mSamplesSinceRecompute++;
+            if((mSampleSize >= MIN_SAMPLE_COUNT) && (mSamplesSinceRecompute >= RECOMPUTE_INTERVAL)) {
+                mSamplesSinceRecompute = 0;
+                sortedSamples = Arrays.copyOf(mSamples, mSampleSize);
+            }
+        }
+
+        if(sortedSamples != null) {
+            Arrays.sort(sortedSamples);
+            int index = (int) Math.ceil((mPercentile / 100) * sortedSamples.length) - 1;
+            mPercentileNanos = sortedSamples[Math.max(0, Math.min(index, sortedSamples.length - 1))];
+        }
+    }
+
+    /**
+     * Gets the latency at the configured percentile.
+     *
+     * @return The latency in nanoseconds, or -1 if not enough samples have been recorded.
+     */
+    long getPercentileNanos() {
+        return mPercentileNanos;
+    }
+}
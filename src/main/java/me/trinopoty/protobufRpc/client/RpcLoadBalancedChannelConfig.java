@@ -0,0 +1,79 @@
+package me.trinopoty.protobufRpc.client;
+
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RpcLoadBalancedChannelConfig {
+
+    private RpcLoadBalancingPolicy mLoadBalancingPolicy = new RoundRobinLoadBalancingPolicy();
+    private int mEjectionFailureThreshold = 5;
+    private long mEjectionBaseMillis = 1000;
+    private long mMaxEjectionMillis = 30 * 1000;
+    private RpcHedgingPolicy mHedgingPolicy = null;
+
+    public RpcLoadBalancingPolicy getLoadBalancingPolicy() {
+        return mLoadBalancingPolicy;
+    }
+
+    /**
+     * Sets the policy used to pick an endpoint for each call. Defaults to round-robin.
+     *
+     * @param loadBalancingPolicy The load balancing policy.
+     */
+    public void setLoadBalancingPolicy(RpcLoadBalancingPolicy loadBalancingPolicy) {
+        mLoadBalancingPolicy = loadBalancingPolicy;
+    }
+
+    public int getEjectionFailureThreshold() {
+        return mEjectionFailureThreshold;
+    }
+
+    /**
+     * Sets the number of consecutive failed calls after which an endpoint is ejected.
+     * An endpoint is always ejected as soon as its connection is lost.
+     *
+     * @param ejectionFailureThreshold The number of consecutive failures.
+     */
+    public void setEjectionFailureThreshold(int ejectionFailureThreshold) {
+        mEjectionFailureThreshold = ejectionFailureThreshold;
+    }
+
+    public long getEjectionBaseMillis() {
+        return mEjectionBaseMillis;
+    }
+
+    /**
+     * Sets the time an ejected endpoint waits before it is probed for recovery.
+     * The wait is doubled every time a probe fails.
+     *
+     * @param ejectionBaseMillis The initial ejection time in milliseconds.
+     */
+    public void setEjectionBaseMillis(long ejectionBaseMillis) {
+        mEjectionBaseMillis = ejectionBaseMillis;
+    }
+
+    public long getMaxEjectionMillis() {
+        return mMaxEjectionMillis;
+    }
+
+    /**
+     * Sets the upper limit of the time an ejected endpoint waits before it is probed for recovery.
+     *
+     * @param maxEjectionMillis The maximum ejection time in milliseconds.
+     */
+    public void setMaxEjectionMillis(long maxEjectionMillis) {
+        mMaxEjectionMillis = maxEjectionMillis;
+    }
+
+    public RpcHedgingPolicy getHedgingPolicy() {
+        return mHedgingPolicy;
+    }
+
+    /**
+     * Sets the hedging policy for methods annotated with {@link me.trinopoty.protobufRpc.annotation.RpcIdempotent}.
+     * Hedging is disabled by default.
+     *
+     * @param hedgingPolicy The hedging policy, or null to disable hedging.
+     */
+    public void setHedgingPolicy(RpcHedgingPolicy hedgingPolicy) {
+        mHedgingPolicy = hedgingPolicy;
+    }
+}
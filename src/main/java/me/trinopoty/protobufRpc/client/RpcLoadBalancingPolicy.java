@@ -0,0 +1,23 @@
+package me.trinopoty.protobufRpc.client;
+
+import com.google.protobuf.AbstractMessage;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.util.List;
+
+/**
+ * Strategy used by {@link ProtobufRpcLoadBalancedChannel} to pick the endpoint a call is sent to.
+ * Implementations must be thread-safe.
+ */
+public interface RpcLoadBalancingPolicy {
+
+    /**
+     * Select the endpoint to send a call to.
+     *
+     * @param endpoints The list of healthy endpoints. Never empty.
+     * @param methodInfo The method being called.
+     * @param requestMessage The request message, or null if the method does not accept one.
+     * @return One of the provided endpoints.
+     */
+    RpcEndpoint select(List<RpcEndpoint> endpoints, RpcServiceCollector.RpcMethodInfo methodInfo, AbstractMessage requestMessage);
+}
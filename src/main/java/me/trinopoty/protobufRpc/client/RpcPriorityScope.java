@@ -0,0 +1,70 @@
+package me.trinopoty.protobufRpc.client;
+
+import java.io.Closeable;
+
+/**
+ * Overrides the priority of the calls made by the current thread until it is closed.
+ *
+ * <pre>
+ * try(RpcPriorityScope ignored = RpcPriorityScope.enter(RpcPriority.LOW)) {
+ *     service.backfill(request);
+ * }
+ * </pre>
+ *
+ * @see me.trinopoty.protobufRpc.annotation.RpcPriority
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RpcPriorityScope implements Closeable {
+
+    private static final ThreadLocal<RpcPriorityScope> sCurrentScope = new ThreadLocal<>();
+
+    private final int mPriority;
+    private final RpcPriorityScope mPreviousScope;
+    private boolean mClosed = false;
+
+    private RpcPriorityScope(int priority, RpcPriorityScope previousScope) {
+        mPriority = priority;
+        mPreviousScope = previousScope;
+    }
+
+    /**
+     * Sets the priority of the calls made by the current thread, replacing the priority of the called methods.
+     *
+     * @param priority The priority of the calls, larger values being more urgent.
+     * @return The scope, to be closed by the same thread to restore the previous priority.
+     */
+    public static RpcPriorityScope enter(int priority) {
+        RpcPriorityScope scope = new RpcPriorityScope(priority, sCurrentScope.get());
+        sCurrentScope.set(scope);
+        return scope;
+    }
+
+    public int getPriority() {
+        return mPriority;
+    }
+
+    @Override
+    public void close() {
+        if(mClosed) {
+            return;
+        }
+        mClosed = true;
+
+        if(mPreviousScope != null) {
+            sCurrentScope.set(mPreviousScope);
+        } else {
+            sCurrentScope.remove();
+        }
+    }
+
+    /**
+     * Gets the priority of a call made by the current thread.
+     *
+     * @param methodPriority The priority of the called method.
+     * @return The priority of the innermost open scope, or the priority of the method if there is none.
+     */
+    static int getCallPriority(int methodPriority) {
+        RpcPriorityScope scope = sCurrentScope.get();
+        return (scope != null)? scope.mPriority : methodPriority;
+    }
+}
@@ -0,0 +1,118 @@
+package me.trinopoty.protobufRpc.client;
+
+/**
+ * Configuration of a {@link ProtobufRpcReconnectingChannel}.
+ *
+ * Lost connections are re-established with an exponential backoff with full jitter. Calls made while the channel is
+ * reconnecting either wait for the new connection or fail immediately, depending on the {@link Mode}.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RpcReconnectPolicy {
+
+    /**
+     * The handling of calls made while the channel is reconnecting.
+     */
+    public enum Mode {
+        /**
+         * Calls wait until the connection is re-established, or the queue timeout has passed.
+         */
+        QUEUE,
+
+        /**
+         * Calls fail immediately with {@link me.trinopoty.protobufRpc.exception.RpcChannelUnavailableException}.
+         */
+        FAIL_FAST
+    }
+
+    private Mode mMode = Mode.QUEUE;
+    private long mQueueTimeoutMillis = 5 * 1000;
+    private int mMaxAttempts = -1;
+    private long mInitialBackoffMillis = 100;
+    private long mMaxBackoffMillis = 10 * 1000;
+    private double mBackoffMultiplier = 2;
+
+    public Mode getMode() {
+        return mMode;
+    }
+
+    /**
+     * Sets the handling of calls made while the channel is reconnecting. Defaults to {@link Mode#QUEUE}.
+     *
+     * @param mode The handling of calls.
+     */
+    public void setMode(Mode mode) {
+        if(mode == null) {
+            throw new IllegalArgumentException("Mode must not be null.");
+        }
+        mMode = mode;
+    }
+
+    public long getQueueTimeoutMillis() {
+        return mQueueTimeoutMillis;
+    }
+
+    /**
+     * Sets the maximum time a call waits for the connection to be re-established in {@link Mode#QUEUE} mode.
+     *
+     * @param queueTimeoutMillis The maximum wait in milliseconds.
+     */
+    public void setQueueTimeoutMillis(long queueTimeoutMillis) {
+        mQueueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    public int getMaxAttempts() {
+        return mMaxAttempts;
+    }
+
+    /**
+     * Sets the number of connection attempts after which reconnecting is given up until the next call.
+     *
+     * @param maxAttempts The maximum number of attempts, or a negative value to keep trying.
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        mMaxAttempts = maxAttempts;
+    }
+
+    public long getInitialBackoffMillis() {
+        return mInitialBackoffMillis;
+    }
+
+    /**
+     * Sets the upper bound of the delay before the second connection attempt. The first attempt is made immediately.
+     *
+     * @param initialBackoffMillis The initial backoff in milliseconds.
+     */
+    public void setInitialBackoffMillis(long initialBackoffMillis) {
+        mInitialBackoffMillis = initialBackoffMillis;
+    }
+
+    public long getMaxBackoffMillis() {
+        return mMaxBackoffMillis;
+    }
+
+    /**
+     * Sets the upper bound of the delay between connection attempts.
+     *
+     * @param maxBackoffMillis The maximum backoff in milliseconds.
+     */
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        mMaxBackoffMillis = maxBackoffMillis;
+    }
+
+    public double getBackoffMultiplier() {
+        return mBackoffMultiplier;
+    }
+
+    /**
+     * Sets the factor the backoff grows by after every failed connection attempt.
+     *
+     * @param backoffMultiplier The backoff multiplier.
+     */
+    public void setBackoffMultiplier(double backoffMultiplier) {
+        mBackoffMultiplier = backoffMultiplier;
+    }
+
+    long getBackoffMillis(int failedAttemptCount) {
+        return RpcRetryPolicy.getJitteredBackoffMillis(mInitialBackoffMillis, mMaxBackoffMillis, mBackoffMultiplier, failedAttemptCount);
+    }
+}
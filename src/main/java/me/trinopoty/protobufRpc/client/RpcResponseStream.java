@@ -0,0 +1,151 @@
+package me.trinopoty.protobufRpc.client;
+
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+import me.trinopoty.protobufRpc.exception.RpcCallException;
+import me.trinopoty.protobufRpc.exception.RpcCallTimeoutException;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The iterator returned by server streaming methods on the client.
+ *
+ * The server sends at most as many elements as the stream window allows before the client has consumed them, and the
+ * client grants new credits as the application takes elements from the iterator. A stream which is not read to the end
+ * should be closed to stop the server from producing further elements.
+ *
+ * @param <T> The type of the response messages.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RpcResponseStream<T> implements Iterator<T>, Closeable {
+
+    /**
+     * Queued in place of a packet when the stream fails on the client side.
+     */
+    private static final WirePacketFormat.WirePacket FAILED_PACKET = WirePacketFormat.WirePacket.newBuilder()
+            .setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_NONE)
+            .build();
+
+    private final RpcClientChannelImpl mRpcClientChannel;
+    private final RpcServiceCollector.RpcMethodInfo mMethodInfo;
+    private final WirePacketFormat.WirePacket mRequestWirePacket;
+    private final int mWindowSize;
+
+    private final BlockingQueue<WirePacketFormat.WirePacket> mPacketQueue = new LinkedBlockingQueue<>();
+    private volatile RpcCallException mFailure = null;
+    private volatile boolean mClosed = false;
+
+    private WirePacketFormat.WirePacket mNextPacket = null;
+    private int mConsumedCount = 0;
+
+    RpcResponseStream(RpcClientChannelImpl rpcClientChannel, RpcServiceCollector.RpcMethodInfo methodInfo, WirePacketFormat.WirePacket requestWirePacket, int windowSize) {
+        mRpcClientChannel = rpcClientChannel;
+        mMethodInfo = methodInfo;
+        mRequestWirePacket = requestWirePacket;
+        mWindowSize = windowSize;
+    }
+
+    /**
+     * Waits for the next element of the stream.
+     *
+     * @return true if there is another element, false if the stream has ended or was closed.
+     * @throws me.trinopoty.protobufRpc.exception.RpcCallServerException If the server failed to produce the next element.
+     * @throws RpcCallException If no element arrived in time or the channel was closed.
+     */
+    @Override
+    public boolean hasNext() {
+        if(mClosed) {
+            return false;
+        }
+
+        if(mNextPacket == null) {
+            try {
+                mNextPacket = mPacketQueue.poll(mRpcClientChannel.getDefaultReceiveTimeoutMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RpcCallException("Interrupted while waiting for response.", ex);
+            }
+
+            if(mNextPacket == null) {
+                close();
+                throw new RpcCallTimeoutException("Response timeout.");
+            }
+        }
+
+        if(mNextPacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE) {
+            return true;
+        } else if(mNextPacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_END) {
+            return false;
+        } else if(mNextPacket == FAILED_PACKET) {
+            throw mFailure;
+        } else {
+            parseNextPacket();
+            throw new RpcCallException("Invalid response received: " + mNextPacket.toString());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        T responseMessage = (T) parseNextPacket();
+        mNextPacket = null;
+
+        if(++mConsumedCount >= Math.max(1, mWindowSize / 2)) {
+            mRpcClientChannel.sendStreamCredit(mRequestWirePacket, mConsumedCount);
+            mConsumedCount = 0;
+        }
+        return responseMessage;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    /**
+     * Stops receiving the stream. The server is told to stop producing elements if the stream has not ended yet.
+     */
+    @Override
+    public void close() {
+        if(mClosed) {
+            return;
+        }
+        mClosed = true;
+
+        WirePacketFormat.WirePacket nextPacket = mNextPacket;
+        if((nextPacket == null) || (nextPacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE)) {
+            mRpcClientChannel.cancelResponseStream(mRequestWirePacket);
+        }
+        mNextPacket = null;
+        mPacketQueue.clear();
+    }
+
+    void receivedPacket(WirePacketFormat.WirePacket wirePacket) {
+        if(!mClosed) {
+            mPacketQueue.offer(wirePacket);
+        }
+    }
+
+    void fail(RpcCallException cause) {
+        mFailure = cause;
+        mPacketQueue.offer(FAILED_PACKET);
+    }
+
+    private Object parseNextPacket() {
+        try {
+            return mRpcClientChannel.parseRpcResponse(mMethodInfo, mRequestWirePacket, mNextPacket);
+        } catch (IOException ex) {
+            throw new RpcCallException("Unable to parse response message.", ex);
+        }
+    }
+}
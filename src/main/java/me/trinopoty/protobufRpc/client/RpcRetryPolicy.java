@@ -0,0 +1,167 @@
+package me.trinopoty.protobufRpc.client;
+
+import me.trinopoty.protobufRpc.exception.RpcCallServerException;
+import me.trinopoty.protobufRpc.exception.RpcCallTimeoutException;
+import me.trinopoty.protobufRpc.exception.RpcChannelClosedException;
+import me.trinopoty.protobufRpc.exception.RpcChannelUnavailableException;
+import me.trinopoty.protobufRpc.exception.RpcCircuitOpenException;
+import me.trinopoty.protobufRpc.exception.RpcConcurrencyLimitException;
+import me.trinopoty.protobufRpc.exception.RpcServerOverloadedException;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Configuration of automatic retries of failed calls.
+ *
+ * A failed call is retried if its error category is retryable, the maximum number of attempts has not been reached
+ * and the retry budget of the {@link ProtobufRpcClient} allows it. Retries are delayed by an exponential backoff with full jitter.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RpcRetryPolicy {
+
+    /**
+     * The categories of call failures.
+     */
+    public enum ErrorCategory {
+        /**
+         * The request could not be sent, or was rejected by an open circuit breaker, the concurrency limit or an
+         * overloaded server. Always safe to retry.
+         */
+        UNAVAILABLE,
+
+        /**
+         * The connection was lost after the request was sent. The request may have been executed.
+         */
+        CONNECTION_LOST,
+
+        /**
+         * No response was received in time. The request may have been executed.
+         */
+        TIMEOUT,
+
+        /**
+         * The server reported an error while executing the request.
+         */
+        SERVER_ERROR
+    }
+
+    private int mMaxAttempts = 3;
+    private Set<ErrorCategory> mRetryableErrorCategories = EnumSet.of(ErrorCategory.UNAVAILABLE);
+    private long mInitialBackoffMillis = 50;
+    private long mMaxBackoffMillis = 2000;
+    private double mBackoffMultiplier = 2;
+
+    public int getMaxAttempts() {
+        return mMaxAttempts;
+    }
+
+    /**
+     * Sets the maximum number of attempts of a call, including the first one.
+     *
+     * @param maxAttempts The maximum number of attempts.
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        if(maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be at least 1.");
+        }
+        mMaxAttempts = maxAttempts;
+    }
+
+    public Set<ErrorCategory> getRetryableErrorCategories() {
+        return Collections.unmodifiableSet(mRetryableErrorCategories);
+    }
+
+    /**
+     * Sets the categories of failures which are retried. Defaults to {@link ErrorCategory#UNAVAILABLE} only,
+     * since the other categories can execute a request more than once.
+     *
+     * @param retryableErrorCategories The retryable categories.
+     */
+    public void setRetryableErrorCategories(ErrorCategory... retryableErrorCategories) {
+        Set<ErrorCategory> errorCategories = EnumSet.noneOf(ErrorCategory.class);
+        Collections.addAll(errorCategories, retryableErrorCategories);
+        mRetryableErrorCategories = errorCategories;
+    }
+
+    public long getInitialBackoffMillis() {
+        return mInitialBackoffMillis;
+    }
+
+    /**
+     * Sets the upper limit of the delay before the first retry.
+     *
+     * @param initialBackoffMillis The initial backoff in milliseconds.
+     */
+    public void setInitialBackoffMillis(long initialBackoffMillis) {
+        mInitialBackoffMillis = initialBackoffMillis;
+    }
+
+    public long getMaxBackoffMillis() {
+        return mMaxBackoffMillis;
+    }
+
+    /**
+     * Sets the upper limit of the delay before any retry.
+     *
+     * @param maxBackoffMillis The maximum backoff in milliseconds.
+     */
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        mMaxBackoffMillis = maxBackoffMillis;
+    }
+
+    public double getBackoffMultiplier() {
+        return mBackoffMultiplier;
+    }
+
+    /**
+     * Sets the factor by which the backoff grows after every retry.
+     *
+     * @param backoffMultiplier The backoff multiplier.
+     */
+    public void setBackoffMultiplier(double backoffMultiplier) {
+        if(backoffMultiplier < 1) {
+            throw new IllegalArgumentException("Backoff multiplier must be at least 1.");
+        }
+        mBackoffMultiplier = backoffMultiplier;
+    }
+
+    boolean isRetryable(Throwable cause) {
+        ErrorCategory errorCategory = getErrorCategory(cause);
+        return (errorCategory != null) && mRetryableErrorCategories.contains(errorCategory);
+    }
+
+    /**
+     * Gets a random delay before the given retry, up to the exponential backoff of that retry.
+     *
+     * @param retryCount The number of the retry, starting at 1.
+     * @return The delay in milliseconds.
+     */
+    long getBackoffMillis(int retryCount) {
+        return getJitteredBackoffMillis(mInitialBackoffMillis, mMaxBackoffMillis, mBackoffMultiplier, retryCount);
+    }
+
+    static long getJitteredBackoffMillis(long initialBackoffMillis, long maxBackoffMillis, double backoffMultiplier, int retryCount) {
+        double backoffMillis = Math.min(initialBackoffMillis * Math.pow(backoffMultiplier, retryCount - 1), maxBackoffMillis);
+        return (long) (ThreadLocalRandom.current().nextDouble() * backoffMillis);
+    }
+
+    static ErrorCategory getErrorCategory(Throwable cause) {
+        if((cause instanceof RpcChannelUnavailableException) ||
+                (cause instanceof RpcCircuitOpenException) ||
+                (cause instanceof RpcConcurrencyLimitException) ||
+                (cause instanceof RpcServerOverloadedException)) {
+            return ErrorCategory.UNAVAILABLE;
+        } else if(cause instanceof RpcChannelClosedException) {
+            return ErrorCategory.CONNECTION_LOST;
+        } else if(cause instanceof RpcCallTimeoutException) {
+            return ErrorCategory.TIMEOUT;
+        } else if(cause instanceof RpcCallServerException) {
+            return ErrorCategory.SERVER_ERROR;
+        } else {
+            return null;
+        }
+    }
+}
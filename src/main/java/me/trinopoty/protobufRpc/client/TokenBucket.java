@@ -0,0 +1,35 @@
+package me.trinopoty.protobufRpc.client;
+
+/**
+ * A bucket of tokens refilled by a fixed amount on every deposit instead of by time,
+ * used to limit extra requests to a ratio of the normal requests.
+ */
+final class TokenBucket {
+
+    private final double mTokensPerDeposit;
+    private final double mMaxTokens;
+
+    private double mTokens;
+
+    TokenBucket(double tokensPerDeposit, double maxTokens) {
+        mTokensPerDeposit = tokensPerDeposit;
+        mMaxTokens = maxTokens;
+        mTokens = maxTokens;
+    }
+
+    synchronized void deposit() {
+        mTokens = Math.min(mTokens + mTokensPerDeposit, mMaxTokens);
+    }
+
+    synchronized boolean tryAcquire() {
+        if(mTokens >= 1) {
+            mTokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    synchronized double getTokens() {
+        return mTokens;
+    }
+}
@@ -0,0 +1,72 @@
+package me.trinopoty.protobufRpc.client;
+
+import com.google.protobuf.AbstractMessage;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distributes calls in proportion to the weight of each endpoint using smooth weighted round-robin,
+ * which interleaves endpoints instead of sending bursts to the heaviest one.
+ * Endpoints without a configured weight get the default weight.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class WeightedLoadBalancingPolicy implements RpcLoadBalancingPolicy {
+
+    private static final int DEFAULT_WEIGHT = 1;
+
+    private final Map<InetSocketAddress, Integer> mWeightMap;
+    private final int mDefaultWeight;
+
+    private final Map<RpcEndpoint, Integer> mCurrentWeightMap = new HashMap<>();
+
+    public WeightedLoadBalancingPolicy(Map<InetSocketAddress, Integer> weightMap) {
+        this(weightMap, DEFAULT_WEIGHT);
+    }
+
+    public WeightedLoadBalancingPolicy(Map<InetSocketAddress, Integer> weightMap, int defaultWeight) {
+        for(Integer weight : weightMap.values()) {
+            if((weight == null) || (weight <= 0)) {
+                throw new IllegalArgumentException("Endpoint weight must be positive.");
+            }
+        }
+        if(defaultWeight <= 0) {
+            throw new IllegalArgumentException("Default weight must be positive.");
+        }
+
+        mWeightMap = new HashMap<>(weightMap);
+        mDefaultWeight = defaultWeight;
+    }
+
+    @Override
+    public synchronized RpcEndpoint select(List<RpcEndpoint> endpoints, RpcServiceCollector.RpcMethodInfo methodInfo, AbstractMessage requestMessage) {
+        RpcEndpoint result = null;
+        int resultCurrentWeight = Integer.MIN_VALUE;
+        int totalWeight = 0;
+
+        for(RpcEndpoint endpoint : endpoints) {
+            int weight = getWeight(endpoint);
+            Integer currentWeight = mCurrentWeightMap.get(endpoint);
+            int newCurrentWeight = ((currentWeight != null)? currentWeight : 0) + weight;
+            mCurrentWeightMap.put(endpoint, newCurrentWeight);
+
+            totalWeight += weight;
+            if(newCurrentWeight > resultCurrentWeight) {
+                result = endpoint;
+                resultCurrentWeight = newCurrentWeight;
+            }
+        }
+
+        assert result != null;
+        mCurrentWeightMap.put(result, resultCurrentWeight - totalWeight);
+        return result;
+    }
+
+    private int getWeight(RpcEndpoint endpoint) {
+        Integer weight = mWeightMap.get(endpoint.getRemoteAddress());
+        return (weight != null)? weight : mDefaultWeight;
+    }
+}
@@ -2,11 +2,13 @@ package me.trinopoty.protobufRpc.codec;
 
 import com.google.protobuf.InvalidProtocolBufferException;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageCodec;
 import io.netty.handler.codec.TooLongFrameException;
 import me.trinopoty.protobufRpc.ProtobufRpcLog;
 import me.trinopoty.protobufRpc.util.CRC32;
+import me.trinopoty.protobufRpc.util.RpcInboundMemoryBudget;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -18,6 +20,7 @@ public final class RpcMessageCodec extends ByteToMessageCodec<WirePacketFormat.W
 
     private final int mMaxReceivePacketLength;
     private final boolean mDiscardLargerPacket;
+    private final RpcInboundMemoryBudget mInboundMemoryBudget;
 
     private final Logger mLogger;
     private final String mLoggingName;
@@ -31,14 +34,28 @@ public final class RpcMessageCodec extends ByteToMessageCodec<WirePacketFormat.W
     private int mReadBufferPosition;
     private int mReadLengthRemaining;
 
+    private RpcInboundMemoryBudget.Account mInboundMemoryAccount = null;
+    private int mReadPacketLength = 0;
+
     public RpcMessageCodec(
             int maxReceivePacketLength,
             boolean discardLargerPacket,
             String loggingName,
             boolean enableEncodeLogging,
             boolean enableDecodeLogging) {
+        this(maxReceivePacketLength, discardLargerPacket, null, loggingName, enableEncodeLogging, enableDecodeLogging);
+    }
+
+    public RpcMessageCodec(
+            int maxReceivePacketLength,
+            boolean discardLargerPacket,
+            RpcInboundMemoryBudget inboundMemoryBudget,
+            String loggingName,
+            boolean enableEncodeLogging,
+            boolean enableDecodeLogging) {
         mMaxReceivePacketLength = maxReceivePacketLength;
         mDiscardLargerPacket = discardLargerPacket;
+        mInboundMemoryBudget = inboundMemoryBudget;
 
         mEnableEncodeLogging = enableEncodeLogging;
         mEnableDecodeLogging = enableDecodeLogging;
@@ -54,6 +71,53 @@ public final class RpcMessageCodec extends ByteToMessageCodec<WirePacketFormat.W
         }
     }
 
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        super.handlerAdded(ctx);
+        if(mInboundMemoryBudget != null) {
+            mInboundMemoryAccount = mInboundMemoryBudget.newAccount(ctx.channel());
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        try {
+            super.handlerRemoved(ctx);
+        } finally {
+            closeInboundMemoryAccount();
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        try {
+            super.channelInactive(ctx);
+        } finally {
+            closeInboundMemoryAccount();
+        }
+    }
+
+    /**
+     * Decoded packets are processed synchronously by the following handlers, so the frames completed while handling
+     * the read are released from the inbound memory budget once it returns, except for those a handler has held
+     * because it queued their messages.
+     */
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        try {
+            super.channelRead(ctx, msg);
+        } finally {
+            if(mInboundMemoryAccount != null) {
+                mInboundMemoryAccount.releaseProcessed();
+
+                // Only stop reading between frames, so a connection never holds budget while suspended
+                if(!mIsReadingPacket) {
+                    mInboundMemoryAccount.checkBudget();
+                }
+            }
+        }
+    }
+
     @Override
     protected void encode(ChannelHandlerContext channelHandlerContext, WirePacketFormat.WirePacket wirePacket, ByteBuf byteBuf) {
         byte[] messageBytes = wirePacket.toByteArray();
@@ -62,6 +126,25 @@ public final class RpcMessageCodec extends ByteToMessageCodec<WirePacketFormat.W
             logWireMessage(wirePacket);
         }
 
+        writePacket(messageBytes, byteBuf);
+    }
+
+    /**
+     * Encodes a packet into a new buffer. Channels using this codec pass buffers through unchanged, so the
+     * same encoded packet can be written to any number of channels.
+     *
+     * @param allocator The allocator of the buffer.
+     * @param wirePacket The packet to encode.
+     * @return The buffer containing the encoded packet.
+     */
+    public static ByteBuf encodePacket(ByteBufAllocator allocator, WirePacketFormat.WirePacket wirePacket) {
+        byte[] messageBytes = wirePacket.toByteArray();
+        ByteBuf byteBuf = allocator.buffer(8 + messageBytes.length);
+        writePacket(messageBytes, byteBuf);
+        return byteBuf;
+    }
+
+    private static void writePacket(byte[] messageBytes, ByteBuf byteBuf) {
         byteBuf.writeInt(PACKET_SIGNATURE);
         byteBuf.writeInt(messageBytes.length);
         byteBuf.writeBytes(messageBytes);
@@ -96,6 +179,10 @@ public final class RpcMessageCodec extends ByteToMessageCodec<WirePacketFormat.W
                 try {
                     return processPacket(mReadBuffer, mReadBufferPosition);
                 } finally {
+                    if(mInboundMemoryAccount != null) {
+                        mInboundMemoryAccount.frameRead(mReadPacketLength);
+                    }
+                    mReadPacketLength = 0;
                     mIsReadingPacket = false;
                     mReadLengthRemaining = 0;
                     mReadBufferPosition = 0;
@@ -108,7 +195,7 @@ public final class RpcMessageCodec extends ByteToMessageCodec<WirePacketFormat.W
         boolean signatureFound = findPacketSignature(byteBuf);
 
         if(signatureFound) {
-            signatureFound = (byteBuf.readableBytes() > 8);
+            signatureFound = (byteBuf.readableBytes() >= 8);
         }
 
         if(signatureFound) {
@@ -129,10 +216,20 @@ public final class RpcMessageCodec extends ByteToMessageCodec<WirePacketFormat.W
                 } else {
                     throw new TooLongFrameException("frame size (" + payloadLength + ") larger than maximum size (" + mMaxReceivePacketLength + ")");
                 }
-            } else if(byteBuf.readableBytes() >= payloadLength) {
+            }
+
+            if(mInboundMemoryAccount != null) {
+                mInboundMemoryAccount.acquire(payloadLength);
+            }
+
+            if(byteBuf.readableBytes() >= payloadLength) {
                 byteBuf.readBytes(mReadBuffer, 0, payloadLength);
+                if(mInboundMemoryAccount != null) {
+                    mInboundMemoryAccount.frameRead(payloadLength);
+                }
                 return processPacket(mReadBuffer, payloadLength);
             } else {
+                mReadPacketLength = payloadLength;
                 mReadLengthRemaining = payloadLength;
                 mReadBufferPosition = 0;
                 mIsReadingPacket = true;
@@ -142,6 +239,13 @@ public final class RpcMessageCodec extends ByteToMessageCodec<WirePacketFormat.W
         return null;
     }
 
+    private void closeInboundMemoryAccount() {
+        if(mInboundMemoryAccount != null) {
+            mInboundMemoryAccount.close();
+            mInboundMemoryAccount = null;
+        }
+    }
+
     private WirePacketFormat.WirePacket processPacket(byte[] buffer, int length) {
         try {
             byte[] localBuffer = new byte[length];
@@ -187,6 +291,14 @@ public final class RpcMessageCodec extends ByteToMessageCodec<WirePacketFormat.W
                         wirePacket.getServiceIdentifier().getMethodIdentifier(),
                         wirePacket.getMessageIdentifier()));
                 break;
+            case MESSAGE_TYPE_NOTIFY:
+                mLogger.info(String.format(
+                        "[RpcEncoder:%s] Notify { serviceIdentifier: %d; methodIdentifier: %d; messageIdentifier: %d }",
+                        mLoggingName,
+                        wirePacket.getServiceIdentifier().getServiceIdentifier(),
+                        wirePacket.getServiceIdentifier().getMethodIdentifier(),
+                        wirePacket.getMessageIdentifier()));
+                break;
             case MESSAGE_TYPE_RESPONSE:
                 mLogger.info(String.format(
                         "[RpcEncoder:%s] Response { serviceIdentifier: %d; methodIdentifier: %d; messageIdentifier: %d }",
@@ -214,19 +326,20 @@ public final class RpcMessageCodec extends ByteToMessageCodec<WirePacketFormat.W
 
     private static boolean findPacketSignature(ByteBuf byteBuf) {
         final int readIdx = byteBuf.readerIndex();
-        final int readLimit = (byteBuf.readableBytes() - 4) - readIdx;
+        final int readLimit = byteBuf.readableBytes() - 3;
 
-        boolean result = false;
         for(int i = 0; i < readLimit; i++) {
             if(byteBuf.getInt(readIdx + i) == PACKET_SIGNATURE) {
-                result = true;
-                break;
+                byteBuf.readerIndex(readIdx + i);
+                return true;
             }
         }
 
-        byteBuf.readerIndex(readIdx);
-        byteBuf.discardReadBytes();
-        return result;
+        // Skip garbage but keep the trailing bytes which might be the beginning of a signature.
+        if(readLimit > 0) {
+            byteBuf.readerIndex(readIdx + readLimit);
+        }
+        return false;
     }
 
     private static int discardBytes(ByteBuf byteBuf, int discardLength) {
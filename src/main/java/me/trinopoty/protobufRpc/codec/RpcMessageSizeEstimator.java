@@ -0,0 +1,36 @@
+package me.trinopoty.protobufRpc.codec;
+
+import io.netty.channel.DefaultMessageSizeEstimator;
+import io.netty.channel.MessageSizeEstimator;
+
+/**
+ * Estimates the size of {@link WirePacketFormat.WirePacket} messages, so packets written from outside the event loop
+ * count towards the write buffer water marks before they are encoded.
+ */
+public final class RpcMessageSizeEstimator implements MessageSizeEstimator {
+
+    public static final RpcMessageSizeEstimator INSTANCE = new RpcMessageSizeEstimator();
+
+    private static final class HandleImpl implements Handle {
+
+        private final Handle mDefaultHandle = DefaultMessageSizeEstimator.DEFAULT.newHandle();
+
+        @Override
+        public int size(Object msg) {
+            if(msg instanceof WirePacketFormat.WirePacket) {
+                return 8 + ((WirePacketFormat.WirePacket) msg).getSerializedSize();
+            }
+            return mDefaultHandle.size(msg);
+        }
+    }
+
+    private final Handle mHandle = new HandleImpl();
+
+    private RpcMessageSizeEstimator() {
+    }
+
+    @Override
+    public Handle newHandle() {
+        return mHandle;
+    }
+}
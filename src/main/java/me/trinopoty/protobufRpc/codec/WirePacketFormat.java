@@ -43,6 +43,26 @@ public final class WirePacketFormat {
      * <code>MESSAGE_TYPE_KEEP_ALIVE = 5;</code>
      */
     MESSAGE_TYPE_KEEP_ALIVE(5),
+    /**
+     * <code>MESSAGE_TYPE_NOTIFY = 6;</code>
+     */
+    MESSAGE_TYPE_NOTIFY(6),
+    /**
+     * <code>MESSAGE_TYPE_STREAM_CREDIT = 7;</code>
+     */
+    MESSAGE_TYPE_STREAM_CREDIT(7),
+    /**
+     * <code>MESSAGE_TYPE_STREAM_END = 8;</code>
+     */
+    MESSAGE_TYPE_STREAM_END(8),
+    /**
+     * <code>MESSAGE_TYPE_CANCEL = 9;</code>
+     */
+    MESSAGE_TYPE_CANCEL(9),
+    /**
+     * <code>MESSAGE_TYPE_STREAM_MESSAGE = 10;</code>
+     */
+    MESSAGE_TYPE_STREAM_MESSAGE(10),
     ;
 
     /**
@@ -69,6 +89,26 @@ public final class WirePacketFormat {
      * <code>MESSAGE_TYPE_KEEP_ALIVE = 5;</code>
      */
     public static final int MESSAGE_TYPE_KEEP_ALIVE_VALUE = 5;
+    /**
+     * <code>MESSAGE_TYPE_NOTIFY = 6;</code>
+     */
+    public static final int MESSAGE_TYPE_NOTIFY_VALUE = 6;
+    /**
+     * <code>MESSAGE_TYPE_STREAM_CREDIT = 7;</code>
+     */
+    public static final int MESSAGE_TYPE_STREAM_CREDIT_VALUE = 7;
+    /**
+     * <code>MESSAGE_TYPE_STREAM_END = 8;</code>
+     */
+    public static final int MESSAGE_TYPE_STREAM_END_VALUE = 8;
+    /**
+     * <code>MESSAGE_TYPE_CANCEL = 9;</code>
+     */
+    public static final int MESSAGE_TYPE_CANCEL_VALUE = 9;
+    /**
+     * <code>MESSAGE_TYPE_STREAM_MESSAGE = 10;</code>
+     */
+    public static final int MESSAGE_TYPE_STREAM_MESSAGE_VALUE = 10;
 
 
     public final int getNumber() {
@@ -91,6 +131,11 @@ public final class WirePacketFormat {
         case 3: return MESSAGE_TYPE_ERROR;
         case 4: return MESSAGE_TYPE_OOB;
         case 5: return MESSAGE_TYPE_KEEP_ALIVE;
+        case 6: return MESSAGE_TYPE_NOTIFY;
+        case 7: return MESSAGE_TYPE_STREAM_CREDIT;
+        case 8: return MESSAGE_TYPE_STREAM_END;
+        case 9: return MESSAGE_TYPE_CANCEL;
+        case 10: return MESSAGE_TYPE_STREAM_MESSAGE;
         default: return null;
       }
     }
@@ -140,6 +185,96 @@ public final class WirePacketFormat {
     // @@protoc_insertion_point(enum_scope:me.trinopoty.protobufRpc.codec.MessageType)
   }
 
+  /**
+   * Protobuf enum {@code me.trinopoty.protobufRpc.codec.ErrorCode}
+   */
+  public enum ErrorCode
+      implements com.google.protobuf.ProtocolMessageEnum {
+    /**
+     * <code>ERROR_CODE_SERVER_ERROR = 0;</code>
+     */
+    ERROR_CODE_SERVER_ERROR(0),
+    /**
+     * <code>ERROR_CODE_OVERLOADED = 1;</code>
+     */
+    ERROR_CODE_OVERLOADED(1),
+    ;
+
+    /**
+     * <code>ERROR_CODE_SERVER_ERROR = 0;</code>
+     */
+    public static final int ERROR_CODE_SERVER_ERROR_VALUE = 0;
+    /**
+     * <code>ERROR_CODE_OVERLOADED = 1;</code>
+     */
+    public static final int ERROR_CODE_OVERLOADED_VALUE = 1;
+
+
+    public final int getNumber() {
+      return value;
+    }
+
+    /**
+     * @deprecated Use {@link #forNumber(int)} instead.
+     */
+    @java.lang.Deprecated
+    public static ErrorCode valueOf(int value) {
+      return forNumber(value);
+    }
+
+    public static ErrorCode forNumber(int value) {
+      switch (value) {
+        case 0: return ERROR_CODE_SERVER_ERROR;
+        case 1: return ERROR_CODE_OVERLOADED;
+        default: return null;
+      }
+    }
+
+    public static com.google.protobuf.Internal.EnumLiteMap<ErrorCode>
+        internalGetValueMap() {
+      return internalValueMap;
+    }
+    private static final com.google.protobuf.Internal.EnumLiteMap<
+        ErrorCode> internalValueMap =
+          new com.google.protobuf.Internal.EnumLiteMap<ErrorCode>() {
+            public ErrorCode findValueByNumber(int number) {
+              return ErrorCode.forNumber(number);
+            }
+          };
+
+    public final com.google.protobuf.Descriptors.EnumValueDescriptor
+        getValueDescriptor() {
+      return getDescriptor().getValues().get(ordinal());
+    }
+    public final com.google.protobuf.Descriptors.EnumDescriptor
+        getDescriptorForType() {
+      return getDescriptor();
+    }
+    public static final com.google.protobuf.Descriptors.EnumDescriptor
+        getDescriptor() {
+      return me.trinopoty.protobufRpc.codec.WirePacketFormat.getDescriptor().getEnumTypes().get(1);
+    }
+
+    private static final ErrorCode[] VALUES = values();
+
+    public static ErrorCode valueOf(
+        com.google.protobuf.Descriptors.EnumValueDescriptor desc) {
+      if (desc.getType() != getDescriptor()) {
+        throw new java.lang.IllegalArgumentException(
+          "EnumValueDescriptor is not for this type.");
+      }
+      return VALUES[desc.getIndex()];
+    }
+
+    private final int value;
+
+    private ErrorCode(int value) {
+      this.value = value;
+    }
+
+    // @@protoc_insertion_point(enum_scope:me.trinopoty.protobufRpc.codec.ErrorCode)
+  }
+
   public interface ServiceIdentifierOrBuilder extends
       // @@protoc_insertion_point(interface_extends:me.trinopoty.protobufRpc.codec.ServiceIdentifier)
       com.google.protobuf.MessageOrBuilder {
@@ -738,6 +873,33 @@ public final class WirePacketFormat {
      */
     int getCrc32();
 
+    /**
+     * <code>optional int32 streamCredits = 4;</code>
+     */
+    boolean hasStreamCredits();
+    /**
+     * <code>optional int32 streamCredits = 4;</code>
+     */
+    int getStreamCredits();
+
+    /**
+     * <code>optional int64 timeoutMillis = 5;</code>
+     */
+    boolean hasTimeoutMillis();
+    /**
+     * <code>optional int64 timeoutMillis = 5;</code>
+     */
+    long getTimeoutMillis();
+
+    /**
+     * <code>optional int32 priority = 6;</code>
+     */
+    boolean hasPriority();
+    /**
+     * <code>optional int32 priority = 6;</code>
+     */
+    int getPriority();
+
     /**
      * <code>optional .me.trinopoty.protobufRpc.codec.ServiceIdentifier serviceIdentifier = 11;</code>
      */
@@ -775,6 +937,9 @@ public final class WirePacketFormat {
       messageIdentifier_ = 0L;
       messageType_ = 0;
       crc32_ = 0;
+      streamCredits_ = 0;
+      timeoutMillis_ = 0L;
+      priority_ = 0;
       payload_ = com.google.protobuf.ByteString.EMPTY;
     }
 
@@ -827,9 +992,24 @@ public final class WirePacketFormat {
               crc32_ = input.readInt32();
               break;
             }
+            case 32: {
+              bitField0_ |= 0x00000008;
+              streamCredits_ = input.readInt32();
+              break;
+            }
+            case 40: {
+              bitField0_ |= 0x00000010;
+              timeoutMillis_ = input.readInt64();
+              break;
+            }
+            case 48: {
+              bitField0_ |= 0x00000020;
+              priority_ = input.readInt32();
+              break;
+            }
             case 90: {
               me.trinopoty.protobufRpc.codec.WirePacketFormat.ServiceIdentifier.Builder subBuilder = null;
-              if (((bitField0_ & 0x00000008) == 0x00000008)) {
+              if (((bitField0_ & 0x00000040) == 0x00000040)) {
                 subBuilder = serviceIdentifier_.toBuilder();
               }
               serviceIdentifier_ = input.readMessage(me.trinopoty.protobufRpc.codec.WirePacketFormat.ServiceIdentifier.PARSER, extensionRegistry);
@@ -837,11 +1017,11 @@ public final class WirePacketFormat {
                 subBuilder.mergeFrom(serviceIdentifier_);
                 serviceIdentifier_ = subBuilder.buildPartial();
               }
-              bitField0_ |= 0x00000008;
+              bitField0_ |= 0x00000040;
               break;
             }
             case 130: {
-              bitField0_ |= 0x00000010;
+              bitField0_ |= 0x00000080;
               payload_ = input.readBytes();
               break;
             }
@@ -916,13 +1096,58 @@ public final class WirePacketFormat {
       return crc32_;
     }
 
+    public static final int STREAMCREDITS_FIELD_NUMBER = 4;
+    private int streamCredits_;
+    /**
+     * <code>optional int32 streamCredits = 4;</code>
+     */
+    public boolean hasStreamCredits() {
+      return ((bitField0_ & 0x00000008) == 0x00000008);
+    }
+    /**
+     * <code>optional int32 streamCredits = 4;</code>
+     */
+    public int getStreamCredits() {
+      return streamCredits_;
+    }
+
+    public static final int TIMEOUTMILLIS_FIELD_NUMBER = 5;
+    private long timeoutMillis_;
+    /**
+     * <code>optional int64 timeoutMillis = 5;</code>
+     */
+    public boolean hasTimeoutMillis() {
+      return ((bitField0_ & 0x00000010) == 0x00000010);
+    }
+    /**
+     * <code>optional int64 timeoutMillis = 5;</code>
+     */
+    public long getTimeoutMillis() {
+      return timeoutMillis_;
+    }
+
+    public static final int PRIORITY_FIELD_NUMBER = 6;
+    private int priority_;
+    /**
+     * <code>optional int32 priority = 6;</code>
+     */
+    public boolean hasPriority() {
+      return ((bitField0_ & 0x00000020) == 0x00000020);
+    }
+    /**
+     * <code>optional int32 priority = 6;</code>
+     */
+    public int getPriority() {
+      return priority_;
+    }
+
     public static final int SERVICEIDENTIFIER_FIELD_NUMBER = 11;
     private me.trinopoty.protobufRpc.codec.WirePacketFormat.ServiceIdentifier serviceIdentifier_;
     /**
      * <code>optional .me.trinopoty.protobufRpc.codec.ServiceIdentifier serviceIdentifier = 11;</code>
      */
     public boolean hasServiceIdentifier() {
-      return ((bitField0_ & 0x00000008) == 0x00000008);
+      return ((bitField0_ & 0x00000040) == 0x00000040);
     }
     /**
      * <code>optional .me.trinopoty.protobufRpc.codec.ServiceIdentifier serviceIdentifier = 11;</code>
@@ -943,7 +1168,7 @@ public final class WirePacketFormat {
      * <code>optional bytes payload = 16;</code>
      */
     public boolean hasPayload() {
-      return ((bitField0_ & 0x00000010) == 0x00000010);
+      return ((bitField0_ & 0x00000080) == 0x00000080);
     }
     /**
      * <code>optional bytes payload = 16;</code>
@@ -984,9 +1209,18 @@ public final class WirePacketFormat {
         output.writeInt32(3, crc32_);
       }
       if (((bitField0_ & 0x00000008) == 0x00000008)) {
-        output.writeMessage(11, getServiceIdentifier());
+        output.writeInt32(4, streamCredits_);
       }
       if (((bitField0_ & 0x00000010) == 0x00000010)) {
+        output.writeInt64(5, timeoutMillis_);
+      }
+      if (((bitField0_ & 0x00000020) == 0x00000020)) {
+        output.writeInt32(6, priority_);
+      }
+      if (((bitField0_ & 0x00000040) == 0x00000040)) {
+        output.writeMessage(11, getServiceIdentifier());
+      }
+      if (((bitField0_ & 0x00000080) == 0x00000080)) {
         output.writeBytes(16, payload_);
       }
       unknownFields.writeTo(output);
@@ -1011,9 +1245,21 @@ public final class WirePacketFormat {
       }
       if (((bitField0_ & 0x00000008) == 0x00000008)) {
         size += com.google.protobuf.CodedOutputStream
-          .computeMessageSize(11, getServiceIdentifier());
+          .computeInt32Size(4, streamCredits_);
       }
       if (((bitField0_ & 0x00000010) == 0x00000010)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(5, timeoutMillis_);
+      }
+      if (((bitField0_ & 0x00000020) == 0x00000020)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(6, priority_);
+      }
+      if (((bitField0_ & 0x00000040) == 0x00000040)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(11, getServiceIdentifier());
+      }
+      if (((bitField0_ & 0x00000080) == 0x00000080)) {
         size += com.google.protobuf.CodedOutputStream
           .computeBytesSize(16, payload_);
       }
@@ -1048,6 +1294,21 @@ public final class WirePacketFormat {
         result = result && (getCrc32()
             == other.getCrc32());
       }
+      result = result && (hasStreamCredits() == other.hasStreamCredits());
+      if (hasStreamCredits()) {
+        result = result && (getStreamCredits()
+            == other.getStreamCredits());
+      }
+      result = result && (hasTimeoutMillis() == other.hasTimeoutMillis());
+      if (hasTimeoutMillis()) {
+        result = result && (getTimeoutMillis()
+            == other.getTimeoutMillis());
+      }
+      result = result && (hasPriority() == other.hasPriority());
+      if (hasPriority()) {
+        result = result && (getPriority()
+            == other.getPriority());
+      }
       result = result && (hasServiceIdentifier() == other.hasServiceIdentifier());
       if (hasServiceIdentifier()) {
         result = result && getServiceIdentifier()
@@ -1082,6 +1343,19 @@ public final class WirePacketFormat {
         hash = (37 * hash) + CRC32_FIELD_NUMBER;
         hash = (53 * hash) + getCrc32();
       }
+      if (hasStreamCredits()) {
+        hash = (37 * hash) + STREAMCREDITS_FIELD_NUMBER;
+        hash = (53 * hash) + getStreamCredits();
+      }
+      if (hasTimeoutMillis()) {
+        hash = (37 * hash) + TIMEOUTMILLIS_FIELD_NUMBER;
+        hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+            getTimeoutMillis());
+      }
+      if (hasPriority()) {
+        hash = (37 * hash) + PRIORITY_FIELD_NUMBER;
+        hash = (53 * hash) + getPriority();
+      }
       if (hasServiceIdentifier()) {
         hash = (37 * hash) + SERVICEIDENTIFIER_FIELD_NUMBER;
         hash = (53 * hash) + getServiceIdentifier().hashCode();
@@ -1215,14 +1489,20 @@ public final class WirePacketFormat {
         bitField0_ = (bitField0_ & ~0x00000002);
         crc32_ = 0;
         bitField0_ = (bitField0_ & ~0x00000004);
+        streamCredits_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000008);
+        timeoutMillis_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000010);
+        priority_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000020);
         if (serviceIdentifierBuilder_ == null) {
           serviceIdentifier_ = null;
         } else {
           serviceIdentifierBuilder_.clear();
         }
-        bitField0_ = (bitField0_ & ~0x00000008);
+        bitField0_ = (bitField0_ & ~0x00000040);
         payload_ = com.google.protobuf.ByteString.EMPTY;
-        bitField0_ = (bitField0_ & ~0x00000010);
+        bitField0_ = (bitField0_ & ~0x00000080);
         return this;
       }
 
@@ -1262,13 +1542,25 @@ public final class WirePacketFormat {
         if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
           to_bitField0_ |= 0x00000008;
         }
+        result.streamCredits_ = streamCredits_;
+        if (((from_bitField0_ & 0x00000010) == 0x00000010)) {
+          to_bitField0_ |= 0x00000010;
+        }
+        result.timeoutMillis_ = timeoutMillis_;
+        if (((from_bitField0_ & 0x00000020) == 0x00000020)) {
+          to_bitField0_ |= 0x00000020;
+        }
+        result.priority_ = priority_;
+        if (((from_bitField0_ & 0x00000040) == 0x00000040)) {
+          to_bitField0_ |= 0x00000040;
+        }
         if (serviceIdentifierBuilder_ == null) {
           result.serviceIdentifier_ = serviceIdentifier_;
         } else {
           result.serviceIdentifier_ = serviceIdentifierBuilder_.build();
         }
-        if (((from_bitField0_ & 0x00000010) == 0x00000010)) {
-          to_bitField0_ |= 0x00000010;
+        if (((from_bitField0_ & 0x00000080) == 0x00000080)) {
+          to_bitField0_ |= 0x00000080;
         }
         result.payload_ = payload_;
         result.bitField0_ = to_bitField0_;
@@ -1322,6 +1614,15 @@ public final class WirePacketFormat {
         if (other.hasCrc32()) {
           setCrc32(other.getCrc32());
         }
+        if (other.hasStreamCredits()) {
+          setStreamCredits(other.getStreamCredits());
+        }
+        if (other.hasTimeoutMillis()) {
+          setTimeoutMillis(other.getTimeoutMillis());
+        }
+        if (other.hasPriority()) {
+          setPriority(other.getPriority());
+        }
         if (other.hasServiceIdentifier()) {
           mergeServiceIdentifier(other.getServiceIdentifier());
         }
@@ -1464,6 +1765,102 @@ public final class WirePacketFormat {
         return this;
       }
 
+      private int streamCredits_ ;
+      /**
+       * <code>optional int32 streamCredits = 4;</code>
+       */
+      public boolean hasStreamCredits() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      /**
+       * <code>optional int32 streamCredits = 4;</code>
+       */
+      public int getStreamCredits() {
+        return streamCredits_;
+      }
+      /**
+       * <code>optional int32 streamCredits = 4;</code>
+       */
+      public Builder setStreamCredits(int value) {
+        bitField0_ |= 0x00000008;
+        streamCredits_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 streamCredits = 4;</code>
+       */
+      public Builder clearStreamCredits() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        streamCredits_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private long timeoutMillis_ ;
+      /**
+       * <code>optional int64 timeoutMillis = 5;</code>
+       */
+      public boolean hasTimeoutMillis() {
+        return ((bitField0_ & 0x00000010) == 0x00000010);
+      }
+      /**
+       * <code>optional int64 timeoutMillis = 5;</code>
+       */
+      public long getTimeoutMillis() {
+        return timeoutMillis_;
+      }
+      /**
+       * <code>optional int64 timeoutMillis = 5;</code>
+       */
+      public Builder setTimeoutMillis(long value) {
+        bitField0_ |= 0x00000010;
+        timeoutMillis_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int64 timeoutMillis = 5;</code>
+       */
+      public Builder clearTimeoutMillis() {
+        bitField0_ = (bitField0_ & ~0x00000010);
+        timeoutMillis_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      private int priority_ ;
+      /**
+       * <code>optional int32 priority = 6;</code>
+       */
+      public boolean hasPriority() {
+        return ((bitField0_ & 0x00000020) == 0x00000020);
+      }
+      /**
+       * <code>optional int32 priority = 6;</code>
+       */
+      public int getPriority() {
+        return priority_;
+      }
+      /**
+       * <code>optional int32 priority = 6;</code>
+       */
+      public Builder setPriority(int value) {
+        bitField0_ |= 0x00000020;
+        priority_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 priority = 6;</code>
+       */
+      public Builder clearPriority() {
+        bitField0_ = (bitField0_ & ~0x00000020);
+        priority_ = 0;
+        onChanged();
+        return this;
+      }
+
       private me.trinopoty.protobufRpc.codec.WirePacketFormat.ServiceIdentifier serviceIdentifier_ = null;
       private com.google.protobuf.SingleFieldBuilderV3<
           me.trinopoty.protobufRpc.codec.WirePacketFormat.ServiceIdentifier, me.trinopoty.protobufRpc.codec.WirePacketFormat.ServiceIdentifier.Builder, me.trinopoty.protobufRpc.codec.WirePacketFormat.ServiceIdentifierOrBuilder> serviceIdentifierBuilder_;
@@ -1471,7 +1868,7 @@ public final class WirePacketFormat {
        * <code>optional .me.trinopoty.protobufRpc.codec.ServiceIdentifier serviceIdentifier = 11;</code>
        */
       public boolean hasServiceIdentifier() {
-        return ((bitField0_ & 0x00000008) == 0x00000008);
+        return ((bitField0_ & 0x00000040) == 0x00000040);
       }
       /**
        * <code>optional .me.trinopoty.protobufRpc.codec.ServiceIdentifier serviceIdentifier = 11;</code>
@@ -1496,7 +1893,7 @@ public final class WirePacketFormat {
         } else {
           serviceIdentifierBuilder_.setMessage(value);
         }
-        bitField0_ |= 0x00000008;
+        bitField0_ |= 0x00000040;
         return this;
       }
       /**
@@ -1510,7 +1907,7 @@ public final class WirePacketFormat {
         } else {
           serviceIdentifierBuilder_.setMessage(builderForValue.build());
         }
-        bitField0_ |= 0x00000008;
+        bitField0_ |= 0x00000040;
         return this;
       }
       /**
@@ -1518,7 +1915,7 @@ public final class WirePacketFormat {
        */
       public Builder mergeServiceIdentifier(me.trinopoty.protobufRpc.codec.WirePacketFormat.ServiceIdentifier value) {
         if (serviceIdentifierBuilder_ == null) {
-          if (((bitField0_ & 0x00000008) == 0x00000008) &&
+          if (((bitField0_ & 0x00000040) == 0x00000040) &&
               serviceIdentifier_ != null &&
               serviceIdentifier_ != me.trinopoty.protobufRpc.codec.WirePacketFormat.ServiceIdentifier.getDefaultInstance()) {
             serviceIdentifier_ =
@@ -1530,7 +1927,7 @@ public final class WirePacketFormat {
         } else {
           serviceIdentifierBuilder_.mergeFrom(value);
         }
-        bitField0_ |= 0x00000008;
+        bitField0_ |= 0x00000040;
         return this;
       }
       /**
@@ -1543,14 +1940,14 @@ public final class WirePacketFormat {
         } else {
           serviceIdentifierBuilder_.clear();
         }
-        bitField0_ = (bitField0_ & ~0x00000008);
+        bitField0_ = (bitField0_ & ~0x00000040);
         return this;
       }
       /**
        * <code>optional .me.trinopoty.protobufRpc.codec.ServiceIdentifier serviceIdentifier = 11;</code>
        */
       public me.trinopoty.protobufRpc.codec.WirePacketFormat.ServiceIdentifier.Builder getServiceIdentifierBuilder() {
-        bitField0_ |= 0x00000008;
+        bitField0_ |= 0x00000040;
         onChanged();
         return getServiceIdentifierFieldBuilder().getBuilder();
       }
@@ -1587,7 +1984,7 @@ public final class WirePacketFormat {
        * <code>optional bytes payload = 16;</code>
        */
       public boolean hasPayload() {
-        return ((bitField0_ & 0x00000010) == 0x00000010);
+        return ((bitField0_ & 0x00000080) == 0x00000080);
       }
       /**
        * <code>optional bytes payload = 16;</code>
@@ -1602,7 +1999,7 @@ public final class WirePacketFormat {
         if (value == null) {
     throw new NullPointerException();
   }
-  bitField0_ |= 0x00000010;
+  bitField0_ |= 0x00000080;
         payload_ = value;
         onChanged();
         return this;
@@ -1611,7 +2008,7 @@ public final class WirePacketFormat {
        * <code>optional bytes payload = 16;</code>
        */
       public Builder clearPayload() {
-        bitField0_ = (bitField0_ & ~0x00000010);
+        bitField0_ = (bitField0_ & ~0x00000080);
         payload_ = getDefaultInstance().getPayload();
         onChanged();
         return this;
@@ -1682,6 +2079,15 @@ public final class WirePacketFormat {
      */
     com.google.protobuf.ByteString
         getMessageBytes();
+
+    /**
+     * <code>optional .me.trinopoty.protobufRpc.codec.ErrorCode code = 2 [default = ERROR_CODE_SERVER_ERROR];</code>
+     */
+    boolean hasCode();
+    /**
+     * <code>optional .me.trinopoty.protobufRpc.codec.ErrorCode code = 2 [default = ERROR_CODE_SERVER_ERROR];</code>
+     */
+    me.trinopoty.protobufRpc.codec.WirePacketFormat.ErrorCode getCode();
   }
   /**
    * Protobuf type {@code me.trinopoty.protobufRpc.codec.ErrorMessage}
@@ -1696,6 +2102,7 @@ public final class WirePacketFormat {
     }
     private ErrorMessage() {
       message_ = "";
+      code_ = 0;
     }
 
     @java.lang.Override
@@ -1732,6 +2139,17 @@ public final class WirePacketFormat {
               message_ = bs;
               break;
             }
+            case 16: {
+              int rawValue = input.readEnum();
+              me.trinopoty.protobufRpc.codec.WirePacketFormat.ErrorCode value = me.trinopoty.protobufRpc.codec.WirePacketFormat.ErrorCode.valueOf(rawValue);
+              if (value == null) {
+                unknownFields.mergeVarintField(2, rawValue);
+              } else {
+                bitField0_ |= 0x00000002;
+                code_ = rawValue;
+              }
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -1799,6 +2217,22 @@ public final class WirePacketFormat {
       }
     }
 
+    public static final int CODE_FIELD_NUMBER = 2;
+    private int code_;
+    /**
+     * <code>optional .me.trinopoty.protobufRpc.codec.ErrorCode code = 2 [default = ERROR_CODE_SERVER_ERROR];</code>
+     */
+    public boolean hasCode() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional .me.trinopoty.protobufRpc.codec.ErrorCode code = 2 [default = ERROR_CODE_SERVER_ERROR];</code>
+     */
+    public me.trinopoty.protobufRpc.codec.WirePacketFormat.ErrorCode getCode() {
+      me.trinopoty.protobufRpc.codec.WirePacketFormat.ErrorCode result = me.trinopoty.protobufRpc.codec.WirePacketFormat.ErrorCode.valueOf(code_);
+      return result == null ? me.trinopoty.protobufRpc.codec.WirePacketFormat.ErrorCode.ERROR_CODE_SERVER_ERROR : result;
+    }
+
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
@@ -1818,6 +2252,9 @@ public final class WirePacketFormat {
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         com.google.protobuf.GeneratedMessageV3.writeString(output, 1, message_);
       }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeEnum(2, code_);
+      }
       unknownFields.writeTo(output);
     }
 
@@ -1829,6 +2266,10 @@ public final class WirePacketFormat {
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.GeneratedMessageV3.computeStringSize(1, message_);
       }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeEnumSize(2, code_);
+      }
       size += unknownFields.getSerializedSize();
       memoizedSize = size;
       return size;
@@ -1851,6 +2292,10 @@ public final class WirePacketFormat {
         result = result && getMessage()
             .equals(other.getMessage());
       }
+      result = result && (hasCode() == other.hasCode());
+      if (hasCode()) {
+        result = result && code_ == other.code_;
+      }
       result = result && unknownFields.equals(other.unknownFields);
       return result;
     }
@@ -1866,6 +2311,10 @@ public final class WirePacketFormat {
         hash = (37 * hash) + MESSAGE_FIELD_NUMBER;
         hash = (53 * hash) + getMessage().hashCode();
       }
+      if (hasCode()) {
+        hash = (37 * hash) + CODE_FIELD_NUMBER;
+        hash = (53 * hash) + code_;
+      }
       hash = (29 * hash) + unknownFields.hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -1986,6 +2435,8 @@ public final class WirePacketFormat {
         super.clear();
         message_ = "";
         bitField0_ = (bitField0_ & ~0x00000001);
+        code_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000002);
         return this;
       }
 
@@ -2014,6 +2465,10 @@ public final class WirePacketFormat {
           to_bitField0_ |= 0x00000001;
         }
         result.message_ = message_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.code_ = code_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -2061,6 +2516,9 @@ public final class WirePacketFormat {
           message_ = other.message_;
           onChanged();
         }
+        if (other.hasCode()) {
+          setCode(other.getCode());
+        }
         this.mergeUnknownFields(other.unknownFields);
         onChanged();
         return this;
@@ -2167,6 +2625,42 @@ public final class WirePacketFormat {
         onChanged();
         return this;
       }
+
+      private int code_ = 0;
+      /**
+       * <code>optional .me.trinopoty.protobufRpc.codec.ErrorCode code = 2 [default = ERROR_CODE_SERVER_ERROR];</code>
+       */
+      public boolean hasCode() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional .me.trinopoty.protobufRpc.codec.ErrorCode code = 2 [default = ERROR_CODE_SERVER_ERROR];</code>
+       */
+      public me.trinopoty.protobufRpc.codec.WirePacketFormat.ErrorCode getCode() {
+        me.trinopoty.protobufRpc.codec.WirePacketFormat.ErrorCode result = me.trinopoty.protobufRpc.codec.WirePacketFormat.ErrorCode.valueOf(code_);
+        return result == null ? me.trinopoty.protobufRpc.codec.WirePacketFormat.ErrorCode.ERROR_CODE_SERVER_ERROR : result;
+      }
+      /**
+       * <code>optional .me.trinopoty.protobufRpc.codec.ErrorCode code = 2 [default = ERROR_CODE_SERVER_ERROR];</code>
+       */
+      public Builder setCode(me.trinopoty.protobufRpc.codec.WirePacketFormat.ErrorCode value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        bitField0_ |= 0x00000002;
+        code_ = value.getNumber();
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional .me.trinopoty.protobufRpc.codec.ErrorCode code = 2 [default = ERROR_CODE_SERVER_ERROR];</code>
+       */
+      public Builder clearCode() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        code_ = 0;
+        onChanged();
+        return this;
+      }
       public final Builder setUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
         return super.setUnknownFields(unknownFields);
@@ -2216,6 +2710,557 @@ public final class WirePacketFormat {
 
   }
 
+  public interface TopicSubscriptionOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:me.trinopoty.protobufRpc.codec.TopicSubscription)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required string topic = 1;</code>
+     */
+    boolean hasTopic();
+    /**
+     * <code>required string topic = 1;</code>
+     */
+    java.lang.String getTopic();
+    /**
+     * <code>required string topic = 1;</code>
+     */
+    com.google.protobuf.ByteString
+        getTopicBytes();
+  }
+  /**
+   * Protobuf type {@code me.trinopoty.protobufRpc.codec.TopicSubscription}
+   */
+  public  static final class TopicSubscription extends
+      com.google.protobuf.GeneratedMessageV3 implements
+      // @@protoc_insertion_point(message_implements:me.trinopoty.protobufRpc.codec.TopicSubscription)
+      TopicSubscriptionOrBuilder {
+    // Use TopicSubscription.newBuilder() to construct.
+    private TopicSubscription(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+      super(builder);
+    }
+    private TopicSubscription() {
+      topic_ = "";
+    }
+
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+    getUnknownFields() {
+      return this.unknownFields;
+    }
+    private TopicSubscription(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      this();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.protobuf.ByteString bs = input.readBytes();
+              bitField0_ |= 0x00000001;
+              topic_ = bs;
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return me.trinopoty.protobufRpc.codec.WirePacketFormat.internal_static_me_trinopoty_protobufRpc_codec_TopicSubscription_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return me.trinopoty.protobufRpc.codec.WirePacketFormat.internal_static_me_trinopoty_protobufRpc_codec_TopicSubscription_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription.class, me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription.Builder.class);
+    }
+
+    private int bitField0_;
+    public static final int TOPIC_FIELD_NUMBER = 1;
+    private volatile java.lang.Object topic_;
+    /**
+     * <code>required string topic = 1;</code>
+     */
+    public boolean hasTopic() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required string topic = 1;</code>
+     */
+    public java.lang.String getTopic() {
+      java.lang.Object ref = topic_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        if (bs.isValidUtf8()) {
+          topic_ = s;
+        }
+        return s;
+      }
+    }
+    /**
+     * <code>required string topic = 1;</code>
+     */
+    public com.google.protobuf.ByteString
+        getTopicBytes() {
+      java.lang.Object ref = topic_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        topic_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasTopic()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 1, topic_);
+      }
+      unknownFields.writeTo(output);
+    }
+
+    public int getSerializedSize() {
+      int size = memoizedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(1, topic_);
+      }
+      size += unknownFields.getSerializedSize();
+      memoizedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    public boolean equals(final java.lang.Object obj) {
+      if (obj == this) {
+       return true;
+      }
+      if (!(obj instanceof me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription)) {
+        return super.equals(obj);
+      }
+      me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription other = (me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription) obj;
+
+      boolean result = true;
+      result = result && (hasTopic() == other.hasTopic());
+      if (hasTopic()) {
+        result = result && getTopic()
+            .equals(other.getTopic());
+      }
+      result = result && unknownFields.equals(other.unknownFields);
+      return result;
+    }
+
+    @java.lang.Override
+    public int hashCode() {
+      if (memoizedHashCode != 0) {
+        return memoizedHashCode;
+      }
+      int hash = 41;
+      hash = (19 * hash) + getDescriptor().hashCode();
+      if (hasTopic()) {
+        hash = (37 * hash) + TOPIC_FIELD_NUMBER;
+        hash = (53 * hash) + getTopic().hashCode();
+      }
+      hash = (29 * hash) + unknownFields.hashCode();
+      memoizedHashCode = hash;
+      return hash;
+    }
+
+    public static me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input);
+    }
+    public static me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder() {
+      return DEFAULT_INSTANCE.toBuilder();
+    }
+    public static Builder newBuilder(me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription prototype) {
+      return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() {
+      return this == DEFAULT_INSTANCE
+          ? new Builder() : new Builder().mergeFrom(this);
+    }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code me.trinopoty.protobufRpc.codec.TopicSubscription}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:me.trinopoty.protobufRpc.codec.TopicSubscription)
+        me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscriptionOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return me.trinopoty.protobufRpc.codec.WirePacketFormat.internal_static_me_trinopoty_protobufRpc_codec_TopicSubscription_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return me.trinopoty.protobufRpc.codec.WirePacketFormat.internal_static_me_trinopoty_protobufRpc_codec_TopicSubscription_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription.class, me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription.Builder.class);
+      }
+
+      // Construct using me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessageV3
+                .alwaysUseFieldBuilders) {
+        }
+      }
+      public Builder clear() {
+        super.clear();
+        topic_ = "";
+        bitField0_ = (bitField0_ & ~0x00000001);
+        return this;
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return me.trinopoty.protobufRpc.codec.WirePacketFormat.internal_static_me_trinopoty_protobufRpc_codec_TopicSubscription_descriptor;
+      }
+
+      public me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription getDefaultInstanceForType() {
+        return me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription.getDefaultInstance();
+      }
+
+      public me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription build() {
+        me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription buildPartial() {
+        me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription result = new me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.topic_ = topic_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder clone() {
+        return (Builder) super.clone();
+      }
+      public Builder setField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          Object value) {
+        return (Builder) super.setField(field, value);
+      }
+      public Builder clearField(
+          com.google.protobuf.Descriptors.FieldDescriptor field) {
+        return (Builder) super.clearField(field);
+      }
+      public Builder clearOneof(
+          com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+        return (Builder) super.clearOneof(oneof);
+      }
+      public Builder setRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          int index, Object value) {
+        return (Builder) super.setRepeatedField(field, index, value);
+      }
+      public Builder addRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          Object value) {
+        return (Builder) super.addRepeatedField(field, value);
+      }
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription) {
+          return mergeFrom((me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription other) {
+        if (other == me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription.getDefaultInstance()) return this;
+        if (other.hasTopic()) {
+          bitField0_ |= 0x00000001;
+          topic_ = other.topic_;
+          onChanged();
+        }
+        this.mergeUnknownFields(other.unknownFields);
+        onChanged();
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        if (!hasTopic()) {
+          return false;
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription) e.getUnfinishedMessage();
+          throw e.unwrapIOException();
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private java.lang.Object topic_ = "";
+      /**
+       * <code>required string topic = 1;</code>
+       */
+      public boolean hasTopic() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>required string topic = 1;</code>
+       */
+      public java.lang.String getTopic() {
+        java.lang.Object ref = topic_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          if (bs.isValidUtf8()) {
+            topic_ = s;
+          }
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <code>required string topic = 1;</code>
+       */
+      public com.google.protobuf.ByteString
+          getTopicBytes() {
+        java.lang.Object ref = topic_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          topic_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <code>required string topic = 1;</code>
+       */
+      public Builder setTopic(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        topic_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required string topic = 1;</code>
+       */
+      public Builder clearTopic() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        topic_ = getDefaultInstance().getTopic();
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required string topic = 1;</code>
+       */
+      public Builder setTopicBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        topic_ = value;
+        onChanged();
+        return this;
+      }
+      public final Builder setUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.setUnknownFields(unknownFields);
+      }
+
+      public final Builder mergeUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.mergeUnknownFields(unknownFields);
+      }
+
+
+      // @@protoc_insertion_point(builder_scope:me.trinopoty.protobufRpc.codec.TopicSubscription)
+    }
+
+    // @@protoc_insertion_point(class_scope:me.trinopoty.protobufRpc.codec.TopicSubscription)
+    private static final me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription DEFAULT_INSTANCE;
+    static {
+      DEFAULT_INSTANCE = new me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription();
+    }
+
+    public static me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription getDefaultInstance() {
+      return DEFAULT_INSTANCE;
+    }
+
+    @java.lang.Deprecated public static final com.google.protobuf.Parser<TopicSubscription>
+        PARSER = new com.google.protobuf.AbstractParser<TopicSubscription>() {
+      public TopicSubscription parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+          return new TopicSubscription(input, extensionRegistry);
+      }
+    };
+
+    public static com.google.protobuf.Parser<TopicSubscription> parser() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<TopicSubscription> getParserForType() {
+      return PARSER;
+    }
+
+    public me.trinopoty.protobufRpc.codec.WirePacketFormat.TopicSubscription getDefaultInstanceForType() {
+      return DEFAULT_INSTANCE;
+    }
+
+  }
+
   private static final com.google.protobuf.Descriptors.Descriptor
     internal_static_me_trinopoty_protobufRpc_codec_ServiceIdentifier_descriptor;
   private static final 
@@ -2231,6 +3276,11 @@ public final class WirePacketFormat {
   private static final 
     com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
       internal_static_me_trinopoty_protobufRpc_codec_ErrorMessage_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_me_trinopoty_protobufRpc_codec_TopicSubscription_descriptor;
+  private static final 
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+      internal_static_me_trinopoty_protobufRpc_codec_TopicSubscription_fieldAccessorTable;
 
   public static com.google.protobuf.Descriptors.FileDescriptor
       getDescriptor() {
@@ -2243,18 +3293,28 @@ public final class WirePacketFormat {
       "\n/me/trinopoty/protobufRpc/codec/WirePac" +
       "ket.proto\022\036me.trinopoty.protobufRpc.code" +
       "c\"H\n\021ServiceIdentifier\022\031\n\021serviceIdentif" +
-      "ier\030\001 \002(\005\022\030\n\020methodIdentifier\030\002 \002(\005\"\332\001\n\n" +
+      "ier\030\001 \002(\005\022\030\n\020methodIdentifier\030\002 \002(\005\"\232\002\n\n" +
       "WirePacket\022\034\n\021messageIdentifier\030\001 \001(\003:\0010" +
       "\022@\n\013messageType\030\002 \002(\0162+.me.trinopoty.pro" +
       "tobufRpc.codec.MessageType\022\r\n\005crc32\030\003 \001(" +
-      "\005\022L\n\021serviceIdentifier\030\013 \001(\01321.me.trinop" +
-      "oty.protobufRpc.codec.ServiceIdentifier\022" +
-      "\017\n\007payload\030\020 \001(\014\"\037\n\014ErrorMessage\022\017\n\007mess",
-      "age\030\001 \002(\t*\244\001\n\013MessageType\022\025\n\021MESSAGE_TYP" +
-      "E_NONE\020\000\022\030\n\024MESSAGE_TYPE_REQUEST\020\001\022\031\n\025ME" +
-      "SSAGE_TYPE_RESPONSE\020\002\022\026\n\022MESSAGE_TYPE_ER" +
-      "ROR\020\003\022\024\n\020MESSAGE_TYPE_OOB\020\004\022\033\n\027MESSAGE_T" +
-      "YPE_KEEP_ALIVE\020\005B\022B\020WirePacketFormat"
+      "\005\022\025\n\rstreamCredits\030\004 \001(\005\022\025\n\rtimeoutMilli" +
+      "s\030\005 \001(\003\022\020\n\010priority\030\006 \001(\005\022L\n\021serviceIden" +
+      "tifier\030\013 \001(\01321.me.trinopoty.protobufRpc.",
+      "codec.ServiceIdentifier\022\017\n\007payload\030\020 \001(\014" +
+      "\"q\n\014ErrorMessage\022\017\n\007message\030\001 \002(\t\022P\n\004cod" +
+      "e\030\002 \001(\0162).me.trinopoty.protobufRpc.codec" +
+      ".ErrorCode:\027ERROR_CODE_SERVER_ERROR\"\"\n\021T" +
+      "opicSubscription\022\r\n\005topic\030\001 \002(\t*\264\002\n\013Mess" +
+      "ageType\022\025\n\021MESSAGE_TYPE_NONE\020\000\022\030\n\024MESSAG" +
+      "E_TYPE_REQUEST\020\001\022\031\n\025MESSAGE_TYPE_RESPONS" +
+      "E\020\002\022\026\n\022MESSAGE_TYPE_ERROR\020\003\022\024\n\020MESSAGE_T" +
+      "YPE_OOB\020\004\022\033\n\027MESSAGE_TYPE_KEEP_ALIVE\020\005\022\027" +
+      "\n\023MESSAGE_TYPE_NOTIFY\020\006\022\036\n\032MESSAGE_TYPE_",
+      "STREAM_CREDIT\020\007\022\033\n\027MESSAGE_TYPE_STREAM_E" +
+      "ND\020\010\022\027\n\023MESSAGE_TYPE_CANCEL\020\t\022\037\n\033MESSAGE" +
+      "_TYPE_STREAM_MESSAGE\020\n*C\n\tErrorCode\022\033\n\027E" +
+      "RROR_CODE_SERVER_ERROR\020\000\022\031\n\025ERROR_CODE_O" +
+      "VERLOADED\020\001B\022B\020WirePacketFormat"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
         new com.google.protobuf.Descriptors.FileDescriptor.    InternalDescriptorAssigner() {
@@ -2279,13 +3339,19 @@ public final class WirePacketFormat {
     internal_static_me_trinopoty_protobufRpc_codec_WirePacket_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_me_trinopoty_protobufRpc_codec_WirePacket_descriptor,
-        new java.lang.String[] { "MessageIdentifier", "MessageType", "Crc32", "ServiceIdentifier", "Payload", });
+        new java.lang.String[] { "MessageIdentifier", "MessageType", "Crc32", "StreamCredits", "TimeoutMillis", "Priority", "ServiceIdentifier", "Payload", });
     internal_static_me_trinopoty_protobufRpc_codec_ErrorMessage_descriptor =
       getDescriptor().getMessageTypes().get(2);
     internal_static_me_trinopoty_protobufRpc_codec_ErrorMessage_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_me_trinopoty_protobufRpc_codec_ErrorMessage_descriptor,
-        new java.lang.String[] { "Message", });
+        new java.lang.String[] { "Message", "Code", });
+    internal_static_me_trinopoty_protobufRpc_codec_TopicSubscription_descriptor =
+      getDescriptor().getMessageTypes().get(3);
+    internal_static_me_trinopoty_protobufRpc_codec_TopicSubscription_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_me_trinopoty_protobufRpc_codec_TopicSubscription_descriptor,
+        new java.lang.String[] { "Topic", });
   }
 
   // @@protoc_insertion_point(outer_class_scope)
@@ -1,6 +1,6 @@
 package me.trinopoty.protobufRpc.exception;
 
-public final class RpcCallException extends RuntimeException {
+public class RpcCallException extends RuntimeException {
 
     public RpcCallException() {
         super();
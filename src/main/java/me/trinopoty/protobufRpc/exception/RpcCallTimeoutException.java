@@ -0,0 +1,23 @@
+package me.trinopoty.protobufRpc.exception;
+
+/**
+ * Thrown when no response to a call is received within the receive timeout. The request may have been executed by the server.
+ */
+public final class RpcCallTimeoutException extends RpcCallException {
+
+    public RpcCallTimeoutException() {
+        super();
+    }
+
+    public RpcCallTimeoutException(String message) {
+        super(message);
+    }
+
+    public RpcCallTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public RpcCallTimeoutException(Throwable cause) {
+        super(cause);
+    }
+}
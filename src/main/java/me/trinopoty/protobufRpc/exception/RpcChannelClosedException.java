@@ -0,0 +1,23 @@
+package me.trinopoty.protobufRpc.exception;
+
+/**
+ * Thrown when the channel is closed while a call is waiting for its response. The request may have been executed by the server.
+ */
+public final class RpcChannelClosedException extends RpcCallException {
+
+    public RpcChannelClosedException() {
+        super();
+    }
+
+    public RpcChannelClosedException(String message) {
+        super(message);
+    }
+
+    public RpcChannelClosedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public RpcChannelClosedException(Throwable cause) {
+        super(cause);
+    }
+}
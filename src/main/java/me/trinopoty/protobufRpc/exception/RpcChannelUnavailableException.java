@@ -0,0 +1,23 @@
+package me.trinopoty.protobufRpc.exception;
+
+/**
+ * Thrown when a call could not be sent because no active channel was available. The request never reached the server.
+ */
+public final class RpcChannelUnavailableException extends RpcCallException {
+
+    public RpcChannelUnavailableException() {
+        super();
+    }
+
+    public RpcChannelUnavailableException(String message) {
+        super(message);
+    }
+
+    public RpcChannelUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public RpcChannelUnavailableException(Throwable cause) {
+        super(cause);
+    }
+}
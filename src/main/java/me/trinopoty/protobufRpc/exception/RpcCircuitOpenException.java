@@ -0,0 +1,23 @@
+package me.trinopoty.protobufRpc.exception;
+
+/**
+ * Thrown without contacting the server when the circuit breaker of its address is open.
+ */
+public final class RpcCircuitOpenException extends RpcCallException {
+
+    public RpcCircuitOpenException() {
+        super();
+    }
+
+    public RpcCircuitOpenException(String message) {
+        super(message);
+    }
+
+    public RpcCircuitOpenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public RpcCircuitOpenException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,24 @@
+package me.trinopoty.protobufRpc.exception;
+
+/**
+ * Thrown when a call was not sent because the adaptive concurrency limit of the server address was reached.
+ * The request never reached the server.
+ */
+public final class RpcConcurrencyLimitException extends RpcCallException {
+
+    public RpcConcurrencyLimitException() {
+        super();
+    }
+
+    public RpcConcurrencyLimitException(String message) {
+        super(message);
+    }
+
+    public RpcConcurrencyLimitException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public RpcConcurrencyLimitException(Throwable cause) {
+        super(cause);
+    }
+}
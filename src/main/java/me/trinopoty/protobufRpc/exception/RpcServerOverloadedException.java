@@ -0,0 +1,24 @@
+package me.trinopoty.protobufRpc.exception;
+
+/**
+ * Thrown when the server rejected a call because too many calls were in flight. The request was not executed, so it
+ * is safe to retry, preferably on another server.
+ */
+public final class RpcServerOverloadedException extends RpcCallException {
+
+    public RpcServerOverloadedException() {
+        super();
+    }
+
+    public RpcServerOverloadedException(String message) {
+        super(message);
+    }
+
+    public RpcServerOverloadedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public RpcServerOverloadedException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -1,22 +1,37 @@
 package me.trinopoty.protobufRpc.server;
 
+import com.google.protobuf.ByteString;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.ssl.SslContext;
 import me.trinopoty.protobufRpc.DisconnectReason;
+import me.trinopoty.protobufRpc.RpcBackpressurePolicy;
+import me.trinopoty.protobufRpc.RpcTopicService;
+import me.trinopoty.protobufRpc.codec.RpcMessageSizeEstimator;
 import me.trinopoty.protobufRpc.exception.*;
 import me.trinopoty.protobufRpc.util.Pair;
+import me.trinopoty.protobufRpc.util.RpcConcurrencyLimitConfig;
+import me.trinopoty.protobufRpc.util.RpcConcurrencyLimiter;
+import me.trinopoty.protobufRpc.util.RpcInboundMemoryBudget;
+import me.trinopoty.protobufRpc.util.RpcResponseCache;
 import me.trinopoty.protobufRpc.util.RpcServiceCollector;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The server side aspect of Protobuf-RPC.
@@ -47,10 +62,38 @@ public final class ProtobufRpcServer {
         private boolean mEnableRpcLogging = false;
         private boolean mEnableTrafficLogging = false;
         private String mLoggingName = null;
+        private long mResponseCacheMaxBytes = 0;
+        private int mMaxCoalescedRequests = 1024;
+        private int mStreamWindowSize = 64;
+        private int mTopicQueueSize = 1024;
+        private RpcSlowConsumerPolicy mSlowConsumerPolicy = RpcSlowConsumerPolicy.DROP_OLDEST;
+        private WriteBufferWaterMark mWriteBufferWaterMark = null;
+        private RpcBackpressurePolicy mBackpressurePolicy = null;
+        private long mBlockTimeoutMillis = 10000;
+        private long mInboundMemoryBudgetBytes = 0;
+        private int mMaxConcurrentRequests = 0;
+        private int mMaxConcurrentRequestsPerConnection = 0;
+        private final Map<Method, Integer> mMethodConcurrencyLimitMap = new HashMap<>();
+        private RpcConcurrencyLimitConfig mConcurrencyLimitConfig = null;
+        private int mRequestExecutorThreadCount = 0;
+        private long mPriorityAgingMillis = 100;
+        private int mMaxQueuedRequests = 1024;
 
         private final RpcServiceCollector mRpcServiceCollector = new RpcServiceCollector();
 
         public Builder() {
+            try {
+                mRpcServiceCollector.parseServiceInterface(RpcTopicService.class, false);
+                RpcServiceCollector.RpcServiceInfo serviceInfo = mRpcServiceCollector.getServiceInfo(RpcTopicService.class);
+                assert serviceInfo != null;
+
+                Constructor constructor = RpcTopicServiceImpl.class.getDeclaredConstructor(ProtobufRpcServerChannel.class);
+                constructor.setAccessible(true);
+                serviceInfo.setImplClass(RpcTopicServiceImpl.class);
+                serviceInfo.setImplClassConstructor(new Pair<>(RpcServiceCollector.RpcServiceInfo.ConstructorType.PARAMETERIZED, constructor));
+            } catch (DuplicateRpcServiceIdentifierException | MissingRpcIdentifierException | DuplicateRpcMethodIdentifierException | IllegalMethodSignatureException | NoSuchMethodException ex) {
+                throw new IllegalStateException("Unable to register topic service.", ex);
+            }
         }
 
         /**
@@ -132,6 +175,256 @@ public final class ProtobufRpcServer {
             return this;
         }
 
+        /**
+         * Enables caching of the serialized responses of methods annotated with {@link me.trinopoty.protobufRpc.annotation.RpcCacheable}.
+         * Cached responses are sent without parsing the request or calling the service implementation.
+         * Caching is disabled by default.
+         *
+         * @param responseCacheMaxBytes The maximum size of the cache in bytes, or 0 to disable caching.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setResponseCacheMaxBytes(long responseCacheMaxBytes) {
+            if(responseCacheMaxBytes < 0) {
+                throw new IllegalArgumentException("Invalid response cache size.");
+            }
+            mResponseCacheMaxBytes = responseCacheMaxBytes;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests which may wait for an identical executing call of a method annotated with
+         * {@link me.trinopoty.protobufRpc.annotation.RpcCoalesce}. Further duplicates execute on their own.
+         *
+         * @param maxCoalescedRequests The maximum number of waiting requests per executing call. Defaults to 1024.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setMaxCoalescedRequests(int maxCoalescedRequests) {
+            if(maxCoalescedRequests < 0) {
+                throw new IllegalArgumentException("Invalid maximum number of coalesced requests.");
+            }
+            mMaxCoalescedRequests = maxCoalescedRequests;
+            return this;
+        }
+
+        /**
+         * Sets the number of request messages of a client streaming call which a client may send ahead of their processing.
+         *
+         * @param streamWindowSize The stream window size in messages. Defaults to 64.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setStreamWindowSize(int streamWindowSize) {
+            if(streamWindowSize < 1) {
+                throw new IllegalArgumentException("Invalid stream window size.");
+            }
+            mStreamWindowSize = streamWindowSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of published topic messages which may be queued for a subscriber whose channel is not writable.
+         *
+         * @param topicQueueSize The maximum number of queued messages per subscriber. Defaults to 1024.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setTopicQueueSize(int topicQueueSize) {
+            if(topicQueueSize < 1) {
+                throw new IllegalArgumentException("Invalid topic queue size.");
+            }
+            mTopicQueueSize = topicQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets what happens when the topic message queue of a subscriber is full.
+         *
+         * @param slowConsumerPolicy The slow consumer policy. Defaults to {@link RpcSlowConsumerPolicy#DROP_OLDEST}.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setSlowConsumerPolicy(RpcSlowConsumerPolicy slowConsumerPolicy) {
+            if(slowConsumerPolicy == null) {
+                throw new IllegalArgumentException("Slow consumer policy cannot be null.");
+            }
+            mSlowConsumerPolicy = slowConsumerPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the write buffer water marks of client connections. A connection becomes unwritable when its outbound buffer
+         * exceeds the high water mark, and writable again when it drops below the low water mark.
+         *
+         * @param lowWaterMark The low water mark in bytes. Defaults to 32 KiB.
+         * @param highWaterMark The high water mark in bytes. Defaults to 64 KiB.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setWriteBufferWaterMark(int lowWaterMark, int highWaterMark) {
+            mWriteBufferWaterMark = new WriteBufferWaterMark(lowWaterMark, highWaterMark);
+            return this;
+        }
+
+        /**
+         * Sets what happens to OOB messages written to an unwritable connection. With
+         * {@link RpcBackpressurePolicy#SUSPEND_READ}, the server also stops reading requests from a connection while its
+         * responses are not being read. Blocked writers wait until the connection is writable or closed, for at most
+         * the block timeout. Writers running on an event loop never block and fail instead.
+         *
+         * @param backpressurePolicy The backpressure policy, or null to never hold back writes. Defaults to null.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setBackpressurePolicy(RpcBackpressurePolicy backpressurePolicy) {
+            mBackpressurePolicy = backpressurePolicy;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time a writer waits for an unwritable connection with {@link RpcBackpressurePolicy#BLOCK}.
+         * A writer which times out fails with {@link me.trinopoty.protobufRpc.exception.RpcCallTimeoutException}.
+         *
+         * @param blockTimeoutMillis The timeout in milliseconds. Defaults to 10 seconds.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setBlockTimeoutMillis(long blockTimeoutMillis) {
+            if(blockTimeoutMillis <= 0) {
+                throw new IllegalArgumentException("Invalid block timeout.");
+            }
+
+            mBlockTimeoutMillis = blockTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * Sets the number of bytes all connections together may hold in received frames which have not been processed
+         * yet. When the budget is exhausted the server stops reading from the connections which sent the most data,
+         * and resumes once half of the budget is free again.
+         *
+         * @param inboundMemoryBudget The budget in bytes, or 0 to disable it. Defaults to 0.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setInboundMemoryBudget(long inboundMemoryBudget) {
+            if(inboundMemoryBudget < 0) {
+                throw new IllegalArgumentException("Inbound memory budget cannot be negative.");
+            }
+
+            mInboundMemoryBudgetBytes = inboundMemoryBudget;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of calls in flight across all connections. Further calls are rejected immediately
+         * with an overload error, which clients report as {@link RpcServerOverloadedException}. Streaming calls are in
+         * flight until their stream ends.
+         *
+         * @param maxConcurrentRequests The maximum number of calls, or 0 for no limit. Defaults to 0.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setMaxConcurrentRequests(int maxConcurrentRequests) {
+            if(maxConcurrentRequests < 0) {
+                throw new IllegalArgumentException("Invalid maximum number of concurrent requests.");
+            }
+            mMaxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of calls in flight on a single connection. Further calls on the connection are
+         * rejected immediately with an overload error.
+         *
+         * @param maxConcurrentRequestsPerConnection The maximum number of calls, or 0 for no limit. Defaults to 0.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setMaxConcurrentRequestsPerConnection(int maxConcurrentRequestsPerConnection) {
+            if(maxConcurrentRequestsPerConnection < 0) {
+                throw new IllegalArgumentException("Invalid maximum number of concurrent requests per connection.");
+            }
+            mMaxConcurrentRequestsPerConnection = maxConcurrentRequestsPerConnection;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of calls of a method in flight across all connections. Further calls of the method
+         * are rejected immediately with an overload error.
+         *
+         * @param method The method of a service interface.
+         * @param maxConcurrentRequests The maximum number of calls, or 0 for no limit.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setMaxConcurrentRequests(Method method, int maxConcurrentRequests) {
+            if(maxConcurrentRequests < 0) {
+                throw new IllegalArgumentException("Invalid maximum number of concurrent requests.");
+            }
+            if(maxConcurrentRequests > 0) {
+                mMethodConcurrencyLimitMap.put(method, maxConcurrentRequests);
+            } else {
+                mMethodConcurrencyLimitMap.remove(method);
+            }
+            return this;
+        }
+
+        /**
+         * Enables an adaptive limit of the unary calls in flight across all connections, which follows the execution
+         * time of the calls. Calls over the limit are rejected immediately with an overload error. The static limits
+         * apply in addition to it.
+         *
+         * @param concurrencyLimitConfig The adaptive limit configuration, or null to disable it. Defaults to null.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setConcurrencyLimitConfig(RpcConcurrencyLimitConfig concurrencyLimitConfig) {
+            mConcurrencyLimitConfig = concurrencyLimitConfig;
+            return this;
+        }
+
+        /**
+         * Executes unary calls on a pool of worker threads instead of the event loop of their connection. Queued calls
+         * execute in order of their priority, set with {@link me.trinopoty.protobufRpc.annotation.RpcPriority} or
+         * {@link me.trinopoty.protobufRpc.client.RpcPriorityScope}, and calls whose client has stopped waiting are
+         * dropped when their turn comes. Server streaming calls take their elements from the iterator on these threads
+         * and only write them on the event loop. Without worker threads the iterator runs on the event loop, so it must
+         * not block, or it stalls every connection sharing that event loop. The service methods which start streaming
+         * calls are also queued for these threads, while stream messages are exchanged on the event loop.
+         * Service implementations must be thread-safe, as calls on the same connection may execute concurrently.
+         *
+         * @param requestExecutorThreadCount The number of worker threads, or 0 to execute calls on the event loop in arrival order. Defaults to 0.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setRequestExecutorThreadCount(int requestExecutorThreadCount) {
+            if(requestExecutorThreadCount < 0) {
+                throw new IllegalArgumentException("Invalid request executor thread count.");
+            }
+            mRequestExecutorThreadCount = requestExecutorThreadCount;
+            return this;
+        }
+
+        /**
+         * Sets the time after which a call queued on the request executor is treated as one priority level more
+         * urgent, so that calls of low priority are delayed but not starved by a steady stream of more urgent ones.
+         *
+         * @param priorityAgingMillis The aging interval in milliseconds. Defaults to 100.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setPriorityAgingMillis(long priorityAgingMillis) {
+            if(priorityAgingMillis <= 0) {
+                throw new IllegalArgumentException("Priority aging interval must be positive.");
+            }
+            mPriorityAgingMillis = priorityAgingMillis;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of calls waiting for a worker thread of the request executor. Further calls are
+         * rejected immediately with an overload error, which clients report as {@link RpcServerOverloadedException}.
+         * Queued requests stay charged to the inbound memory budget until a worker starts them, so with a budget the
+         * server stops reading from the connections filling the queue before this limit is reached.
+         *
+         * @param maxQueuedRequests The maximum number of queued calls. Defaults to 1024.
+         * @return {@link ProtobufRpcServer.Builder} instance for chaining.
+         */
+        public Builder setMaxQueuedRequests(int maxQueuedRequests) {
+            if(maxQueuedRequests <= 0) {
+                throw new IllegalArgumentException("Maximum number of queued requests must be positive.");
+            }
+            mMaxQueuedRequests = maxQueuedRequests;
+            return this;
+        }
+
         /**
          * Add the implementation class of a service interface.
          * @param classOfService The interface defining the service.
@@ -187,7 +480,22 @@ public final class ProtobufRpcServer {
                 throw new IllegalArgumentException("Logging name must be provided if traffic logging is enabled.");
             }
 
-            ProtobufRpcServer protobufRpcServer = new ProtobufRpcServer(mRpcServiceCollector);
+            ProtobufRpcServer protobufRpcServer = new ProtobufRpcServer(
+                    mRpcServiceCollector,
+                    (mResponseCacheMaxBytes > 0)? new RpcResponseCache<ByteString>(mResponseCacheMaxBytes) : null,
+                    mMaxCoalescedRequests,
+                    mStreamWindowSize,
+                    mTopicQueueSize,
+                    mSlowConsumerPolicy,
+                    mBackpressurePolicy,
+                    mBlockTimeoutMillis,
+                    (mInboundMemoryBudgetBytes > 0)? new RpcInboundMemoryBudget(mInboundMemoryBudgetBytes) : null,
+                    new RpcAdmissionController(
+                            mMaxConcurrentRequests,
+                            mMaxConcurrentRequestsPerConnection,
+                            new HashMap<>(mMethodConcurrencyLimitMap),
+                            (mConcurrencyLimitConfig != null)? new RpcConcurrencyLimiter(mConcurrencyLimitConfig) : null),
+                    (mRequestExecutorThreadCount > 0)? new RpcRequestScheduler(mRequestExecutorThreadCount, mPriorityAgingMillis, mMaxQueuedRequests) : null);
 
             if(mLocalAddress.equals(mSslLocalAddress)) {
                 throw new IllegalArgumentException("SSL and non-SSL address cannot be same.");
@@ -200,12 +508,17 @@ public final class ProtobufRpcServer {
                 serverBootstrap.childHandler(new RpcServerChannelInitializer(
                         protobufRpcServer,
                         mMaxReceivePacketLength,
+                        protobufRpcServer.getInboundMemoryBudget(),
                         null,
                         mLoggingName,
                         mEnableRpcLogging,
                         mEnableTrafficLogging
                 ));
                 serverBootstrap.option(ChannelOption.SO_BACKLOG, mBacklogCount);
+                serverBootstrap.childOption(ChannelOption.MESSAGE_SIZE_ESTIMATOR, RpcMessageSizeEstimator.INSTANCE);
+                if(mWriteBufferWaterMark != null) {
+                    serverBootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, mWriteBufferWaterMark);
+                }
 
                 protobufRpcServer.setServerBootstrap(mLocalAddress, serverBootstrap);
             }
@@ -217,12 +530,17 @@ public final class ProtobufRpcServer {
                 sslServerBootstrap.childHandler(new RpcServerChannelInitializer(
                         protobufRpcServer,
                         mMaxReceivePacketLength,
+                        protobufRpcServer.getInboundMemoryBudget(),
                         mSslContext,
                         mLoggingName,
                         mEnableRpcLogging,
                         mEnableTrafficLogging
                 ));
                 sslServerBootstrap.option(ChannelOption.SO_BACKLOG, mBacklogCount);
+                sslServerBootstrap.childOption(ChannelOption.MESSAGE_SIZE_ESTIMATOR, RpcMessageSizeEstimator.INSTANCE);
+                if(mWriteBufferWaterMark != null) {
+                    sslServerBootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, mWriteBufferWaterMark);
+                }
 
                 protobufRpcServer.setSslServerBootstrap(mSslLocalAddress, sslServerBootstrap);
             }
@@ -263,6 +581,21 @@ public final class ProtobufRpcServer {
     }
 
     private final RpcServiceCollector mRpcServiceCollector;
+    private final RpcResponseCache<ByteString> mResponseCache;
+    private final int mMaxCoalescedRequests;
+    private final int mStreamWindowSize;
+    private final ConcurrentMap<RpcResponseCache.Key, RpcInFlightCall> mInFlightCallMap = new ConcurrentHashMap<>();
+    private final ProtobufRpcServerChannelGroup mAllChannels = new ProtobufRpcServerChannelGroup(this);
+    private final ConcurrentMap<String, ProtobufRpcServerTopic> mTopicMap = new ConcurrentHashMap<>();
+    private final int mTopicQueueSize;
+    private final RpcSlowConsumerPolicy mSlowConsumerPolicy;
+    private final RpcBackpressurePolicy mBackpressurePolicy;
+    private final long mBlockTimeoutMillis;
+    private final RpcInboundMemoryBudget mInboundMemoryBudget;
+    private final RpcAdmissionController mAdmissionController;
+    private final RpcRequestScheduler mRequestScheduler;
+    private final AtomicLong mExpiredRequestCount = new AtomicLong();
+    private final AtomicLong mCancelledRequestCount = new AtomicLong();
 
     private InetSocketAddress mLocalAddress = null;
     private ServerBootstrap mServerBootstrap = null;
@@ -277,8 +610,29 @@ public final class ProtobufRpcServer {
     private boolean mServerStarted = false;
     private ProtobufRpcServerChannelDisconnectListener mChannelDisconnectListener = null;
 
-    private ProtobufRpcServer(RpcServiceCollector rpcServiceCollector) {
+    private ProtobufRpcServer(
+            RpcServiceCollector rpcServiceCollector,
+            RpcResponseCache<ByteString> responseCache,
+            int maxCoalescedRequests,
+            int streamWindowSize,
+            int topicQueueSize,
+            RpcSlowConsumerPolicy slowConsumerPolicy,
+            RpcBackpressurePolicy backpressurePolicy,
+            long blockTimeoutMillis,
+            RpcInboundMemoryBudget inboundMemoryBudget,
+            RpcAdmissionController admissionController,
+            RpcRequestScheduler requestScheduler) {
         mRpcServiceCollector = rpcServiceCollector;
+        mResponseCache = responseCache;
+        mMaxCoalescedRequests = maxCoalescedRequests;
+        mStreamWindowSize = streamWindowSize;
+        mTopicQueueSize = topicQueueSize;
+        mSlowConsumerPolicy = slowConsumerPolicy;
+        mBackpressurePolicy = backpressurePolicy;
+        mBlockTimeoutMillis = blockTimeoutMillis;
+        mInboundMemoryBudget = inboundMemoryBudget;
+        mAdmissionController = admissionController;
+        mRequestScheduler = requestScheduler;
     }
 
     @SuppressWarnings("Duplicates")
@@ -381,6 +735,10 @@ public final class ProtobufRpcServer {
             returnClientEventLoopGroup();
         }
 
+        if(mRequestScheduler != null) {
+            mRequestScheduler.shutdown();
+        }
+
         mServerStarted = false;
     }
 
@@ -416,10 +774,167 @@ public final class ProtobufRpcServer {
         return mActualSslLocalAddress;
     }
 
+    /**
+     * Gets the cache of serialized responses of methods annotated with {@link me.trinopoty.protobufRpc.annotation.RpcCacheable}.
+     *
+     * @return The response cache, or null if caching is disabled.
+     */
+    public RpcResponseCache<ByteString> getResponseCache() {
+        return mResponseCache;
+    }
+
+    /**
+     * Gets the inbound memory budget shared by all connections.
+     *
+     * @return The inbound memory budget, or null if it is disabled.
+     */
+    public RpcInboundMemoryBudget getInboundMemoryBudget() {
+        return mInboundMemoryBudget;
+    }
+
+    /**
+     * Gets the number of calls currently in flight across all connections.
+     *
+     * @return The number of admitted calls which have not completed.
+     */
+    public int getInFlightRequestCount() {
+        return mAdmissionController.getInFlightCount();
+    }
+
+    /**
+     * Gets the number of calls rejected because a concurrency limit was reached.
+     *
+     * @return The number of rejected calls since the server was built.
+     */
+    public long getRejectedRequestCount() {
+        return mAdmissionController.getRejectedCount();
+    }
+
+    /**
+     * Gets the number of requests dropped without execution because the client had stopped waiting for them.
+     *
+     * @return The number of expired requests since the server was built.
+     */
+    public long getExpiredRequestCount() {
+        return mExpiredRequestCount.get();
+    }
+
+    /**
+     * Gets the number of calls waiting for a worker thread of the request executor.
+     *
+     * @return The number of queued calls, or 0 if calls execute on the event loop.
+     */
+    public int getQueuedRequestCount() {
+        return (mRequestScheduler != null)? mRequestScheduler.getQueuedCount() : 0;
+    }
+
+    /**
+     * Gets the number of calls the client cancelled before their response was sent.
+     *
+     * @return The number of cancelled calls since the server was built.
+     */
+    public long getCancelledRequestCount() {
+        return mCancelledRequestCount.get();
+    }
+
+    /**
+     * Gets the adaptive limit of unary calls in flight, whose current limit can be read with
+     * {@link RpcConcurrencyLimiter#getLimit()}.
+     *
+     * @return The concurrency limiter, or null if the adaptive limit is disabled.
+     */
+    public RpcConcurrencyLimiter getConcurrencyLimiter() {
+        return mAdmissionController.getConcurrencyLimiter();
+    }
+
+    /**
+     * Gets the group of all connected channels, which can be used to broadcast OOB messages to every client.
+     *
+     * @return The group of all channels.
+     */
+    public ProtobufRpcServerChannelGroup getAllChannels() {
+        return mAllChannels;
+    }
+
+    /**
+     * Creates an empty group of channels, which can be used to broadcast OOB messages to a subset of the clients.
+     *
+     * @return A new channel group.
+     */
+    public ProtobufRpcServerChannelGroup createChannelGroup() {
+        return new ProtobufRpcServerChannelGroup(this);
+    }
+
+    /**
+     * Gets a topic clients can subscribe to through {@link RpcTopicService}, creating it if necessary.
+     *
+     * @param name The name of the topic.
+     * @return The topic.
+     */
+    public ProtobufRpcServerTopic getTopic(String name) {
+        if((name == null) || name.isEmpty()) {
+            throw new IllegalArgumentException("Topic name cannot be empty.");
+        }
+
+        ProtobufRpcServerTopic topic = mTopicMap.get(name);
+        if(topic == null) {
+            ProtobufRpcServerTopic newTopic = new ProtobufRpcServerTopic(this, name);
+            topic = mTopicMap.putIfAbsent(name, newTopic);
+            if(topic == null) {
+                topic = newTopic;
+            }
+        }
+        return topic;
+    }
+
     RpcServiceCollector getRpcServiceCollector() {
         return mRpcServiceCollector;
     }
 
+    ConcurrentMap<RpcResponseCache.Key, RpcInFlightCall> getInFlightCallMap() {
+        return mInFlightCallMap;
+    }
+
+    int getMaxCoalescedRequests() {
+        return mMaxCoalescedRequests;
+    }
+
+    int getStreamWindowSize() {
+        return mStreamWindowSize;
+    }
+
+    int getTopicQueueSize() {
+        return mTopicQueueSize;
+    }
+
+    RpcSlowConsumerPolicy getSlowConsumerPolicy() {
+        return mSlowConsumerPolicy;
+    }
+
+    RpcBackpressurePolicy getBackpressurePolicy() {
+        return mBackpressurePolicy;
+    }
+
+    long getBlockTimeoutMillis() {
+        return mBlockTimeoutMillis;
+    }
+
+    RpcAdmissionController getAdmissionController() {
+        return mAdmissionController;
+    }
+
+    RpcRequestScheduler getRequestScheduler() {
+        return mRequestScheduler;
+    }
+
+    void requestExpired() {
+        mExpiredRequestCount.incrementAndGet();
+    }
+
+    void requestCancelled() {
+        mCancelledRequestCount.incrementAndGet();
+    }
+
     void sendChannelDisconnectEvent(ProtobufRpcServerChannel serverChannel, DisconnectReason reason) {
         if(mChannelDisconnectListener != null) {
             mChannelDisconnectListener.channelDisconnected(serverChannel, reason);
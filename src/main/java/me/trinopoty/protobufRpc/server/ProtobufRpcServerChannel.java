@@ -2,8 +2,12 @@ package me.trinopoty.protobufRpc.server;
 
 import com.google.protobuf.AbstractMessage;
 import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import me.trinopoty.protobufRpc.RpcKeyExtractor;
+import me.trinopoty.protobufRpc.RpcWritabilityMetrics;
 import me.trinopoty.protobufRpc.codec.WirePacketFormat;
 import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+import me.trinopoty.protobufRpc.util.RpcWriteBackpressure;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
@@ -16,9 +20,11 @@ public final class ProtobufRpcServerChannel {
     private final class OobInvocationHandler implements InvocationHandler {
 
         private final RpcServiceCollector.RpcServiceInfo mRpcServiceInfo;
+        private final RpcKeyExtractor mConflationKeyExtractor;
 
-        OobInvocationHandler(RpcServiceCollector.RpcServiceInfo serviceInfo) {
+        OobInvocationHandler(RpcServiceCollector.RpcServiceInfo serviceInfo, RpcKeyExtractor conflationKeyExtractor) {
             mRpcServiceInfo = serviceInfo;
+            mConflationKeyExtractor = conflationKeyExtractor;
         }
 
         @Override
@@ -26,37 +32,59 @@ public final class ProtobufRpcServerChannel {
             RpcServiceCollector.RpcMethodInfo methodInfo = mRpcServiceInfo.getMethodMap().get(method);
             assert methodInfo != null;
 
-            WirePacketFormat.ServiceIdentifier serviceIdentifier = WirePacketFormat.ServiceIdentifier.newBuilder()
-                    .setServiceIdentifier(mRpcServiceInfo.getServiceIdentifier())
-                    .setMethodIdentifier(methodInfo.getMethodIdentifier())
-                    .build();
-            WirePacketFormat.WirePacket.Builder requestWirePacketBuilder = WirePacketFormat.WirePacket.newBuilder();
-            requestWirePacketBuilder.setMessageIdentifier(0);
-            requestWirePacketBuilder.setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_OOB);
-            requestWirePacketBuilder.setServiceIdentifier(serviceIdentifier);
-
-            AbstractMessage requestMessage = (AbstractMessage) args[0];
-            requestWirePacketBuilder.setPayload(requestMessage.toByteString());
-
-            mChannel.writeAndFlush(requestWirePacketBuilder.build());
+            AbstractMessage message = (AbstractMessage) args[0];
+            Object conflationKey = (mConflationKeyExtractor != null)? mConflationKeyExtractor.extractKey(message) : null;
+            if(conflationKey != null) {
+                getOobConflater().offer(methodInfo, conflationKey, createOobPacket(mRpcServiceInfo, methodInfo, message));
+            } else if(mWriteBackpressure.acquireWrite()) {
+                mChannel.writeAndFlush(createOobPacket(mRpcServiceInfo, methodInfo, message));
+            }
 
             return null;
         }
     }
 
+    static final AttributeKey<ProtobufRpcServerChannel> SERVER_CHANNEL = AttributeKey.valueOf("protobufRpc.serverChannel");
+
     private final ProtobufRpcServer mProtobufRpcServer;
     private final Channel mChannel;
+    private final RpcWriteBackpressure mWriteBackpressure;
+    private RpcTopicSubscriber mTopicSubscriber = null;
+    private boolean mTopicSubscriberClosed = false;
+    private RpcOobConflater mOobConflater = null;
 
     ProtobufRpcServerChannel(ProtobufRpcServer protobufRpcServer, Channel channel) {
         mProtobufRpcServer = protobufRpcServer;
         mChannel = channel;
+        mWriteBackpressure = new RpcWriteBackpressure(channel, protobufRpcServer.getBackpressurePolicy(), protobufRpcServer.getBlockTimeoutMillis(), true);
+        channel.attr(SERVER_CHANNEL).set(this);
     }
 
-    @SuppressWarnings("unchecked")
     public <T> T getOobService(Class<T> classOfService) {
+        return getOobService(classOfService, null);
+    }
+
+    /**
+     * Gets an OOB service which conflates messages by key. Until the channel is writable, only the newest message of each
+     * method and key is kept; intermediate messages are never sent. Messages without a key are written as by {@link #getOobService(Class)}.
+     *
+     * @param classOfService The OOB service interface.
+     * @param conflationKeyExtractor Extracts the conflation key of a message.
+     * @return The conflating service.
+     * @throws IllegalArgumentException If the service is not registered with the server.
+     */
+    public <T> T getConflatingOobService(Class<T> classOfService, RpcKeyExtractor conflationKeyExtractor) {
+        if(conflationKeyExtractor == null) {
+            throw new IllegalArgumentException("Conflation key extractor cannot be null.");
+        }
+        return getOobService(classOfService, conflationKeyExtractor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getOobService(Class<T> classOfService, RpcKeyExtractor conflationKeyExtractor) {
         RpcServiceCollector.RpcServiceInfo serviceInfo = mProtobufRpcServer.getRpcServiceCollector().getServiceInfo(classOfService);
         if(serviceInfo != null) {
-            return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { classOfService }, new OobInvocationHandler(serviceInfo));
+            return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { classOfService }, new OobInvocationHandler(serviceInfo, conflationKeyExtractor));
         } else {
             throw new IllegalArgumentException(String.format("Class<%s> not registered for OOB handling.", classOfService.getName()));
         }
@@ -65,4 +93,77 @@ public final class ProtobufRpcServerChannel {
     public InetSocketAddress getRemoteAddress() {
         return (InetSocketAddress) mChannel.remoteAddress();
     }
+
+    /**
+     * Gets the writability statistics of this connection.
+     *
+     * @return The writability metrics.
+     */
+    public RpcWritabilityMetrics getWritabilityMetrics() {
+        return mWriteBackpressure;
+    }
+
+    Channel getChannel() {
+        return mChannel;
+    }
+
+    RpcWriteBackpressure getWriteBackpressure() {
+        return mWriteBackpressure;
+    }
+
+    ProtobufRpcServer getProtobufRpcServer() {
+        return mProtobufRpcServer;
+    }
+
+    /**
+     * Gets the topic subscriber of this channel, creating it if needed. Once the channel is inactive, the subscriber
+     * returned is closed and refuses subscriptions.
+     */
+    synchronized RpcTopicSubscriber getTopicSubscriber() {
+        if(mTopicSubscriber == null) {
+            mTopicSubscriber = new RpcTopicSubscriber(mChannel, mProtobufRpcServer.getTopicQueueSize(), mProtobufRpcServer.getSlowConsumerPolicy());
+            if(mTopicSubscriberClosed) {
+                mTopicSubscriber.close();
+            }
+        }
+        return mTopicSubscriber;
+    }
+
+    /**
+     * Prevents new topic subscribers from being opened once the channel is inactive.
+     *
+     * @return The topic subscriber to close, or null if none was created.
+     */
+    synchronized RpcTopicSubscriber closeTopicSubscriber() {
+        mTopicSubscriberClosed = true;
+        return mTopicSubscriber;
+    }
+
+    synchronized RpcTopicSubscriber getTopicSubscriberIfPresent() {
+        return mTopicSubscriber;
+    }
+
+    synchronized RpcOobConflater getOobConflater() {
+        if(mOobConflater == null) {
+            mOobConflater = new RpcOobConflater(mChannel);
+        }
+        return mOobConflater;
+    }
+
+    synchronized RpcOobConflater getOobConflaterIfPresent() {
+        return mOobConflater;
+    }
+
+    static WirePacketFormat.WirePacket createOobPacket(RpcServiceCollector.RpcServiceInfo serviceInfo, RpcServiceCollector.RpcMethodInfo methodInfo, AbstractMessage message) {
+        WirePacketFormat.ServiceIdentifier serviceIdentifier = WirePacketFormat.ServiceIdentifier.newBuilder()
+                .setServiceIdentifier(serviceInfo.getServiceIdentifier())
+                .setMethodIdentifier(methodInfo.getMethodIdentifier())
+                .build();
+        WirePacketFormat.WirePacket.Builder requestWirePacketBuilder = WirePacketFormat.WirePacket.newBuilder();
+        requestWirePacketBuilder.setMessageIdentifier(0);
+        requestWirePacketBuilder.setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_OOB);
+        requestWirePacketBuilder.setServiceIdentifier(serviceIdentifier);
+        requestWirePacketBuilder.setPayload(message.toByteString());
+        return requestWirePacketBuilder.build();
+    }
 }
\ No newline at end of file
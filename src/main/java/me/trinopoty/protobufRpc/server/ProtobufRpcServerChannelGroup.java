@@ -0,0 +1,126 @@
+package me.trinopoty.protobufRpc.server;
+
+import com.google.protobuf.AbstractMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.ChannelMatcher;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import me.trinopoty.protobufRpc.codec.RpcMessageCodec;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * A set of server channels OOB messages can be broadcast to.
+ *
+ * A broadcast message is serialized and encoded only once. The encoded packet is shared by all channels of the group,
+ * each of which writes a reference counted duplicate of it. Channels are removed from the group automatically when
+ * they are closed. With a backpressure policy set on the server, channels which are not writable are skipped and
+ * count the skipped message as a rejected write.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class ProtobufRpcServerChannelGroup {
+
+    /**
+     * Selects the members whose write backpressure lets the broadcast message through.
+     */
+    private static final ChannelMatcher WRITABLE_MATCHER = new ChannelMatcher() {
+        @Override
+        public boolean matches(Channel channel) {
+            ProtobufRpcServerChannel serverChannel = channel.attr(ProtobufRpcServerChannel.SERVER_CHANNEL).get();
+            return (serverChannel == null) || serverChannel.getWriteBackpressure().acquireBroadcastWrite();
+        }
+    };
+
+    private final class OobBroadcastInvocationHandler implements InvocationHandler {
+
+        private final RpcServiceCollector.RpcServiceInfo mRpcServiceInfo;
+
+        OobBroadcastInvocationHandler(RpcServiceCollector.RpcServiceInfo serviceInfo) {
+            mRpcServiceInfo = serviceInfo;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            RpcServiceCollector.RpcMethodInfo methodInfo = mRpcServiceInfo.getMethodMap().get(method);
+            assert methodInfo != null;
+
+            if(!mChannelGroup.isEmpty()) {
+                ByteBuf encodedPacket = RpcMessageCodec.encodePacket(
+                        ByteBufAllocator.DEFAULT,
+                        ProtobufRpcServerChannel.createOobPacket(mRpcServiceInfo, methodInfo, (AbstractMessage) args[0]));
+                mChannelGroup.writeAndFlush(encodedPacket, WRITABLE_MATCHER);
+            }
+
+            return null;
+        }
+    }
+
+    private final ProtobufRpcServer mProtobufRpcServer;
+    private final ChannelGroup mChannelGroup = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+
+    ProtobufRpcServerChannelGroup(ProtobufRpcServer protobufRpcServer) {
+        mProtobufRpcServer = protobufRpcServer;
+    }
+
+    /**
+     * Adds a channel to this group.
+     *
+     * @param serverChannel The channel to add.
+     * @return true if the channel was added, false if it already was a member or has been closed.
+     */
+    public boolean add(ProtobufRpcServerChannel serverChannel) {
+        return mChannelGroup.add(serverChannel.getChannel());
+    }
+
+    /**
+     * Removes a channel from this group.
+     *
+     * @param serverChannel The channel to remove.
+     * @return true if the channel was a member of this group.
+     */
+    public boolean remove(ProtobufRpcServerChannel serverChannel) {
+        return mChannelGroup.remove(serverChannel.getChannel());
+    }
+
+    /**
+     * Checks whether a channel is a member of this group.
+     *
+     * @param serverChannel The channel to check.
+     * @return true if the channel is a member of this group.
+     */
+    public boolean contains(ProtobufRpcServerChannel serverChannel) {
+        return mChannelGroup.contains(serverChannel.getChannel());
+    }
+
+    /**
+     * Gets the number of open channels in this group.
+     *
+     * @return The number of channels.
+     */
+    public int size() {
+        return mChannelGroup.size();
+    }
+
+    /**
+     * Gets an OOB service which broadcasts every message to all channels of this group.
+     *
+     * @param classOfService The OOB service interface.
+     * @return The broadcasting service.
+     * @throws IllegalArgumentException If the service is not registered with the server.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOobService(Class<T> classOfService) {
+        RpcServiceCollector.RpcServiceInfo serviceInfo = mProtobufRpcServer.getRpcServiceCollector().getServiceInfo(classOfService);
+        if(serviceInfo != null) {
+            return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { classOfService }, new OobBroadcastInvocationHandler(serviceInfo));
+        } else {
+            throw new IllegalArgumentException(String.format("Class<%s> not registered for OOB handling.", classOfService.getName()));
+        }
+    }
+}
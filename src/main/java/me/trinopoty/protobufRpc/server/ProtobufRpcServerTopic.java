@@ -0,0 +1,107 @@
+package me.trinopoty.protobufRpc.server;
+
+import com.google.protobuf.AbstractMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import me.trinopoty.protobufRpc.codec.RpcMessageCodec;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A named topic clients subscribe to through {@link me.trinopoty.protobufRpc.RpcTopicService}.
+ *
+ * A published message is encoded once and queued for every subscriber. Each subscriber has a bounded queue which is
+ * written to its channel while the channel is writable; when the queue is full the
+ * {@link RpcSlowConsumerPolicy} of the server decides what happens.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class ProtobufRpcServerTopic {
+
+    private final class PublishInvocationHandler implements InvocationHandler {
+
+        private final RpcServiceCollector.RpcServiceInfo mRpcServiceInfo;
+
+        PublishInvocationHandler(RpcServiceCollector.RpcServiceInfo serviceInfo) {
+            mRpcServiceInfo = serviceInfo;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            RpcServiceCollector.RpcMethodInfo methodInfo = mRpcServiceInfo.getMethodMap().get(method);
+            assert methodInfo != null;
+
+            if(!mSubscriberSet.isEmpty()) {
+                ByteBuf encodedPacket = RpcMessageCodec.encodePacket(
+                        ByteBufAllocator.DEFAULT,
+                        ProtobufRpcServerChannel.createOobPacket(mRpcServiceInfo, methodInfo, (AbstractMessage) args[0]));
+                try {
+                    for(RpcTopicSubscriber subscriber : mSubscriberSet) {
+                        subscriber.offer(ProtobufRpcServerTopic.this, methodInfo, encodedPacket.retainedDuplicate());
+                    }
+                } finally {
+                    encodedPacket.release();
+                }
+            }
+
+            return null;
+        }
+    }
+
+    private final ProtobufRpcServer mProtobufRpcServer;
+    private final String mName;
+    private final Set<RpcTopicSubscriber> mSubscriberSet = Collections.newSetFromMap(new ConcurrentHashMap<RpcTopicSubscriber, Boolean>());
+
+    ProtobufRpcServerTopic(ProtobufRpcServer protobufRpcServer, String name) {
+        mProtobufRpcServer = protobufRpcServer;
+        mName = name;
+    }
+
+    /**
+     * Gets the name of this topic.
+     *
+     * @return The name of the topic.
+     */
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Gets the number of channels subscribed to this topic.
+     *
+     * @return The number of subscribers.
+     */
+    public int getSubscriberCount() {
+        return mSubscriberSet.size();
+    }
+
+    /**
+     * Gets an OOB service which publishes every message to the subscribers of this topic.
+     *
+     * @param classOfService The OOB service interface.
+     * @return The publishing service.
+     * @throws IllegalArgumentException If the service is not registered with the server.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOobService(Class<T> classOfService) {
+        RpcServiceCollector.RpcServiceInfo serviceInfo = mProtobufRpcServer.getRpcServiceCollector().getServiceInfo(classOfService);
+        if(serviceInfo != null) {
+            return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { classOfService }, new PublishInvocationHandler(serviceInfo));
+        } else {
+            throw new IllegalArgumentException(String.format("Class<%s> not registered for OOB handling.", classOfService.getName()));
+        }
+    }
+
+    boolean addSubscriber(RpcTopicSubscriber subscriber) {
+        return mSubscriberSet.add(subscriber);
+    }
+
+    boolean removeSubscriber(RpcTopicSubscriber subscriber) {
+        return mSubscriberSet.remove(subscriber);
+    }
+}
@@ -0,0 +1,160 @@
+package me.trinopoty.protobufRpc.server;
+
+import me.trinopoty.protobufRpc.util.RpcConcurrencyLimiter;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of calls in flight on the server, across all connections, per connection and per method.
+ *
+ * A call is in flight from its admission until its response has been written; streaming calls until the stream ends.
+ * Calls over any limit are rejected before they are parsed, so an overloaded server spends almost nothing on them.
+ * Unary calls are additionally subject to the adaptive limit, if enabled, which learns from their execution time.
+ */
+final class RpcAdmissionController {
+
+    /**
+     * The admission of a call, released once when the call completes.
+     */
+    final class Permit {
+
+        private final AtomicInteger mConnectionInFlightCount;
+        private final AtomicInteger mMethodInFlightCount;
+        private final boolean mLimited;
+        private final long mStartTime;
+        private boolean mReleased = false;
+
+        private Permit(AtomicInteger connectionInFlightCount, AtomicInteger methodInFlightCount, boolean limited) {
+            mConnectionInFlightCount = connectionInFlightCount;
+            mMethodInFlightCount = methodInFlightCount;
+            mLimited = limited;
+            mStartTime = System.nanoTime();
+        }
+
+        void release() {
+            release(false);
+        }
+
+        /**
+         * Releases the permit of a call which was rejected after its admission, such as by a full request queue.
+         */
+        void reject() {
+            release(true);
+        }
+
+        private synchronized void release(boolean rejected) {
+            if(!mReleased) {
+                mReleased = true;
+                mInFlightCount.decrementAndGet();
+                mConnectionInFlightCount.decrementAndGet();
+                if(mMethodInFlightCount != null) {
+                    mMethodInFlightCount.decrementAndGet();
+                }
+                if(rejected) {
+                    mRejectedCount.incrementAndGet();
+                }
+                if(mLimited) {
+                    if(rejected) {
+                        mConcurrencyLimiter.onDropped();
+                    } else {
+                        mConcurrencyLimiter.onSuccess(System.nanoTime() - mStartTime);
+                    }
+                }
+            }
+        }
+    }
+
+    private final int mMaxConcurrentRequests;
+    private final int mMaxConcurrentRequestsPerConnection;
+    private final Map<Method, Integer> mMethodLimitMap;
+    private final Map<Method, AtomicInteger> mMethodInFlightCountMap = new HashMap<>();
+    private final RpcConcurrencyLimiter mConcurrencyLimiter;
+
+    private final AtomicInteger mInFlightCount = new AtomicInteger();
+    private final AtomicLong mRejectedCount = new AtomicLong();
+
+    /**
+     * @param maxConcurrentRequests The limit across all connections, or 0 for no limit.
+     * @param maxConcurrentRequestsPerConnection The limit per connection, or 0 for no limit.
+     * @param methodLimitMap The limits of individual methods.
+     * @param concurrencyLimiter The adaptive limit of unary calls, or null to disable it.
+     */
+    RpcAdmissionController(int maxConcurrentRequests, int maxConcurrentRequestsPerConnection, Map<Method, Integer> methodLimitMap, RpcConcurrencyLimiter concurrencyLimiter) {
+        mMaxConcurrentRequests = maxConcurrentRequests;
+        mMaxConcurrentRequestsPerConnection = maxConcurrentRequestsPerConnection;
+        mMethodLimitMap = methodLimitMap;
+        mConcurrencyLimiter = concurrencyLimiter;
+        for(Method method : methodLimitMap.keySet()) {
+            mMethodInFlightCountMap.put(method, new AtomicInteger());
+        }
+    }
+
+    /**
+     * Admits a call if no limit would be exceeded.
+     *
+     * @param method The called method.
+     * @param connectionInFlightCount The number of calls in flight on the connection of the call.
+     * @param unary Whether the call is unary and subject to the adaptive limit.
+     * @return The permit of the call, or null if it was rejected.
+     */
+    Permit tryAcquire(Method method, AtomicInteger connectionInFlightCount, boolean unary) {
+        if(!tryIncrement(connectionInFlightCount, mMaxConcurrentRequestsPerConnection)) {
+            return reject();
+        }
+
+        AtomicInteger methodInFlightCount = mMethodInFlightCountMap.get(method);
+        if((methodInFlightCount != null) && !tryIncrement(methodInFlightCount, mMethodLimitMap.get(method))) {
+            connectionInFlightCount.decrementAndGet();
+            return reject();
+        }
+
+        if(!tryIncrement(mInFlightCount, mMaxConcurrentRequests)) {
+            connectionInFlightCount.decrementAndGet();
+            if(methodInFlightCount != null) {
+                methodInFlightCount.decrementAndGet();
+            }
+            return reject();
+        }
+
+        final boolean limited = unary && (mConcurrencyLimiter != null);
+        if(limited && !mConcurrencyLimiter.tryAcquire()) {
+            mInFlightCount.decrementAndGet();
+            connectionInFlightCount.decrementAndGet();
+            if(methodInFlightCount != null) {
+                methodInFlightCount.decrementAndGet();
+            }
+            return reject();
+        }
+
+        return new Permit(connectionInFlightCount, methodInFlightCount, limited);
+    }
+
+    RpcConcurrencyLimiter getConcurrencyLimiter() {
+        return mConcurrencyLimiter;
+    }
+
+    int getInFlightCount() {
+        return mInFlightCount.get();
+    }
+
+    long getRejectedCount() {
+        return mRejectedCount.get();
+    }
+
+    private Permit reject() {
+        mRejectedCount.incrementAndGet();
+        return null;
+    }
+
+    private static boolean tryIncrement(AtomicInteger count, int limit) {
+        if((count.incrementAndGet() > limit) && (limit > 0)) {
+            count.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,102 @@
+package me.trinopoty.protobufRpc.server;
+
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The context of the call being executed by the current thread.
+ *
+ * Clients send the time they are willing to wait for the response with every unary request, and the server derives
+ * the deadline of the call from it. Calls made by a service implementation while it executes a call inherit the
+ * remaining time, so the deadline propagates through a chain of servers.
+ *
+ * A client which stops waiting for the response before the deadline, because the call was interrupted or a hedged
+ * call to another server answered first, cancels the call. Long running implementations may poll {@link #isCancelled()}
+ * to stop early; the response of a cancelled call is never sent.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RpcCallContext {
+
+    private static final ThreadLocal<RpcCallContext> sCurrentContext = new ThreadLocal<>();
+
+    private final boolean mHasDeadline;
+    private final long mDeadlineNanos;
+    private volatile boolean mCancelled = false;
+
+    RpcCallContext(WirePacketFormat.WirePacket requestWirePacket, long receivedNanos) {
+        mHasDeadline = requestWirePacket.hasTimeoutMillis();
+        mDeadlineNanos = receivedNanos + TimeUnit.MILLISECONDS.toNanos(requestWirePacket.getTimeoutMillis());
+    }
+
+    /**
+     * Gets the context of the call being executed by the current thread.
+     *
+     * @return The call context, or null if the thread is not executing a call.
+     */
+    public static RpcCallContext current() {
+        return sCurrentContext.get();
+    }
+
+    /**
+     * Gets whether the client set a deadline for the call.
+     *
+     * @return true if the call has a deadline.
+     */
+    public boolean hasDeadline() {
+        return mHasDeadline;
+    }
+
+    /**
+     * Gets the time left until the client stops waiting for the response.
+     *
+     * @return The remaining time in milliseconds, 0 if the deadline has passed or {@link Long#MAX_VALUE} if the call has no deadline.
+     */
+    public long getRemainingMillis() {
+        if(!mHasDeadline) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(mDeadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Gets whether the client has stopped waiting for the response.
+     *
+     * @return true if the deadline of the call has passed.
+     */
+    public boolean isExpired() {
+        return mHasDeadline && ((System.nanoTime() - mDeadlineNanos) >= 0);
+    }
+
+    /**
+     * Gets whether the client has cancelled the call.
+     *
+     * @return true if the call was cancelled.
+     */
+    public boolean isCancelled() {
+        return mCancelled;
+    }
+
+    void cancel() {
+        mCancelled = true;
+    }
+
+    /**
+     * Makes this the context of the current thread.
+     *
+     * @return The previous context of the thread, to be restored with {@link #restore(RpcCallContext)}.
+     */
+    RpcCallContext attach() {
+        RpcCallContext previousContext = sCurrentContext.get();
+        sCurrentContext.set(this);
+        return previousContext;
+    }
+
+    static void restore(RpcCallContext previousContext) {
+        if(previousContext != null) {
+            sCurrentContext.set(previousContext);
+        } else {
+            sCurrentContext.remove();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package me.trinopoty.protobufRpc.server;
+
+import io.netty.channel.ChannelHandlerContext;
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A call of a coalesced method which is executing, along with the identical requests waiting for its response.
+ */
+final class RpcInFlightCall {
+
+    /**
+     * A request waiting for the response of the executing call. It keeps its admission until the response is sent, and
+     * is dropped instead if the client cancels it or its deadline passes in the meantime.
+     */
+    static final class Waiter {
+
+        private final ChannelHandlerContext mContext;
+        private final WirePacketFormat.WirePacket mRequestWirePacket;
+        private final RpcCallContext mCallContext;
+        private final RpcAdmissionController.Permit mPermit;
+
+        Waiter(ChannelHandlerContext ctx, WirePacketFormat.WirePacket requestWirePacket, RpcCallContext callContext, RpcAdmissionController.Permit permit) {
+            mContext = ctx;
+            mRequestWirePacket = requestWirePacket;
+            mCallContext = callContext;
+            mPermit = permit;
+        }
+
+        ChannelHandlerContext getContext() {
+            return mContext;
+        }
+
+        WirePacketFormat.WirePacket getRequestWirePacket() {
+            return mRequestWirePacket;
+        }
+
+        RpcCallContext getCallContext() {
+            return mCallContext;
+        }
+
+        RpcAdmissionController.Permit getPermit() {
+            return mPermit;
+        }
+    }
+
+    private final int mMaxWaiterCount;
+    private List<Waiter> mWaiterList = null;
+    private boolean mCompleted = false;
+
+    RpcInFlightCall(int maxWaiterCount) {
+        mMaxWaiterCount = maxWaiterCount;
+    }
+
+    /**
+     * Adds a request to be answered with the response of this call.
+     *
+     * @return false if the call has already completed or has the maximum number of waiters, in which case the request must execute on its own.
+     */
+    synchronized boolean addWaiter(Waiter waiter) {
+        if(mCompleted) {
+            return false;
+        }
+
+        if(mWaiterList == null) {
+            mWaiterList = new ArrayList<>();
+        }
+        if(mWaiterList.size() >= mMaxWaiterCount) {
+            return false;
+        }
+
+        mWaiterList.add(waiter);
+        return true;
+    }
+
+    /**
+     * Removes a request which no longer waits for the response, such as one cancelled by its client.
+     *
+     * @return false if the call has already completed, in which case the request is passed to the caller of {@link #complete()}.
+     */
+    synchronized boolean removeWaiter(Waiter waiter) {
+        return !mCompleted && (mWaiterList != null) && mWaiterList.remove(waiter);
+    }
+
+    /**
+     * Marks the call as completed. No requests can be added afterwards.
+     *
+     * @return The requests waiting for the response.
+     */
+    synchronized List<Waiter> complete() {
+        mCompleted = true;
+
+        List<Waiter> waiterList = (mWaiterList != null)? mWaiterList : Collections.<Waiter>emptyList();
+        mWaiterList = null;
+        return waiterList;
+    }
+}
@@ -0,0 +1,121 @@
+package me.trinopoty.protobufRpc.server;
+
+import io.netty.channel.Channel;
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The conflating OOB messages of a channel which have not been written yet.
+ *
+ * Messages are written on the event loop of the channel while the channel is writable. A message replaces the pending
+ * message of the same OOB method and key, so a client which falls behind only receives the newest message per key and
+ * the channel holds at most one pending message per key.
+ */
+final class RpcOobConflater {
+
+    private static final class ConflationKey {
+
+        private final RpcServiceCollector.RpcMethodInfo mMethodInfo;
+        private final Object mKey;
+
+        ConflationKey(RpcServiceCollector.RpcMethodInfo methodInfo, Object key) {
+            mMethodInfo = methodInfo;
+            mKey = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) {
+                return true;
+            }
+            if(!(o instanceof ConflationKey)) {
+                return false;
+            }
+
+            ConflationKey other = (ConflationKey) o;
+            return (mMethodInfo == other.mMethodInfo) && mKey.equals(other.mKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * System.identityHashCode(mMethodInfo)) + mKey.hashCode();
+        }
+    }
+
+    private final Channel mChannel;
+    private final Map<ConflationKey, WirePacketFormat.WirePacket> mPendingPacketMap = new LinkedHashMap<>();
+    private boolean mDrainScheduled = false;
+    private boolean mClosed = false;
+
+    private final Runnable mDrainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    RpcOobConflater(Channel channel) {
+        mChannel = channel;
+    }
+
+    /**
+     * Queues a message, replacing the pending message with the same key.
+     */
+    void offer(RpcServiceCollector.RpcMethodInfo methodInfo, Object key, WirePacketFormat.WirePacket wirePacket) {
+        boolean scheduleDrain = false;
+        synchronized (this) {
+            if(mClosed) {
+                return;
+            }
+
+            mPendingPacketMap.put(new ConflationKey(methodInfo, key), wirePacket);
+            if(!mDrainScheduled) {
+                mDrainScheduled = true;
+                scheduleDrain = true;
+            }
+        }
+
+        if(scheduleDrain) {
+            mChannel.eventLoop().execute(mDrainTask);
+        }
+    }
+
+    /**
+     * Writes pending messages while the channel is writable. Called on the event loop of the channel.
+     */
+    void drain() {
+        boolean written = false;
+        while(true) {
+            WirePacketFormat.WirePacket wirePacket;
+            synchronized (this) {
+                if(mClosed || mPendingPacketMap.isEmpty() || !mChannel.isWritable()) {
+                    mDrainScheduled = false;
+                    break;
+                }
+
+                Iterator<WirePacketFormat.WirePacket> iterator = mPendingPacketMap.values().iterator();
+                wirePacket = iterator.next();
+                iterator.remove();
+            }
+
+            mChannel.write(wirePacket);
+            written = true;
+        }
+
+        if(written) {
+            mChannel.flush();
+        }
+    }
+
+    /**
+     * Discards the pending messages. Called when the channel is closed.
+     */
+    synchronized void close() {
+        mClosed = true;
+        mPendingPacketMap.clear();
+    }
+}
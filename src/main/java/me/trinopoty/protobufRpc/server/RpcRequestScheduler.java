@@ -0,0 +1,121 @@
+package me.trinopoty.protobufRpc.server;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import me.trinopoty.protobufRpc.annotation.RpcPriority;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes unary calls on a pool of worker threads instead of the event loops of the connections, in order of priority.
+ *
+ * The effective priority of a queued call grows by one level for every aging interval it has waited, so a steady
+ * stream of urgent calls delays less urgent ones but never starves them. Since all queued calls age at the same rate,
+ * the order only depends on the time each call was queued less its priority in aging intervals, which is fixed when
+ * the call is queued. Calls of the same effective priority execute in arrival order.
+ *
+ * Priorities are clamped to the range from {@link RpcPriority#LOW} to {@link RpcPriority#HIGH}, so no client can keep
+ * its calls ahead of the others for longer than two aging intervals. Queued requests stay charged to the inbound
+ * memory budget of their connection until a worker starts them, and the queue is bounded in calls as well, which limits
+ * the memory held by a server without a budget.
+ */
+final class RpcRequestScheduler {
+
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+
+    /**
+     * Keeps the difference of two priorities times the aging interval within range.
+     */
+    private static final long MAX_AGING_INTERVAL_NANOS = Long.MAX_VALUE / (4L * (RpcPriority.HIGH - RpcPriority.LOW));
+
+    private final class Task implements Runnable, Comparable<Task> {
+
+        private final Runnable mRunnable;
+        private final int mPriority;
+        private final long mQueuedNanos;
+        private final long mSequenceNumber;
+
+        Task(Runnable runnable, int priority, long queuedNanos, long sequenceNumber) {
+            mRunnable = runnable;
+            mPriority = priority;
+            mQueuedNanos = queuedNanos;
+            mSequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public void run() {
+            mQueuedCount.decrementAndGet();
+            mRunnable.run();
+        }
+
+        /**
+         * Orders by the time queued less the priority in aging intervals, without computing either key on its own.
+         */
+        @Override
+        public int compareTo(Task other) {
+            long queuedDifference = mQueuedNanos - other.mQueuedNanos;
+            long priorityDifference = (mPriority - other.mPriority) * mAgingIntervalNanos;
+            if(queuedDifference != priorityDifference) {
+                return (queuedDifference < priorityDifference)? -1 : 1;
+            }
+            return (mSequenceNumber < other.mSequenceNumber)? -1 : ((mSequenceNumber == other.mSequenceNumber)? 0 : 1);
+        }
+    }
+
+    private final long mAgingIntervalNanos;
+    private final int mMaxQueuedCount;
+    private final ThreadPoolExecutor mExecutor;
+    private final AtomicInteger mQueuedCount = new AtomicInteger();
+    private final AtomicLong mSequenceGenerator = new AtomicLong();
+
+    RpcRequestScheduler(int threadCount, long agingIntervalMillis, int maxQueuedCount) {
+        mAgingIntervalNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(agingIntervalMillis), MAX_AGING_INTERVAL_NANOS);
+        mMaxQueuedCount = maxQueuedCount;
+        mExecutor = new ThreadPoolExecutor(
+                threadCount,
+                threadCount,
+                IDLE_THREAD_TIMEOUT_SECONDS,
+                TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(),
+                new DefaultThreadFactory("protobuf-rpc-executor", true));
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues a call for execution.
+     *
+     * @param priority The priority of the call, larger values being more urgent.
+     * @param runnable Executes the call.
+     * @return false if the queue is full or the scheduler was shut down, in which case the call must be rejected.
+     */
+    boolean execute(int priority, Runnable runnable) {
+        if(mQueuedCount.incrementAndGet() > mMaxQueuedCount) {
+            mQueuedCount.decrementAndGet();
+            return false;
+        }
+
+        int clampedPriority = Math.max(RpcPriority.LOW, Math.min(RpcPriority.HIGH, priority));
+        try {
+            mExecutor.execute(new Task(runnable, clampedPriority, System.nanoTime(), mSequenceGenerator.incrementAndGet()));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            mQueuedCount.decrementAndGet();
+            return false;
+        }
+    }
+
+    int getQueuedCount() {
+        return mQueuedCount.get();
+    }
+
+    /**
+     * Stops accepting calls. Calls already queued still execute, after which the worker threads terminate.
+     */
+    void shutdown() {
+        mExecutor.shutdown();
+    }
+}
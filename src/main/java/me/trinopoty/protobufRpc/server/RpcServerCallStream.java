@@ -0,0 +1,272 @@
+package me.trinopoty.protobufRpc.server;
+
+import com.google.protobuf.AbstractMessage;
+import io.netty.channel.ChannelHandlerContext;
+import me.trinopoty.protobufRpc.RpcStreamObserver;
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+import me.trinopoty.protobufRpc.util.Pair;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+import me.trinopoty.protobufRpc.util.RpcWriteBackpressure;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * State of a client streaming or bidirectional streaming call on a connection, and the response observer passed to the
+ * service implementation.
+ *
+ * Request messages are passed to the observer returned by the implementation as they arrive, and the client is granted
+ * new credits as they are processed. Messages arriving before the implementation has returned its observer are queued,
+ * and stay charged to the inbound memory budget of the connection until they are passed on. Responses are written while the client has granted credits and the connection is
+ * writable, and queued otherwise.
+ * The response observer may be called from any thread; the state is only accessed from the event loop of the connection.
+ */
+final class RpcServerCallStream implements RpcStreamObserver<Object> {
+
+    private final ChannelHandlerContext mCtx;
+    private final WirePacketFormat.WirePacket mRequestWirePacket;
+    private final RpcServiceCollector.RpcMethodInfo mMethodInfo;
+    private final Map<Long, RpcServerCallStream> mCallStreamMap;
+    private final int mReceiveWindowSize;
+    private final RpcAdmissionController.Permit mPermit;
+    private final RpcWriteBackpressure mWriteBackpressure;
+
+    private final Queue<WirePacketFormat.WirePacket> mPendingPacketQueue = new ArrayDeque<>();
+    private final Queue<Pair<WirePacketFormat.WirePacket, Long>> mReceivedPacketQueue = new ArrayDeque<>();
+    private RpcStreamObserver<Object> mRequestObserver = null;
+    private Throwable mCancelCause = null;
+    private boolean mRegistered = false;
+    private int mSendCredits = 0;
+    private int mReceivedCount = 0;
+    private boolean mResponseFinished = false;
+
+    RpcServerCallStream(
+            ChannelHandlerContext ctx,
+            WirePacketFormat.WirePacket requestWirePacket,
+            RpcServiceCollector.RpcMethodInfo methodInfo,
+            Map<Long, RpcServerCallStream> callStreamMap,
+            int receiveWindowSize,
+            RpcAdmissionController.Permit permit,
+            RpcWriteBackpressure writeBackpressure) {
+        mCtx = ctx;
+        mRequestWirePacket = requestWirePacket;
+        mMethodInfo = methodInfo;
+        mCallStreamMap = callStreamMap;
+        mReceiveWindowSize = receiveWindowSize;
+        mPermit = permit;
+        mWriteBackpressure = writeBackpressure;
+        mSendCredits = Math.max(requestWirePacket.getStreamCredits(), 0);
+    }
+
+    WirePacketFormat.WirePacket getRequestWirePacket() {
+        return mRequestWirePacket;
+    }
+
+    /**
+     * Makes the call reachable by credits and cancellation before the service implementation has returned its observer,
+     * as it does when the implementation is called on a worker thread.
+     */
+    void register() {
+        mRegistered = true;
+        mCallStreamMap.put(mRequestWirePacket.getMessageIdentifier(), this);
+    }
+
+    /**
+     * Starts receiving request messages with the observer returned by the service implementation.
+     * If the call was cancelled before, the observer only receives the error.
+     */
+    void start(RpcStreamObserver<Object> requestObserver) {
+        mRequestObserver = requestObserver;
+        if(mCancelCause != null) {
+            requestObserver.onError(mCancelCause);
+            return;
+        }
+
+        if(!mRegistered) {
+            register();
+        }
+        mCtx.writeAndFlush(createCreditPacket(mReceiveWindowSize));
+
+        Pair<WirePacketFormat.WirePacket, Long> receivedPacket;
+        while((receivedPacket = mReceivedPacketQueue.poll()) != null) {
+            RpcServerChannelHandler.releaseInboundFrame(mCtx, receivedPacket.getSecond());
+            try {
+                if(receivedPacket.getFirst().getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_END) {
+                    receivedHalfClose(receivedPacket.getFirst());
+                } else {
+                    receivedMessage(receivedPacket.getFirst());
+                }
+            } catch (IllegalAccessException | InvocationTargetException | RuntimeException ex) {
+                fail();
+                mCtx.pipeline().fireExceptionCaught(ex);
+                break;
+            }
+        }
+    }
+
+    void receivedMessage(WirePacketFormat.WirePacket messageWirePacket) throws IllegalAccessException, InvocationTargetException {
+        if(mRequestObserver == null) {
+            mReceivedPacketQueue.offer(new Pair<>(messageWirePacket, RpcServerChannelHandler.holdInboundFrame(mCtx)));
+            return;
+        }
+
+        Object requestMessage = mMethodInfo.getRequestMessageParser().invoke(null, (Object) messageWirePacket.getPayload().toByteArray());
+        mRequestObserver.onNext(requestMessage);
+
+        if(++mReceivedCount >= Math.max(1, mReceiveWindowSize / 2)) {
+            mCtx.writeAndFlush(createCreditPacket(mReceivedCount));
+            mReceivedCount = 0;
+        }
+    }
+
+    void receivedHalfClose(WirePacketFormat.WirePacket endWirePacket) {
+        if(mRequestObserver == null) {
+            mReceivedPacketQueue.offer(new Pair<>(endWirePacket, RpcServerChannelHandler.holdInboundFrame(mCtx)));
+            return;
+        }
+
+        mRequestObserver.onCompleted();
+    }
+
+    /**
+     * Writes the responses held back while the connection was unwritable.
+     */
+    void resume() {
+        sendPendingPackets();
+    }
+
+    void receivedCredits(int credits) {
+        if(credits > 0) {
+            mSendCredits += credits;
+            sendPendingPackets();
+        }
+    }
+
+    /**
+     * Terminates the call without a response, because the client cancelled it or the connection was lost.
+     */
+    void cancel(Throwable cause) {
+        mResponseFinished = true;
+        mPendingPacketQueue.clear();
+        discardReceivedPackets();
+        finish();
+        if(mRequestObserver != null) {
+            mRequestObserver.onError(cause);
+        } else {
+            mCancelCause = cause;
+        }
+    }
+
+    /**
+     * Terminates the call with an error response, because processing a request message failed.
+     */
+    void fail() {
+        if(!mResponseFinished) {
+            mResponseFinished = true;
+            mPendingPacketQueue.clear();
+            discardReceivedPackets();
+            finish();
+            mCtx.writeAndFlush(RpcServerChannelHandler.createErrorPacket(mRequestWirePacket, "Unable to process call."));
+        }
+    }
+
+    @Override
+    public void onNext(final Object message) {
+        if(message == null) {
+            throw new IllegalArgumentException("Stream message cannot be null.");
+        }
+
+        runOnEventLoop(new Runnable() {
+            @Override
+            public void run() {
+                if(!mResponseFinished) {
+                    mPendingPacketQueue.offer(RpcServerChannelHandler.createResponsePacket(mRequestWirePacket, ((AbstractMessage) message).toByteString()));
+                    sendPendingPackets();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onError(Throwable cause) {
+        runOnEventLoop(new Runnable() {
+            @Override
+            public void run() {
+                fail();
+            }
+        });
+    }
+
+    @Override
+    public void onCompleted() {
+        runOnEventLoop(new Runnable() {
+            @Override
+            public void run() {
+                if(!mResponseFinished) {
+                    mResponseFinished = true;
+                    mPendingPacketQueue.offer(RpcServerChannelHandler.createStreamPacket(mRequestWirePacket, WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_END));
+                    sendPendingPackets();
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes queued responses the client has granted credits for, unless the backpressure policy holds them back while
+     * the connection is unwritable. The end of stream marker needs no credit.
+     */
+    private void sendPendingPackets() {
+        boolean written = false;
+        WirePacketFormat.WirePacket wirePacket;
+        while((wirePacket = mPendingPacketQueue.peek()) != null) {
+            boolean isResponse = (wirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE);
+            if(isResponse && ((mSendCredits <= 0) || mWriteBackpressure.isHeldBack())) {
+                break;
+            }
+
+            mPendingPacketQueue.poll();
+            mCtx.write(wirePacket);
+            written = true;
+            if(isResponse) {
+                mSendCredits--;
+            }
+        }
+
+        if(written) {
+            mCtx.flush();
+        }
+        if(mResponseFinished && mPendingPacketQueue.isEmpty()) {
+            finish();
+        }
+    }
+
+    private void discardReceivedPackets() {
+        Pair<WirePacketFormat.WirePacket, Long> receivedPacket;
+        while((receivedPacket = mReceivedPacketQueue.poll()) != null) {
+            RpcServerChannelHandler.releaseInboundFrame(mCtx, receivedPacket.getSecond());
+        }
+    }
+
+    private void finish() {
+        mCallStreamMap.remove(mRequestWirePacket.getMessageIdentifier());
+        mPermit.release();
+    }
+
+    private WirePacketFormat.WirePacket createCreditPacket(int credits) {
+        WirePacketFormat.WirePacket.Builder builder = WirePacketFormat.WirePacket.newBuilder();
+        builder.setMessageIdentifier(mRequestWirePacket.getMessageIdentifier());
+        builder.setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_CREDIT);
+        builder.setStreamCredits(credits);
+        return builder.build();
+    }
+
+    private void runOnEventLoop(Runnable runnable) {
+        if(mCtx.executor().inEventLoop()) {
+            runnable.run();
+        } else {
+            mCtx.executor().execute(runnable);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package me.trinopoty.protobufRpc.server;
 
 import com.google.protobuf.AbstractMessage;
+import com.google.protobuf.ByteString;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
@@ -8,19 +9,44 @@ import io.netty.handler.timeout.IdleStateEvent;
 import io.netty.handler.timeout.IdleStateHandler;
 import me.trinopoty.protobufRpc.DisconnectReason;
 import me.trinopoty.protobufRpc.ProtobufRpcLog;
+import me.trinopoty.protobufRpc.RpcStreamObserver;
 import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+import me.trinopoty.protobufRpc.exception.RpcCallException;
+import me.trinopoty.protobufRpc.exception.RpcChannelClosedException;
 import me.trinopoty.protobufRpc.util.Pair;
+import me.trinopoty.protobufRpc.util.RpcInboundMemoryBudget;
+import me.trinopoty.protobufRpc.util.RpcResponseCache;
 import me.trinopoty.protobufRpc.util.RpcServiceCollector;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 final class RpcServerChannelHandler extends ChannelInboundHandlerAdapter {
 
+    /**
+     * Failure of a service call, carrying the error message for the client.
+     */
+    private static final class CallFailedException extends Exception {
+
+        CallFailedException(String message, Exception cause) {
+            super(message, cause);
+        }
+    }
+
     private final ProtobufRpcServer mProtobufRpcServer;
 
     private final Logger mLogger;
@@ -28,6 +54,12 @@ final class RpcServerChannelHandler extends ChannelInboundHandlerAdapter {
     private final boolean mEnableRpcLogging;
 
     private final HashMap<Class, Object> mServiceImplementationObjectMap = new HashMap<>();
+    private final Map<Long, RpcServerStream> mServerStreamMap = new HashMap<>();
+    private final Map<Long, RpcServerCallStream> mCallStreamMap = new HashMap<>();
+    private final Set<Long> mStartingServerStreamSet = new HashSet<>();
+    private final ConcurrentMap<Long, RpcCallContext> mActiveCallMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Pair<RpcInFlightCall, RpcInFlightCall.Waiter>> mWaitingCallMap = new ConcurrentHashMap<>();
+    private final AtomicInteger mInFlightRequestCount = new AtomicInteger();
 
     private ProtobufRpcServerChannel mRpcServerChannel;
     private DisconnectReason mChannelDisconnectReason = DisconnectReason.CLIENT_CLOSE;
@@ -48,24 +80,81 @@ final class RpcServerChannelHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void channelActive(ChannelHandlerContext ctx) {
         mRpcServerChannel = new ProtobufRpcServerChannel(mProtobufRpcServer, ctx.channel());
+        mProtobufRpcServer.getAllChannels().add(mRpcServerChannel);
     }
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) {
+        mRpcServerChannel.getWriteBackpressure().channelClosed();
+
+        RpcTopicSubscriber topicSubscriber = mRpcServerChannel.closeTopicSubscriber();
+        if(topicSubscriber != null) {
+            topicSubscriber.close();
+            if(topicSubscriber.isOverflowed()) {
+                mChannelDisconnectReason = DisconnectReason.SLOW_CONSUMER;
+            }
+        }
+        RpcOobConflater oobConflater = mRpcServerChannel.getOobConflaterIfPresent();
+        if(oobConflater != null) {
+            oobConflater.close();
+        }
+
         mProtobufRpcServer.sendChannelDisconnectEvent(mRpcServerChannel, mChannelDisconnectReason);
         mChannelDisconnectReason = DisconnectReason.CLIENT_CLOSE;
+
+        for(RpcServerStream serverStream : mServerStreamMap.values()) {
+            serverStream.close();
+        }
+        mServerStreamMap.clear();
+        mStartingServerStreamSet.clear();
+
+        for(RpcServerCallStream callStream : new ArrayList<>(mCallStreamMap.values())) {
+            callStream.cancel(new RpcChannelClosedException("Channel closed."));
+        }
     }
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         WirePacketFormat.WirePacket requestWirePacket = (WirePacketFormat.WirePacket) msg;
-        if(requestWirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_REQUEST) {
+        if((requestWirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_REQUEST) ||
+                (requestWirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_NOTIFY)) {
             handleIncomingRequest(ctx, requestWirePacket);
+        } else if(requestWirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_MESSAGE) {
+            handleIncomingStreamMessage(requestWirePacket);
+        } else if(requestWirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_END) {
+            handleIncomingHalfClose(requestWirePacket);
+        } else if(requestWirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_CREDIT) {
+            handleIncomingStreamCredit(ctx, requestWirePacket);
+        } else if(requestWirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_CANCEL) {
+            handleIncomingCancel(requestWirePacket);
         } else if(requestWirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_KEEP_ALIVE) {
             handleIncomingKeepAlive(ctx);
         }
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        mRpcServerChannel.getWriteBackpressure().writabilityChanged();
+        if(ctx.channel().isWritable()) {
+            for(RpcServerStream serverStream : new ArrayList<>(mServerStreamMap.values())) {
+                sendStreamElements(ctx, serverStream, 0);
+            }
+            for(RpcServerCallStream callStream : new ArrayList<>(mCallStreamMap.values())) {
+                callStream.resume();
+            }
+
+            RpcOobConflater oobConflater = mRpcServerChannel.getOobConflaterIfPresent();
+            if(oobConflater != null) {
+                oobConflater.drain();
+            }
+            RpcTopicSubscriber topicSubscriber = mRpcServerChannel.getTopicSubscriberIfPresent();
+            if(topicSubscriber != null) {
+                topicSubscriber.drain();
+            }
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         if(cause != null) {
@@ -86,15 +175,67 @@ final class RpcServerChannelHandler extends ChannelInboundHandlerAdapter {
     }
 
     private void sendError(ChannelHandlerContext ctx, WirePacketFormat.WirePacket requestPacket, String message) {
+        sendError(ctx, requestPacket, message, WirePacketFormat.ErrorCode.ERROR_CODE_SERVER_ERROR);
+    }
+
+    private void sendError(ChannelHandlerContext ctx, WirePacketFormat.WirePacket requestPacket, String message, WirePacketFormat.ErrorCode errorCode) {
+        if(requestPacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_NOTIFY) {
+            // The client of a one-way call does not wait for the outcome
+            return;
+        }
+
+        if(acquireResponseWrite(ctx)) {
+            ctx.writeAndFlush(createErrorPacket(requestPacket, message, errorCode));
+        }
+    }
+
+    /**
+     * Applies the backpressure policy to a response, which may be written on behalf of another connection when
+     * identical calls are coalesced.
+     *
+     * @return true if the response should be written.
+     */
+    private static boolean acquireResponseWrite(ChannelHandlerContext ctx) {
+        return ((RpcServerChannelHandler) ctx.handler()).mRpcServerChannel.getWriteBackpressure().acquireResponseWrite();
+    }
+
+    static WirePacketFormat.WirePacket createErrorPacket(WirePacketFormat.WirePacket requestPacket, String message) {
+        return createErrorPacket(requestPacket, message, WirePacketFormat.ErrorCode.ERROR_CODE_SERVER_ERROR);
+    }
+
+    static WirePacketFormat.WirePacket createErrorPacket(WirePacketFormat.WirePacket requestPacket, String message, WirePacketFormat.ErrorCode errorCode) {
         WirePacketFormat.WirePacket.Builder builder = WirePacketFormat.WirePacket.newBuilder();
         builder.setMessageIdentifier(requestPacket.getMessageIdentifier());
         builder.setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_ERROR);
         builder.setServiceIdentifier(requestPacket.getServiceIdentifier());
         builder.setPayload(WirePacketFormat.ErrorMessage.newBuilder()
                 .setMessage(message)
+                .setCode(errorCode)
                 .build()
                 .toByteString());
-        ctx.writeAndFlush(builder.build());
+        return builder.build();
+    }
+
+    /**
+     * Admits a call under the concurrency limits of the server, or rejects it with an overload error.
+     *
+     * @return The permit to release once the call has completed, or null if the call was rejected.
+     */
+    private RpcAdmissionController.Permit admitRequest(ChannelHandlerContext ctx, WirePacketFormat.WirePacket requestWirePacket, RpcServiceCollector.RpcMethodInfo methodInfo) {
+        final boolean unary = !methodInfo.isServerStreaming() && !methodInfo.isClientStreaming();
+        RpcAdmissionController.Permit permit = mProtobufRpcServer.getAdmissionController().tryAcquire(methodInfo.getMethod(), mInFlightRequestCount, unary);
+        if(permit == null) {
+            if(mEnableRpcLogging) {
+                mLogger.info(String.format("[ServerChannel:%s] {%d, %d, %d} Rejected RPC call request, server overloaded",
+                        mLoggingName,
+                        requestWirePacket.getMessageIdentifier(),
+                        requestWirePacket.getServiceIdentifier().getServiceIdentifier(),
+                        requestWirePacket.getServiceIdentifier().getMethodIdentifier()));
+            }
+
+            sendError(ctx, requestWirePacket, "Server overloaded.", WirePacketFormat.ErrorCode.ERROR_CODE_OVERLOADED);
+        }
+        return permit;
     }
 
     private synchronized Pair<RpcServiceCollector.RpcServiceInfo, Object> getServiceImplementationObject(int serviceIdentifier) {
@@ -116,7 +257,65 @@ final class RpcServerChannelHandler extends ChannelInboundHandlerAdapter {
     }
 
     private void handleIncomingRequest(ChannelHandlerContext ctx, WirePacketFormat.WirePacket requestWirePacket) throws Exception {
+        final long messageIdentifier = requestWirePacket.getMessageIdentifier();
+        final boolean cancellable = (requestWirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_REQUEST);
+
+        RpcCallContext callContext = new RpcCallContext(requestWirePacket, System.nanoTime());
+        if(cancellable) {
+            mActiveCallMap.put(messageIdentifier, callContext);
+        }
+        boolean scheduled = false;
+        RpcCallContext previousCallContext = callContext.attach();
+        try {
+            scheduled = processIncomingRequest(ctx, requestWirePacket, callContext);
+        } finally {
+            RpcCallContext.restore(previousCallContext);
+            if(cancellable && !scheduled) {
+                mActiveCallMap.remove(messageIdentifier, callContext);
+            }
+        }
+    }
+
+    /**
+     * Drops the request if its deadline has passed or the client has cancelled it, so no work is spent on a response
+     * nobody waits for.
+     *
+     * @return true if the request was dropped.
+     */
+    private boolean dropIfAbandoned(WirePacketFormat.WirePacket requestWirePacket, RpcCallContext callContext) {
+        String reason;
+        if(callContext.isCancelled()) {
+            reason = "cancelled by client";
+        } else if(callContext.isExpired()) {
+            reason = "deadline exceeded";
+            mProtobufRpcServer.requestExpired();
+        } else {
+            return false;
+        }
+
+        if(mEnableRpcLogging) {
+            mLogger.info(String.format("[ServerChannel:%s] {%d, %d, %d} Dropped RPC call request, %s",
+                    mLoggingName,
+                    requestWirePacket.getMessageIdentifier(),
+                    requestWirePacket.getServiceIdentifier().getServiceIdentifier(),
+                    requestWirePacket.getServiceIdentifier().getMethodIdentifier(),
+                    reason));
+        }
+        return true;
+    }
+
+    /**
+     * Processes a request on the event loop, executing it unless it is handed over to the request executor.
+     *
+     * @return true if the request was queued on the request executor or waits for an identical executing call, which completes it.
+     */
+    private boolean processIncomingRequest(ChannelHandlerContext ctx, WirePacketFormat.WirePacket requestWirePacket, RpcCallContext callContext) throws Exception {
+        boolean scheduled = false;
         do {
+            if(dropIfAbandoned(requestWirePacket, callContext)) {
+                break;
+            }
+
             final WirePacketFormat.ServiceIdentifier serviceIdentifier = requestWirePacket.getServiceIdentifier();
             if(serviceIdentifier == null) {
                 sendError(ctx, requestWirePacket, "Client error.");
@@ -147,66 +346,710 @@ final class RpcServerChannelHandler extends ChannelInboundHandlerAdapter {
                 throw new RuntimeException(String.format("Unable to create implementation object of %s class", rpcServiceInfo.getServiceClass().getName()));
             }
 
-            AbstractMessage requestMessage = null;
-            AbstractMessage responseMessage = null;
+            if(methodInfo.isServerStreaming() || methodInfo.isClientStreaming()) {
+                RpcAdmissionController.Permit permit = admitRequest(ctx, requestWirePacket, methodInfo);
+                if(permit == null) {
+                    break;
+                }
+
+                if(mProtobufRpcServer.getRequestScheduler() != null) {
+                    scheduleStreamStart(ctx, requestWirePacket, rpcServiceInfo, methodInfo, implObject, permit);
+                    break;
+                }
+
+                boolean started = false;
+                try {
+                    if(methodInfo.isServerStreaming()) {
+                        startServerStream(ctx, requestWirePacket, rpcServiceInfo, methodInfo, implObject, permit);
+                    } else {
+                        startCallStream(ctx, requestWirePacket, rpcServiceInfo, methodInfo, implObject, permit);
+                    }
+                    started = true;
+                } finally {
+                    if(!started) {
+                        permit.release();
+                    }
+                }
+                break;
+            }
+
+            // Cached responses skip parsing, the service call and serialization
+            final RpcResponseCache<ByteString> responseCache = mProtobufRpcServer.getResponseCache();
+            final boolean cacheable = (responseCache != null) && (methodInfo.getCacheTtlMillis() > 0);
+            final RpcResponseCache.Key requestKey = (cacheable || methodInfo.isCoalesced())?
+                    new RpcResponseCache.Key(serviceIdentifier.getServiceIdentifier(), serviceIdentifier.getMethodIdentifier(), requestWirePacket.getPayload()) :
+                    null;
+            if(cacheable) {
+                ByteString cachedResponsePayload = responseCache.get(requestKey);
+                if(cachedResponsePayload != null) {
+                    if(mEnableRpcLogging) {
+                        mLogger.info(String.format("[ServerChannel:%s] {%d, %d, %d} Sending cached RPC call response",
+                                mLoggingName,
+                                requestWirePacket.getMessageIdentifier(),
+                                serviceIdentifier.getServiceIdentifier(),
+                                serviceIdentifier.getMethodIdentifier()));
+                    }
+
+                    sendResponse(ctx, requestWirePacket, cachedResponsePayload);
+                    break;
+                }
+            }
 
+            RpcAdmissionController.Permit permit = admitRequest(ctx, requestWirePacket, methodInfo);
+            if(permit == null) {
+                break;
+            }
+
+            if(mProtobufRpcServer.getRequestScheduler() != null) {
+                scheduled = scheduleRequest(ctx, requestWirePacket, callContext, rpcServiceInfo, methodInfo, implObject, responseCache, cacheable, requestKey, permit);
+                break;
+            }
+
+            boolean waiting = false;
             try {
-                if(methodInfo.getRequestMessageParser() != null) {
-                    requestMessage = (AbstractMessage) methodInfo.getRequestMessageParser().invoke(null, (Object) requestWirePacket.getPayload().toByteArray());
+                waiting = executeRequest(ctx, requestWirePacket, callContext, rpcServiceInfo, methodInfo, implObject, responseCache, cacheable, requestKey, permit);
+            } finally {
+                if(!waiting) {
+                    permit.release();
+                }
+            }
+            scheduled = waiting;
+        } while (false);
+        return scheduled;
+    }
+
+    /**
+     * Queues an admitted call on the request executor. The deadline and cancellation of the call are checked again
+     * once a worker thread picks it up. A call which cannot be queued is rejected with an overload error.
+     *
+     * @return true if the call was queued.
+     */
+    private boolean scheduleRequest(
+            final ChannelHandlerContext ctx,
+            final WirePacketFormat.WirePacket requestWirePacket,
+            final RpcCallContext callContext,
+            final RpcServiceCollector.RpcServiceInfo rpcServiceInfo,
+            final RpcServiceCollector.RpcMethodInfo methodInfo,
+            final Object implObject,
+            final RpcResponseCache<ByteString> responseCache,
+            final boolean cacheable,
+            final RpcResponseCache.Key requestKey,
+            final RpcAdmissionController.Permit permit) {
+        final long heldBytes = holdInboundFrame(ctx);
+        boolean queued = mProtobufRpcServer.getRequestScheduler().execute(requestWirePacket.getPriority(), new Runnable() {
+            @Override
+            public void run() {
+                releaseInboundFrame(ctx, heldBytes);
+                RpcCallContext previousCallContext = callContext.attach();
+                boolean waiting = false;
+                try {
+                    waiting = executeRequest(ctx, requestWirePacket, callContext, rpcServiceInfo, methodInfo, implObject, responseCache, cacheable, requestKey, permit);
+                } catch (Exception ex) {
+                    ctx.pipeline().fireExceptionCaught(ex);
+                } finally {
+                    RpcCallContext.restore(previousCallContext);
+                    if(!waiting) {
+                        permit.release();
+                        mActiveCallMap.remove(requestWirePacket.getMessageIdentifier(), callContext);
+                    }
                 }
-            } catch (IllegalAccessException | InvocationTargetException ex) {
-                sendError(ctx, requestWirePacket, "Unable to parse call request parameter");
-                throw ex;
             }
+        });
 
+        if(!queued) {
+            releaseInboundFrame(ctx, heldBytes);
+            permit.reject();
             if(mEnableRpcLogging) {
-                mLogger.info(String.format("[ServerChannel:%s] {%d, %d, %d} Received RPC call request: %s",
+                mLogger.info(String.format("[ServerChannel:%s] {%d, %d, %d} Rejected RPC call request, request queue full",
                         mLoggingName,
                         requestWirePacket.getMessageIdentifier(),
-                        serviceIdentifier.getServiceIdentifier(),
-                        serviceIdentifier.getMethodIdentifier(),
-                        (requestMessage != null)? requestMessage.toString() : "null"));
+                        requestWirePacket.getServiceIdentifier().getServiceIdentifier(),
+                        requestWirePacket.getServiceIdentifier().getMethodIdentifier()));
+            }
+
+            sendError(ctx, requestWirePacket, "Server overloaded.", WirePacketFormat.ErrorCode.ERROR_CODE_OVERLOADED);
+        }
+        return queued;
+    }
+
+    /**
+     * Executes an admitted call and sends its response, or waits for an identical executing call if the method is coalesced.
+     * The permit of the call is released before the response is written, so a client never sees its call completed
+     * while it still counts against the limits. The caller releases it otherwise.
+     *
+     * @return true if the call waits for an identical executing call, which then owns its permit and completes it.
+     */
+    private boolean executeRequest(
+            ChannelHandlerContext ctx,
+            WirePacketFormat.WirePacket requestWirePacket,
+            RpcCallContext callContext,
+            RpcServiceCollector.RpcServiceInfo rpcServiceInfo,
+            RpcServiceCollector.RpcMethodInfo methodInfo,
+            Object implObject,
+            RpcResponseCache<ByteString> responseCache,
+            boolean cacheable,
+            RpcResponseCache.Key requestKey,
+            RpcAdmissionController.Permit permit) throws Exception {
+        final WirePacketFormat.ServiceIdentifier serviceIdentifier = requestWirePacket.getServiceIdentifier();
+        do {
+            // The deadline may have passed or the call may have been cancelled while it waited for execution
+            if(dropIfAbandoned(requestWirePacket, callContext)) {
+                break;
             }
 
+            // Duplicates of a request which is already executing wait for its response instead of executing again
+            RpcInFlightCall inFlightCall = null;
+            if(methodInfo.isCoalesced()) {
+                inFlightCall = new RpcInFlightCall(mProtobufRpcServer.getMaxCoalescedRequests());
+                RpcInFlightCall executingCall = mProtobufRpcServer.getInFlightCallMap().putIfAbsent(requestKey, inFlightCall);
+                if(executingCall != null) {
+                    RpcInFlightCall.Waiter waiter = new RpcInFlightCall.Waiter(ctx, requestWirePacket, callContext, permit);
+                    mWaitingCallMap.put(requestWirePacket.getMessageIdentifier(), new Pair<>(executingCall, waiter));
+                    if(executingCall.addWaiter(waiter)) {
+                        if(mEnableRpcLogging) {
+                            mLogger.info(String.format("[ServerChannel:%s] {%d, %d, %d} Coalesced RPC call request with executing call",
+                                    mLoggingName,
+                                    requestWirePacket.getMessageIdentifier(),
+                                    serviceIdentifier.getServiceIdentifier(),
+                                    serviceIdentifier.getMethodIdentifier()));
+                        }
+                        return true;
+                    }
+
+                    // The executing call has completed or has too many waiters
+                    mWaitingCallMap.remove(requestWirePacket.getMessageIdentifier());
+                    inFlightCall = null;
+                }
+            }
+
+            boolean succeeded = false;
+            ByteString responsePayload = null;
+            String errorMessage = "Internal server error.";
             try {
-                if((requestMessage != null) && (methodInfo.getResponseMessageParser() != null)) {
-                    responseMessage = (AbstractMessage) methodInfo.getMethod().invoke(implObject, requestMessage);
-                } else if((requestMessage == null) && (methodInfo.getResponseMessageParser() != null)) {
-                    responseMessage = (AbstractMessage) methodInfo.getMethod().invoke(implObject);
-                } else if((requestMessage != null) && (methodInfo.getResponseMessageParser() == null)) {
-                    methodInfo.getMethod().invoke(implObject, requestMessage);
-                } else if((requestMessage == null) && (methodInfo.getResponseMessageParser() == null)) {
-                    methodInfo.getMethod().invoke(implObject);
+                responsePayload = invokeServiceMethod(requestWirePacket, rpcServiceInfo, methodInfo, implObject);
+                permit.release();
+                if(cacheable) {
+                    responseCache.put(requestKey, responsePayload, responsePayload.size(), methodInfo.getCacheTtlMillis());
                 }
-            } catch (IllegalAccessException | InvocationTargetException ex) {
-                sendError(ctx, requestWirePacket, "Unable to process call.");
-                throw ex;
+                succeeded = true;
+            } catch (CallFailedException ex) {
+                permit.release();
+                errorMessage = ex.getMessage();
+                sendError(ctx, requestWirePacket, errorMessage);
+                throw (Exception) ex.getCause();
+            } finally {
+                if(inFlightCall != null) {
+                    mProtobufRpcServer.getInFlightCallMap().remove(requestKey, inFlightCall);
+                    for(RpcInFlightCall.Waiter waiter : inFlightCall.complete()) {
+                        ((RpcServerChannelHandler) waiter.getContext().handler()).completeWaiter(waiter, succeeded? responsePayload : null, errorMessage);
+                    }
+                }
+            }
+
+            if(!callContext.isExpired() && !callContext.isCancelled()) {
+                sendResponse(ctx, requestWirePacket, responsePayload);
+            }
+        } while (false);
+        return false;
+    }
+
+    /**
+     * Completes a request of this connection which waited for an identical call, unless its client has cancelled it or
+     * its deadline has passed meanwhile.
+     *
+     * @param responsePayload The response of the executed call, or null if it failed.
+     * @param errorMessage The error to send if the executed call failed.
+     */
+    private void completeWaiter(RpcInFlightCall.Waiter waiter, ByteString responsePayload, String errorMessage) {
+        final WirePacketFormat.WirePacket requestWirePacket = waiter.getRequestWirePacket();
+        mWaitingCallMap.remove(requestWirePacket.getMessageIdentifier());
+        mActiveCallMap.remove(requestWirePacket.getMessageIdentifier(), waiter.getCallContext());
+        waiter.getPermit().release();
+
+        if(dropIfAbandoned(requestWirePacket, waiter.getCallContext())) {
+            return;
+        }
+        if(responsePayload != null) {
+            sendResponse(waiter.getContext(), requestWirePacket, responsePayload);
+        } else {
+            sendError(waiter.getContext(), requestWirePacket, errorMessage);
+        }
+    }
+
+    /**
+     * Parses the request, calls the service implementation and serializes the response.
+     *
+     * @return The serialized response, or null if the method does not return one.
+     * @throws CallFailedException With the error to send to the client, caused by the original exception.
+     */
+    private ByteString invokeServiceMethod(WirePacketFormat.WirePacket requestWirePacket, RpcServiceCollector.RpcServiceInfo rpcServiceInfo, RpcServiceCollector.RpcMethodInfo methodInfo, Object implObject) throws CallFailedException {
+        final WirePacketFormat.ServiceIdentifier serviceIdentifier = requestWirePacket.getServiceIdentifier();
+        AbstractMessage responseMessage = (AbstractMessage) callServiceMethod(requestWirePacket, rpcServiceInfo, methodInfo, implObject);
+
+        if(mEnableRpcLogging && (requestWirePacket.getMessageType() != WirePacketFormat.MessageType.MESSAGE_TYPE_NOTIFY)) {
+            mLogger.info(String.format("[ServerChannel:%s] {%d, %d, %d} Sending RPC call response: %s",
+                    mLoggingName,
+                    requestWirePacket.getMessageIdentifier(),
+                    serviceIdentifier.getServiceIdentifier(),
+                    serviceIdentifier.getMethodIdentifier(),
+                    (responseMessage != null)? responseMessage.toString() : "null"));
+        }
+
+        return (responseMessage != null)? responseMessage.toByteString() : null;
+    }
+
+    /**
+     * Parses the request and calls the service implementation.
+     *
+     * @return The value returned by the implementation, or null if the method does not return one.
+     * @throws CallFailedException With the error to send to the client, caused by the original exception.
+     */
+    private Object callServiceMethod(WirePacketFormat.WirePacket requestWirePacket, RpcServiceCollector.RpcServiceInfo rpcServiceInfo, RpcServiceCollector.RpcMethodInfo methodInfo, Object implObject) throws CallFailedException {
+        final WirePacketFormat.ServiceIdentifier serviceIdentifier = requestWirePacket.getServiceIdentifier();
+        AbstractMessage requestMessage = null;
+        Object responseMessage = null;
+
+        try {
+            if(methodInfo.getRequestMessageParser() != null) {
+                requestMessage = (AbstractMessage) methodInfo.getRequestMessageParser().invoke(null, (Object) requestWirePacket.getPayload().toByteArray());
+            }
+        } catch (IllegalAccessException | InvocationTargetException ex) {
+            throw new CallFailedException("Unable to parse call request parameter", ex);
+        }
+
+        if(mEnableRpcLogging) {
+            mLogger.info(String.format("[ServerChannel:%s] {%d, %d, %d} Received RPC call request: %s",
+                    mLoggingName,
+                    requestWirePacket.getMessageIdentifier(),
+                    serviceIdentifier.getServiceIdentifier(),
+                    serviceIdentifier.getMethodIdentifier(),
+                    (requestMessage != null)? requestMessage.toString() : "null"));
+        }
+
+        try {
+            if((requestMessage != null) && (methodInfo.getResponseMessageParser() != null)) {
+                responseMessage = methodInfo.getMethod().invoke(implObject, requestMessage);
+            } else if((requestMessage == null) && (methodInfo.getResponseMessageParser() != null)) {
+                responseMessage = methodInfo.getMethod().invoke(implObject);
+            } else if((requestMessage != null) && (methodInfo.getResponseMessageParser() == null)) {
+                methodInfo.getMethod().invoke(implObject, requestMessage);
+            } else if((requestMessage == null) && (methodInfo.getResponseMessageParser() == null)) {
+                methodInfo.getMethod().invoke(implObject);
             }
+        } catch (IllegalAccessException | InvocationTargetException ex) {
+            throw new CallFailedException("Unable to process call.", ex);
+        }
+
+        if((methodInfo.getResponseMessageParser() != null) && (responseMessage == null)) {
+            throw new CallFailedException("Unable to process call.", new RuntimeException(String.format("Response cannot be null from %s.%s", rpcServiceInfo.getImplClass().getName(), methodInfo.getMethod().getName())));
+        }
+
+        return responseMessage;
+    }
 
-            if((methodInfo.getResponseMessageParser() != null) && (responseMessage == null)) {
-                sendError(ctx, requestWirePacket, "Unable to process call.");
+    private void startServerStream(ChannelHandlerContext ctx, WirePacketFormat.WirePacket requestWirePacket, RpcServiceCollector.RpcServiceInfo rpcServiceInfo, RpcServiceCollector.RpcMethodInfo methodInfo, Object implObject, RpcAdmissionController.Permit permit) throws Exception {
+        openServerStream(ctx, requestWirePacket, invokeServerStreamMethod(ctx, requestWirePacket, rpcServiceInfo, methodInfo, implObject), permit);
+    }
+
+    /**
+     * Calls the service implementation of a server streaming call. May be called from any thread.
+     *
+     * @return The iterator of the response messages.
+     */
+    private Iterator<?> invokeServerStreamMethod(ChannelHandlerContext ctx, WirePacketFormat.WirePacket requestWirePacket, RpcServiceCollector.RpcServiceInfo rpcServiceInfo, RpcServiceCollector.RpcMethodInfo methodInfo, Object implObject) throws Exception {
+        try {
+            return (Iterator<?>) callServiceMethod(requestWirePacket, rpcServiceInfo, methodInfo, implObject);
+        } catch (CallFailedException ex) {
+            sendError(ctx, requestWirePacket, ex.getMessage());
+            throw (Exception) ex.getCause();
+        }
+    }
 
-                throw new RuntimeException(String.format("Response cannot be null from %s.%s", rpcServiceInfo.getImplClass().getName(), methodInfo.getMethod().getName()));
+    private void openServerStream(ChannelHandlerContext ctx, WirePacketFormat.WirePacket requestWirePacket, Iterator<?> iterator, RpcAdmissionController.Permit permit) {
+        RpcServerStream serverStream = new RpcServerStream(requestWirePacket, iterator, permit);
+        mServerStreamMap.put(requestWirePacket.getMessageIdentifier(), serverStream);
+        sendStreamElements(ctx, serverStream, requestWirePacket.getStreamCredits());
+    }
+
+    /**
+     * Calls the service implementation with the observer of the responses, and starts passing request messages to
+     * the observer it returns. The client may send request messages once it has been granted credits.
+     */
+    private void startCallStream(ChannelHandlerContext ctx, WirePacketFormat.WirePacket requestWirePacket, RpcServiceCollector.RpcServiceInfo rpcServiceInfo, RpcServiceCollector.RpcMethodInfo methodInfo, Object implObject, RpcAdmissionController.Permit permit) throws Exception {
+        RpcServerCallStream callStream = new RpcServerCallStream(ctx, requestWirePacket, methodInfo, mCallStreamMap, mProtobufRpcServer.getStreamWindowSize(), permit, mRpcServerChannel.getWriteBackpressure());
+        callStream.start(invokeCallStreamMethod(ctx, requestWirePacket, rpcServiceInfo, methodInfo, implObject, callStream));
+    }
+
+    /**
+     * Calls the service implementation of a client or bidirectional streaming call. May be called from any thread.
+     *
+     * @return The observer of the request messages.
+     */
+    @SuppressWarnings("unchecked")
+    private RpcStreamObserver<Object> invokeCallStreamMethod(ChannelHandlerContext ctx, WirePacketFormat.WirePacket requestWirePacket, RpcServiceCollector.RpcServiceInfo rpcServiceInfo, RpcServiceCollector.RpcMethodInfo methodInfo, Object implObject, RpcServerCallStream callStream) throws Exception {
+        if(mEnableRpcLogging) {
+            mLogger.info(String.format("[ServerChannel:%s] {%d, %d, %d} Received RPC stream request",
+                    mLoggingName,
+                    requestWirePacket.getMessageIdentifier(),
+                    requestWirePacket.getServiceIdentifier().getServiceIdentifier(),
+                    requestWirePacket.getServiceIdentifier().getMethodIdentifier()));
+        }
+
+        Object requestObserver;
+        try {
+            requestObserver = methodInfo.getMethod().invoke(implObject, callStream);
+        } catch (IllegalAccessException | InvocationTargetException ex) {
+            sendError(ctx, requestWirePacket, "Unable to process call.");
+            throw ex;
+        }
+
+        if(requestObserver == null) {
+            sendError(ctx, requestWirePacket, "Unable to process call.");
+            throw new RuntimeException(String.format("Request observer cannot be null from %s.%s", rpcServiceInfo.getImplClass().getName(), methodInfo.getMethod().getName()));
+        }
+
+        return (RpcStreamObserver<Object>) requestObserver;
+    }
+
+    /**
+     * Queues the start of an admitted streaming call on the request executor, so the service implementation is called
+     * on a worker thread in order of priority. The stream itself is then opened on the event loop. A call which cannot
+     * be queued is rejected with an overload error.
+     */
+    private void scheduleStreamStart(
+            final ChannelHandlerContext ctx,
+            final WirePacketFormat.WirePacket requestWirePacket,
+            final RpcServiceCollector.RpcServiceInfo rpcServiceInfo,
+            final RpcServiceCollector.RpcMethodInfo methodInfo,
+            final Object implObject,
+            final RpcAdmissionController.Permit permit) {
+        final Long messageIdentifier = requestWirePacket.getMessageIdentifier();
+
+        // Starting calls are reachable by credits and cancellation before the implementation has been called
+        final RpcServerCallStream callStream;
+        if(methodInfo.isClientStreaming()) {
+            callStream = new RpcServerCallStream(ctx, requestWirePacket, methodInfo, mCallStreamMap, mProtobufRpcServer.getStreamWindowSize(), permit, mRpcServerChannel.getWriteBackpressure());
+            callStream.register();
+        } else {
+            callStream = null;
+            mStartingServerStreamSet.add(messageIdentifier);
+        }
+
+        final long heldBytes = holdInboundFrame(ctx);
+        boolean queued = mProtobufRpcServer.getRequestScheduler().execute(requestWirePacket.getPriority(), new Runnable() {
+            @Override
+            public void run() {
+                releaseInboundFrame(ctx, heldBytes);
+                try {
+                    if(callStream != null) {
+                        final RpcStreamObserver<Object> requestObserver = invokeCallStreamMethod(ctx, requestWirePacket, rpcServiceInfo, methodInfo, implObject, callStream);
+                        ctx.executor().execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                callStream.start(requestObserver);
+                            }
+                        });
+                    } else {
+                        final Iterator<?> iterator = invokeServerStreamMethod(ctx, requestWirePacket, rpcServiceInfo, methodInfo, implObject);
+                        ctx.executor().execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                if(mStartingServerStreamSet.remove(messageIdentifier)) {
+                                    openServerStream(ctx, requestWirePacket, iterator, permit);
+                                } else {
+                                    // Cancelled by the client or the connection was lost meanwhile
+                                    new RpcServerStream(requestWirePacket, iterator, permit).close();
+                                }
+                            }
+                        });
+                    }
+                } catch (Exception ex) {
+                    ctx.executor().execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            abortStreamStart(requestWirePacket, callStream);
+                        }
+                    });
+                    permit.release();
+                    ctx.pipeline().fireExceptionCaught(ex);
+                }
             }
+        });
 
+        if(!queued) {
+            releaseInboundFrame(ctx, heldBytes);
+            abortStreamStart(requestWirePacket, callStream);
+            permit.reject();
             if(mEnableRpcLogging) {
-                mLogger.info(String.format("[ServerChannel:%s] {%d, %d, %d} Sending RPC call response: %s",
+                mLogger.info(String.format("[ServerChannel:%s] {%d, %d, %d} Rejected RPC stream request, request queue full",
                         mLoggingName,
                         requestWirePacket.getMessageIdentifier(),
-                        serviceIdentifier.getServiceIdentifier(),
-                        serviceIdentifier.getMethodIdentifier(),
-                        (responseMessage != null)? responseMessage.toString() : "null"));
+                        requestWirePacket.getServiceIdentifier().getServiceIdentifier(),
+                        requestWirePacket.getServiceIdentifier().getMethodIdentifier()));
             }
 
-            WirePacketFormat.WirePacket.Builder responseWirePacketBuilder = WirePacketFormat.WirePacket.newBuilder();
-            responseWirePacketBuilder.setMessageIdentifier(requestWirePacket.getMessageIdentifier());
-            responseWirePacketBuilder.setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE);
-            responseWirePacketBuilder.setServiceIdentifier(requestWirePacket.getServiceIdentifier());
-            if(responseMessage != null) {
-                responseWirePacketBuilder.setPayload(responseMessage.toByteString());
+            sendError(ctx, requestWirePacket, "Server overloaded.", WirePacketFormat.ErrorCode.ERROR_CODE_OVERLOADED);
+        }
+    }
+
+    /**
+     * Keeps the request being processed charged to the inbound memory budget of the connection while it waits in the
+     * request queue, so queued requests count against the budget like requests still being read.
+     *
+     * @return The bytes held, to be released once a worker starts the call.
+     */
+    static long holdInboundFrame(ChannelHandlerContext ctx) {
+        RpcInboundMemoryBudget.Account inboundMemoryAccount = RpcInboundMemoryBudget.getAccount(ctx.channel());
+        return (inboundMemoryAccount != null)? inboundMemoryAccount.holdFrame() : 0;
+    }
+
+    static void releaseInboundFrame(ChannelHandlerContext ctx, long heldBytes) {
+        if(heldBytes > 0) {
+            RpcInboundMemoryBudget.Account inboundMemoryAccount = RpcInboundMemoryBudget.getAccount(ctx.channel());
+            if(inboundMemoryAccount != null) {
+                inboundMemoryAccount.release(heldBytes);
             }
-            ctx.writeAndFlush(responseWirePacketBuilder.build());
-        } while (false);
+        }
+    }
+
+    /**
+     * Forgets a streaming call whose start failed. The error response has been sent already.
+     */
+    private void abortStreamStart(WirePacketFormat.WirePacket requestWirePacket, RpcServerCallStream callStream) {
+        if(callStream != null) {
+            if(mCallStreamMap.get(requestWirePacket.getMessageIdentifier()) == callStream) {
+                mCallStreamMap.remove(requestWirePacket.getMessageIdentifier());
+            }
+        } else {
+            mStartingServerStreamSet.remove(requestWirePacket.getMessageIdentifier());
+        }
+    }
+
+    private void handleIncomingStreamMessage(WirePacketFormat.WirePacket messageWirePacket) throws Exception {
+        RpcServerCallStream callStream = mCallStreamMap.get(messageWirePacket.getMessageIdentifier());
+        if(callStream != null) {
+            try {
+                callStream.receivedMessage(messageWirePacket);
+            } catch (IllegalAccessException | InvocationTargetException | RuntimeException ex) {
+                callStream.fail();
+                throw ex;
+            }
+        }
+    }
+
+    private void handleIncomingHalfClose(WirePacketFormat.WirePacket endWirePacket) {
+        RpcServerCallStream callStream = mCallStreamMap.get(endWirePacket.getMessageIdentifier());
+        if(callStream != null) {
+            try {
+                callStream.receivedHalfClose(endWirePacket);
+            } catch (RuntimeException ex) {
+                callStream.fail();
+                throw ex;
+            }
+        }
+    }
+
+    private void handleIncomingStreamCredit(ChannelHandlerContext ctx, WirePacketFormat.WirePacket creditWirePacket) {
+        RpcServerStream serverStream = mServerStreamMap.get(creditWirePacket.getMessageIdentifier());
+        if(serverStream != null) {
+            sendStreamElements(ctx, serverStream, creditWirePacket.getStreamCredits());
+        }
+
+        RpcServerCallStream callStream = mCallStreamMap.get(creditWirePacket.getMessageIdentifier());
+        if(callStream != null) {
+            callStream.receivedCredits(creditWirePacket.getStreamCredits());
+        }
+    }
+
+    private void handleIncomingCancel(WirePacketFormat.WirePacket cancelWirePacket) {
+        RpcServerStream serverStream = mServerStreamMap.remove(cancelWirePacket.getMessageIdentifier());
+        if(serverStream != null) {
+            serverStream.close();
+        }
+        mStartingServerStreamSet.remove(cancelWirePacket.getMessageIdentifier());
+
+        RpcServerCallStream callStream = mCallStreamMap.get(cancelWirePacket.getMessageIdentifier());
+        if(callStream != null) {
+            callStream.cancel(new RpcCallException("Call cancelled by client."));
+        }
+
+        RpcCallContext callContext = mActiveCallMap.remove(cancelWirePacket.getMessageIdentifier());
+        if(callContext != null) {
+            callContext.cancel();
+            mProtobufRpcServer.requestCancelled();
+        }
+
+        Pair<RpcInFlightCall, RpcInFlightCall.Waiter> waitingCall = mWaitingCallMap.remove(cancelWirePacket.getMessageIdentifier());
+        if((waitingCall != null) && waitingCall.getFirst().removeWaiter(waitingCall.getSecond())) {
+            waitingCall.getSecond().getPermit().release();
+        }
+    }
+
+    /**
+     * Sends as many stream elements as the client has granted credits for, followed by the end of stream marker
+     * once the iterator is exhausted. Elements are written in one batch and flushed at the end.
+     * With a request executor the elements are taken from the iterator on its worker threads, and only written on the
+     * event loop, so a slow iterator does not stall the other connections of the event loop.
+     */
+    private void sendStreamElements(ChannelHandlerContext ctx, RpcServerStream serverStream, int credits) {
+        final WirePacketFormat.WirePacket requestWirePacket = serverStream.getRequestWirePacket();
+        final Iterator<?> iterator = serverStream.getIterator();
+        serverStream.addCredits(credits);
+
+        if(mProtobufRpcServer.getRequestScheduler() != null) {
+            pullStreamElements(ctx, serverStream);
+            return;
+        }
+
+        try {
+            while((serverStream.getCredits() > 0) && !mRpcServerChannel.getWriteBackpressure().isHeldBack() && iterator.hasNext()) {
+                AbstractMessage responseMessage = (AbstractMessage) iterator.next();
+                if(responseMessage == null) {
+                    throw new IllegalStateException(String.format("Stream element cannot be null in message %d", requestWirePacket.getMessageIdentifier()));
+                }
+
+                ctx.write(createResponsePacket(requestWirePacket, responseMessage.toByteString()));
+                serverStream.consumeCredit();
+            }
+
+            if(!iterator.hasNext()) {
+                mServerStreamMap.remove(requestWirePacket.getMessageIdentifier());
+                serverStream.close();
+                ctx.write(createStreamPacket(requestWirePacket, WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_END));
+            }
+        } catch (RuntimeException ex) {
+            mServerStreamMap.remove(requestWirePacket.getMessageIdentifier());
+            serverStream.close();
+            sendError(ctx, requestWirePacket, "Unable to process call.");
+            throw ex;
+        } finally {
+            ctx.flush();
+        }
+    }
+
+    /**
+     * Takes as many stream elements as the client has granted credits for from the iterator on a worker thread of the
+     * request executor, unless a pull is already running. A stream which cannot be queued is failed with an overload
+     * error.
+     */
+    private void pullStreamElements(final ChannelHandlerContext ctx, final RpcServerStream serverStream) {
+        final WirePacketFormat.WirePacket requestWirePacket = serverStream.getRequestWirePacket();
+        final Iterator<?> iterator = serverStream.getIterator();
+        final int count = serverStream.getCredits();
+        if(serverStream.isPulling() || (count <= 0) || mRpcServerChannel.getWriteBackpressure().isHeldBack()) {
+            return;
+        }
+
+        serverStream.startPull();
+        boolean queued = mProtobufRpcServer.getRequestScheduler().execute(requestWirePacket.getPriority(), new Runnable() {
+            @Override
+            public void run() {
+                final List<AbstractMessage> responseMessages = new ArrayList<>(count);
+                boolean exhausted = false;
+                RuntimeException failure = null;
+                try {
+                    while((responseMessages.size() < count) && iterator.hasNext()) {
+                        AbstractMessage responseMessage = (AbstractMessage) iterator.next();
+                        if(responseMessage == null) {
+                            throw new IllegalStateException(String.format("Stream element cannot be null in message %d", requestWirePacket.getMessageIdentifier()));
+                        }
+                        responseMessages.add(responseMessage);
+                    }
+                    exhausted = !iterator.hasNext();
+                } catch (RuntimeException ex) {
+                    failure = ex;
+                }
+
+                final boolean pulledExhausted = exhausted;
+                final RuntimeException pullFailure = failure;
+                try {
+                    ctx.executor().execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            writeStreamElements(ctx, serverStream, responseMessages, pulledExhausted, pullFailure);
+                        }
+                    });
+                } catch (RejectedExecutionException ex) {
+                    // The event loop has shut down along with the connection
+                    serverStream.closeIterator();
+                }
+            }
+        });
+
+        if(!queued) {
+            serverStream.completePull();
+            mServerStreamMap.remove(requestWirePacket.getMessageIdentifier());
+            serverStream.close();
+            sendError(ctx, requestWirePacket, "Server overloaded.", WirePacketFormat.ErrorCode.ERROR_CODE_OVERLOADED);
+        }
+    }
+
+    /**
+     * Writes the stream elements pulled on a worker thread, and pulls more if the client has granted further credits.
+     */
+    private void writeStreamElements(ChannelHandlerContext ctx, RpcServerStream serverStream, List<AbstractMessage> responseMessages, boolean exhausted, RuntimeException failure) {
+        final WirePacketFormat.WirePacket requestWirePacket = serverStream.getRequestWirePacket();
+        serverStream.completePull();
+        if(serverStream.isClosed()) {
+            return;
+        }
+
+        for(AbstractMessage responseMessage : responseMessages) {
+            ctx.write(createResponsePacket(requestWirePacket, responseMessage.toByteString()));
+            serverStream.consumeCredit();
+        }
+
+        if(failure != null) {
+            mServerStreamMap.remove(requestWirePacket.getMessageIdentifier());
+            serverStream.close();
+            sendError(ctx, requestWirePacket, "Unable to process call.");
+            ctx.flush();
+            ctx.pipeline().fireExceptionCaught(failure);
+            return;
+        }
+
+        if(exhausted) {
+            mServerStreamMap.remove(requestWirePacket.getMessageIdentifier());
+            serverStream.close();
+            ctx.write(createStreamPacket(requestWirePacket, WirePacketFormat.MessageType.MESSAGE_TYPE_STREAM_END));
+        }
+        ctx.flush();
+
+        if(!exhausted) {
+            pullStreamElements(ctx, serverStream);
+        }
+    }
+
+    private void sendResponse(ChannelHandlerContext ctx, WirePacketFormat.WirePacket requestWirePacket, ByteString responsePayload) {
+        if(requestWirePacket.getMessageType() == WirePacketFormat.MessageType.MESSAGE_TYPE_NOTIFY) {
+            return;
+        }
+
+        if(acquireResponseWrite(ctx)) {
+            ctx.writeAndFlush(createResponsePacket(requestWirePacket, responsePayload));
+        }
+    }
+
+    static WirePacketFormat.WirePacket createResponsePacket(WirePacketFormat.WirePacket requestWirePacket, ByteString responsePayload) {
+        WirePacketFormat.WirePacket.Builder responseWirePacketBuilder = WirePacketFormat.WirePacket.newBuilder();
+        responseWirePacketBuilder.setMessageIdentifier(requestWirePacket.getMessageIdentifier());
+        responseWirePacketBuilder.setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE);
+        responseWirePacketBuilder.setServiceIdentifier(requestWirePacket.getServiceIdentifier());
+        if(responsePayload != null) {
+            responseWirePacketBuilder.setPayload(responsePayload);
+        }
+        return responseWirePacketBuilder.build();
+    }
+
+    /**
+     * Creates a stream control packet without payload, such as the end of stream marker.
+     */
+    static WirePacketFormat.WirePacket createStreamPacket(WirePacketFormat.WirePacket requestWirePacket, WirePacketFormat.MessageType messageType) {
+        WirePacketFormat.WirePacket.Builder builder = WirePacketFormat.WirePacket.newBuilder();
+        builder.setMessageIdentifier(requestWirePacket.getMessageIdentifier());
+        builder.setMessageType(messageType);
+        builder.setServiceIdentifier(requestWirePacket.getServiceIdentifier());
+        return builder.build();
     }
 
     private void handleIncomingKeepAlive(ChannelHandlerContext ctx) {
@@ -5,6 +5,7 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.ssl.SslContext;
 import me.trinopoty.protobufRpc.codec.RpcMessageCodec;
+import me.trinopoty.protobufRpc.util.RpcInboundMemoryBudget;
 
 final class RpcServerChannelInitializer extends ChannelInitializer<SocketChannel> {
 
@@ -12,6 +13,7 @@ final class RpcServerChannelInitializer extends ChannelInitializer<SocketChannel
 
     private final ProtobufRpcServer mProtobufRpcServer;
     private final int mMaxReceivePacketLength;
+    private final RpcInboundMemoryBudget mInboundMemoryBudget;
     private final SslContext mSslContext;
 
     private final String mLoggingName;
@@ -21,12 +23,14 @@ final class RpcServerChannelInitializer extends ChannelInitializer<SocketChannel
     RpcServerChannelInitializer(
             ProtobufRpcServer protobufRpcServer,
             Integer maxReceivePacketLength,
+            RpcInboundMemoryBudget inboundMemoryBudget,
             SslContext sslContext,
             String loggingName,
             boolean enableRpcLogging,
             boolean enableTrafficLogging) {
         mProtobufRpcServer = protobufRpcServer;
         mMaxReceivePacketLength = (maxReceivePacketLength != null)? maxReceivePacketLength : MAX_PACKET_LENGTH;
+        mInboundMemoryBudget = inboundMemoryBudget;
         mSslContext = sslContext;
 
         mLoggingName = loggingName;
@@ -45,6 +49,7 @@ final class RpcServerChannelInitializer extends ChannelInitializer<SocketChannel
         pipeline.addLast("protobuf-codec", new RpcMessageCodec(
                 mMaxReceivePacketLength,
                 true,
+                mInboundMemoryBudget,
                 mLoggingName,
                 mEnableTrafficLogging,
                 mEnableTrafficLogging));
@@ -0,0 +1,93 @@
+package me.trinopoty.protobufRpc.server;
+
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+
+import java.util.Iterator;
+
+/**
+ * State of a server streaming call on a connection.
+ * Elements are only taken from the iterator while the client has granted credits, so a slow client throttles the service
+ * implementation instead of the responses piling up in memory. Without a request executor the iterator runs on the
+ * event loop, so it must not block. Accessed only from the event loop of the connection, except for the iterator,
+ * which a worker thread of the request executor may be pulling elements from. The iterator of a stream closed during
+ * such a pull is closed once the pull has completed.
+ */
+final class RpcServerStream {
+
+    private final WirePacketFormat.WirePacket mRequestWirePacket;
+    private final Iterator<?> mIterator;
+    private final RpcAdmissionController.Permit mPermit;
+    private int mCredits = 0;
+    private boolean mPulling = false;
+    private boolean mClosed = false;
+
+    RpcServerStream(WirePacketFormat.WirePacket requestWirePacket, Iterator<?> iterator, RpcAdmissionController.Permit permit) {
+        mRequestWirePacket = requestWirePacket;
+        mIterator = iterator;
+        mPermit = permit;
+    }
+
+    WirePacketFormat.WirePacket getRequestWirePacket() {
+        return mRequestWirePacket;
+    }
+
+    Iterator<?> getIterator() {
+        return mIterator;
+    }
+
+    int getCredits() {
+        return mCredits;
+    }
+
+    void addCredits(int credits) {
+        if(credits > 0) {
+            mCredits += credits;
+        }
+    }
+
+    void consumeCredit() {
+        mCredits--;
+    }
+
+    boolean isPulling() {
+        return mPulling;
+    }
+
+    void startPull() {
+        mPulling = true;
+    }
+
+    /**
+     * Marks the pull on a worker thread as completed, closing the iterator if the stream was closed meanwhile.
+     */
+    void completePull() {
+        mPulling = false;
+        if(mClosed) {
+            closeIterator();
+        }
+    }
+
+    boolean isClosed() {
+        return mClosed;
+    }
+
+    /**
+     * Releases the resources of the iterator if it holds any, and the admission of the call.
+     */
+    void close() {
+        mClosed = true;
+        mPermit.release();
+        if(!mPulling) {
+            closeIterator();
+        }
+    }
+
+    void closeIterator() {
+        if(mIterator instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) mIterator).close();
+            } catch (Exception ignore) {
+            }
+        }
+    }
+}
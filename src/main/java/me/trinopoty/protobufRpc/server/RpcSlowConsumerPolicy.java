@@ -0,0 +1,23 @@
+package me.trinopoty.protobufRpc.server;
+
+/**
+ * What the server does when the topic message queue of a subscriber is full.
+ */
+public enum RpcSlowConsumerPolicy {
+
+    /**
+     * Drop the oldest queued message.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Replace the newest queued message of the same topic and OOB method. The oldest queued message is dropped if there
+     * is none.
+     */
+    CONFLATE,
+
+    /**
+     * Close the connection of the subscriber.
+     */
+    DISCONNECT
+}
@@ -0,0 +1,29 @@
+package me.trinopoty.protobufRpc.server;
+
+import me.trinopoty.protobufRpc.RpcTopicService;
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+
+/**
+ * Server side implementation of the built-in {@link RpcTopicService}.
+ */
+final class RpcTopicServiceImpl implements RpcTopicService {
+
+    private final ProtobufRpcServerChannel mRpcServerChannel;
+
+    public RpcTopicServiceImpl(ProtobufRpcServerChannel rpcServerChannel) {
+        mRpcServerChannel = rpcServerChannel;
+    }
+
+    @Override
+    public WirePacketFormat.TopicSubscription subscribe(WirePacketFormat.TopicSubscription subscription) {
+        ProtobufRpcServerTopic topic = mRpcServerChannel.getProtobufRpcServer().getTopic(subscription.getTopic());
+        mRpcServerChannel.getTopicSubscriber().subscribe(topic);
+        return subscription;
+    }
+
+    @Override
+    public WirePacketFormat.TopicSubscription unsubscribe(WirePacketFormat.TopicSubscription subscription) {
+        mRpcServerChannel.getTopicSubscriber().unsubscribe(subscription.getTopic());
+        return subscription;
+    }
+}
@@ -0,0 +1,188 @@
+package me.trinopoty.protobufRpc.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import me.trinopoty.protobufRpc.util.RpcServiceCollector;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The topic subscriptions of a channel and the bounded queue of encoded messages published to them.
+ *
+ * Messages are queued by the publishing threads and written on the event loop of the channel while the channel is
+ * writable, so a client which does not read holds at most the queue and the outbound buffer of its channel.
+ */
+final class RpcTopicSubscriber {
+
+    private static final class QueuedMessage {
+
+        private final ProtobufRpcServerTopic mTopic;
+        private final RpcServiceCollector.RpcMethodInfo mMethodInfo;
+        private ByteBuf mEncodedPacket;
+
+        QueuedMessage(ProtobufRpcServerTopic topic, RpcServiceCollector.RpcMethodInfo methodInfo, ByteBuf encodedPacket) {
+            mTopic = topic;
+            mMethodInfo = methodInfo;
+            mEncodedPacket = encodedPacket;
+        }
+    }
+
+    private final Channel mChannel;
+    private final int mMaxQueuedMessages;
+    private final RpcSlowConsumerPolicy mSlowConsumerPolicy;
+    private final Set<ProtobufRpcServerTopic> mTopicSet = Collections.newSetFromMap(new ConcurrentHashMap<ProtobufRpcServerTopic, Boolean>());
+
+    private final Deque<QueuedMessage> mMessageQueue = new ArrayDeque<>();
+    private boolean mDrainScheduled = false;
+    private boolean mClosed = false;
+    private volatile boolean mOverflowed = false;
+
+    private final Runnable mDrainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    RpcTopicSubscriber(Channel channel, int maxQueuedMessages, RpcSlowConsumerPolicy slowConsumerPolicy) {
+        mChannel = channel;
+        mMaxQueuedMessages = maxQueuedMessages;
+        mSlowConsumerPolicy = slowConsumerPolicy;
+    }
+
+    /**
+     * Subscribes to a topic unless the subscriber has been closed. Registration is atomic with respect to
+     * {@link #close()}, so a closed subscriber is never left registered with a topic.
+     */
+    synchronized void subscribe(ProtobufRpcServerTopic topic) {
+        if(mClosed) {
+            return;
+        }
+
+        if(mTopicSet.add(topic)) {
+            topic.addSubscriber(this);
+        }
+    }
+
+    synchronized void unsubscribe(String topicName) {
+        for(ProtobufRpcServerTopic topic : mTopicSet) {
+            if(topic.getName().equals(topicName) && mTopicSet.remove(topic)) {
+                topic.removeSubscriber(this);
+            }
+        }
+    }
+
+    /**
+     * Gets a value indicating whether the channel was closed because the queue overflowed.
+     */
+    boolean isOverflowed() {
+        return mOverflowed;
+    }
+
+    /**
+     * Queues an encoded message. The buffer is released by this subscriber.
+     */
+    void offer(ProtobufRpcServerTopic topic, RpcServiceCollector.RpcMethodInfo methodInfo, ByteBuf encodedPacket) {
+        ByteBuf droppedPacket = null;
+        boolean scheduleDrain = false;
+        boolean disconnect = false;
+
+        synchronized (this) {
+            if(mClosed) {
+                droppedPacket = encodedPacket;
+            } else if(mMessageQueue.size() < mMaxQueuedMessages) {
+                mMessageQueue.offer(new QueuedMessage(topic, methodInfo, encodedPacket));
+            } else if(mSlowConsumerPolicy == RpcSlowConsumerPolicy.DISCONNECT) {
+                droppedPacket = encodedPacket;
+                disconnect = !mOverflowed;
+                mOverflowed = true;
+            } else {
+                QueuedMessage conflatedMessage = (mSlowConsumerPolicy == RpcSlowConsumerPolicy.CONFLATE)? findLastQueuedMessage(topic, methodInfo) : null;
+                if(conflatedMessage != null) {
+                    droppedPacket = conflatedMessage.mEncodedPacket;
+                    conflatedMessage.mEncodedPacket = encodedPacket;
+                } else {
+                    droppedPacket = mMessageQueue.poll().mEncodedPacket;
+                    mMessageQueue.offer(new QueuedMessage(topic, methodInfo, encodedPacket));
+                }
+            }
+
+            if(!mClosed && !mMessageQueue.isEmpty() && !mDrainScheduled) {
+                mDrainScheduled = true;
+                scheduleDrain = true;
+            }
+        }
+
+        if(droppedPacket != null) {
+            droppedPacket.release();
+        }
+        if(disconnect) {
+            mChannel.close();
+        } else if(scheduleDrain) {
+            mChannel.eventLoop().execute(mDrainTask);
+        }
+    }
+
+    /**
+     * Writes queued messages while the channel is writable. Called on the event loop of the channel.
+     */
+    void drain() {
+        boolean written = false;
+        while(true) {
+            ByteBuf encodedPacket;
+            synchronized (this) {
+                if(mClosed || mMessageQueue.isEmpty() || !mChannel.isWritable()) {
+                    mDrainScheduled = false;
+                    break;
+                }
+                encodedPacket = mMessageQueue.poll().mEncodedPacket;
+            }
+
+            mChannel.write(encodedPacket);
+            written = true;
+        }
+
+        if(written) {
+            mChannel.flush();
+        }
+    }
+
+    /**
+     * Ends all subscriptions and releases the queued messages. Called when the channel is closed.
+     */
+    void close() {
+        List<QueuedMessage> queuedMessages;
+        synchronized (this) {
+            mClosed = true;
+            queuedMessages = new ArrayList<>(mMessageQueue);
+            mMessageQueue.clear();
+
+            for(ProtobufRpcServerTopic topic : mTopicSet) {
+                topic.removeSubscriber(this);
+            }
+            mTopicSet.clear();
+        }
+
+        for(QueuedMessage queuedMessage : queuedMessages) {
+            queuedMessage.mEncodedPacket.release();
+        }
+    }
+
+    private QueuedMessage findLastQueuedMessage(ProtobufRpcServerTopic topic, RpcServiceCollector.RpcMethodInfo methodInfo) {
+        Iterator<QueuedMessage> iterator = mMessageQueue.descendingIterator();
+        while(iterator.hasNext()) {
+            QueuedMessage queuedMessage = iterator.next();
+            if((queuedMessage.mTopic == topic) && (queuedMessage.mMethodInfo == methodInfo)) {
+                return queuedMessage;
+            }
+        }
+        return null;
+    }
+}
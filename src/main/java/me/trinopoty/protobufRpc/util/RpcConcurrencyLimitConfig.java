@@ -0,0 +1,125 @@
+package me.trinopoty.protobufRpc.util;
+
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RpcConcurrencyLimitConfig {
+
+    private int mInitialLimit = 20;
+    private int mMinLimit = 1;
+    private int mMaxLimit = 1000;
+    private double mSmoothing = 0.2;
+    private int mLongWindowSize = 600;
+    private double mRttTolerance = 1.5;
+    private double mBackoffRatio = 0.9;
+
+    public int getInitialLimit() {
+        return mInitialLimit;
+    }
+
+    /**
+     * Sets the number of calls allowed in flight before any latency has been measured.
+     *
+     * @param initialLimit The initial limit.
+     */
+    public void setInitialLimit(int initialLimit) {
+        if(initialLimit < 1) {
+            throw new IllegalArgumentException("Initial limit must be at least 1.");
+        }
+        mInitialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return mMinLimit;
+    }
+
+    /**
+     * Sets the lowest limit the limiter may settle on.
+     *
+     * @param minLimit The minimum limit.
+     */
+    public void setMinLimit(int minLimit) {
+        if(minLimit < 1) {
+            throw new IllegalArgumentException("Minimum limit must be at least 1.");
+        }
+        mMinLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return mMaxLimit;
+    }
+
+    /**
+     * Sets the highest limit the limiter may settle on.
+     *
+     * @param maxLimit The maximum limit.
+     */
+    public void setMaxLimit(int maxLimit) {
+        if(maxLimit < 1) {
+            throw new IllegalArgumentException("Maximum limit must be at least 1.");
+        }
+        mMaxLimit = maxLimit;
+    }
+
+    public double getSmoothing() {
+        return mSmoothing;
+    }
+
+    /**
+     * Sets how far the limit moves towards the newly estimated limit after every call.
+     *
+     * @param smoothing The fraction in the range (0, 1].
+     */
+    public void setSmoothing(double smoothing) {
+        if((smoothing <= 0) || (smoothing > 1)) {
+            throw new IllegalArgumentException("Smoothing must be in the range (0, 1].");
+        }
+        mSmoothing = smoothing;
+    }
+
+    public int getLongWindowSize() {
+        return mLongWindowSize;
+    }
+
+    /**
+     * Sets the number of calls over which the baseline latency without queueing is averaged.
+     *
+     * @param longWindowSize The number of calls.
+     */
+    public void setLongWindowSize(int longWindowSize) {
+        if(longWindowSize < 1) {
+            throw new IllegalArgumentException("Long window size must be at least 1.");
+        }
+        mLongWindowSize = longWindowSize;
+    }
+
+    public double getRttTolerance() {
+        return mRttTolerance;
+    }
+
+    /**
+     * Sets the ratio of a call's latency to the baseline latency which is tolerated before the limit is reduced.
+     *
+     * @param rttTolerance The ratio, at least 1.
+     */
+    public void setRttTolerance(double rttTolerance) {
+        if(rttTolerance < 1) {
+            throw new IllegalArgumentException("Latency tolerance must be at least 1.");
+        }
+        mRttTolerance = rttTolerance;
+    }
+
+    public double getBackoffRatio() {
+        return mBackoffRatio;
+    }
+
+    /**
+     * Sets the factor the limit is multiplied with when a call times out or is rejected as overloaded.
+     *
+     * @param backoffRatio The factor in the range [0.5, 1].
+     */
+    public void setBackoffRatio(double backoffRatio) {
+        if((backoffRatio < 0.5) || (backoffRatio > 1)) {
+            throw new IllegalArgumentException("Backoff ratio must be in the range [0.5, 1].");
+        }
+        mBackoffRatio = backoffRatio;
+    }
+}
@@ -0,0 +1,144 @@
+package me.trinopoty.protobufRpc.util;
+
+/**
+ * Limits the number of calls in flight to a limit which adapts to the measured latency of the calls.
+ *
+ * The limiter keeps a long-term average of the call latency as the baseline without queueing. When calls take longer
+ * than the baseline allows for, requests are queueing somewhere and the limit is reduced in proportion; otherwise it
+ * grows by roughly its square root, which leaves room for a small queue. Calls which time out or are rejected as
+ * overloaded reduce the limit by the backoff ratio. The limit only grows while it is actually being used, so an idle
+ * limiter does not drift upwards.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RpcConcurrencyLimiter {
+
+    private final int mMinLimit;
+    private final int mMaxLimit;
+    private final double mSmoothing;
+    private final double mLongWindowFactor;
+    private final int mLongWindowSize;
+    private final double mRttTolerance;
+    private final double mBackoffRatio;
+
+    private double mLimit;
+    private int mInFlightCount = 0;
+    private double mLongRttNanos = 0;
+    private long mSampleCount = 0;
+    private long mRejectedCount = 0;
+
+    public RpcConcurrencyLimiter(RpcConcurrencyLimitConfig config) {
+        if(config.getMinLimit() > config.getMaxLimit()) {
+            throw new IllegalArgumentException("Minimum limit cannot be above the maximum limit.");
+        }
+
+        mMinLimit = config.getMinLimit();
+        mMaxLimit = config.getMaxLimit();
+        mSmoothing = config.getSmoothing();
+        mLongWindowSize = config.getLongWindowSize();
+        mLongWindowFactor = 2.0 / (config.getLongWindowSize() + 1);
+        mRttTolerance = config.getRttTolerance();
+        mBackoffRatio = config.getBackoffRatio();
+        mLimit = Math.max(mMinLimit, Math.min(mMaxLimit, config.getInitialLimit()));
+    }
+
+    /**
+     * Admits a call if fewer calls than the limit are in flight. Every admitted call must be completed with
+     * {@link #onSuccess(long)}, {@link #onDropped()} or {@link #onIgnored()}.
+     *
+     * @return true if the call was admitted.
+     */
+    public synchronized boolean tryAcquire() {
+        if(mInFlightCount >= (int) mLimit) {
+            mRejectedCount++;
+            return false;
+        }
+        mInFlightCount++;
+        return true;
+    }
+
+    /**
+     * Completes a call which succeeded, and adapts the limit to its latency.
+     *
+     * @param rttNanos The latency of the call in nanoseconds.
+     */
+    public synchronized void onSuccess(long rttNanos) {
+        final int inFlightCount = mInFlightCount;
+        mInFlightCount--;
+
+        final double rtt = Math.max(1, rttNanos);
+        mSampleCount++;
+        if(mSampleCount <= mLongWindowSize) {
+            mLongRttNanos += (rtt - mLongRttNanos) / mSampleCount;
+        } else {
+            mLongRttNanos += (rtt - mLongRttNanos) * mLongWindowFactor;
+        }
+
+        // Recover quickly when the baseline was inflated by a period of queueing
+        if((mLongRttNanos / rtt) > 2) {
+            mLongRttNanos *= 0.95;
+        }
+
+        if(inFlightCount < (mLimit / 2)) {
+            return;
+        }
+
+        final double gradient = Math.max(0.5, Math.min(1.0, (mRttTolerance * mLongRttNanos) / rtt));
+        final double newLimit = (mLimit * gradient) + Math.sqrt(mLimit);
+        setLimit((mLimit * (1 - mSmoothing)) + (newLimit * mSmoothing));
+    }
+
+    /**
+     * Completes a call which timed out or was rejected as overloaded, and reduces the limit.
+     */
+    public synchronized void onDropped() {
+        mInFlightCount--;
+        setLimit(mLimit * mBackoffRatio);
+    }
+
+    /**
+     * Completes a call whose outcome says nothing about the load, such as a cancelled call.
+     */
+    public synchronized void onIgnored() {
+        mInFlightCount--;
+    }
+
+    /**
+     * Gets the current limit.
+     *
+     * @return The number of calls allowed in flight.
+     */
+    public synchronized int getLimit() {
+        return (int) mLimit;
+    }
+
+    /**
+     * Gets the number of admitted calls which have not completed.
+     *
+     * @return The number of calls in flight.
+     */
+    public synchronized int getInFlightCount() {
+        return mInFlightCount;
+    }
+
+    /**
+     * Gets the number of calls rejected because the limit was reached.
+     *
+     * @return The number of rejected calls.
+     */
+    public synchronized long getRejectedCount() {
+        return mRejectedCount;
+    }
+
+    /**
+     * Gets the baseline latency of calls without queueing.
+     *
+     * @return The baseline latency in nanoseconds, or 0 if no call has completed yet.
+     */
+    public synchronized long getBaselineRttNanos() {
+        return (long) mLongRttNanos;
+    }
+
+    private void setLimit(double limit) {
+        mLimit = Math.max(mMinLimit, Math.min(mMaxLimit, limit));
+    }
+}
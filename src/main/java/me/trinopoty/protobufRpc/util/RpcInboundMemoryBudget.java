@@ -0,0 +1,230 @@
+package me.trinopoty.protobufRpc.util;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A byte budget shared by the inbound frames of all connections of a server or client.
+ *
+ * A frame is charged from the moment its header has been read until it has been processed. When the budget is
+ * exhausted, connections which have read more than their share since the budget last recovered stop reading at their
+ * next frame boundary. Frames being read are always completed, so a suspended connection never holds back the memory
+ * needed for others to progress. Reading resumes once usage drops to half of the budget.
+ *
+ * A frame whose message is queued rather than processed while it is read, such as a request waiting for a worker
+ * thread, can be held by the handler queuing it and stays charged until the handler releases it.
+ */
+public final class RpcInboundMemoryBudget {
+
+    /**
+     * The inbound memory account of a connection. Only used from the event loop of the connection, except for releasing
+     * held frames.
+     */
+    public final class Account {
+
+        private final Channel mChannel;
+        private final AtomicLong mChargedBytes = new AtomicLong();
+        private final AtomicLong mReadBytes = new AtomicLong();
+        private long mProcessedBytes = 0;
+        private long mLastFrameBytes = 0;
+
+        private Account(Channel channel) {
+            mChannel = channel;
+        }
+
+        /**
+         * Charges a frame which is being read.
+         */
+        public void acquire(long bytes) {
+            mChargedBytes.addAndGet(bytes);
+            mReadBytes.addAndGet(bytes);
+            mTotalReadBytes.addAndGet(bytes);
+            mUsedBytes.addAndGet(bytes);
+        }
+
+        /**
+         * Marks a frame as read completely. Its message is processed next, and the frame is released by
+         * {@link #releaseProcessed()} unless the message is held with {@link #holdFrame()}.
+         */
+        public void frameRead(long bytes) {
+            mProcessedBytes += bytes;
+            mLastFrameBytes = bytes;
+        }
+
+        /**
+         * Keeps the frame whose message is being processed charged after processing returns, because the message is
+         * queued. Must be called while the message is processed.
+         *
+         * @return The bytes held, to be passed to {@link #release(long)} once the message leaves the queue.
+         */
+        public long holdFrame() {
+            long bytes = mLastFrameBytes;
+            mLastFrameBytes = 0;
+            mProcessedBytes -= bytes;
+            return bytes;
+        }
+
+        /**
+         * Releases the frames which have been read and processed.
+         */
+        public void releaseProcessed() {
+            long bytes = mProcessedBytes;
+            mProcessedBytes = 0;
+            mLastFrameBytes = 0;
+            if(bytes > 0) {
+                release(bytes);
+            }
+        }
+
+        /**
+         * Releases frames. May be called from any thread. Releasing after the account has been closed has no effect, as
+         * closing released everything.
+         */
+        public void release(long bytes) {
+            long chargedBytes;
+            do {
+                chargedBytes = mChargedBytes.get();
+                if(chargedBytes < bytes) {
+                    return;
+                }
+            } while(!mChargedBytes.compareAndSet(chargedBytes, chargedBytes - bytes));
+
+            releaseUsed(bytes);
+        }
+
+        /**
+         * Stops reading if the budget is exhausted and this connection is one of the noisiest. Called at frame boundaries.
+         */
+        public void checkBudget() {
+            if(mUsedBytes.get() > mMaxBytes) {
+                suspendIfNoisy(this);
+            }
+        }
+
+        /**
+         * Releases everything charged to this account. Called when the connection is closed.
+         */
+        public void close() {
+            mChannel.attr(ACCOUNT).compareAndSet(this, null);
+            releaseUsed(mChargedBytes.getAndSet(0));
+            synchronized (RpcInboundMemoryBudget.this) {
+                mAccounts.remove(this);
+                mSuspendedAccounts.remove(this);
+            }
+        }
+    }
+
+    private static final AttributeKey<Account> ACCOUNT = AttributeKey.valueOf("protobufRpc.inboundMemoryAccount");
+
+    private final long mMaxBytes;
+    private final AtomicLong mUsedBytes = new AtomicLong();
+    private final AtomicLong mTotalReadBytes = new AtomicLong();
+    private final Set<Account> mAccounts = new HashSet<>();
+    private final Set<Account> mSuspendedAccounts = new HashSet<>();
+    private volatile boolean mHasSuspendedAccounts = false;
+
+    public RpcInboundMemoryBudget(long maxBytes) {
+        if(maxBytes <= 0) {
+            throw new IllegalArgumentException("Invalid inbound memory budget.");
+        }
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Creates the account of a new connection.
+     */
+    public synchronized Account newAccount(Channel channel) {
+        Account account = new Account(channel);
+        mAccounts.add(account);
+        channel.attr(ACCOUNT).set(account);
+        return account;
+    }
+
+    /**
+     * Gets the open account of a connection.
+     *
+     * @return The account, or null if the connection has no inbound memory budget or has been closed.
+     */
+    public static Account getAccount(Channel channel) {
+        return channel.attr(ACCOUNT).get();
+    }
+
+    /**
+     * Gets the size of the budget.
+     *
+     * @return The budget in bytes.
+     */
+    public long getMaxBytes() {
+        return mMaxBytes;
+    }
+
+    /**
+     * Gets the number of bytes charged by frames being read or processed.
+     *
+     * @return The used bytes.
+     */
+    public long getUsedBytes() {
+        return mUsedBytes.get();
+    }
+
+    /**
+     * Gets the number of connections which are not read because the budget is exhausted.
+     *
+     * @return The number of suspended connections.
+     */
+    public synchronized int getSuspendedConnectionCount() {
+        return mSuspendedAccounts.size();
+    }
+
+    private void releaseUsed(long bytes) {
+        long usedBytes = mUsedBytes.addAndGet(-bytes);
+        if(usedBytes <= (mMaxBytes / 2)) {
+            resumeAll();
+        }
+    }
+
+    private synchronized void suspendIfNoisy(Account account) {
+        if(mSuspendedAccounts.contains(account)) {
+            return;
+        }
+
+        long fairShare = mTotalReadBytes.get() / Math.max(1, mAccounts.size());
+        if(account.mReadBytes.get() >= fairShare) {
+            mSuspendedAccounts.add(account);
+            mHasSuspendedAccounts = true;
+            RpcReadSuspension.suspend(account.mChannel, RpcReadSuspension.REASON_MEMORY_BUDGET);
+        }
+    }
+
+    private void resumeAll() {
+        if(!mHasSuspendedAccounts) {
+            return;
+        }
+
+        Set<Account> resumedAccounts;
+        synchronized (this) {
+            if(mUsedBytes.get() > (mMaxBytes / 2)) {
+                return;
+            }
+
+            resumedAccounts = new HashSet<>(mSuspendedAccounts);
+            mSuspendedAccounts.clear();
+            mHasSuspendedAccounts = false;
+
+            // Start measuring who is noisy afresh
+            for(Account account : mAccounts) {
+                account.mReadBytes.set(0);
+            }
+            mTotalReadBytes.set(0);
+        }
+
+        for(Account account : resumedAccounts) {
+            RpcReadSuspension.resume(account.mChannel, RpcReadSuspension.REASON_MEMORY_BUDGET);
+        }
+    }
+}
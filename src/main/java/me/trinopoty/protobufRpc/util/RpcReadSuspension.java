@@ -0,0 +1,65 @@
+package me.trinopoty.protobufRpc.util;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Suspends reading from a connection for independent reasons. Reading resumes once no reason is left.
+ */
+public final class RpcReadSuspension {
+
+    /**
+     * The outbound buffer of the connection is above the high water mark.
+     */
+    public static final int REASON_WRITE_BACKPRESSURE = 1;
+
+    /**
+     * The inbound memory budget is exhausted.
+     */
+    public static final int REASON_MEMORY_BUDGET = 2;
+
+    private static final AttributeKey<AtomicInteger> SUSPEND_REASONS = AttributeKey.valueOf("protobufRpc.readSuspendReasons");
+
+    private RpcReadSuspension() {
+    }
+
+    public static void suspend(Channel channel, int reason) {
+        AtomicInteger reasons = getReasons(channel);
+        synchronized (reasons) {
+            int oldReasons = reasons.get();
+            reasons.set(oldReasons | reason);
+            if(oldReasons == 0) {
+                channel.config().setAutoRead(false);
+            }
+        }
+    }
+
+    public static void resume(Channel channel, int reason) {
+        AtomicInteger reasons = getReasons(channel);
+        synchronized (reasons) {
+            int oldReasons = reasons.get();
+            reasons.set(oldReasons & ~reason);
+            if((oldReasons != 0) && (reasons.get() == 0)) {
+                channel.config().setAutoRead(true);
+            }
+        }
+    }
+
+    public static boolean isSuspended(Channel channel) {
+        return getReasons(channel).get() != 0;
+    }
+
+    private static AtomicInteger getReasons(Channel channel) {
+        AtomicInteger reasons = channel.attr(SUSPEND_REASONS).get();
+        if(reasons == null) {
+            AtomicInteger newReasons = new AtomicInteger();
+            reasons = channel.attr(SUSPEND_REASONS).setIfAbsent(newReasons);
+            if(reasons == null) {
+                reasons = newReasons;
+            }
+        }
+        return reasons;
+    }
+}
@@ -0,0 +1,224 @@
+package me.trinopoty.protobufRpc.util;
+
+import com.google.protobuf.ByteString;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of responses of methods annotated with {@link me.trinopoty.protobufRpc.annotation.RpcCacheable},
+ * used by both the client and the server.
+ *
+ * The cache is bounded by the serialized size of its entries and evicts with a segmented LRU policy. New entries start
+ * in a probation segment and are promoted to a protected segment when they are read again, so a burst of one-off
+ * requests only evicts other one-off requests and not the entries which are actually reused.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RpcResponseCache<V> {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    public static final class Key {
+
+        private final int mServiceIdentifier;
+        private final int mMethodIdentifier;
+        private final ByteString mRequestBytes;
+        private final int mHashCode;
+
+        public Key(int serviceIdentifier, int methodIdentifier, ByteString requestBytes) {
+            mServiceIdentifier = serviceIdentifier;
+            mMethodIdentifier = methodIdentifier;
+            mRequestBytes = requestBytes;
+            mHashCode = (((serviceIdentifier * 31) + methodIdentifier) * 31) + requestBytes.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) {
+                return true;
+            }
+            if(!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return (mServiceIdentifier == key.mServiceIdentifier) &&
+                    (mMethodIdentifier == key.mMethodIdentifier) &&
+                    mRequestBytes.equals(key.mRequestBytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+
+    private static final class Entry<V> {
+
+        private final V mResponse;
+        private final long mExpiryTime;
+        private final long mWeight;
+
+        Entry(V response, long expiryTime, long weight) {
+            mResponse = response;
+            mExpiryTime = expiryTime;
+            mWeight = weight;
+        }
+    }
+
+    private final long mMaxWeight;
+    private final long mMaxProtectedWeight;
+
+    private final LinkedHashMap<Key, Entry<V>> mProbationMap = new LinkedHashMap<>();
+    private final LinkedHashMap<Key, Entry<V>> mProtectedMap = new LinkedHashMap<>();
+    private long mProbationWeight = 0;
+    private long mProtectedWeight = 0;
+
+    private long mHitCount = 0;
+    private long mMissCount = 0;
+    private long mEvictionCount = 0;
+
+    public RpcResponseCache(long maxWeight) {
+        mMaxWeight = maxWeight;
+        mMaxProtectedWeight = (long) (maxWeight * PROTECTED_RATIO);
+    }
+
+    /**
+     * Gets the number of calls answered from the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Gets the number of calls to cacheable methods which were not answered from the cache.
+     *
+     * @return The number of cache misses.
+     */
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Gets the number of entries removed to keep the cache within its size limit. Expired entries are not counted.
+     *
+     * @return The number of evicted entries.
+     */
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * Gets the number of responses in the cache, including expired ones not yet removed.
+     *
+     * @return The number of cached responses.
+     */
+    public synchronized int getEntryCount() {
+        return mProbationMap.size() + mProtectedMap.size();
+    }
+
+    /**
+     * Gets the approximate memory used by the cached responses.
+     *
+     * @return The weight of all entries in bytes.
+     */
+    public synchronized long getWeightedSize() {
+        return mProbationWeight + mProtectedWeight;
+    }
+
+    /**
+     * Removes all responses from the cache.
+     */
+    public synchronized void invalidateAll() {
+        mProbationMap.clear();
+        mProtectedMap.clear();
+        mProbationWeight = 0;
+        mProtectedWeight = 0;
+    }
+
+    /**
+     * Gets the unexpired response of a request.
+     *
+     * @param key The request.
+     * @return The cached response, or null if there is none.
+     */
+    public synchronized V get(Key key) {
+        Entry<V> entry = mProtectedMap.remove(key);
+        if(entry != null) {
+            mProtectedWeight -= entry.mWeight;
+        } else if((entry = mProbationMap.remove(key)) != null) {
+            mProbationWeight -= entry.mWeight;
+        }
+
+        if((entry == null) || (entry.mExpiryTime - System.nanoTime() <= 0)) {
+            mMissCount++;
+            return null;
+        }
+
+        // Re-inserting moves the entry to the most recently used end of the protected segment
+        mHitCount++;
+        mProtectedMap.put(key, entry);
+        mProtectedWeight += entry.mWeight;
+        while(mProtectedWeight > mMaxProtectedWeight) {
+            Map.Entry<Key, Entry<V>> demotedEntry = removeEldest(mProtectedMap);
+            mProtectedWeight -= demotedEntry.getValue().mWeight;
+            mProbationMap.put(demotedEntry.getKey(), demotedEntry.getValue());
+            mProbationWeight += demotedEntry.getValue().mWeight;
+        }
+        evict();
+
+        return entry.mResponse;
+    }
+
+    /**
+     * Adds the response of a request. Responses larger than the whole cache are not added.
+     *
+     * @param key The request.
+     * @param response The response.
+     * @param responseSize The serialized size of the response in bytes.
+     * @param ttlMillis The time in milliseconds the response stays valid.
+     */
+    public synchronized void put(Key key, V response, int responseSize, long ttlMillis) {
+        long weight = key.mRequestBytes.size() + responseSize + ENTRY_OVERHEAD_BYTES;
+        if(weight > mMaxWeight) {
+            return;
+        }
+
+        Entry<V> oldEntry = mProtectedMap.remove(key);
+        if(oldEntry != null) {
+            mProtectedWeight -= oldEntry.mWeight;
+        } else if((oldEntry = mProbationMap.remove(key)) != null) {
+            mProbationWeight -= oldEntry.mWeight;
+        }
+
+        mProbationMap.put(key, new Entry<>(response, System.nanoTime() + (ttlMillis * 1000 * 1000), weight));
+        mProbationWeight += weight;
+        evict();
+    }
+
+    private void evict() {
+        while((mProbationWeight + mProtectedWeight) > mMaxWeight) {
+            Map.Entry<Key, Entry<V>> evictedEntry;
+            if(!mProbationMap.isEmpty()) {
+                evictedEntry = removeEldest(mProbationMap);
+                mProbationWeight -= evictedEntry.getValue().mWeight;
+            } else {
+                evictedEntry = removeEldest(mProtectedMap);
+                mProtectedWeight -= evictedEntry.getValue().mWeight;
+            }
+            mEvictionCount++;
+        }
+    }
+
+    private static <V> Map.Entry<Key, Entry<V>> removeEldest(LinkedHashMap<Key, Entry<V>> map) {
+        Iterator<Map.Entry<Key, Entry<V>>> iterator = map.entrySet().iterator();
+        Map.Entry<Key, Entry<V>> eldestEntry = new AbstractMap.SimpleImmutableEntry<>(iterator.next());
+        iterator.remove();
+        return eldestEntry;
+    }
+}
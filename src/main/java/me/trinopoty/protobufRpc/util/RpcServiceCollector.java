@@ -1,7 +1,16 @@
 package me.trinopoty.protobufRpc.util;
 
 import com.google.protobuf.AbstractMessage;
+import com.google.protobuf.Descriptors;
+import me.trinopoty.protobufRpc.RpcKeyExtractor;
+import me.trinopoty.protobufRpc.RpcStreamObserver;
+import me.trinopoty.protobufRpc.annotation.RpcCacheable;
+import me.trinopoty.protobufRpc.annotation.RpcCoalesce;
 import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.annotation.RpcIdempotent;
+import me.trinopoty.protobufRpc.annotation.RpcOneWay;
+import me.trinopoty.protobufRpc.annotation.RpcPriority;
+import me.trinopoty.protobufRpc.annotation.RpcRoutingKey;
 import me.trinopoty.protobufRpc.exception.DuplicateRpcMethodIdentifierException;
 import me.trinopoty.protobufRpc.exception.DuplicateRpcServiceIdentifierException;
 import me.trinopoty.protobufRpc.exception.IllegalMethodSignatureException;
@@ -12,9 +21,12 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 
 public final class RpcServiceCollector {
@@ -25,6 +37,14 @@ public final class RpcServiceCollector {
         private int mMethodIdentifier;
         private Method mRequestMessageParser;
         private Method mResponseMessageParser;
+        private RpcKeyExtractor mRoutingKeyExtractor;
+        private boolean mIdempotent;
+        private long mCacheTtlMillis;
+        private boolean mCoalesced;
+        private boolean mOneWay;
+        private int mPriority;
+        private boolean mServerStreaming;
+        private boolean mClientStreaming;
 
         public Method getMethod() {
             return mMethod;
@@ -41,6 +61,60 @@ public final class RpcServiceCollector {
         public Method getResponseMessageParser() {
             return mResponseMessageParser;
         }
+
+        public RpcKeyExtractor getRoutingKeyExtractor() {
+            return mRoutingKeyExtractor;
+        }
+
+        public boolean isIdempotent() {
+            return mIdempotent;
+        }
+
+        public long getCacheTtlMillis() {
+            return mCacheTtlMillis;
+        }
+
+        public boolean isCoalesced() {
+            return mCoalesced;
+        }
+
+        public boolean isOneWay() {
+            return mOneWay;
+        }
+
+        public int getPriority() {
+            return mPriority;
+        }
+
+        /**
+         * Retrieves whether the method returns an {@link Iterator} of response messages.
+         * The response message parser of such a method parses a single element of the stream.
+         */
+        public boolean isServerStreaming() {
+            return mServerStreaming;
+        }
+
+        /**
+         * Retrieves whether the method takes an {@link RpcStreamObserver} of response messages and returns an
+         * {@link RpcStreamObserver} of request messages. The message parsers of such a method parse single elements of the streams.
+         */
+        public boolean isClientStreaming() {
+            return mClientStreaming;
+        }
+    }
+
+    private static final class MessageFieldKeyExtractor implements RpcKeyExtractor {
+
+        private final Descriptors.FieldDescriptor mFieldDescriptor;
+
+        MessageFieldKeyExtractor(Descriptors.FieldDescriptor fieldDescriptor) {
+            mFieldDescriptor = fieldDescriptor;
+        }
+
+        @Override
+        public Object extractKey(AbstractMessage message) {
+            return message.getField(mFieldDescriptor);
+        }
     }
 
     public static final class RpcServiceInfo {
@@ -179,7 +253,21 @@ public final class RpcServiceCollector {
                 methodIdentifierList.add(rpcMethodInfo.mMethodIdentifier);
             }
 
-            if(method.getParameterTypes().length == 1) {
+            if((method.getParameterTypes().length == 1) && method.getParameterTypes()[0].equals(RpcStreamObserver.class)) {
+                Class requestType = getTypeArgument(method.getGenericReturnType());
+                Class responseType = getTypeArgument(method.getGenericParameterTypes()[0]);
+                if(isOob || !method.getReturnType().equals(RpcStreamObserver.class) ||
+                        (requestType == null) || !AbstractMessage.class.isAssignableFrom(requestType) ||
+                        (responseType == null) || !AbstractMessage.class.isAssignableFrom(responseType)) {
+                    throw new IllegalMethodSignatureException(String.format("Class<%s>.%s has invalid streaming method signature.", classOfService.getName(), method.getName()));
+                }
+
+                //noinspection unchecked
+                rpcMethodInfo.mRequestMessageParser = getProtobufParserMethod(requestType);
+                //noinspection unchecked
+                rpcMethodInfo.mResponseMessageParser = getProtobufParserMethod(responseType);
+                rpcMethodInfo.mClientStreaming = true;
+            } else if(method.getParameterTypes().length == 1) {
                 Class requestType = method.getParameterTypes()[0];
                 if(!AbstractMessage.class.isAssignableFrom(requestType)) {
                     throw new IllegalMethodSignatureException(String.format("Class<%s>.%s does not accept a protobuf message.", classOfService.getName(), method.getName()));
@@ -192,9 +280,40 @@ public final class RpcServiceCollector {
                 throw new IllegalMethodSignatureException(String.format("Class<%s>.%s has invalid method signature.", classOfService.getName(), method.getName()));
             }
 
+            RpcRoutingKey routingKeyAnnotation = method.getAnnotation(RpcRoutingKey.class);
+            if(routingKeyAnnotation != null) {
+                if(isOob || (rpcMethodInfo.mRequestMessageParser == null) || rpcMethodInfo.mClientStreaming) {
+                    throw new IllegalMethodSignatureException(String.format("Class<%s>.%s cannot have a routing key.", classOfService.getName(), method.getName()));
+                }
+
+                Descriptors.FieldDescriptor fieldDescriptor = getProtobufDescriptor(method.getParameterTypes()[0]).findFieldByName(routingKeyAnnotation.value());
+                if((fieldDescriptor == null) || fieldDescriptor.isRepeated()) {
+                    throw new IllegalMethodSignatureException(String.format("Class<%s>.%s routing key field \"%s\" is not a singular field of the request message.", classOfService.getName(), method.getName(), routingKeyAnnotation.value()));
+                }
+                rpcMethodInfo.mRoutingKeyExtractor = new MessageFieldKeyExtractor(fieldDescriptor);
+            }
+
+            if(method.getAnnotation(RpcIdempotent.class) != null) {
+                if(isOob) {
+                    throw new IllegalMethodSignatureException(String.format("Class<%s>.%s cannot be idempotent.", classOfService.getName(), method.getName()));
+                }
+                rpcMethodInfo.mIdempotent = true;
+            }
+
             Class responseType = method.getReturnType();
-            if(!isOob) {
-                if(!responseType.equals(void.class)) {
+            if(rpcMethodInfo.mClientStreaming) {
+                // Return type was checked with the parameter
+            } else if(!isOob) {
+                if(responseType.equals(Iterator.class)) {
+                    Class elementType = getTypeArgument(method.getGenericReturnType());
+                    if((elementType == null) || !AbstractMessage.class.isAssignableFrom(elementType)) {
+                        throw new IllegalMethodSignatureException(String.format("Class<%s>.%s does not return an iterator of protobuf messages.", classOfService.getName(), method.getName()));
+                    }
+
+                    //noinspection unchecked
+                    rpcMethodInfo.mResponseMessageParser = getProtobufParserMethod(elementType);
+                    rpcMethodInfo.mServerStreaming = true;
+                } else if(!responseType.equals(void.class)) {
                     if(!AbstractMessage.class.isAssignableFrom(responseType)) {
                         throw new IllegalMethodSignatureException(String.format("Class<%s>.%s does not return a protobuf message.", classOfService.getName(), method.getName()));
                     }
@@ -209,6 +328,39 @@ public final class RpcServiceCollector {
                 }
             }
 
+            RpcCacheable cacheableAnnotation = method.getAnnotation(RpcCacheable.class);
+            if(cacheableAnnotation != null) {
+                if(isOob || (rpcMethodInfo.mResponseMessageParser == null) || rpcMethodInfo.mServerStreaming || rpcMethodInfo.mClientStreaming) {
+                    throw new IllegalMethodSignatureException(String.format("Class<%s>.%s cannot be cacheable.", classOfService.getName(), method.getName()));
+                }
+                if(cacheableAnnotation.ttlMillis() <= 0) {
+                    throw new IllegalMethodSignatureException(String.format("Class<%s>.%s has invalid cache TTL.", classOfService.getName(), method.getName()));
+                }
+                rpcMethodInfo.mCacheTtlMillis = cacheableAnnotation.ttlMillis();
+            }
+
+            if(method.getAnnotation(RpcCoalesce.class) != null) {
+                if(isOob || (rpcMethodInfo.mResponseMessageParser == null) || rpcMethodInfo.mServerStreaming || rpcMethodInfo.mClientStreaming) {
+                    throw new IllegalMethodSignatureException(String.format("Class<%s>.%s cannot be coalesced.", classOfService.getName(), method.getName()));
+                }
+                rpcMethodInfo.mCoalesced = true;
+            }
+
+            if(method.getAnnotation(RpcOneWay.class) != null) {
+                if(isOob || (rpcMethodInfo.mResponseMessageParser != null)) {
+                    throw new IllegalMethodSignatureException(String.format("Class<%s>.%s cannot be one-way.", classOfService.getName(), method.getName()));
+                }
+                rpcMethodInfo.mOneWay = true;
+            }
+
+            RpcPriority priorityAnnotation = method.getAnnotation(RpcPriority.class);
+            if(priorityAnnotation != null) {
+                if(isOob) {
+                    throw new IllegalMethodSignatureException(String.format("Class<%s>.%s cannot have a priority.", classOfService.getName(), method.getName()));
+                }
+                rpcMethodInfo.mPriority = priorityAnnotation.value();
+            }
+
             rpcMethodInfoMap.put(method, rpcMethodInfo);
             rpcMethodInfoIdentifierMap.put(rpcMethodInfo.mMethodIdentifier, rpcMethodInfo);
         }
@@ -228,4 +380,24 @@ public final class RpcServiceCollector {
         }
         return parserMethod;
     }
-}
\ No newline at end of file
+
+    private static Class getTypeArgument(Type genericType) {
+        if(genericType instanceof ParameterizedType) {
+            Type elementType = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            if(elementType instanceof Class) {
+                return (Class) elementType;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("JavaReflectionMemberAccess")
+    private static Descriptors.Descriptor getProtobufDescriptor(Class messageClass) throws IllegalMethodSignatureException {
+        try {
+            //noinspection unchecked
+            return (Descriptors.Descriptor) messageClass.getMethod("getDescriptor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
+            throw new IllegalMethodSignatureException(String.format("Unable to get descriptor of %s.", messageClass.getName()), ex);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package me.trinopoty.protobufRpc.util;
+
+import io.netty.channel.Channel;
+import io.netty.util.concurrent.EventExecutor;
+import me.trinopoty.protobufRpc.RpcBackpressurePolicy;
+import me.trinopoty.protobufRpc.RpcWritabilityMetrics;
+import me.trinopoty.protobufRpc.exception.RpcCallTimeoutException;
+import me.trinopoty.protobufRpc.exception.RpcChannelUnavailableException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies a {@link RpcBackpressurePolicy} to the writes made by the application on a connection, and keeps the
+ * writability statistics of the connection.
+ */
+public final class RpcWriteBackpressure implements RpcWritabilityMetrics {
+
+    private final Channel mChannel;
+    private final RpcBackpressurePolicy mBackpressurePolicy;
+    private final long mBlockTimeoutMillis;
+    private final boolean mSuspendReadOnBlock;
+
+    private final AtomicLong mUnwritableCount = new AtomicLong();
+    private final AtomicLong mBlockedWriteCount = new AtomicLong();
+    private final AtomicLong mRejectedWriteCount = new AtomicLong();
+    private long mUnwritableTimeNanos = 0;
+    private long mUnwritableSinceNanos = 0;
+    private boolean mUnwritable = false;
+
+    /**
+     * @param channel The connection.
+     * @param backpressurePolicy The policy, or null if writes are never held back.
+     * @param blockTimeoutMillis The maximum time to wait with {@link RpcBackpressurePolicy#BLOCK}, or 0 to wait until
+     *                           the connection is writable or closed.
+     */
+    public RpcWriteBackpressure(Channel channel, RpcBackpressurePolicy backpressurePolicy, long blockTimeoutMillis) {
+        this(channel, backpressurePolicy, blockTimeoutMillis, false);
+    }
+
+    /**
+     * @param channel The connection.
+     * @param backpressurePolicy The policy, or null if writes are never held back.
+     * @param blockTimeoutMillis The maximum time to wait with {@link RpcBackpressurePolicy#BLOCK}, or 0 to wait until
+     *                           the connection is writable or closed.
+     * @param suspendReadOnBlock Whether to stop reading from the connection while it is unwritable with
+     *                           {@link RpcBackpressurePolicy#BLOCK}, as a server does since its responses cannot wait.
+     */
+    public RpcWriteBackpressure(Channel channel, RpcBackpressurePolicy backpressurePolicy, long blockTimeoutMillis, boolean suspendReadOnBlock) {
+        mChannel = channel;
+        mBackpressurePolicy = backpressurePolicy;
+        mBlockTimeoutMillis = blockTimeoutMillis;
+        mSuspendReadOnBlock = suspendReadOnBlock;
+    }
+
+    /**
+     * Called before the application writes a message. With {@link RpcBackpressurePolicy#BLOCK}, a writer running on an
+     * event loop fails instead of waiting, as the event loop may be the one which has to make the connection writable.
+     *
+     * @return true if the message should be written, false if it has to be discarded.
+     * @throws RpcChannelUnavailableException If the policy fails writes while the connection is unwritable.
+     * @throws RpcCallTimeoutException If the connection did not become writable in time.
+     */
+    public boolean acquireWrite() {
+        if((mBackpressurePolicy == null) || mChannel.isWritable()) {
+            return true;
+        }
+
+        switch (mBackpressurePolicy) {
+            case BLOCK:
+                if(!inAnyEventLoop()) {
+                    awaitWritable();
+                    return true;
+                }
+                // fall through
+            case FAIL:
+                mRejectedWriteCount.incrementAndGet();
+                throw new RpcChannelUnavailableException("Channel is not writable.");
+            case DROP:
+                mRejectedWriteCount.incrementAndGet();
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Called before the server writes the response of a call. Responses never wait for the connection: with
+     * {@link RpcBackpressurePolicy#FAIL} and {@link RpcBackpressurePolicy#DROP} they are discarded and counted as
+     * rejected while the connection is unwritable, and with the other policies the server stops reading requests
+     * instead, which bounds the responses that can pile up.
+     *
+     * @return true if the response should be written, false if it has to be discarded.
+     */
+    public boolean acquireResponseWrite() {
+        if((mBackpressurePolicy == null) || mChannel.isWritable()) {
+            return true;
+        }
+
+        if((mBackpressurePolicy == RpcBackpressurePolicy.FAIL) || (mBackpressurePolicy == RpcBackpressurePolicy.DROP)) {
+            mRejectedWriteCount.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Called before a message broadcast to a group of connections is written to this one. A broadcast can neither wait
+     * for nor fail because of a single member, so with any policy the message is skipped and counted as rejected while
+     * the connection is unwritable.
+     *
+     * @return true if the message should be written, false if it has to be skipped.
+     */
+    public boolean acquireBroadcastWrite() {
+        if((mBackpressurePolicy == null) || mChannel.isWritable()) {
+            return true;
+        }
+
+        mRejectedWriteCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Gets whether writers which can wait for the connection, such as flow controlled streams, should hold back.
+     *
+     * @return true if a policy is set and the connection is unwritable.
+     */
+    public boolean isHeldBack() {
+        return (mBackpressurePolicy != null) && !mChannel.isWritable();
+    }
+
+    /**
+     * Called on the event loop when the writability of the connection changed.
+     */
+    public void writabilityChanged() {
+        boolean writable = mChannel.isWritable();
+        synchronized (this) {
+            if(writable == !mUnwritable) {
+                return;
+            }
+
+            mUnwritable = !writable;
+            if(writable) {
+                mUnwritableTimeNanos += System.nanoTime() - mUnwritableSinceNanos;
+                notifyAll();
+            } else {
+                mUnwritableSinceNanos = System.nanoTime();
+                mUnwritableCount.incrementAndGet();
+            }
+        }
+
+        if((mBackpressurePolicy == RpcBackpressurePolicy.SUSPEND_READ) || (mSuspendReadOnBlock && (mBackpressurePolicy == RpcBackpressurePolicy.BLOCK))) {
+            if(writable) {
+                RpcReadSuspension.resume(mChannel, RpcReadSuspension.REASON_WRITE_BACKPRESSURE);
+            } else {
+                RpcReadSuspension.suspend(mChannel, RpcReadSuspension.REASON_WRITE_BACKPRESSURE);
+            }
+        }
+    }
+
+    /**
+     * Called when the connection was closed. Wakes up blocked writers.
+     */
+    public synchronized void channelClosed() {
+        notifyAll();
+    }
+
+    @Override
+    public boolean isWritable() {
+        return mChannel.isWritable();
+    }
+
+    @Override
+    public long getBytesBeforeUnwritable() {
+        return mChannel.bytesBeforeUnwritable();
+    }
+
+    @Override
+    public long getBytesBeforeWritable() {
+        return mChannel.bytesBeforeWritable();
+    }
+
+    @Override
+    public long getUnwritableCount() {
+        return mUnwritableCount.get();
+    }
+
+    @Override
+    public synchronized long getUnwritableTimeMillis() {
+        long unwritableTimeNanos = mUnwritableTimeNanos;
+        if(mUnwritable) {
+            unwritableTimeNanos += System.nanoTime() - mUnwritableSinceNanos;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(unwritableTimeNanos);
+    }
+
+    @Override
+    public long getBlockedWriteCount() {
+        return mBlockedWriteCount.get();
+    }
+
+    @Override
+    public long getRejectedWriteCount() {
+        return mRejectedWriteCount.get();
+    }
+
+    /**
+     * Checks whether the current thread is an event loop of the event loop group of the connection, which includes the
+     * event loops of other connections.
+     */
+    private boolean inAnyEventLoop() {
+        for(EventExecutor eventExecutor : mChannel.eventLoop().parent()) {
+            if(eventExecutor.inEventLoop()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void awaitWritable() {
+        mBlockedWriteCount.incrementAndGet();
+
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(mBlockTimeoutMillis);
+        long deadline = System.nanoTime() + timeoutNanos;
+        while(!mChannel.isWritable() && mChannel.isActive()) {
+            try {
+                if(mBlockTimeoutMillis <= 0) {
+                    wait();
+                } else {
+                    if(timeoutNanos <= 0) {
+                        throw new RpcCallTimeoutException("Timeout waiting for channel to become writable.");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, timeoutNanos);
+                    timeoutNanos = deadline - System.nanoTime();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RpcChannelUnavailableException("Interrupted while waiting for channel to become writable.", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package me.trinopoty.protobufRpc.test;
+
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClient;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClientChannel;
+import me.trinopoty.protobufRpc.client.RpcResponseStream;
+import me.trinopoty.protobufRpc.exception.RpcServerOverloadedException;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public final class AdmissionControlTest {
+
+    @RpcIdentifier(1)
+    public interface LimitedService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo echo(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(2)
+        Iterator<EchoOuterClass.Echo> count(EchoOuterClass.Echo request);
+    }
+
+    public static final class LimitedServiceImpl implements LimitedService {
+
+        @Override
+        public EchoOuterClass.Echo echo(EchoOuterClass.Echo request) {
+            return request;
+        }
+
+        @Override
+        public Iterator<EchoOuterClass.Echo> count(EchoOuterClass.Echo request) {
+            final int limit = Integer.parseInt(request.getMessage());
+            return new Iterator<EchoOuterClass.Echo>() {
+
+                private int mIndex = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return mIndex < limit;
+                }
+
+                @Override
+                public EchoOuterClass.Echo next() {
+                    if(mIndex >= limit) {
+                        throw new NoSuchElementException();
+                    }
+                    return EchoOuterClass.Echo.newBuilder().setMessage(Integer.toString(mIndex++)).build();
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("remove");
+                }
+            };
+        }
+    }
+
+    private static final EchoOuterClass.Echo LONG_STREAM = EchoOuterClass.Echo.newBuilder().setMessage("1000").build();
+
+    private static ProtobufRpcServer createServer(int maxConcurrentRequests, int maxConcurrentRequestsPerConnection) throws Exception {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(LimitedService.class, LimitedServiceImpl.class);
+        builder.setMaxConcurrentRequests(maxConcurrentRequests);
+        builder.setMaxConcurrentRequestsPerConnection(maxConcurrentRequestsPerConnection);
+        ProtobufRpcServer server = builder.build();
+
+        server.startServer();
+        return server;
+    }
+
+    private static void waitForInFlightCount(ProtobufRpcServer server, int inFlightCount) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while((server.getInFlightRequestCount() != inFlightCount) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertEquals(inFlightCount, server.getInFlightRequestCount());
+    }
+
+    private static void assertOverloaded(LimitedService service) {
+        try {
+            service.echo(EchoOuterClass.Echo.newBuilder().setMessage("Hello World").build());
+            fail("Call was not rejected.");
+        } catch (RpcServerOverloadedException ignore) {
+        }
+    }
+
+    @Test
+    public void perConnectionLimitTest() throws Exception {
+        ProtobufRpcServer server = createServer(0, 2);
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(LimitedService.class).build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(server.getActualLocalAddress());
+        LimitedService service = clientChannel.getService(LimitedService.class);
+
+        // Open streams stay in flight until they end
+        Iterator<EchoOuterClass.Echo> stream1 = service.count(LONG_STREAM);
+        assertEquals("0", stream1.next().getMessage());
+        Iterator<EchoOuterClass.Echo> stream2 = service.count(LONG_STREAM);
+        assertEquals("0", stream2.next().getMessage());
+        waitForInFlightCount(server, 2);
+
+        try {
+            service.count(LONG_STREAM).hasNext();
+            fail("Stream was not rejected.");
+        } catch (RpcServerOverloadedException ignore) {
+        }
+        assertOverloaded(service);
+        assertEquals(2, server.getRejectedRequestCount());
+
+        // Other connections are not affected
+        ProtobufRpcClientChannel otherClientChannel = client.getClientChannel(server.getActualLocalAddress());
+        assertEquals("Hello World", otherClientChannel.getService(LimitedService.class).echo(EchoOuterClass.Echo.newBuilder().setMessage("Hello World").build()).getMessage());
+
+        // Ending a stream admits calls again
+        ((RpcResponseStream) stream1).close();
+        waitForInFlightCount(server, 1);
+        assertEquals("Hello World", service.echo(EchoOuterClass.Echo.newBuilder().setMessage("Hello World").build()).getMessage());
+
+        ((RpcResponseStream) stream2).close();
+        waitForInFlightCount(server, 0);
+
+        otherClientChannel.close();
+        clientChannel.close();
+        client.close();
+        server.stopServer();
+    }
+
+    @Test
+    public void globalLimitTest() throws Exception {
+        ProtobufRpcServer server = createServer(2, 0);
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(LimitedService.class).build();
+        ProtobufRpcClientChannel clientChannel1 = client.getClientChannel(server.getActualLocalAddress());
+        ProtobufRpcClientChannel clientChannel2 = client.getClientChannel(server.getActualLocalAddress());
+        ProtobufRpcClientChannel clientChannel3 = client.getClientChannel(server.getActualLocalAddress());
+
+        Iterator<EchoOuterClass.Echo> stream1 = clientChannel1.getService(LimitedService.class).count(LONG_STREAM);
+        assertEquals("0", stream1.next().getMessage());
+        Iterator<EchoOuterClass.Echo> stream2 = clientChannel2.getService(LimitedService.class).count(LONG_STREAM);
+        assertEquals("0", stream2.next().getMessage());
+        waitForInFlightCount(server, 2);
+
+        assertOverloaded(clientChannel3.getService(LimitedService.class));
+        assertEquals(1, server.getRejectedRequestCount());
+
+        // Closing a connection releases the calls in flight on it
+        clientChannel1.close();
+        waitForInFlightCount(server, 1);
+        assertEquals("Hello World", clientChannel3.getService(LimitedService.class).echo(EchoOuterClass.Echo.newBuilder().setMessage("Hello World").build()).getMessage());
+
+        ((RpcResponseStream) stream2).close();
+        clientChannel2.close();
+        clientChannel3.close();
+        client.close();
+        server.stopServer();
+    }
+}
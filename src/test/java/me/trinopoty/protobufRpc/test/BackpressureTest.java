@@ -0,0 +1,308 @@
+package me.trinopoty.protobufRpc.test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import me.trinopoty.protobufRpc.RpcBackpressurePolicy;
+import me.trinopoty.protobufRpc.RpcWritabilityMetrics;
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClient;
+import me.trinopoty.protobufRpc.codec.RpcMessageCodec;
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+import me.trinopoty.protobufRpc.exception.RpcCallTimeoutException;
+import me.trinopoty.protobufRpc.exception.RpcChannelUnavailableException;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServerChannel;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServerChannelGroup;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class BackpressureTest {
+
+    @RpcIdentifier(1)
+    public interface RegisterService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo register(EchoOuterClass.Echo request);
+    }
+
+    @RpcIdentifier(2)
+    public interface OobService {
+
+        @RpcIdentifier(1)
+        void oob1(EchoOuterClass.Echo message);
+    }
+
+    public static final class RegisterServiceImpl implements RegisterService {
+
+        private final ProtobufRpcServerChannel mRpcServerChannel;
+
+        public RegisterServiceImpl(ProtobufRpcServerChannel rpcServerChannel) {
+            mRpcServerChannel = rpcServerChannel;
+        }
+
+        @Override
+        public EchoOuterClass.Echo register(EchoOuterClass.Echo request) {
+            // Requests still buffered from the writer of an earlier test must not replace the channel
+            if(REGISTER_MESSAGE.equals(request.getMessage())) {
+                sRpcServerChannel = mRpcServerChannel;
+            }
+            return request;
+        }
+    }
+
+    private static final String REGISTER_MESSAGE = "register";
+
+    private static volatile ProtobufRpcServerChannel sRpcServerChannel;
+
+    private static ProtobufRpcServer createServer(RpcBackpressurePolicy backpressurePolicy) throws Exception {
+        return createServer(new ProtobufRpcServer.Builder(), backpressurePolicy);
+    }
+
+    private static ProtobufRpcServer createServer(ProtobufRpcServer.Builder builder, RpcBackpressurePolicy backpressurePolicy) throws Exception {
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(RegisterService.class, RegisterServiceImpl.class);
+        builder.registerOob(OobService.class);
+        builder.setWriteBufferWaterMark(1024, 4096);
+        builder.setBackpressurePolicy(backpressurePolicy);
+        ProtobufRpcServer server = builder.build();
+
+        server.startServer();
+        return server;
+    }
+
+    /**
+     * Connects a client which registers its channel and then stops reading.
+     */
+    private static Socket connectStalledClient(ProtobufRpcServer server) throws Exception {
+        sRpcServerChannel = null;
+
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(4096);
+        socket.connect(server.getActualLocalAddress());
+
+        OutputStream outputStream = socket.getOutputStream();
+        outputStream.write(encodeRegisterRequest(1, EchoOuterClass.Echo.newBuilder().setMessage(REGISTER_MESSAGE).build()));
+        outputStream.flush();
+
+        DataInputStream inputStream = new DataInputStream(socket.getInputStream());
+        inputStream.readInt();
+        inputStream.readFully(new byte[inputStream.readInt()]);
+        assertNotNull(sRpcServerChannel);
+        return socket;
+    }
+
+    private static byte[] encodeRegisterRequest(long messageIdentifier, EchoOuterClass.Echo message) {
+        WirePacketFormat.WirePacket requestPacket = WirePacketFormat.WirePacket.newBuilder()
+                .setMessageIdentifier(messageIdentifier)
+                .setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_REQUEST)
+                .setServiceIdentifier(WirePacketFormat.ServiceIdentifier.newBuilder()
+                        .setServiceIdentifier(1)
+                        .setMethodIdentifier(1)
+                        .build())
+                .setPayload(message.toByteString())
+                .build();
+        ByteBuf encodedPacket = RpcMessageCodec.encodePacket(ByteBufAllocator.DEFAULT, requestPacket);
+        byte[] requestBytes = new byte[encodedPacket.readableBytes()];
+        encodedPacket.readBytes(requestBytes);
+        encodedPacket.release();
+        return requestBytes;
+    }
+
+    /**
+     * Sends requests with large responses from a client which does not read them.
+     */
+    private static Thread startRequestWriter(final Socket socket) {
+        // Within the maximum packet length of the server
+        char[] payload = new char[6 * 1024];
+        Arrays.fill(payload, 'x');
+        final byte[] requestBytes = encodeRegisterRequest(2, EchoOuterClass.Echo.newBuilder().setMessage(new String(payload)).build());
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    OutputStream outputStream = socket.getOutputStream();
+                    for(int i = 0; i < 2000; i++) {
+                        outputStream.write(requestBytes);
+                    }
+                    outputStream.flush();
+                } catch (IOException ignore) {
+                }
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static EchoOuterClass.Echo createLargeMessage() {
+        char[] payload = new char[16 * 1024];
+        Arrays.fill(payload, 'x');
+        return EchoOuterClass.Echo.newBuilder().setMessage(new String(payload)).build();
+    }
+
+    @Test
+    public void failPolicyTest() throws Exception {
+        ProtobufRpcServer server = createServer(RpcBackpressurePolicy.FAIL);
+        Socket socket = connectStalledClient(server);
+
+        OobService oobService = sRpcServerChannel.getOobService(OobService.class);
+        RpcWritabilityMetrics writabilityMetrics = sRpcServerChannel.getWritabilityMetrics();
+        EchoOuterClass.Echo largeMessage = createLargeMessage();
+
+        int writtenCount = 0;
+        try {
+            for(; writtenCount < 10000; writtenCount++) {
+                oobService.oob1(largeMessage);
+            }
+            fail("Writes to a stalled client were never rejected.");
+        } catch (RpcChannelUnavailableException ignore) {
+        }
+
+        assertTrue(writtenCount > 0);
+        assertEquals(1, writabilityMetrics.getRejectedWriteCount());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while((writabilityMetrics.getUnwritableCount() == 0) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertTrue(writabilityMetrics.getUnwritableCount() > 0);
+
+        socket.close();
+        server.stopServer();
+    }
+
+    @Test
+    public void dropPolicyTest() throws Exception {
+        ProtobufRpcServer server = createServer(RpcBackpressurePolicy.DROP);
+        Socket socket = connectStalledClient(server);
+
+        OobService oobService = sRpcServerChannel.getOobService(OobService.class);
+        RpcWritabilityMetrics writabilityMetrics = sRpcServerChannel.getWritabilityMetrics();
+        EchoOuterClass.Echo largeMessage = createLargeMessage();
+
+        for(int i = 0; i < 1000; i++) {
+            oobService.oob1(largeMessage);
+        }
+
+        assertTrue(writabilityMetrics.getRejectedWriteCount() > 0);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while(writabilityMetrics.isWritable() && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertFalse(writabilityMetrics.isWritable());
+        assertTrue(writabilityMetrics.getUnwritableTimeMillis() >= 0);
+
+        socket.close();
+        server.stopServer();
+    }
+
+    @Test
+    public void blockPolicyTimeoutTest() throws Exception {
+        ProtobufRpcServer server = createServer((new ProtobufRpcServer.Builder()).setBlockTimeoutMillis(200), RpcBackpressurePolicy.BLOCK);
+        Socket socket = connectStalledClient(server);
+
+        OobService oobService = sRpcServerChannel.getOobService(OobService.class);
+        RpcWritabilityMetrics writabilityMetrics = sRpcServerChannel.getWritabilityMetrics();
+        EchoOuterClass.Echo largeMessage = createLargeMessage();
+
+        // A writer blocked by a client which stopped reading gives up after the block timeout
+        try {
+            for(int i = 0; i < 10000; i++) {
+                oobService.oob1(largeMessage);
+            }
+            fail("Writes to a stalled client never timed out.");
+        } catch (RpcCallTimeoutException ignore) {
+        }
+        assertTrue(writabilityMetrics.getBlockedWriteCount() > 0);
+
+        socket.close();
+        server.stopServer();
+    }
+
+    @Test
+    public void broadcastDropTest() throws Exception {
+        ProtobufRpcServer server = createServer(RpcBackpressurePolicy.DROP);
+        Socket socket = connectStalledClient(server);
+        RpcWritabilityMetrics writabilityMetrics = sRpcServerChannel.getWritabilityMetrics();
+
+        ProtobufRpcServerChannelGroup channelGroup = server.createChannelGroup();
+        assertTrue(channelGroup.add(sRpcServerChannel));
+        OobService oobService = channelGroup.getOobService(OobService.class);
+        EchoOuterClass.Echo largeMessage = createLargeMessage();
+
+        // Broadcasts skip the member which stopped reading instead of buffering every message for it
+        for(int i = 0; i < 1000; i++) {
+            oobService.oob1(largeMessage);
+        }
+        assertTrue(writabilityMetrics.getRejectedWriteCount() > 0);
+        assertTrue(writabilityMetrics.getBytesBeforeWritable() < (64 * 1024));
+        assertTrue(channelGroup.contains(sRpcServerChannel));
+
+        socket.close();
+        server.stopServer();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void clientSuspendReadTest() {
+        new ProtobufRpcClient.Builder().setBackpressurePolicy(RpcBackpressurePolicy.SUSPEND_READ);
+    }
+
+    @Test
+    public void responseDropPolicyTest() throws Exception {
+        ProtobufRpcServer server = createServer(RpcBackpressurePolicy.DROP);
+        Socket socket = connectStalledClient(server);
+        RpcWritabilityMetrics writabilityMetrics = sRpcServerChannel.getWritabilityMetrics();
+
+        // Responses to the client which stopped reading are discarded once the connection is unwritable
+        Thread writerThread = startRequestWriter(socket);
+        writerThread.join(10000);
+        assertFalse(writerThread.isAlive());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while((writabilityMetrics.getRejectedWriteCount() == 0) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertTrue(writabilityMetrics.getRejectedWriteCount() > 0);
+        assertFalse(writabilityMetrics.isWritable());
+
+        socket.close();
+        server.stopServer();
+    }
+
+    @Test
+    public void responseBlockPolicyTest() throws Exception {
+        ProtobufRpcServer server = createServer(RpcBackpressurePolicy.BLOCK);
+        Socket socket = connectStalledClient(server);
+        RpcWritabilityMetrics writabilityMetrics = sRpcServerChannel.getWritabilityMetrics();
+
+        // The server stops reading requests from the client which stopped reading responses, so the writer stalls
+        Thread writerThread = startRequestWriter(socket);
+        long deadline = System.currentTimeMillis() + 5000;
+        while(writabilityMetrics.isWritable() && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertFalse(writabilityMetrics.isWritable());
+
+        writerThread.join(1000);
+        assertTrue(writerThread.isAlive());
+        assertEquals(0, writabilityMetrics.getRejectedWriteCount());
+
+        socket.close();
+        writerThread.join(10000);
+        server.stopServer();
+    }
+}
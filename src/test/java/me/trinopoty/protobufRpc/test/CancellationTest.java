@@ -0,0 +1,68 @@
+package me.trinopoty.protobufRpc.test;
+
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClient;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClientChannel;
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+import me.trinopoty.protobufRpc.exception.RpcCallTimeoutException;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public final class CancellationTest {
+
+    @RpcIdentifier(1)
+    public interface CancellationService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo echo(EchoOuterClass.Echo request);
+    }
+
+    private static WirePacketFormat.WirePacket readPacket(DataInputStream inputStream) throws Exception {
+        inputStream.readInt();
+        byte[] packetBytes = new byte[inputStream.readInt()];
+        inputStream.readFully(packetBytes);
+        return WirePacketFormat.WirePacket.parseFrom(packetBytes);
+    }
+
+    @Test
+    public void cancelOnTimeoutTest() throws Exception {
+        ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"));
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder())
+                .registerService(CancellationService.class)
+                .setDefaultReceiveTimeoutMillis(200)
+                .build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(new InetSocketAddress(serverSocket.getInetAddress(), serverSocket.getLocalPort()));
+        Socket socket = serverSocket.accept();
+
+        // The server never responds
+        try {
+            clientChannel.getService(CancellationService.class).echo(EchoOuterClass.Echo.newBuilder().setMessage("Hello World").build());
+            fail("Call should time out");
+        } catch (RpcCallTimeoutException ignore) {
+        }
+
+        // The client cancels the request it stopped waiting for
+        DataInputStream inputStream = new DataInputStream(socket.getInputStream());
+        WirePacketFormat.WirePacket requestPacket = readPacket(inputStream);
+        assertEquals(WirePacketFormat.MessageType.MESSAGE_TYPE_REQUEST, requestPacket.getMessageType());
+
+        WirePacketFormat.WirePacket cancelPacket = readPacket(inputStream);
+        assertEquals(WirePacketFormat.MessageType.MESSAGE_TYPE_CANCEL, cancelPacket.getMessageType());
+        assertEquals(requestPacket.getMessageIdentifier(), cancelPacket.getMessageIdentifier());
+
+        clientChannel.close();
+        client.close();
+        socket.close();
+        serverSocket.close();
+    }
+}
@@ -0,0 +1,208 @@
+package me.trinopoty.protobufRpc.test;
+
+import io.netty.util.concurrent.Future;
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.*;
+import me.trinopoty.protobufRpc.exception.*;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class ChannelPoolTest {
+
+    @RpcIdentifier(1)
+    public interface EchoService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo echo(EchoOuterClass.Echo request);
+    }
+
+    public static final class EchoServiceImpl implements EchoService {
+
+        @Override
+        public EchoOuterClass.Echo echo(EchoOuterClass.Echo request) {
+            return request;
+        }
+    }
+
+    private static ProtobufRpcServer sProtobufRpcServer;
+
+    @BeforeClass
+    public static void setup() throws DuplicateRpcMethodIdentifierException, ServiceConstructorNotFoundException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, UnknownHostException {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(EchoService.class, EchoServiceImpl.class);
+        sProtobufRpcServer = builder.build();
+
+        sProtobufRpcServer.startServer();
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        sProtobufRpcServer.stopServer();
+    }
+
+    @Test
+    public void asyncConnectTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(EchoService.class).build();
+
+        Future<ProtobufRpcClientChannel> connectFuture = client.connect(sProtobufRpcServer.getActualLocalAddress());
+        assertTrue(connectFuture.await(5000));
+        assertTrue(connectFuture.isSuccess());
+
+        ProtobufRpcClientChannel clientChannel = connectFuture.getNow();
+        EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage("Hello").build();
+        assertEquals("Hello", clientChannel.getService(EchoService.class).echo(request).getMessage());
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void warmupTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException, IOException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(EchoService.class).build();
+
+        RpcClientChannelPoolConfig poolConfig = new RpcClientChannelPoolConfig();
+        poolConfig.setMinIdle(2);
+        ProtobufRpcClientChannelPool clientChannelPool = client.getClientChannelPool(poolConfig, sProtobufRpcServer.getActualLocalAddress());
+        waitForIdleChannels(clientChannelPool, 2);
+
+        ProtobufRpcClientChannel clientChannel = clientChannelPool.getResource();
+        EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage("Hello").build();
+        assertEquals("Hello", clientChannel.getService(EchoService.class).echo(request).getMessage());
+
+        waitForIdleChannels(clientChannelPool, 2);
+        assertEquals(1, clientChannelPool.getActiveChannelCount());
+
+        clientChannel.close();
+        clientChannelPool.close();
+        client.close();
+    }
+
+    @Test
+    public void exhaustedBorrowTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException, IOException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(EchoService.class).build();
+
+        RpcClientChannelPoolConfig poolConfig = new RpcClientChannelPoolConfig();
+        poolConfig.setMaxTotal(1);
+        ProtobufRpcClientChannelPool clientChannelPool = client.getClientChannelPool(poolConfig, sProtobufRpcServer.getActualLocalAddress());
+
+        ProtobufRpcClientChannel clientChannel = clientChannelPool.getResource();
+        Future<ProtobufRpcClientChannel> borrowFuture = clientChannelPool.getResourceAsync();
+        assertFalse(borrowFuture.await(100));
+
+        clientChannel.close();
+        assertTrue(borrowFuture.await(5000));
+        assertTrue(borrowFuture.isSuccess());
+        assertSame(clientChannel, borrowFuture.getNow());
+
+        borrowFuture.getNow().close();
+        clientChannelPool.close();
+        client.close();
+    }
+
+    @Test
+    public void maxWaitTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, IOException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(EchoService.class).build();
+
+        RpcClientChannelPoolConfig poolConfig = new RpcClientChannelPoolConfig();
+        poolConfig.setMaxTotal(1);
+        poolConfig.setMaxWaitMillis(100);
+        ProtobufRpcClientChannelPool clientChannelPool = client.getClientChannelPool(poolConfig, sProtobufRpcServer.getActualLocalAddress());
+
+        ProtobufRpcClientChannel clientChannel = clientChannelPool.getResource();
+        long startTime = System.currentTimeMillis();
+        try {
+            clientChannelPool.getResource();
+            fail();
+        } catch (IOException ignore) {
+        }
+        assertTrue((System.currentTimeMillis() - startTime) >= 100);
+
+        poolConfig.setBlockWhenExhausted(false);
+        ProtobufRpcClientChannelPool nonBlockingChannelPool = client.getClientChannelPool(poolConfig, sProtobufRpcServer.getActualLocalAddress());
+        ProtobufRpcClientChannel nonBlockingChannel = nonBlockingChannelPool.getResource();
+        Future<ProtobufRpcClientChannel> borrowFuture = nonBlockingChannelPool.getResourceAsync();
+        assertTrue(borrowFuture.isDone());
+        assertFalse(borrowFuture.isSuccess());
+
+        nonBlockingChannel.close();
+        nonBlockingChannelPool.close();
+        clientChannel.close();
+        clientChannelPool.close();
+        client.close();
+    }
+
+    @Test
+    public void concurrentBorrowTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(EchoService.class).build();
+
+        RpcClientChannelPoolConfig poolConfig = new RpcClientChannelPoolConfig();
+        poolConfig.setMaxTotal(4);
+        final ProtobufRpcClientChannelPool clientChannelPool = client.getClientChannelPool(poolConfig, sProtobufRpcServer.getActualLocalAddress());
+
+        final AtomicInteger borrowedCount = new AtomicInteger(0);
+        final AtomicInteger maxBorrowedCount = new AtomicInteger(0);
+        final AtomicInteger callCount = new AtomicInteger(0);
+        List<Thread> threadList = new ArrayList<>();
+        for(int i = 0; i < 8; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage("Hello").build();
+                    for(int j = 0; j < 50; j++) {
+                        try (ProtobufRpcClientChannel clientChannel = clientChannelPool.getResource()) {
+                            int currentCount = borrowedCount.incrementAndGet();
+                            int maxCount;
+                            while(currentCount > (maxCount = maxBorrowedCount.get())) {
+                                maxBorrowedCount.compareAndSet(maxCount, currentCount);
+                            }
+
+                            if("Hello".equals(clientChannel.getService(EchoService.class).echo(request).getMessage())) {
+                                callCount.incrementAndGet();
+                            }
+                            borrowedCount.decrementAndGet();
+                        } catch (IOException ignore) {
+                        }
+                    }
+                }
+            });
+            thread.start();
+            threadList.add(thread);
+        }
+        for(Thread thread : threadList) {
+            thread.join();
+        }
+
+        assertEquals(400, callCount.get());
+        assertTrue(maxBorrowedCount.get() <= 4);
+        assertEquals(0, clientChannelPool.getActiveChannelCount());
+        assertTrue(clientChannelPool.getIdleChannelCount() <= 4);
+
+        clientChannelPool.close();
+        client.close();
+    }
+
+    private static void waitForIdleChannels(ProtobufRpcClientChannelPool clientChannelPool, int idleChannelCount) throws InterruptedException {
+        for(int i = 0; (i < 100) && (clientChannelPool.getIdleChannelCount() < idleChannelCount); i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(idleChannelCount, clientChannelPool.getIdleChannelCount());
+    }
+}
@@ -0,0 +1,224 @@
+package me.trinopoty.protobufRpc.test;
+
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.*;
+import me.trinopoty.protobufRpc.exception.*;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.UnknownHostException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class CircuitBreakerTest {
+
+    @RpcIdentifier(1)
+    public interface EchoService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo echo(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(2)
+        EchoOuterClass.Echo slowEcho(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(3)
+        EchoOuterClass.Echo sleepEcho(EchoOuterClass.Echo request);
+    }
+
+    public static final class EchoServiceImpl implements EchoService {
+
+        @Override
+        public EchoOuterClass.Echo echo(EchoOuterClass.Echo request) {
+            return request;
+        }
+
+        @Override
+        public EchoOuterClass.Echo slowEcho(EchoOuterClass.Echo request) {
+            try {
+                Thread.sleep(150);
+            } catch (InterruptedException ignore) {
+            }
+            return request;
+        }
+
+        @Override
+        public EchoOuterClass.Echo sleepEcho(EchoOuterClass.Echo request) {
+            try {
+                Thread.sleep(Long.parseLong(request.getMessage()));
+            } catch (InterruptedException ignore) {
+            }
+            return request;
+        }
+    }
+
+    private static ProtobufRpcServer sProtobufRpcServer;
+
+    @BeforeClass
+    public static void setup() throws DuplicateRpcMethodIdentifierException, ServiceConstructorNotFoundException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, UnknownHostException {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(EchoService.class, EchoServiceImpl.class);
+        sProtobufRpcServer = builder.build();
+
+        sProtobufRpcServer.startServer();
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        sProtobufRpcServer.stopServer();
+    }
+
+    @Test
+    public void connectFailureTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, IOException {
+        InetSocketAddress deadAddress;
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"))) {
+            deadAddress = new InetSocketAddress(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+        }
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder())
+                .registerService(EchoService.class)
+                .setCircuitBreakerConfig(createConfig(2))
+                .build();
+
+        for(int i = 0; i < 2; i++) {
+            try {
+                client.getClientChannel(deadAddress);
+                fail();
+            } catch (Exception ex) {
+                assertTrue(!(ex instanceof RpcCircuitOpenException));
+            }
+        }
+        assertEquals(RpcCircuitBreaker.State.OPEN, client.getCircuitBreaker(deadAddress).getState());
+
+        try {
+            client.getClientChannel(deadAddress);
+            fail();
+        } catch (RpcCircuitOpenException ignore) {
+        }
+
+        client.close();
+    }
+
+    @Test
+    public void callTimeoutTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder())
+                .registerService(EchoService.class)
+                .setDefaultReceiveTimeoutMillis(100)
+                .setCircuitBreakerConfig(createConfig(3))
+                .build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        EchoService echoService = clientChannel.getService(EchoService.class);
+        RpcCircuitBreaker circuitBreaker = client.getCircuitBreaker(sProtobufRpcServer.getActualLocalAddress());
+
+        for(int i = 0; i < 2; i++) {
+            try {
+                echoService.slowEcho(EchoOuterClass.Echo.getDefaultInstance());
+                fail();
+            } catch (RpcCallTimeoutException ignore) {
+            }
+        }
+
+        // Outcomes are recorded on the event loop after the caller gives up
+        for(int i = 0; (i < 20) && (circuitBreaker.getState() != RpcCircuitBreaker.State.OPEN); i++) {
+            Thread.sleep(5);
+        }
+        assertEquals(RpcCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        long startTime = System.nanoTime();
+        try {
+            echoService.echo(EchoOuterClass.Echo.getDefaultInstance());
+            fail();
+        } catch (RpcCircuitOpenException ignore) {
+        }
+        assertTrue((System.nanoTime() - startTime) < 50 * 1000 * 1000);
+
+        Thread.sleep(500);
+        EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage("Hello").build();
+        assertEquals("Hello", echoService.echo(request).getMessage());
+        for(int i = 0; (i < 20) && (circuitBreaker.getState() != RpcCircuitBreaker.State.CLOSED); i++) {
+            Thread.sleep(5);
+        }
+        assertEquals(RpcCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void staleCallTest() throws Exception {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(EchoService.class, EchoServiceImpl.class);
+        builder.setRequestExecutorThreadCount(4);
+        ProtobufRpcServer server = builder.build();
+        server.startServer();
+
+        // The connection and the two slow calls open the circuit
+        RpcCircuitBreakerConfig config = createConfig(3);
+        config.setSlowCallDurationMillis(100);
+        config.setSlowCallRateThreshold(60);
+        config.setOpenDurationMillis(200);
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder())
+                .registerService(EchoService.class)
+                .setCircuitBreakerConfig(config)
+                .build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(server.getActualLocalAddress());
+        EchoService echoService = clientChannel.getService(EchoService.class);
+        RpcCircuitBreaker circuitBreaker = client.getCircuitBreaker(server.getActualLocalAddress());
+
+        // Admitted while the circuit is closed, completes while it is half open
+        Thread staleCall = sleepInBackground(echoService, 800);
+
+        for(int i = 0; i < 2; i++) {
+            sleepEcho(echoService, 150);
+        }
+        assertEquals(RpcCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        Thread.sleep(250);
+        Thread probeCall = sleepInBackground(echoService, 600);
+        Thread.sleep(50);
+        assertEquals(RpcCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        // The slow stale call is no probe, so it neither opens nor closes the circuit
+        staleCall.join(5000);
+        assertEquals(RpcCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        probeCall.join(5000);
+        clientChannel.close();
+        client.close();
+        server.stopServer();
+    }
+
+    private static void sleepEcho(EchoService echoService, long sleepMillis) {
+        echoService.sleepEcho(EchoOuterClass.Echo.newBuilder().setMessage(Long.toString(sleepMillis)).build());
+    }
+
+    private static Thread sleepInBackground(final EchoService echoService, final long sleepMillis) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                sleepEcho(echoService, sleepMillis);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static RpcCircuitBreakerConfig createConfig(int minimumCallCount) {
+        RpcCircuitBreakerConfig config = new RpcCircuitBreakerConfig();
+        config.setSlidingWindowSize(4);
+        config.setMinimumCallCount(minimumCallCount);
+        config.setOpenDurationMillis(300);
+        config.setHalfOpenProbeCount(1);
+        return config;
+    }
+}
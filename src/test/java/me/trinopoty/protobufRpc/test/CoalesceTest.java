@@ -0,0 +1,242 @@
+package me.trinopoty.protobufRpc.test;
+
+import me.trinopoty.protobufRpc.annotation.RpcCoalesce;
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClient;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClientChannel;
+import me.trinopoty.protobufRpc.exception.*;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class CoalesceTest {
+
+    @RpcIdentifier(1)
+    public interface SlowService {
+
+        @RpcIdentifier(1)
+        @RpcCoalesce
+        EchoOuterClass.Echo slowEcho(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(2)
+        @RpcCoalesce
+        EchoOuterClass.Echo slowFail(EchoOuterClass.Echo request);
+    }
+
+    private static final AtomicInteger sCallCount = new AtomicInteger(0);
+
+    public static final class SlowServiceImpl implements SlowService {
+
+        @Override
+        public EchoOuterClass.Echo slowEcho(EchoOuterClass.Echo request) {
+            sCallCount.incrementAndGet();
+            sleep();
+            return request;
+        }
+
+        @Override
+        public EchoOuterClass.Echo slowFail(EchoOuterClass.Echo request) {
+            sCallCount.incrementAndGet();
+            sleep();
+            throw new IllegalStateException("Expected failure");
+        }
+
+        private static void sleep() {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException ignore) {
+            }
+        }
+    }
+
+    private static final int CONNECTION_COUNT = 3;
+
+    private static ProtobufRpcServer sProtobufRpcServer;
+
+    @BeforeClass
+    public static void setup() throws DuplicateRpcMethodIdentifierException, ServiceConstructorNotFoundException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, UnknownHostException {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(SlowService.class, SlowServiceImpl.class);
+        sProtobufRpcServer = builder.build();
+
+        sProtobufRpcServer.startServer();
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        sProtobufRpcServer.stopServer();
+    }
+
+    @Before
+    public void resetCallCount() {
+        sCallCount.set(0);
+    }
+
+    @Test
+    public void coalesceTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        final AtomicInteger successCount = new AtomicInteger(0);
+        callConcurrently(new CallRunnable() {
+            @Override
+            public void call(SlowService slowService) {
+                EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage("Hello").build();
+                if("Hello".equals(slowService.slowEcho(request).getMessage())) {
+                    successCount.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(CONNECTION_COUNT, successCount.get());
+        assertTrue(sCallCount.get() < CONNECTION_COUNT);
+    }
+
+    @Test
+    public void errorFanOutTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        final AtomicInteger failureCount = new AtomicInteger(0);
+        callConcurrently(new CallRunnable() {
+            @Override
+            public void call(SlowService slowService) {
+                try {
+                    slowService.slowFail(EchoOuterClass.Echo.getDefaultInstance());
+                } catch (RpcCallServerException ex) {
+                    failureCount.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(CONNECTION_COUNT, failureCount.get());
+        assertTrue(sCallCount.get() < CONNECTION_COUNT);
+    }
+
+    @Test
+    public void cancelledWaiterTest() throws Exception {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(SlowService.class).build();
+        ProtobufRpcClient impatientClient = (new ProtobufRpcClient.Builder())
+                .registerService(SlowService.class)
+                .setDefaultReceiveTimeoutMillis(100)
+                .build();
+        final ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        ProtobufRpcClientChannel impatientClientChannel = impatientClient.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        final EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage("Hello").build();
+
+        Thread executingCall = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                clientChannel.getService(SlowService.class).slowEcho(request);
+            }
+        });
+        executingCall.start();
+        waitForInFlightCount(1);
+
+        // The waiting duplicate is admitted, and gives up its admission once its client cancels it
+        try {
+            impatientClientChannel.getService(SlowService.class).slowEcho(request);
+            fail("Waiting call did not time out.");
+        } catch (RpcCallTimeoutException ignore) {
+        }
+        waitForInFlightCount(1);
+        assertEquals(1, sProtobufRpcServer.getCancelledRequestCount());
+
+        executingCall.join(5000);
+        waitForInFlightCount(0);
+        assertEquals(1, sCallCount.get());
+
+        clientChannel.close();
+        impatientClientChannel.close();
+        client.close();
+        impatientClient.close();
+    }
+
+    private static void waitForInFlightCount(int inFlightCount) throws InterruptedException {
+        for(int i = 0; (i < 100) && (sProtobufRpcServer.getInFlightRequestCount() != inFlightCount); i++) {
+            Thread.sleep(5);
+        }
+        assertEquals(inFlightCount, sProtobufRpcServer.getInFlightRequestCount());
+    }
+
+    @Test
+    public void clientCoalesceTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(SlowService.class).build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        final SlowService slowService = clientChannel.getService(SlowService.class);
+
+        // Requests on one connection execute one after another on the server, so only the client can collapse them
+        final AtomicInteger successCount = new AtomicInteger(0);
+        List<Thread> threadList = new ArrayList<>();
+        for(int i = 0; i < 4; i++) {
+            threadList.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage("Hello").build();
+                    if("Hello".equals(slowService.slowEcho(request).getMessage())) {
+                        successCount.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for(Thread thread : threadList) {
+            thread.start();
+        }
+        for(Thread thread : threadList) {
+            thread.join();
+        }
+
+        assertEquals(4, successCount.get());
+        assertEquals(1, sCallCount.get());
+
+        clientChannel.close();
+        client.close();
+    }
+
+    private interface CallRunnable {
+
+        void call(SlowService slowService);
+    }
+
+    /**
+     * Calls the service from several connections at the same time. Every connection is served by its own event loop,
+     * so the calls execute concurrently on the server unless they are coalesced.
+     */
+    private static void callConcurrently(final CallRunnable callRunnable) throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(SlowService.class).build();
+
+        List<ProtobufRpcClientChannel> clientChannelList = new ArrayList<>();
+        List<Thread> threadList = new ArrayList<>();
+        for(int i = 0; i < CONNECTION_COUNT; i++) {
+            final ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+            clientChannelList.add(clientChannel);
+            threadList.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    callRunnable.call(clientChannel.getService(SlowService.class));
+                }
+            }));
+        }
+
+        for(Thread thread : threadList) {
+            thread.start();
+        }
+        for(Thread thread : threadList) {
+            thread.join();
+        }
+
+        for(ProtobufRpcClientChannel clientChannel : clientChannelList) {
+            clientChannel.close();
+        }
+        client.close();
+    }
+}
@@ -0,0 +1,199 @@
+package me.trinopoty.protobufRpc.test;
+
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClient;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClientChannel;
+import me.trinopoty.protobufRpc.exception.RpcConcurrencyLimitException;
+import me.trinopoty.protobufRpc.exception.RpcServerOverloadedException;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import me.trinopoty.protobufRpc.util.RpcConcurrencyLimitConfig;
+import me.trinopoty.protobufRpc.util.RpcConcurrencyLimiter;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class ConcurrencyLimitTest {
+
+    @RpcIdentifier(1)
+    public interface SlowService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo echo(EchoOuterClass.Echo request);
+    }
+
+    private static volatile CountDownLatch sStartedLatch;
+    private static volatile CountDownLatch sReleaseLatch;
+
+    public static final class SlowServiceImpl implements SlowService {
+
+        @Override
+        public EchoOuterClass.Echo echo(EchoOuterClass.Echo request) {
+            if(request.getMessage().equals("block")) {
+                sStartedLatch.countDown();
+                try {
+                    sReleaseLatch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ignore) {
+                }
+            }
+            return request;
+        }
+    }
+
+    private static RpcConcurrencyLimitConfig createFixedConfig(int limit) {
+        RpcConcurrencyLimitConfig config = new RpcConcurrencyLimitConfig();
+        config.setInitialLimit(limit);
+        config.setMinLimit(limit);
+        config.setMaxLimit(limit);
+        return config;
+    }
+
+    private static Thread callInBackground(final SlowService service) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                service.echo(EchoOuterClass.Echo.newBuilder().setMessage("block").build());
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    public void limitAdaptationTest() {
+        RpcConcurrencyLimitConfig config = new RpcConcurrencyLimitConfig();
+        config.setInitialLimit(20);
+        config.setLongWindowSize(100);
+        RpcConcurrencyLimiter limiter = new RpcConcurrencyLimiter(config);
+
+        // Calls at the baseline latency with the limit in use let it grow
+        for(int i = 0; i < 100; i++) {
+            while(limiter.tryAcquire()) {
+            }
+            limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+            while(limiter.getInFlightCount() > 0) {
+                limiter.onIgnored();
+            }
+        }
+        int grownLimit = limiter.getLimit();
+        assertTrue(grownLimit > 20);
+
+        // Queueing shows up as latency above the baseline and shrinks the limit
+        for(int i = 0; i < 20; i++) {
+            while(limiter.tryAcquire()) {
+            }
+            limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(100));
+            while(limiter.getInFlightCount() > 0) {
+                limiter.onIgnored();
+            }
+        }
+        int shrunkLimit = limiter.getLimit();
+        assertTrue(shrunkLimit < grownLimit);
+
+        // Timeouts and overload rejections back off
+        assertTrue(limiter.tryAcquire());
+        limiter.onDropped();
+        assertTrue(limiter.getLimit() < shrunkLimit);
+        assertEquals(0, limiter.getInFlightCount());
+    }
+
+    @Test
+    public void idleLimitTest() {
+        RpcConcurrencyLimiter limiter = new RpcConcurrencyLimiter(new RpcConcurrencyLimitConfig());
+
+        // A limit which is far from being used does not grow
+        for(int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    public void serverLimitTest() throws Exception {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(SlowService.class, SlowServiceImpl.class);
+        builder.setConcurrencyLimitConfig(createFixedConfig(1));
+        ProtobufRpcServer server = builder.build();
+        server.startServer();
+        assertNotNull(server.getConcurrencyLimiter());
+        assertEquals(1, server.getConcurrencyLimiter().getLimit());
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(SlowService.class).build();
+        ProtobufRpcClientChannel clientChannel1 = client.getClientChannel(server.getActualLocalAddress());
+        ProtobufRpcClientChannel clientChannel2 = client.getClientChannel(server.getActualLocalAddress());
+
+        sStartedLatch = new CountDownLatch(1);
+        sReleaseLatch = new CountDownLatch(1);
+        Thread blockedCall = callInBackground(clientChannel1.getService(SlowService.class));
+        assertTrue(sStartedLatch.await(5, TimeUnit.SECONDS));
+
+        try {
+            clientChannel2.getService(SlowService.class).echo(EchoOuterClass.Echo.newBuilder().setMessage("Hello World").build());
+            fail("Call over the limit was not rejected.");
+        } catch (RpcServerOverloadedException ignore) {
+        }
+        assertEquals(1, server.getConcurrencyLimiter().getRejectedCount());
+
+        sReleaseLatch.countDown();
+        blockedCall.join(5000);
+        assertFalse(blockedCall.isAlive());
+        assertEquals("Hello World", clientChannel2.getService(SlowService.class).echo(EchoOuterClass.Echo.newBuilder().setMessage("Hello World").build()).getMessage());
+
+        clientChannel1.close();
+        clientChannel2.close();
+        client.close();
+        server.stopServer();
+    }
+
+    @Test
+    public void clientLimitTest() throws Exception {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(SlowService.class, SlowServiceImpl.class);
+        ProtobufRpcServer server = builder.build();
+        server.startServer();
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder())
+                .registerService(SlowService.class)
+                .setConcurrencyLimitConfig(createFixedConfig(1))
+                .build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(server.getActualLocalAddress());
+        SlowService service = clientChannel.getService(SlowService.class);
+        RpcConcurrencyLimiter limiter = client.getConcurrencyLimiter(server.getActualLocalAddress());
+        assertNotNull(limiter);
+
+        sStartedLatch = new CountDownLatch(1);
+        sReleaseLatch = new CountDownLatch(1);
+        Thread blockedCall = callInBackground(service);
+        assertTrue(sStartedLatch.await(5, TimeUnit.SECONDS));
+
+        // The second call is not even sent
+        try {
+            service.echo(EchoOuterClass.Echo.newBuilder().setMessage("Hello World").build());
+            fail("Call over the limit was not rejected.");
+        } catch (RpcConcurrencyLimitException ignore) {
+        }
+        assertEquals(1, limiter.getRejectedCount());
+
+        sReleaseLatch.countDown();
+        blockedCall.join(5000);
+        assertFalse(blockedCall.isAlive());
+        assertEquals(0, limiter.getInFlightCount());
+        assertEquals("Hello World", service.echo(EchoOuterClass.Echo.newBuilder().setMessage("Hello World").build()).getMessage());
+
+        clientChannel.close();
+        client.close();
+        server.stopServer();
+    }
+}
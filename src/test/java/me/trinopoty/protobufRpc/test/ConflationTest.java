@@ -0,0 +1,158 @@
+package me.trinopoty.protobufRpc.test;
+
+import com.google.protobuf.AbstractMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import me.trinopoty.protobufRpc.RpcKeyExtractor;
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.codec.RpcMessageCodec;
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServerChannel;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public final class ConflationTest {
+
+    @RpcIdentifier(1)
+    public interface RegisterService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo register(EchoOuterClass.Echo request);
+    }
+
+    @RpcIdentifier(2)
+    public interface OobService {
+
+        @RpcIdentifier(1)
+        void oob1(EchoOuterClass.Echo message);
+    }
+
+    public static final class RegisterServiceImpl implements RegisterService {
+
+        private final ProtobufRpcServerChannel mRpcServerChannel;
+
+        public RegisterServiceImpl(ProtobufRpcServerChannel rpcServerChannel) {
+            mRpcServerChannel = rpcServerChannel;
+        }
+
+        @Override
+        public EchoOuterClass.Echo register(EchoOuterClass.Echo request) {
+            sRpcServerChannel = mRpcServerChannel;
+            return request;
+        }
+    }
+
+    private static final int KEY_COUNT = 4;
+    private static final int UPDATE_COUNT = 500;
+
+    private static volatile ProtobufRpcServerChannel sRpcServerChannel;
+    private static ProtobufRpcServer sProtobufRpcServer;
+
+    @SuppressWarnings("Duplicates")
+    @BeforeClass
+    public static void setup() throws Exception {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(RegisterService.class, RegisterServiceImpl.class);
+        builder.registerOob(OobService.class);
+        ProtobufRpcServer server = builder.build();
+
+        server.startServer();
+        sProtobufRpcServer = server;
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        sProtobufRpcServer.stopServer();
+    }
+
+    private static WirePacketFormat.WirePacket readPacket(DataInputStream inputStream) throws Exception {
+        inputStream.readInt();
+        byte[] packetBytes = new byte[inputStream.readInt()];
+        inputStream.readFully(packetBytes);
+        return WirePacketFormat.WirePacket.parseFrom(packetBytes);
+    }
+
+    @Test
+    public void conflationTest() throws Exception {
+        // A client which does not read until all updates are published
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(4096);
+        socket.setSoTimeout(5000);
+        socket.connect(sProtobufRpcServer.getActualLocalAddress());
+
+        WirePacketFormat.WirePacket requestPacket = WirePacketFormat.WirePacket.newBuilder()
+                .setMessageIdentifier(1)
+                .setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_REQUEST)
+                .setServiceIdentifier(WirePacketFormat.ServiceIdentifier.newBuilder()
+                        .setServiceIdentifier(1)
+                        .setMethodIdentifier(1)
+                        .build())
+                .setPayload(EchoOuterClass.Echo.newBuilder().setMessage("register").build().toByteString())
+                .build();
+        ByteBuf encodedPacket = RpcMessageCodec.encodePacket(ByteBufAllocator.DEFAULT, requestPacket);
+        byte[] requestBytes = new byte[encodedPacket.readableBytes()];
+        encodedPacket.readBytes(requestBytes);
+        encodedPacket.release();
+        OutputStream outputStream = socket.getOutputStream();
+        outputStream.write(requestBytes);
+        outputStream.flush();
+
+        DataInputStream inputStream = new DataInputStream(socket.getInputStream());
+        assertEquals(WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE, readPacket(inputStream).getMessageType());
+        assertNotNull(sRpcServerChannel);
+
+        OobService oobService = sRpcServerChannel.getConflatingOobService(OobService.class, new RpcKeyExtractor() {
+            @Override
+            public Object extractKey(AbstractMessage message) {
+                String text = ((EchoOuterClass.Echo) message).getMessage();
+                return text.substring(0, text.indexOf(':'));
+            }
+        });
+
+        char[] padding = new char[16 * 1024];
+        Arrays.fill(padding, 'x');
+        String paddingText = new String(padding);
+        for(int update = 0; update < UPDATE_COUNT; update++) {
+            for(int key = 0; key < KEY_COUNT; key++) {
+                oobService.oob1(EchoOuterClass.Echo.newBuilder().setMessage(key + ":" + update + ":" + paddingText).build());
+            }
+        }
+
+        int[] lastUpdate = new int[KEY_COUNT];
+        Arrays.fill(lastUpdate, -1);
+        int receivedCount = 0;
+        int completedKeyCount = 0;
+        while(completedKeyCount < KEY_COUNT) {
+            WirePacketFormat.WirePacket wirePacket = readPacket(inputStream);
+            assertEquals(WirePacketFormat.MessageType.MESSAGE_TYPE_OOB, wirePacket.getMessageType());
+
+            String[] parts = EchoOuterClass.Echo.parseFrom(wirePacket.getPayload()).getMessage().split(":");
+            int key = Integer.parseInt(parts[0]);
+            int update = Integer.parseInt(parts[1]);
+            assertTrue(update > lastUpdate[key]);
+            lastUpdate[key] = update;
+            if(update == (UPDATE_COUNT - 1)) {
+                completedKeyCount++;
+            }
+            receivedCount++;
+        }
+
+        assertTrue(receivedCount < (KEY_COUNT * UPDATE_COUNT));
+        socket.close();
+    }
+}
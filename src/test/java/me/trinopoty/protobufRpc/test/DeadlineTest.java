@@ -0,0 +1,156 @@
+package me.trinopoty.protobufRpc.test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClient;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClientChannel;
+import me.trinopoty.protobufRpc.codec.RpcMessageCodec;
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.server.RpcCallContext;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public final class DeadlineTest {
+
+    @RpcIdentifier(1)
+    public interface DeadlineService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo remaining(EchoOuterClass.Echo request);
+    }
+
+    @RpcIdentifier(2)
+    public interface RelayService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo relay(EchoOuterClass.Echo request);
+    }
+
+    public static final class DeadlineServiceImpl implements DeadlineService {
+
+        @Override
+        public EchoOuterClass.Echo remaining(EchoOuterClass.Echo request) {
+            return EchoOuterClass.Echo.newBuilder().setMessage(Long.toString(RpcCallContext.current().getRemainingMillis())).build();
+        }
+    }
+
+    private static volatile DeadlineService sDownstreamService;
+
+    public static final class RelayServiceImpl implements RelayService {
+
+        @Override
+        public EchoOuterClass.Echo relay(EchoOuterClass.Echo request) {
+            return sDownstreamService.remaining(request);
+        }
+    }
+
+    private static ProtobufRpcServer createServer() throws Exception {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(DeadlineService.class, DeadlineServiceImpl.class);
+        builder.addServiceImplementation(RelayService.class, RelayServiceImpl.class);
+        ProtobufRpcServer server = builder.build();
+
+        server.startServer();
+        return server;
+    }
+
+    private static byte[] encodeRequest(long messageIdentifier, Long timeoutMillis) {
+        WirePacketFormat.WirePacket.Builder builder = WirePacketFormat.WirePacket.newBuilder()
+                .setMessageIdentifier(messageIdentifier)
+                .setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_REQUEST)
+                .setServiceIdentifier(WirePacketFormat.ServiceIdentifier.newBuilder()
+                        .setServiceIdentifier(1)
+                        .setMethodIdentifier(1)
+                        .build())
+                .setPayload(EchoOuterClass.Echo.newBuilder().setMessage("Hello World").build().toByteString());
+        if(timeoutMillis != null) {
+            builder.setTimeoutMillis(timeoutMillis);
+        }
+
+        ByteBuf encodedPacket = RpcMessageCodec.encodePacket(ByteBufAllocator.DEFAULT, builder.build());
+        byte[] requestBytes = new byte[encodedPacket.readableBytes()];
+        encodedPacket.readBytes(requestBytes);
+        encodedPacket.release();
+        return requestBytes;
+    }
+
+    @Test
+    public void deadlinePropagationTest() throws Exception {
+        ProtobufRpcServer upstreamServer = createServer();
+        ProtobufRpcServer downstreamServer = createServer();
+
+        ProtobufRpcClient downstreamClient = (new ProtobufRpcClient.Builder())
+                .registerService(DeadlineService.class)
+                .setDefaultReceiveTimeoutMillis(10000)
+                .build();
+        ProtobufRpcClientChannel downstreamChannel = downstreamClient.getClientChannel(downstreamServer.getActualLocalAddress());
+        sDownstreamService = downstreamChannel.getService(DeadlineService.class);
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder())
+                .registerService(DeadlineService.class)
+                .registerService(RelayService.class)
+                .setDefaultReceiveTimeoutMillis(2000)
+                .build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(upstreamServer.getActualLocalAddress());
+
+        // The server sees the timeout of the client
+        long remainingMillis = Long.parseLong(clientChannel.getService(DeadlineService.class).remaining(EchoOuterClass.Echo.getDefaultInstance()).getMessage());
+        assertTrue((remainingMillis > 0) && (remainingMillis <= 2000));
+
+        // A call made while executing a call inherits its remaining time instead of the longer default timeout
+        remainingMillis = Long.parseLong(clientChannel.getService(RelayService.class).relay(EchoOuterClass.Echo.getDefaultInstance()).getMessage());
+        assertTrue((remainingMillis > 0) && (remainingMillis <= 2000));
+
+        // No context outside of a call
+        assertNull(RpcCallContext.current());
+
+        clientChannel.close();
+        client.close();
+        downstreamChannel.close();
+        downstreamClient.close();
+        upstreamServer.stopServer();
+        downstreamServer.stopServer();
+    }
+
+    @Test
+    public void expiredRequestTest() throws Exception {
+        ProtobufRpcServer server = createServer();
+
+        Socket socket = new Socket();
+        socket.connect(server.getActualLocalAddress());
+        OutputStream outputStream = socket.getOutputStream();
+        outputStream.write(encodeRequest(1, 0L));
+        outputStream.write(encodeRequest(2, 5000L));
+        outputStream.write(encodeRequest(3, null));
+        outputStream.flush();
+
+        // The expired request is dropped without a response
+        DataInputStream inputStream = new DataInputStream(socket.getInputStream());
+        for(long messageIdentifier = 2; messageIdentifier <= 3; messageIdentifier++) {
+            inputStream.readInt();
+            byte[] responseBytes = new byte[inputStream.readInt()];
+            inputStream.readFully(responseBytes);
+
+            WirePacketFormat.WirePacket responsePacket = WirePacketFormat.WirePacket.parseFrom(responseBytes);
+            assertEquals(WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE, responsePacket.getMessageType());
+            assertEquals(messageIdentifier, responsePacket.getMessageIdentifier());
+        }
+        assertEquals(1, server.getExpiredRequestCount());
+
+        socket.close();
+        server.stopServer();
+    }
+}
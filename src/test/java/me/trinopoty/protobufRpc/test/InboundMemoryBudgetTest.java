@@ -0,0 +1,211 @@
+package me.trinopoty.protobufRpc.test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.codec.RpcMessageCodec;
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import me.trinopoty.protobufRpc.util.RpcInboundMemoryBudget;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public final class InboundMemoryBudgetTest {
+
+    @RpcIdentifier(1)
+    public interface EchoService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo echo(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(2)
+        EchoOuterClass.Echo echoWhenReleased(EchoOuterClass.Echo request);
+    }
+
+    public static final class EchoServiceImpl implements EchoService {
+
+        @Override
+        public EchoOuterClass.Echo echo(EchoOuterClass.Echo request) {
+            return request;
+        }
+
+        @Override
+        public EchoOuterClass.Echo echoWhenReleased(EchoOuterClass.Echo request) {
+            sBlockedLatch.countDown();
+            try {
+                assertTrue(sReleaseLatch.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+            return request;
+        }
+    }
+
+    private static final CountDownLatch sBlockedLatch = new CountDownLatch(1);
+    private static final CountDownLatch sReleaseLatch = new CountDownLatch(1);
+
+    private static byte[] encodeEchoRequest(long messageIdentifier, int size) {
+        return encodeEchoRequest(messageIdentifier, 1, size);
+    }
+
+    private static byte[] encodeEchoRequest(long messageIdentifier, int methodIdentifier, int size) {
+        char[] payload = new char[size];
+        Arrays.fill(payload, 'x');
+
+        WirePacketFormat.WirePacket requestPacket = WirePacketFormat.WirePacket.newBuilder()
+                .setMessageIdentifier(messageIdentifier)
+                .setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_REQUEST)
+                .setServiceIdentifier(WirePacketFormat.ServiceIdentifier.newBuilder()
+                        .setServiceIdentifier(1)
+                        .setMethodIdentifier(methodIdentifier)
+                        .build())
+                .setPayload(EchoOuterClass.Echo.newBuilder().setMessage(new String(payload)).build().toByteString())
+                .build();
+        ByteBuf encodedPacket = RpcMessageCodec.encodePacket(ByteBufAllocator.DEFAULT, requestPacket);
+        byte[] requestBytes = new byte[encodedPacket.readableBytes()];
+        encodedPacket.readBytes(requestBytes);
+        encodedPacket.release();
+        return requestBytes;
+    }
+
+    private static void readResponse(Socket socket) throws Exception {
+        DataInputStream inputStream = new DataInputStream(socket.getInputStream());
+        inputStream.readInt();
+        byte[] responseBytes = new byte[inputStream.readInt()];
+        inputStream.readFully(responseBytes);
+        assertEquals(
+                WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE,
+                WirePacketFormat.WirePacket.parseFrom(responseBytes).getMessageType());
+    }
+
+    private static void waitUntil(RpcInboundMemoryBudget budget, long usedBytes, int suspendedCount) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while(((budget.getUsedBytes() < usedBytes) || (budget.getSuspendedConnectionCount() != suspendedCount))
+                && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void suspendNoisyConnectionTest() throws Exception {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(EchoService.class, EchoServiceImpl.class);
+        builder.setMaxReceivePacketLength(256 * 1024);
+        builder.setInboundMemoryBudget(64 * 1024);
+        ProtobufRpcServer server = builder.build();
+        server.startServer();
+
+        RpcInboundMemoryBudget budget = server.getInboundMemoryBudget();
+        assertNotNull(budget);
+
+        // Two slow connections hold most of the budget with frames which are still being received
+        byte[] slowRequest = encodeEchoRequest(1, 40 * 1024);
+        Socket slowSocket1 = new Socket();
+        slowSocket1.connect(server.getActualLocalAddress());
+        Socket slowSocket2 = new Socket();
+        slowSocket2.connect(server.getActualLocalAddress());
+
+        OutputStream slowStream1 = slowSocket1.getOutputStream();
+        slowStream1.write(slowRequest, 0, slowRequest.length - 1024);
+        slowStream1.flush();
+        OutputStream slowStream2 = slowSocket2.getOutputStream();
+        slowStream2.write(slowRequest, 0, slowRequest.length - 1024);
+        slowStream2.flush();
+
+        waitUntil(budget, 2 * 40 * 1024, 0);
+        assertTrue(budget.getUsedBytes() > budget.getMaxBytes());
+
+        // A connection which keeps sending while the budget is exhausted is stopped at a frame boundary
+        Socket noisySocket = new Socket();
+        noisySocket.connect(server.getActualLocalAddress());
+        OutputStream noisyStream = noisySocket.getOutputStream();
+        final int noisyRequestCount = 8;
+        for(int i = 0; i < noisyRequestCount; i++) {
+            noisyStream.write(encodeEchoRequest(i + 1, 16 * 1024));
+        }
+        noisyStream.flush();
+
+        waitUntil(budget, 0, 1);
+        assertEquals(1, budget.getSuspendedConnectionCount());
+
+        // Completing the slow frames frees the budget and resumes the noisy connection
+        slowStream1.write(slowRequest, slowRequest.length - 1024, 1024);
+        slowStream1.flush();
+        slowStream2.write(slowRequest, slowRequest.length - 1024, 1024);
+        slowStream2.flush();
+
+        readResponse(slowSocket1);
+        readResponse(slowSocket2);
+        for(int i = 0; i < noisyRequestCount; i++) {
+            readResponse(noisySocket);
+        }
+
+        waitUntil(budget, 0, 0);
+        assertEquals(0, budget.getSuspendedConnectionCount());
+        assertEquals(0, budget.getUsedBytes());
+
+        slowSocket1.close();
+        slowSocket2.close();
+        noisySocket.close();
+        server.stopServer();
+    }
+
+    @Test
+    public void queuedRequestTest() throws Exception {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(EchoService.class, EchoServiceImpl.class);
+        builder.setMaxReceivePacketLength(256 * 1024);
+        builder.setInboundMemoryBudget(64 * 1024);
+        builder.setRequestExecutorThreadCount(1);
+        ProtobufRpcServer server = builder.build();
+        server.startServer();
+
+        RpcInboundMemoryBudget budget = server.getInboundMemoryBudget();
+        Socket socket = new Socket();
+        socket.connect(server.getActualLocalAddress());
+        OutputStream outputStream = socket.getOutputStream();
+
+        // The only worker is busy, so the following requests wait in the request queue
+        outputStream.write(encodeEchoRequest(1, 2, 16));
+        outputStream.flush();
+        assertTrue(sBlockedLatch.await(5, TimeUnit.SECONDS));
+
+        final int queuedRequestCount = 8;
+        for(int i = 0; i < queuedRequestCount; i++) {
+            outputStream.write(encodeEchoRequest(i + 2, 16 * 1024));
+        }
+        outputStream.flush();
+
+        // Queued requests stay charged, so the connection is stopped once the budget is exhausted
+        waitUntil(budget, budget.getMaxBytes(), 1);
+        assertEquals(1, budget.getSuspendedConnectionCount());
+        assertTrue(budget.getUsedBytes() > budget.getMaxBytes());
+
+        sReleaseLatch.countDown();
+        for(int i = 0; i < (queuedRequestCount + 1); i++) {
+            readResponse(socket);
+        }
+
+        waitUntil(budget, 0, 0);
+        assertEquals(0, budget.getSuspendedConnectionCount());
+        assertEquals(0, budget.getUsedBytes());
+
+        socket.close();
+        server.stopServer();
+    }
+}
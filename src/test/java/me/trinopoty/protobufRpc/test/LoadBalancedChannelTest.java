@@ -0,0 +1,278 @@
+package me.trinopoty.protobufRpc.test;
+
+import me.trinopoty.protobufRpc.annotation.RpcIdempotent;
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.annotation.RpcRoutingKey;
+import me.trinopoty.protobufRpc.client.*;
+import me.trinopoty.protobufRpc.exception.*;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.util.RpcConcurrencyLimitConfig;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.UnknownHostException;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class LoadBalancedChannelTest {
+
+    @RpcIdentifier(1)
+    public interface NameService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo name(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(2)
+        @RpcRoutingKey("message")
+        EchoOuterClass.Echo keyedName(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(3)
+        @RpcIdempotent
+        EchoOuterClass.Echo hedgedName(EchoOuterClass.Echo request);
+    }
+
+    public static final class NameServiceImplA implements NameService {
+
+        @Override
+        public EchoOuterClass.Echo name(EchoOuterClass.Echo request) {
+            return EchoOuterClass.Echo.newBuilder().setMessage("A").build();
+        }
+
+        @Override
+        public EchoOuterClass.Echo keyedName(EchoOuterClass.Echo request) {
+            return name(request);
+        }
+
+        @Override
+        public EchoOuterClass.Echo hedgedName(EchoOuterClass.Echo request) {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException ignore) {
+            }
+            return name(request);
+        }
+    }
+
+    public static final class NameServiceImplB implements NameService {
+
+        @Override
+        public EchoOuterClass.Echo name(EchoOuterClass.Echo request) {
+            return EchoOuterClass.Echo.newBuilder().setMessage("B").build();
+        }
+
+        @Override
+        public EchoOuterClass.Echo keyedName(EchoOuterClass.Echo request) {
+            return name(request);
+        }
+
+        @Override
+        public EchoOuterClass.Echo hedgedName(EchoOuterClass.Echo request) {
+            return name(request);
+        }
+    }
+
+    private static ProtobufRpcServer sProtobufRpcServerA;
+    private static ProtobufRpcServer sProtobufRpcServerB;
+
+    @BeforeClass
+    public static void setup() throws DuplicateRpcMethodIdentifierException, ServiceConstructorNotFoundException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, UnknownHostException {
+        sProtobufRpcServerA = startServer(NameServiceImplA.class);
+        sProtobufRpcServerB = startServer(NameServiceImplB.class);
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        sProtobufRpcServerA.stopServer();
+        sProtobufRpcServerB.stopServer();
+    }
+
+    @Test
+    public void roundRobinTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(NameService.class).build();
+        ProtobufRpcLoadBalancedChannel channel = client.getLoadBalancedChannel(
+                new RpcLoadBalancedChannelConfig(),
+                Arrays.asList(sProtobufRpcServerA.getActualLocalAddress(), sProtobufRpcServerB.getActualLocalAddress()));
+        NameService nameService = channel.getService(NameService.class);
+
+        Map<String, Integer> callCountMap = callRepeatedly(nameService, 10);
+        assertEquals(Integer.valueOf(5), callCountMap.get("A"));
+        assertEquals(Integer.valueOf(5), callCountMap.get("B"));
+
+        channel.close();
+        client.close();
+    }
+
+    @Test
+    public void weightedTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException {
+        Map<InetSocketAddress, Integer> weightMap = new HashMap<>();
+        weightMap.put(sProtobufRpcServerA.getActualLocalAddress(), 3);
+        weightMap.put(sProtobufRpcServerB.getActualLocalAddress(), 1);
+
+        RpcLoadBalancedChannelConfig config = new RpcLoadBalancedChannelConfig();
+        config.setLoadBalancingPolicy(new WeightedLoadBalancingPolicy(weightMap));
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(NameService.class).build();
+        ProtobufRpcLoadBalancedChannel channel = client.getLoadBalancedChannel(
+                config,
+                Arrays.asList(sProtobufRpcServerA.getActualLocalAddress(), sProtobufRpcServerB.getActualLocalAddress()));
+        NameService nameService = channel.getService(NameService.class);
+
+        Map<String, Integer> callCountMap = callRepeatedly(nameService, 8);
+        assertEquals(Integer.valueOf(6), callCountMap.get("A"));
+        assertEquals(Integer.valueOf(2), callCountMap.get("B"));
+
+        channel.close();
+        client.close();
+    }
+
+    @Test
+    public void deadEndpointTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, IOException {
+        InetSocketAddress deadAddress = getUnusedAddress();
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(NameService.class).build();
+        ProtobufRpcLoadBalancedChannel channel = client.getLoadBalancedChannel(
+                new RpcLoadBalancedChannelConfig(),
+                Arrays.asList(deadAddress, sProtobufRpcServerA.getActualLocalAddress()));
+        NameService nameService = channel.getService(NameService.class);
+
+        assertTrue(channel.isActive());
+        assertFalse(channel.getEndpoints().get(0).isHealthy());
+        assertTrue(channel.getEndpoints().get(1).isHealthy());
+
+        Map<String, Integer> callCountMap = callRepeatedly(nameService, 4);
+        assertEquals(Integer.valueOf(4), callCountMap.get("A"));
+
+        channel.close();
+        client.close();
+    }
+
+    @Test
+    public void consistentHashTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException {
+        RpcLoadBalancedChannelConfig config = new RpcLoadBalancedChannelConfig();
+        config.setLoadBalancingPolicy(new ConsistentHashLoadBalancingPolicy());
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(NameService.class).build();
+        ProtobufRpcLoadBalancedChannel channel = client.getLoadBalancedChannel(
+                config,
+                Arrays.asList(sProtobufRpcServerA.getActualLocalAddress(), sProtobufRpcServerB.getActualLocalAddress()));
+        NameService nameService = channel.getService(NameService.class);
+
+        Set<String> nameSet = new HashSet<>();
+        for(int i = 0; i < 20; i++) {
+            EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage("key-" + i).build();
+            String name = nameService.keyedName(request).getMessage();
+            for(int j = 0; j < 3; j++) {
+                assertEquals(name, nameService.keyedName(request).getMessage());
+            }
+            nameSet.add(name);
+        }
+        assertEquals(2, nameSet.size());
+
+        channel.close();
+        client.close();
+    }
+
+    @Test
+    public void hedgingTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException {
+        RpcHedgingPolicy hedgingPolicy = new RpcHedgingPolicy();
+        hedgingPolicy.setInitialDelayMillis(50);
+        hedgingPolicy.setBudgetRatio(1);
+
+        RpcLoadBalancedChannelConfig config = new RpcLoadBalancedChannelConfig();
+        config.setHedgingPolicy(hedgingPolicy);
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(NameService.class).build();
+        ProtobufRpcLoadBalancedChannel channel = client.getLoadBalancedChannel(
+                config,
+                Arrays.asList(sProtobufRpcServerA.getActualLocalAddress(), sProtobufRpcServerB.getActualLocalAddress()));
+        NameService nameService = channel.getService(NameService.class);
+
+        for(int i = 0; i < 4; i++) {
+            long startTime = System.currentTimeMillis();
+            assertEquals("B", nameService.hedgedName(EchoOuterClass.Echo.getDefaultInstance()).getMessage());
+            assertTrue((System.currentTimeMillis() - startTime) < 250);
+        }
+
+        channel.close();
+        client.close();
+    }
+
+    @Test
+    public void localRejectionTest() throws Exception {
+        RpcConcurrencyLimitConfig concurrencyLimitConfig = new RpcConcurrencyLimitConfig();
+        concurrencyLimitConfig.setInitialLimit(1);
+        concurrencyLimitConfig.setMinLimit(1);
+        concurrencyLimitConfig.setMaxLimit(1);
+
+        RpcLoadBalancedChannelConfig config = new RpcLoadBalancedChannelConfig();
+        config.setEjectionFailureThreshold(2);
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(NameService.class).setConcurrencyLimitConfig(concurrencyLimitConfig).build();
+        ProtobufRpcLoadBalancedChannel channel = client.getLoadBalancedChannel(
+                config,
+                Collections.singletonList(sProtobufRpcServerA.getActualLocalAddress()));
+        final NameService nameService = channel.getService(NameService.class);
+
+        Thread slowCallThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                nameService.hedgedName(EchoOuterClass.Echo.getDefaultInstance());
+            }
+        });
+        slowCallThread.start();
+        Thread.sleep(100);
+
+        // Calls rejected by the local concurrency limit never reached the endpoint
+        for(int i = 0; i < 3; i++) {
+            try {
+                nameService.name(EchoOuterClass.Echo.getDefaultInstance());
+                fail();
+            } catch (RpcConcurrencyLimitException ignore) {
+            }
+        }
+        assertTrue(channel.getEndpoints().get(0).isHealthy());
+
+        slowCallThread.join();
+        assertEquals("A", nameService.name(EchoOuterClass.Echo.getDefaultInstance()).getMessage());
+
+        channel.close();
+        client.close();
+    }
+
+    @SuppressWarnings("Duplicates")
+    private static ProtobufRpcServer startServer(Class<? extends NameService> implClass) throws DuplicateRpcMethodIdentifierException, ServiceConstructorNotFoundException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, UnknownHostException {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(NameService.class, implClass);
+        ProtobufRpcServer server = builder.build();
+
+        server.startServer();
+        return server;
+    }
+
+    private static Map<String, Integer> callRepeatedly(NameService nameService, int count) {
+        Map<String, Integer> callCountMap = new HashMap<>();
+        for(int i = 0; i < count; i++) {
+            String name = nameService.name(EchoOuterClass.Echo.getDefaultInstance()).getMessage();
+            Integer callCount = callCountMap.get(name);
+            callCountMap.put(name, (callCount != null)? callCount + 1 : 1);
+        }
+        return callCountMap;
+    }
+
+    private static InetSocketAddress getUnusedAddress() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"))) {
+            return new InetSocketAddress(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+        }
+    }
+}
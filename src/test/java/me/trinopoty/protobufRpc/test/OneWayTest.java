@@ -0,0 +1,126 @@
+package me.trinopoty.protobufRpc.test;
+
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.annotation.RpcOneWay;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClient;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClientChannel;
+import me.trinopoty.protobufRpc.exception.*;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class OneWayTest {
+
+    @RpcIdentifier(1)
+    public interface EventService {
+
+        @RpcIdentifier(1)
+        @RpcOneWay
+        void record(EchoOuterClass.Echo event);
+
+        @RpcIdentifier(2)
+        @RpcOneWay
+        void recordFail(EchoOuterClass.Echo event);
+
+        @RpcIdentifier(3)
+        EchoOuterClass.Echo echo(EchoOuterClass.Echo request);
+    }
+
+    @RpcIdentifier(2)
+    public interface InvalidOneWayService {
+
+        @RpcIdentifier(1)
+        @RpcOneWay
+        EchoOuterClass.Echo echo(EchoOuterClass.Echo request);
+    }
+
+    private static final BlockingQueue<String> sEventQueue = new LinkedBlockingQueue<>();
+
+    public static final class EventServiceImpl implements EventService {
+
+        @Override
+        public void record(EchoOuterClass.Echo event) {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException ignore) {
+            }
+            sEventQueue.offer(event.getMessage());
+        }
+
+        @Override
+        public void recordFail(EchoOuterClass.Echo event) {
+            throw new IllegalStateException("Expected failure");
+        }
+
+        @Override
+        public EchoOuterClass.Echo echo(EchoOuterClass.Echo request) {
+            return request;
+        }
+    }
+
+    private static ProtobufRpcServer sProtobufRpcServer;
+
+    @BeforeClass
+    public static void setup() throws DuplicateRpcMethodIdentifierException, ServiceConstructorNotFoundException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, UnknownHostException {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(EventService.class, EventServiceImpl.class);
+        sProtobufRpcServer = builder.build();
+
+        sProtobufRpcServer.startServer();
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        sProtobufRpcServer.stopServer();
+    }
+
+    @Test
+    public void oneWayTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(EventService.class).build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        EventService eventService = clientChannel.getService(EventService.class);
+
+        // The call returns without waiting for the server to process it
+        long startTime = System.nanoTime();
+        eventService.record(EchoOuterClass.Echo.newBuilder().setMessage("Event").build());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) < 300);
+
+        assertEquals("Event", sEventQueue.poll(5, TimeUnit.SECONDS));
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void oneWayErrorTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(EventService.class).build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        EventService eventService = clientChannel.getService(EventService.class);
+
+        // Server failures are not reported, and no stray error reaches the following call
+        eventService.recordFail(EchoOuterClass.Echo.getDefaultInstance());
+        assertEquals("Hello", eventService.echo(EchoOuterClass.Echo.newBuilder().setMessage("Hello").build()).getMessage());
+        assertTrue(clientChannel.isActive());
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test(expected = IllegalMethodSignatureException.class)
+    public void invalidOneWayTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException {
+        (new ProtobufRpcClient.Builder()).registerService(InvalidOneWayService.class);
+    }
+}
@@ -0,0 +1,147 @@
+package me.trinopoty.protobufRpc.test;
+
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClient;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClientChannel;
+import me.trinopoty.protobufRpc.exception.*;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServerChannel;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServerChannelGroup;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class OobBroadcastTest {
+
+    @RpcIdentifier(1)
+    public interface EchoService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo echo(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(2)
+        EchoOuterClass.Echo join(EchoOuterClass.Echo request);
+    }
+
+    @RpcIdentifier(2)
+    public interface OobService {
+
+        @RpcIdentifier(1)
+        void oob1(EchoOuterClass.Echo message);
+    }
+
+    public static final class EchoServiceImpl implements EchoService {
+
+        private final ProtobufRpcServerChannel mRpcServerChannel;
+
+        public EchoServiceImpl(ProtobufRpcServerChannel rpcServerChannel) {
+            mRpcServerChannel = rpcServerChannel;
+        }
+
+        @Override
+        public EchoOuterClass.Echo echo(EchoOuterClass.Echo request) {
+            return request;
+        }
+
+        @Override
+        public EchoOuterClass.Echo join(EchoOuterClass.Echo request) {
+            sChannelGroup.add(mRpcServerChannel);
+            return request;
+        }
+    }
+
+    private static final class ClientState {
+
+        final ProtobufRpcClientChannel clientChannel;
+        final EchoService echoService;
+        final AtomicInteger oobCount = new AtomicInteger(0);
+
+        ClientState(ProtobufRpcClientChannel clientChannel) {
+            this.clientChannel = clientChannel;
+            this.echoService = clientChannel.getService(EchoService.class);
+        }
+    }
+
+    private static final EchoOuterClass.Echo MESSAGE = EchoOuterClass.Echo.newBuilder().setMessage("Hello World").build();
+
+    private static ProtobufRpcServer sProtobufRpcServer;
+    private static ProtobufRpcServerChannelGroup sChannelGroup;
+
+    @SuppressWarnings("Duplicates")
+    @BeforeClass
+    public static void setup() throws DuplicateRpcMethodIdentifierException, ServiceConstructorNotFoundException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, UnknownHostException {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(EchoService.class, EchoServiceImpl.class);
+        builder.registerOob(OobService.class);
+        ProtobufRpcServer server = builder.build();
+
+        server.startServer();
+        sProtobufRpcServer = server;
+        sChannelGroup = server.createChannelGroup();
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        sProtobufRpcServer.stopServer();
+    }
+
+    @Test
+    public void broadcastTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(EchoService.class).registerOob(OobService.class).build();
+
+        final CountDownLatch allLatch = new CountDownLatch(3);
+        final CountDownLatch groupLatch = new CountDownLatch(5);
+        ClientState[] clients = new ClientState[3];
+        for(int i = 0; i < clients.length; i++) {
+            final ClientState clientState = new ClientState(client.getClientChannel(sProtobufRpcServer.getActualLocalAddress()));
+            clientState.clientChannel.addOobHandler(OobService.class, new OobService() {
+                @Override
+                public void oob1(EchoOuterClass.Echo message) {
+                    assertEquals(MESSAGE, message);
+                    clientState.oobCount.incrementAndGet();
+                    allLatch.countDown();
+                    groupLatch.countDown();
+                }
+            });
+            clients[i] = clientState;
+        }
+
+        clients[0].echoService.join(MESSAGE);
+        clients[1].echoService.join(MESSAGE);
+        clients[2].echoService.echo(MESSAGE);
+        assertEquals(2, sChannelGroup.size());
+
+        sProtobufRpcServer.getAllChannels().getOobService(OobService.class).oob1(MESSAGE);
+        assertTrue(allLatch.await(5, TimeUnit.SECONDS));
+
+        sChannelGroup.getOobService(OobService.class).oob1(MESSAGE);
+        assertTrue(groupLatch.await(5, TimeUnit.SECONDS));
+
+        assertEquals(2, clients[0].oobCount.get());
+        assertEquals(2, clients[1].oobCount.get());
+        assertEquals(1, clients[2].oobCount.get());
+
+        for(ClientState clientState : clients) {
+            clientState.clientChannel.close();
+        }
+        client.close();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while((sChannelGroup.size() > 0) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, sChannelGroup.size());
+    }
+}
@@ -0,0 +1,269 @@
+package me.trinopoty.protobufRpc.test;
+
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.annotation.RpcPriority;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClient;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClientChannel;
+import me.trinopoty.protobufRpc.client.RpcPriorityScope;
+import me.trinopoty.protobufRpc.exception.RpcCallTimeoutException;
+import me.trinopoty.protobufRpc.exception.RpcServerOverloadedException;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public final class PriorityTest {
+
+    @RpcIdentifier(1)
+    public interface PriorityService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo block(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(2)
+        EchoOuterClass.Echo record(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(3)
+        @RpcPriority(RpcPriority.HIGH)
+        EchoOuterClass.Echo recordUrgent(EchoOuterClass.Echo request);
+    }
+
+    private static final List<String> sExecutedList = Collections.synchronizedList(new ArrayList<String>());
+    private static volatile CountDownLatch sBlockLatch;
+
+    public static final class PriorityServiceImpl implements PriorityService {
+
+        @Override
+        public EchoOuterClass.Echo block(EchoOuterClass.Echo request) {
+            try {
+                sBlockLatch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return request;
+        }
+
+        @Override
+        public EchoOuterClass.Echo record(EchoOuterClass.Echo request) {
+            sExecutedList.add(request.getMessage());
+            return request;
+        }
+
+        @Override
+        public EchoOuterClass.Echo recordUrgent(EchoOuterClass.Echo request) {
+            sExecutedList.add(request.getMessage());
+            return request;
+        }
+    }
+
+    private static ProtobufRpcServer createServer(long priorityAgingMillis) throws Exception {
+        return createServer(priorityAgingMillis, 1024);
+    }
+
+    private static ProtobufRpcServer createServer(long priorityAgingMillis, int maxQueuedRequests) throws Exception {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(PriorityService.class, PriorityServiceImpl.class);
+        builder.setRequestExecutorThreadCount(1);
+        builder.setPriorityAgingMillis(priorityAgingMillis);
+        builder.setMaxQueuedRequests(maxQueuedRequests);
+        ProtobufRpcServer server = builder.build();
+
+        server.startServer();
+        return server;
+    }
+
+    private static ProtobufRpcClient createClient(long receiveTimeoutMillis) throws Exception {
+        return (new ProtobufRpcClient.Builder())
+                .registerService(PriorityService.class)
+                .setDefaultReceiveTimeoutMillis(receiveTimeoutMillis)
+                .build();
+    }
+
+    private static Thread startThread(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.start();
+        return thread;
+    }
+
+    private static Thread startCall(final PriorityService service, final String message, final boolean urgent, final Integer priority) {
+        return startThread(new Runnable() {
+            @Override
+            public void run() {
+                EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage(message).build();
+                if(urgent) {
+                    service.recordUrgent(request);
+                } else if(priority != null) {
+                    try(RpcPriorityScope ignored = RpcPriorityScope.enter(priority)) {
+                        service.record(request);
+                    }
+                } else {
+                    service.record(request);
+                }
+            }
+        });
+    }
+
+    /**
+     * Occupies the only worker thread of the server until the block latch is released.
+     */
+    private static Thread startBlockingCall(final PriorityService service) throws Exception {
+        sBlockLatch = new CountDownLatch(1);
+        Thread thread = startThread(new Runnable() {
+            @Override
+            public void run() {
+                service.block(EchoOuterClass.Echo.getDefaultInstance());
+            }
+        });
+        Thread.sleep(200);
+        return thread;
+    }
+
+    private static void waitForQueuedRequests(ProtobufRpcServer server, int queuedRequestCount) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while((server.getQueuedRequestCount() != queuedRequestCount) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertEquals(queuedRequestCount, server.getQueuedRequestCount());
+    }
+
+    @Test
+    public void priorityOrderTest() throws Exception {
+        sExecutedList.clear();
+        ProtobufRpcServer server = createServer(10000);
+        ProtobufRpcClient client = createClient(10000);
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(server.getActualLocalAddress());
+        PriorityService service = clientChannel.getService(PriorityService.class);
+
+        List<Thread> threadList = new ArrayList<>();
+        threadList.add(startBlockingCall(service));
+
+        // Queued behind the blocking call, in order of arrival
+        threadList.add(startCall(service, "low", false, RpcPriority.LOW));
+        waitForQueuedRequests(server, 1);
+        threadList.add(startCall(service, "normal", false, null));
+        waitForQueuedRequests(server, 2);
+        threadList.add(startCall(service, "urgent", true, null));
+        waitForQueuedRequests(server, 3);
+        // Clamped to the highest priority, so it stays behind the urgent call queued earlier
+        threadList.add(startCall(service, "scoped", false, Integer.MAX_VALUE));
+        waitForQueuedRequests(server, 4);
+
+        sBlockLatch.countDown();
+        for(Thread thread : threadList) {
+            thread.join(10000);
+        }
+        assertEquals(Arrays.asList("urgent", "scoped", "normal", "low"), sExecutedList);
+
+        clientChannel.close();
+        client.close();
+        server.stopServer();
+    }
+
+    @Test
+    public void priorityAgingTest() throws Exception {
+        sExecutedList.clear();
+        ProtobufRpcServer server = createServer(100);
+        ProtobufRpcClient client = createClient(10000);
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(server.getActualLocalAddress());
+        PriorityService service = clientChannel.getService(PriorityService.class);
+
+        List<Thread> threadList = new ArrayList<>();
+        threadList.add(startBlockingCall(service));
+
+        // The low priority call has waited three aging intervals, more than the two levels it is behind
+        threadList.add(startCall(service, "low", false, RpcPriority.LOW));
+        waitForQueuedRequests(server, 1);
+        Thread.sleep(300);
+        threadList.add(startCall(service, "urgent", true, null));
+        waitForQueuedRequests(server, 2);
+
+        sBlockLatch.countDown();
+        for(Thread thread : threadList) {
+            thread.join(10000);
+        }
+        assertEquals(Arrays.asList("low", "urgent"), sExecutedList);
+
+        clientChannel.close();
+        client.close();
+        server.stopServer();
+    }
+
+    @Test
+    public void cancelQueuedRequestTest() throws Exception {
+        sExecutedList.clear();
+        ProtobufRpcServer server = createServer(100);
+        ProtobufRpcClient blockingClient = createClient(10000);
+        ProtobufRpcClientChannel blockingChannel = blockingClient.getClientChannel(server.getActualLocalAddress());
+        Thread blockingThread = startBlockingCall(blockingChannel.getService(PriorityService.class));
+
+        ProtobufRpcClient client = createClient(200);
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(server.getActualLocalAddress());
+        try {
+            clientChannel.getService(PriorityService.class).record(EchoOuterClass.Echo.newBuilder().setMessage("cancelled").build());
+            fail("Call should time out");
+        } catch (RpcCallTimeoutException ignore) {
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while((server.getCancelledRequestCount() == 0) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, server.getCancelledRequestCount());
+
+        // The cancelled call is dropped when its turn comes
+        sBlockLatch.countDown();
+        blockingThread.join(10000);
+        waitForQueuedRequests(server, 0);
+        assertEquals(Collections.<String>emptyList(), sExecutedList);
+
+        clientChannel.close();
+        client.close();
+        blockingChannel.close();
+        blockingClient.close();
+        server.stopServer();
+    }
+
+    @Test
+    public void queueFullTest() throws Exception {
+        sExecutedList.clear();
+        ProtobufRpcServer server = createServer(100, 1);
+        ProtobufRpcClient client = createClient(10000);
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(server.getActualLocalAddress());
+        PriorityService service = clientChannel.getService(PriorityService.class);
+
+        List<Thread> threadList = new ArrayList<>();
+        threadList.add(startBlockingCall(service));
+        threadList.add(startCall(service, "queued", false, null));
+        waitForQueuedRequests(server, 1);
+
+        try {
+            service.record(EchoOuterClass.Echo.newBuilder().setMessage("rejected").build());
+            fail("Call should be rejected");
+        } catch (RpcServerOverloadedException ignore) {
+        }
+        assertEquals(1, server.getRejectedRequestCount());
+        assertEquals(2, server.getInFlightRequestCount());
+
+        sBlockLatch.countDown();
+        for(Thread thread : threadList) {
+            thread.join(10000);
+        }
+        assertEquals(Collections.singletonList("queued"), sExecutedList);
+
+        clientChannel.close();
+        client.close();
+        server.stopServer();
+    }
+}
@@ -0,0 +1,173 @@
+package me.trinopoty.protobufRpc.test;
+
+import io.netty.channel.Channel;
+import me.trinopoty.protobufRpc.DisconnectReason;
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.*;
+import me.trinopoty.protobufRpc.exception.*;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServerChannel;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class ReconnectTest {
+
+    @RpcIdentifier(1)
+    public interface EchoService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo echo(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(2)
+        void disconnect();
+    }
+
+    @RpcIdentifier(2)
+    public interface OobService {
+
+        @RpcIdentifier(1)
+        void oob1(EchoOuterClass.Echo message);
+    }
+
+    public static final class EchoServiceImpl implements EchoService {
+
+        private final ProtobufRpcServerChannel mRpcServerChannel;
+
+        public EchoServiceImpl(ProtobufRpcServerChannel rpcServerChannel) {
+            mRpcServerChannel = rpcServerChannel;
+        }
+
+        @Override
+        public EchoOuterClass.Echo echo(EchoOuterClass.Echo request) {
+            mRpcServerChannel.getOobService(OobService.class).oob1(request);
+            return request;
+        }
+
+        @Override
+        public void disconnect() {
+            try {
+                Field channelField = mRpcServerChannel.getClass().getDeclaredField("mChannel");
+                channelField.setAccessible(true);
+                ((Channel) channelField.get(mRpcServerChannel)).close();
+            } catch (NoSuchFieldException | IllegalAccessException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+
+    private static ProtobufRpcServer sProtobufRpcServer;
+
+    @SuppressWarnings("Duplicates")
+    @BeforeClass
+    public static void setup() throws DuplicateRpcMethodIdentifierException, ServiceConstructorNotFoundException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, UnknownHostException {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(EchoService.class, EchoServiceImpl.class);
+        builder.registerOob(OobService.class);
+        sProtobufRpcServer = builder.build();
+
+        sProtobufRpcServer.startServer();
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        sProtobufRpcServer.stopServer();
+    }
+
+    @Test
+    public void reconnectTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(EchoService.class).registerOob(OobService.class).build();
+
+        RpcReconnectPolicy reconnectPolicy = new RpcReconnectPolicy();
+        reconnectPolicy.setInitialBackoffMillis(10);
+        ProtobufRpcReconnectingChannel clientChannel = client.getReconnectingChannel(reconnectPolicy, sProtobufRpcServer.getActualLocalAddress());
+        EchoService echoService = clientChannel.getService(EchoService.class);
+
+        final AtomicInteger oobCount = new AtomicInteger(0);
+        final AtomicInteger disconnectCount = new AtomicInteger(0);
+        clientChannel.addOobHandler(OobService.class, new OobService() {
+            @Override
+            public void oob1(EchoOuterClass.Echo message) {
+                oobCount.incrementAndGet();
+            }
+        });
+        clientChannel.setChannelDisconnectListener(new ProtobufRpcClientChannelDisconnectListener() {
+            @Override
+            public void channelDisconnected(ProtobufRpcClientChannel channel, DisconnectReason reason) {
+                if(reason != DisconnectReason.CLIENT_CLOSE) {
+                    disconnectCount.incrementAndGet();
+                }
+            }
+        });
+
+        EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage("Hello").build();
+        assertEquals("Hello", echoService.echo(request).getMessage());
+        assertEquals(1, oobCount.get());
+
+        try {
+            echoService.disconnect();
+            fail();
+        } catch (RpcCallException ignore) {
+        }
+
+        assertEquals("Hello", echoService.echo(request).getMessage());
+        assertEquals(2, oobCount.get());
+        assertEquals(1, disconnectCount.get());
+        assertTrue(clientChannel.isActive());
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void unavailableTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, IOException {
+        InetSocketAddress deadAddress;
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"))) {
+            deadAddress = new InetSocketAddress(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+        }
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(EchoService.class).build();
+
+        RpcReconnectPolicy reconnectPolicy = new RpcReconnectPolicy();
+        reconnectPolicy.setMode(RpcReconnectPolicy.Mode.FAIL_FAST);
+        ProtobufRpcReconnectingChannel failFastChannel = client.getReconnectingChannel(reconnectPolicy, deadAddress);
+
+        long startTime = System.currentTimeMillis();
+        try {
+            failFastChannel.getService(EchoService.class).echo(EchoOuterClass.Echo.getDefaultInstance());
+            fail();
+        } catch (RpcChannelUnavailableException ignore) {
+        }
+        assertTrue((System.currentTimeMillis() - startTime) < 50);
+
+        reconnectPolicy.setMode(RpcReconnectPolicy.Mode.QUEUE);
+        reconnectPolicy.setQueueTimeoutMillis(100);
+        ProtobufRpcReconnectingChannel queueChannel = client.getReconnectingChannel(reconnectPolicy, deadAddress);
+
+        startTime = System.currentTimeMillis();
+        try {
+            queueChannel.getService(EchoService.class).echo(EchoOuterClass.Echo.getDefaultInstance());
+            fail();
+        } catch (RpcChannelUnavailableException ignore) {
+        }
+        assertTrue((System.currentTimeMillis() - startTime) >= 100);
+
+        failFastChannel.close();
+        queueChannel.close();
+        client.close();
+    }
+}
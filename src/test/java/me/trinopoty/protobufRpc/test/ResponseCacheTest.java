@@ -0,0 +1,172 @@
+package me.trinopoty.protobufRpc.test;
+
+import me.trinopoty.protobufRpc.annotation.RpcCacheable;
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClient;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClientChannel;
+import me.trinopoty.protobufRpc.exception.*;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import me.trinopoty.protobufRpc.util.RpcResponseCache;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class ResponseCacheTest {
+
+    @RpcIdentifier(1)
+    public interface CountingService {
+
+        @RpcIdentifier(1)
+        @RpcCacheable(ttlMillis = 200)
+        EchoOuterClass.Echo cachedEcho(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(2)
+        EchoOuterClass.Echo echo(EchoOuterClass.Echo request);
+    }
+
+    @RpcIdentifier(2)
+    public interface InvalidCacheableService {
+
+        @RpcIdentifier(1)
+        @RpcCacheable(ttlMillis = 200)
+        void notify(EchoOuterClass.Echo request);
+    }
+
+    private static final AtomicInteger sCallCount = new AtomicInteger(0);
+
+    public static final class CountingServiceImpl implements CountingService {
+
+        @Override
+        public EchoOuterClass.Echo cachedEcho(EchoOuterClass.Echo request) {
+            sCallCount.incrementAndGet();
+            return request;
+        }
+
+        @Override
+        public EchoOuterClass.Echo echo(EchoOuterClass.Echo request) {
+            sCallCount.incrementAndGet();
+            return request;
+        }
+    }
+
+    private static ProtobufRpcServer sProtobufRpcServer;
+
+    @BeforeClass
+    public static void setup() throws DuplicateRpcMethodIdentifierException, ServiceConstructorNotFoundException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, UnknownHostException {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(CountingService.class, CountingServiceImpl.class);
+        sProtobufRpcServer = builder.build();
+
+        sProtobufRpcServer.startServer();
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        sProtobufRpcServer.stopServer();
+    }
+
+    @Before
+    public void resetCallCount() {
+        sCallCount.set(0);
+    }
+
+    @Test
+    public void cacheHitTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(CountingService.class).build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        CountingService countingService = clientChannel.getService(CountingService.class);
+        RpcResponseCache<?> responseCache = client.getResponseCache();
+
+        EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage("Hello").build();
+        for(int i = 0; i < 5; i++) {
+            assertEquals("Hello", countingService.cachedEcho(request).getMessage());
+            assertEquals("Hello", countingService.echo(request).getMessage());
+        }
+        assertEquals(6, sCallCount.get());
+        assertEquals(4, responseCache.getHitCount());
+        assertEquals(1, responseCache.getMissCount());
+
+        EchoOuterClass.Echo otherRequest = EchoOuterClass.Echo.newBuilder().setMessage("World").build();
+        assertEquals("World", countingService.cachedEcho(otherRequest).getMessage());
+        assertEquals(7, sCallCount.get());
+
+        Thread.sleep(250);
+        assertEquals("Hello", countingService.cachedEcho(request).getMessage());
+        assertEquals(8, sCallCount.get());
+        assertEquals(3, responseCache.getMissCount());
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void evictionTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder())
+                .registerService(CountingService.class)
+                .setResponseCacheMaxBytes(1024)
+                .build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        CountingService countingService = clientChannel.getService(CountingService.class);
+        RpcResponseCache<?> responseCache = client.getResponseCache();
+
+        // Read the hot request twice so that it is protected from the scan of one-off requests
+        EchoOuterClass.Echo hotRequest = EchoOuterClass.Echo.newBuilder().setMessage("hot").build();
+        countingService.cachedEcho(hotRequest);
+        countingService.cachedEcho(hotRequest);
+        for(int i = 0; i < 50; i++) {
+            countingService.cachedEcho(EchoOuterClass.Echo.newBuilder().setMessage("cold-" + i).build());
+        }
+        countingService.cachedEcho(hotRequest);
+
+        assertEquals(51, sCallCount.get());
+        assertTrue(responseCache.getEvictionCount() > 0);
+        assertTrue(responseCache.getWeightedSize() <= 1024);
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void serverCacheTest() throws DuplicateRpcMethodIdentifierException, ServiceConstructorNotFoundException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, UnknownHostException {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(CountingService.class, CountingServiceImpl.class);
+        builder.setResponseCacheMaxBytes(1024 * 1024);
+        ProtobufRpcServer server = builder.build();
+        server.startServer();
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder())
+                .registerService(CountingService.class)
+                .setResponseCacheMaxBytes(0)
+                .build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(server.getActualLocalAddress());
+        CountingService countingService = clientChannel.getService(CountingService.class);
+
+        EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage("Hello").build();
+        for(int i = 0; i < 5; i++) {
+            assertEquals("Hello", countingService.cachedEcho(request).getMessage());
+        }
+        assertEquals(1, sCallCount.get());
+        assertEquals(4, server.getResponseCache().getHitCount());
+
+        clientChannel.close();
+        client.close();
+        server.stopServer();
+    }
+
+    @Test(expected = IllegalMethodSignatureException.class)
+    public void invalidCacheableTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException {
+        (new ProtobufRpcClient.Builder()).registerService(InvalidCacheableService.class);
+    }
+}
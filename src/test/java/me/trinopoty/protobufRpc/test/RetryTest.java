@@ -0,0 +1,197 @@
+package me.trinopoty.protobufRpc.test;
+
+import io.netty.channel.Channel;
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.*;
+import me.trinopoty.protobufRpc.exception.*;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServerChannel;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public final class RetryTest {
+
+    @RpcIdentifier(1)
+    public interface FlakyService {
+
+        @RpcIdentifier(1)
+        EchoOuterClass.Echo failTwice(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(2)
+        EchoOuterClass.Echo alwaysFail(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(3)
+        EchoOuterClass.Echo disconnectOnce(EchoOuterClass.Echo request);
+    }
+
+    private static final AtomicInteger sCallCount = new AtomicInteger();
+
+    public static final class FlakyServiceImpl implements FlakyService {
+
+        private final ProtobufRpcServerChannel mRpcServerChannel;
+
+        public FlakyServiceImpl(ProtobufRpcServerChannel rpcServerChannel) {
+            mRpcServerChannel = rpcServerChannel;
+        }
+
+        @Override
+        public EchoOuterClass.Echo failTwice(EchoOuterClass.Echo request) {
+            if(sCallCount.incrementAndGet() <= 2) {
+                throw new IllegalStateException("Flaky failure");
+            }
+            return request;
+        }
+
+        @Override
+        public EchoOuterClass.Echo alwaysFail(EchoOuterClass.Echo request) {
+            sCallCount.incrementAndGet();
+            throw new IllegalStateException("Permanent failure");
+        }
+
+        @Override
+        public EchoOuterClass.Echo disconnectOnce(EchoOuterClass.Echo request) {
+            if(sCallCount.incrementAndGet() == 1) {
+                try {
+                    Field channelField = mRpcServerChannel.getClass().getDeclaredField("mChannel");
+                    channelField.setAccessible(true);
+                    ((Channel) channelField.get(mRpcServerChannel)).close();
+                } catch (NoSuchFieldException | IllegalAccessException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+            return request;
+        }
+    }
+
+    private static ProtobufRpcServer sProtobufRpcServer;
+
+    @BeforeClass
+    public static void setup() throws DuplicateRpcMethodIdentifierException, ServiceConstructorNotFoundException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, UnknownHostException {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.addServiceImplementation(FlakyService.class, FlakyServiceImpl.class);
+        sProtobufRpcServer = builder.build();
+
+        sProtobufRpcServer.startServer();
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        sProtobufRpcServer.stopServer();
+    }
+
+    @Before
+    public void resetCallCount() {
+        sCallCount.set(0);
+    }
+
+    @Test
+    public void serverErrorRetryTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException {
+        RpcRetryPolicy retryPolicy = new RpcRetryPolicy();
+        retryPolicy.setRetryableErrorCategories(RpcRetryPolicy.ErrorCategory.SERVER_ERROR);
+        retryPolicy.setInitialBackoffMillis(10);
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder())
+                .registerService(FlakyService.class)
+                .setDefaultRetryPolicy(retryPolicy)
+                .build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        FlakyService flakyService = clientChannel.getService(FlakyService.class);
+
+        EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage("Hello").build();
+        assertEquals("Hello", flakyService.failTwice(request).getMessage());
+        assertEquals(3, sCallCount.get());
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void retryBudgetTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, NoSuchMethodException {
+        RpcRetryPolicy retryPolicy = new RpcRetryPolicy();
+        retryPolicy.setMaxAttempts(5);
+        retryPolicy.setRetryableErrorCategories(RpcRetryPolicy.ErrorCategory.SERVER_ERROR);
+        retryPolicy.setInitialBackoffMillis(1);
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder())
+                .registerService(FlakyService.class)
+                .setRetryPolicy(FlakyService.class.getMethod("alwaysFail", EchoOuterClass.Echo.class), retryPolicy)
+                .setRetryBudget(0, 2)
+                .build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        FlakyService flakyService = clientChannel.getService(FlakyService.class);
+
+        for(int i = 0; i < 2; i++) {
+            try {
+                flakyService.alwaysFail(EchoOuterClass.Echo.getDefaultInstance());
+                fail();
+            } catch (RpcCallServerException ignore) {
+            }
+        }
+        assertEquals(4, sCallCount.get());
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void closedChannelNoRetryTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException {
+        RpcRetryPolicy retryPolicy = new RpcRetryPolicy();
+        retryPolicy.setRetryableErrorCategories(RpcRetryPolicy.ErrorCategory.CONNECTION_LOST, RpcRetryPolicy.ErrorCategory.UNAVAILABLE);
+        retryPolicy.setInitialBackoffMillis(10);
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder())
+                .registerService(FlakyService.class)
+                .setDefaultRetryPolicy(retryPolicy)
+                .build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        FlakyService flakyService = clientChannel.getService(FlakyService.class);
+
+        try {
+            flakyService.disconnectOnce(EchoOuterClass.Echo.newBuilder().setMessage("Hello").build());
+            fail();
+        } catch (RpcChannelClosedException ignore) {
+        }
+        assertEquals(1, sCallCount.get());
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void poolReconnectTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, IOException {
+        RpcRetryPolicy retryPolicy = new RpcRetryPolicy();
+        retryPolicy.setRetryableErrorCategories(RpcRetryPolicy.ErrorCategory.CONNECTION_LOST, RpcRetryPolicy.ErrorCategory.UNAVAILABLE);
+        retryPolicy.setInitialBackoffMillis(10);
+
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder())
+                .registerService(FlakyService.class)
+                .setDefaultRetryPolicy(retryPolicy)
+                .build();
+        ProtobufRpcClientChannelPool clientChannelPool = client.getClientChannelPool(new RpcClientChannelPoolConfig(), sProtobufRpcServer.getActualLocalAddress());
+
+        ProtobufRpcClientChannel clientChannel = clientChannelPool.getResource();
+        FlakyService flakyService = clientChannel.getService(FlakyService.class);
+
+        EchoOuterClass.Echo request = EchoOuterClass.Echo.newBuilder().setMessage("Hello").build();
+        assertEquals("Hello", flakyService.disconnectOnce(request).getMessage());
+        assertEquals(2, sCallCount.get());
+
+        clientChannel.close();
+        clientChannelPool.close();
+        client.close();
+    }
+}
@@ -0,0 +1,475 @@
+package me.trinopoty.protobufRpc.test;
+
+import me.trinopoty.protobufRpc.RpcStreamObserver;
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClient;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClientChannel;
+import me.trinopoty.protobufRpc.client.RpcResponseStream;
+import me.trinopoty.protobufRpc.exception.*;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public final class StreamingTest {
+
+    @RpcIdentifier(1)
+    public interface CountService {
+
+        @RpcIdentifier(1)
+        Iterator<EchoOuterClass.Echo> count(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(2)
+        Iterator<EchoOuterClass.Echo> countAndFail(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(3)
+        RpcStreamObserver<EchoOuterClass.Echo> collect(RpcStreamObserver<EchoOuterClass.Echo> responseObserver);
+
+        @RpcIdentifier(4)
+        RpcStreamObserver<EchoOuterClass.Echo> echoStream(RpcStreamObserver<EchoOuterClass.Echo> responseObserver);
+
+        @RpcIdentifier(5)
+        Iterator<EchoOuterClass.Echo> countWhenReleased(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(6)
+        EchoOuterClass.Echo echo(EchoOuterClass.Echo request);
+
+        @RpcIdentifier(7)
+        RpcStreamObserver<EchoOuterClass.Echo> collectWhenReleased(RpcStreamObserver<EchoOuterClass.Echo> responseObserver);
+    }
+
+    private static final AtomicInteger sProducedCount = new AtomicInteger(0);
+    private static volatile CountDownLatch sClosedLatch;
+    private static volatile Throwable sRequestStreamError;
+    private static volatile CountDownLatch sPullingLatch;
+    private static volatile CountDownLatch sReleaseLatch;
+
+    /**
+     * Collects the responses of a streaming call on the client.
+     */
+    private static final class CollectingObserver implements RpcStreamObserver<EchoOuterClass.Echo> {
+
+        private final List<String> mMessageList = Collections.synchronizedList(new ArrayList<String>());
+        private final CountDownLatch mDoneLatch = new CountDownLatch(1);
+        private volatile Throwable mError = null;
+
+        @Override
+        public void onNext(EchoOuterClass.Echo message) {
+            mMessageList.add(message.getMessage());
+        }
+
+        @Override
+        public void onError(Throwable cause) {
+            mError = cause;
+            mDoneLatch.countDown();
+        }
+
+        @Override
+        public void onCompleted() {
+            mDoneLatch.countDown();
+        }
+    }
+
+    /**
+     * Produces the numbers up to the limit lazily, and fails instead of producing the element at the failure index.
+     */
+    private static final class CountIterator implements Iterator<EchoOuterClass.Echo>, Closeable {
+
+        private final int mLimit;
+        private final int mFailIndex;
+        private int mIndex = 0;
+
+        CountIterator(int limit, int failIndex) {
+            mLimit = limit;
+            mFailIndex = failIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return mIndex < mLimit;
+        }
+
+        @Override
+        public EchoOuterClass.Echo next() {
+            if(mIndex == mFailIndex) {
+                throw new IllegalStateException("Expected failure");
+            }
+            if(mIndex >= mLimit) {
+                throw new NoSuchElementException();
+            }
+
+            sProducedCount.incrementAndGet();
+            return EchoOuterClass.Echo.newBuilder().setMessage(Integer.toString(mIndex++)).build();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+
+        @Override
+        public void close() {
+            sClosedLatch.countDown();
+        }
+    }
+
+    /**
+     * Blocks before producing the first element until the release latch is counted down.
+     */
+    private static final class ReleasedIterator implements Iterator<EchoOuterClass.Echo> {
+
+        private final CountIterator mCountIterator;
+        private boolean mReleased = false;
+
+        ReleasedIterator(int limit) {
+            mCountIterator = new CountIterator(limit, -1);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if(!mReleased) {
+                sPullingLatch.countDown();
+                try {
+                    mReleased = sReleaseLatch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+            return mCountIterator.hasNext();
+        }
+
+        @Override
+        public EchoOuterClass.Echo next() {
+            return mCountIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+    }
+
+    public static final class CountServiceImpl implements CountService {
+
+        @Override
+        public Iterator<EchoOuterClass.Echo> count(EchoOuterClass.Echo request) {
+            return new CountIterator(Integer.parseInt(request.getMessage()), -1);
+        }
+
+        @Override
+        public Iterator<EchoOuterClass.Echo> countAndFail(EchoOuterClass.Echo request) {
+            return new CountIterator(Integer.MAX_VALUE, Integer.parseInt(request.getMessage()));
+        }
+
+        @Override
+        public RpcStreamObserver<EchoOuterClass.Echo> collect(final RpcStreamObserver<EchoOuterClass.Echo> responseObserver) {
+            return new RpcStreamObserver<EchoOuterClass.Echo>() {
+
+                private int mCount = 0;
+
+                @Override
+                public void onNext(EchoOuterClass.Echo message) {
+                    assertEquals(Integer.toString(mCount++), message.getMessage());
+                }
+
+                @Override
+                public void onError(Throwable cause) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onNext(EchoOuterClass.Echo.newBuilder().setMessage(Integer.toString(mCount)).build());
+                    responseObserver.onCompleted();
+                }
+            };
+        }
+
+        @Override
+        public RpcStreamObserver<EchoOuterClass.Echo> echoStream(final RpcStreamObserver<EchoOuterClass.Echo> responseObserver) {
+            return new RpcStreamObserver<EchoOuterClass.Echo>() {
+                @Override
+                public void onNext(EchoOuterClass.Echo message) {
+                    responseObserver.onNext(message);
+                }
+
+                @Override
+                public void onError(Throwable cause) {
+                    sRequestStreamError = cause;
+                    sClosedLatch.countDown();
+                }
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onCompleted();
+                }
+            };
+        }
+
+        @Override
+        public Iterator<EchoOuterClass.Echo> countWhenReleased(EchoOuterClass.Echo request) {
+            return new ReleasedIterator(Integer.parseInt(request.getMessage()));
+        }
+
+        @Override
+        public EchoOuterClass.Echo echo(EchoOuterClass.Echo request) {
+            return request;
+        }
+
+        @Override
+        public RpcStreamObserver<EchoOuterClass.Echo> collectWhenReleased(RpcStreamObserver<EchoOuterClass.Echo> responseObserver) {
+            sPullingLatch.countDown();
+            try {
+                assertTrue(sReleaseLatch.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+            return collect(responseObserver);
+        }
+    }
+
+    private static ProtobufRpcServer sProtobufRpcServer;
+
+    private static ProtobufRpcServer createExecutorServer() throws DuplicateRpcMethodIdentifierException, ServiceConstructorNotFoundException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, UnknownHostException {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.setStreamWindowSize(4);
+        builder.setRequestExecutorThreadCount(2);
+        builder.addServiceImplementation(CountService.class, CountServiceImpl.class);
+        ProtobufRpcServer server = builder.build();
+
+        server.startServer();
+        return server;
+    }
+
+    @BeforeClass
+    public static void setup() throws DuplicateRpcMethodIdentifierException, ServiceConstructorNotFoundException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, UnknownHostException {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.setStreamWindowSize(4);
+        builder.addServiceImplementation(CountService.class, CountServiceImpl.class);
+        sProtobufRpcServer = builder.build();
+
+        sProtobufRpcServer.startServer();
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        sProtobufRpcServer.stopServer();
+    }
+
+    @Before
+    public void reset() {
+        sProducedCount.set(0);
+        sClosedLatch = new CountDownLatch(1);
+        sRequestStreamError = null;
+        sPullingLatch = new CountDownLatch(1);
+        sReleaseLatch = new CountDownLatch(1);
+    }
+
+    @Test
+    public void streamTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(CountService.class).setStreamWindowSize(16).build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        CountService countService = clientChannel.getService(CountService.class);
+
+        Iterator<EchoOuterClass.Echo> iterator = countService.count(EchoOuterClass.Echo.newBuilder().setMessage("1000").build());
+        int count = 0;
+        while(iterator.hasNext()) {
+            assertEquals(Integer.toString(count++), iterator.next().getMessage());
+        }
+        assertEquals(1000, count);
+        assertFalse(iterator.hasNext());
+        assertTrue(sClosedLatch.await(5, TimeUnit.SECONDS));
+
+        // The channel remains usable for further calls
+        assertFalse(countService.count(EchoOuterClass.Echo.newBuilder().setMessage("0").build()).hasNext());
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void flowControlTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(CountService.class).setStreamWindowSize(8).build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        CountService countService = clientChannel.getService(CountService.class);
+
+        Iterator<EchoOuterClass.Echo> iterator = countService.count(EchoOuterClass.Echo.newBuilder().setMessage("1000").build());
+        assertEquals("0", iterator.next().getMessage());
+        Thread.sleep(300);
+
+        // The server produces no more than the window before the client consumes the elements
+        assertTrue(sProducedCount.get() <= 8);
+
+        // Closing the stream early releases the iterator on the server
+        ((RpcResponseStream) iterator).close();
+        assertTrue(sClosedLatch.await(5, TimeUnit.SECONDS));
+        assertFalse(iterator.hasNext());
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void streamErrorTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(CountService.class).build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        CountService countService = clientChannel.getService(CountService.class);
+
+        Iterator<EchoOuterClass.Echo> iterator = countService.countAndFail(EchoOuterClass.Echo.newBuilder().setMessage("5").build());
+        int count = 0;
+        try {
+            while(iterator.hasNext()) {
+                iterator.next();
+                count++;
+            }
+            fail("Stream did not fail.");
+        } catch (RpcCallServerException ignore) {
+        }
+        assertEquals(5, count);
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void clientStreamTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(CountService.class).build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        CountService countService = clientChannel.getService(CountService.class);
+
+        // The server window of 4 messages is much smaller than the upload
+        CollectingObserver responseObserver = new CollectingObserver();
+        RpcStreamObserver<EchoOuterClass.Echo> requestObserver = countService.collect(responseObserver);
+        for(int i = 0; i < 1000; i++) {
+            requestObserver.onNext(EchoOuterClass.Echo.newBuilder().setMessage(Integer.toString(i)).build());
+        }
+        requestObserver.onCompleted();
+
+        assertTrue(responseObserver.mDoneLatch.await(5, TimeUnit.SECONDS));
+        assertNull(responseObserver.mError);
+        assertEquals(Collections.singletonList("1000"), responseObserver.mMessageList);
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void bidiStreamTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(CountService.class).setStreamWindowSize(8).build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        CountService countService = clientChannel.getService(CountService.class);
+
+        CollectingObserver responseObserver = new CollectingObserver();
+        RpcStreamObserver<EchoOuterClass.Echo> requestObserver = countService.echoStream(responseObserver);
+        List<String> expectedList = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            expectedList.add(Integer.toString(i));
+            requestObserver.onNext(EchoOuterClass.Echo.newBuilder().setMessage(Integer.toString(i)).build());
+        }
+        requestObserver.onCompleted();
+
+        assertTrue(responseObserver.mDoneLatch.await(5, TimeUnit.SECONDS));
+        assertNull(responseObserver.mError);
+        assertEquals(expectedList, responseObserver.mMessageList);
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void cancelStreamTest() throws DuplicateRpcMethodIdentifierException, MissingRpcIdentifierException, DuplicateRpcServiceIdentifierException, IllegalMethodSignatureException, InterruptedException {
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(CountService.class).build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(sProtobufRpcServer.getActualLocalAddress());
+        CountService countService = clientChannel.getService(CountService.class);
+
+        CollectingObserver responseObserver = new CollectingObserver();
+        RpcStreamObserver<EchoOuterClass.Echo> requestObserver = countService.echoStream(responseObserver);
+        requestObserver.onNext(EchoOuterClass.Echo.newBuilder().setMessage("Hello").build());
+        requestObserver.onError(new IllegalStateException("Cancelled"));
+
+        // The server implementation learns about the cancellation
+        assertTrue(sClosedLatch.await(5, TimeUnit.SECONDS));
+        assertNotNull(sRequestStreamError);
+
+        try {
+            requestObserver.onNext(EchoOuterClass.Echo.newBuilder().setMessage("Hello").build());
+            fail("Message sent on cancelled stream.");
+        } catch (RpcCallException ignore) {
+        }
+
+        clientChannel.close();
+        client.close();
+    }
+
+    @Test
+    public void blockingStreamTest() throws Exception {
+        ProtobufRpcServer server = createExecutorServer();
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(CountService.class).build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(server.getActualLocalAddress());
+        CountService countService = clientChannel.getService(CountService.class);
+
+        Iterator<EchoOuterClass.Echo> iterator = countService.countWhenReleased(EchoOuterClass.Echo.newBuilder().setMessage("10").build());
+        assertTrue(sPullingLatch.await(5, TimeUnit.SECONDS));
+
+        // The blocked iterator does not hold up other calls on the same connection
+        assertEquals("Hello", countService.echo(EchoOuterClass.Echo.newBuilder().setMessage("Hello").build()).getMessage());
+
+        sReleaseLatch.countDown();
+        int count = 0;
+        while(iterator.hasNext()) {
+            assertEquals(Integer.toString(count++), iterator.next().getMessage());
+        }
+        assertEquals(10, count);
+
+        clientChannel.close();
+        client.close();
+        server.stopServer();
+    }
+
+    @Test
+    public void blockingCallStreamStartTest() throws Exception {
+        ProtobufRpcServer server = createExecutorServer();
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerService(CountService.class).build();
+        ProtobufRpcClientChannel clientChannel = client.getClientChannel(server.getActualLocalAddress());
+        CountService countService = clientChannel.getService(CountService.class);
+
+        CollectingObserver responseObserver = new CollectingObserver();
+        RpcStreamObserver<EchoOuterClass.Echo> requestObserver = countService.collectWhenReleased(responseObserver);
+        assertTrue(sPullingLatch.await(5, TimeUnit.SECONDS));
+
+        // The blocked service method does not hold up other calls on the same connection
+        assertEquals("Hello", countService.echo(EchoOuterClass.Echo.newBuilder().setMessage("Hello").build()).getMessage());
+
+        sReleaseLatch.countDown();
+        for(int i = 0; i < 10; i++) {
+            requestObserver.onNext(EchoOuterClass.Echo.newBuilder().setMessage(Integer.toString(i)).build());
+        }
+        requestObserver.onCompleted();
+
+        assertTrue(responseObserver.mDoneLatch.await(5, TimeUnit.SECONDS));
+        assertNull(responseObserver.mError);
+        assertEquals(Collections.singletonList("10"), responseObserver.mMessageList);
+
+        clientChannel.close();
+        client.close();
+        server.stopServer();
+    }
+}
@@ -0,0 +1,179 @@
+package me.trinopoty.protobufRpc.test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import me.trinopoty.protobufRpc.DisconnectReason;
+import me.trinopoty.protobufRpc.RpcTopicService;
+import me.trinopoty.protobufRpc.annotation.RpcIdentifier;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClient;
+import me.trinopoty.protobufRpc.client.ProtobufRpcClientChannel;
+import me.trinopoty.protobufRpc.codec.RpcMessageCodec;
+import me.trinopoty.protobufRpc.codec.WirePacketFormat;
+import me.trinopoty.protobufRpc.exception.*;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServer;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServerChannel;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServerChannelDisconnectListener;
+import me.trinopoty.protobufRpc.server.ProtobufRpcServerTopic;
+import me.trinopoty.protobufRpc.server.RpcSlowConsumerPolicy;
+import me.trinopoty.protobufRpc.test.proto.EchoOuterClass;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class TopicTest {
+
+    @RpcIdentifier(2)
+    public interface OobService {
+
+        @RpcIdentifier(1)
+        void oob1(EchoOuterClass.Echo message);
+    }
+
+    private static final EchoOuterClass.Echo MESSAGE = EchoOuterClass.Echo.newBuilder().setMessage("Hello World").build();
+
+    private static ProtobufRpcServer createServer(int topicQueueSize, RpcSlowConsumerPolicy slowConsumerPolicy) throws Exception {
+        ProtobufRpcServer.Builder builder = new ProtobufRpcServer.Builder();
+        builder.setLocalAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        builder.registerOob(OobService.class);
+        builder.setTopicQueueSize(topicQueueSize);
+        builder.setSlowConsumerPolicy(slowConsumerPolicy);
+        ProtobufRpcServer server = builder.build();
+
+        server.startServer();
+        return server;
+    }
+
+    private static WirePacketFormat.TopicSubscription subscription(String topic) {
+        return WirePacketFormat.TopicSubscription.newBuilder().setTopic(topic).build();
+    }
+
+    @Test
+    public void publishSubscribeTest() throws Exception {
+        ProtobufRpcServer server = createServer(1024, RpcSlowConsumerPolicy.DROP_OLDEST);
+        ProtobufRpcClient client = (new ProtobufRpcClient.Builder()).registerOob(OobService.class).build();
+
+        final AtomicInteger countA = new AtomicInteger(0);
+        final AtomicInteger countB = new AtomicInteger(0);
+        final CountDownLatch latch = new CountDownLatch(2);
+
+        ProtobufRpcClientChannel channelA = client.getClientChannel(server.getActualLocalAddress());
+        channelA.addOobHandler(OobService.class, new OobService() {
+            @Override
+            public void oob1(EchoOuterClass.Echo message) {
+                assertEquals(MESSAGE, message);
+                countA.incrementAndGet();
+                latch.countDown();
+            }
+        });
+        ProtobufRpcClientChannel channelB = client.getClientChannel(server.getActualLocalAddress());
+        channelB.addOobHandler(OobService.class, new OobService() {
+            @Override
+            public void oob1(EchoOuterClass.Echo message) {
+                assertEquals(MESSAGE, message);
+                countB.incrementAndGet();
+                latch.countDown();
+            }
+        });
+
+        channelA.getService(RpcTopicService.class).subscribe(subscription("a"));
+        channelB.getService(RpcTopicService.class).subscribe(subscription("a"));
+        channelB.getService(RpcTopicService.class).subscribe(subscription("b"));
+
+        ProtobufRpcServerTopic topicA = server.getTopic("a");
+        ProtobufRpcServerTopic topicB = server.getTopic("b");
+        assertEquals(2, topicA.getSubscriberCount());
+        assertEquals(1, topicB.getSubscriberCount());
+
+        topicB.getOobService(OobService.class).oob1(MESSAGE);
+        channelB.getService(RpcTopicService.class).unsubscribe(subscription("a"));
+        assertEquals(1, topicA.getSubscriberCount());
+        topicA.getOobService(OobService.class).oob1(MESSAGE);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, countA.get());
+        assertEquals(1, countB.get());
+
+        channelA.close();
+        channelB.close();
+        client.close();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while(((topicA.getSubscriberCount() > 0) || (topicB.getSubscriberCount() > 0)) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, topicA.getSubscriberCount());
+        assertEquals(0, topicB.getSubscriberCount());
+
+        server.stopServer();
+    }
+
+    @Test
+    public void slowConsumerDisconnectTest() throws Exception {
+        ProtobufRpcServer server = createServer(16, RpcSlowConsumerPolicy.DISCONNECT);
+
+        final AtomicReference<DisconnectReason> disconnectReason = new AtomicReference<>();
+        final CountDownLatch disconnectLatch = new CountDownLatch(1);
+        server.setChannelDisconnectListener(new ProtobufRpcServerChannelDisconnectListener() {
+            @Override
+            public void channelDisconnected(ProtobufRpcServerChannel channel, DisconnectReason reason) {
+                disconnectReason.set(reason);
+                disconnectLatch.countDown();
+            }
+        });
+
+        // A client which subscribes and then stops reading
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(4096);
+        socket.connect(server.getActualLocalAddress());
+
+        WirePacketFormat.WirePacket requestPacket = WirePacketFormat.WirePacket.newBuilder()
+                .setMessageIdentifier(1)
+                .setMessageType(WirePacketFormat.MessageType.MESSAGE_TYPE_REQUEST)
+                .setServiceIdentifier(WirePacketFormat.ServiceIdentifier.newBuilder()
+                        .setServiceIdentifier(RpcTopicService.SERVICE_IDENTIFIER)
+                        .setMethodIdentifier(1)
+                        .build())
+                .setPayload(subscription("slow").toByteString())
+                .build();
+        ByteBuf encodedPacket = RpcMessageCodec.encodePacket(ByteBufAllocator.DEFAULT, requestPacket);
+        byte[] requestBytes = new byte[encodedPacket.readableBytes()];
+        encodedPacket.readBytes(requestBytes);
+        encodedPacket.release();
+        socket.getOutputStream().write(requestBytes);
+        socket.getOutputStream().flush();
+
+        DataInputStream inputStream = new DataInputStream(socket.getInputStream());
+        inputStream.readInt();
+        byte[] responseBytes = new byte[inputStream.readInt()];
+        inputStream.readFully(responseBytes);
+        assertEquals(WirePacketFormat.MessageType.MESSAGE_TYPE_RESPONSE, WirePacketFormat.WirePacket.parseFrom(responseBytes).getMessageType());
+
+        char[] payload = new char[16 * 1024];
+        Arrays.fill(payload, 'x');
+        EchoOuterClass.Echo largeMessage = EchoOuterClass.Echo.newBuilder().setMessage(new String(payload)).build();
+
+        ProtobufRpcServerTopic topic = server.getTopic("slow");
+        OobService publisher = topic.getOobService(OobService.class);
+        for(int i = 0; (i < 10000) && (disconnectLatch.getCount() > 0); i++) {
+            publisher.oob1(largeMessage);
+        }
+
+        assertTrue(disconnectLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(DisconnectReason.SLOW_CONSUMER, disconnectReason.get());
+        assertEquals(0, topic.getSubscriberCount());
+
+        socket.close();
+        server.stopServer();
+    }
+}